@@ -1,12 +1,68 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import videogameCollection.GameGenre;
+import videogameCollection.LibraryStatistics;
+import videogameCollection.Leaderboard;
+import videogameCollection.Leaderboards;
 import videogameCollection.GamePlatform;
 import videogameCollection.UserProfile;
 import videogameCollection.game.AbstractGame;
 import videogameCollection.game.Multiplayer;
+import videogameCollection.game.RecentForm;
 import videogameCollection.game.SinglePlayer;
 import videogameCollection.GameLibrary;
+import videogameCollection.CollectionService;
+import videogameCollection.JsonUtil;
+import videogameCollection.ProfileStore;
+import videogameCollection.PageSource;
+import videogameCollection.Pager;
+import videogameCollection.ProgressHistory;
+import videogameCollection.QueryCache;
+import videogameCollection.Recommender;
+import videogameCollection.ReviewIndex;
+import videogameCollection.ReviewStore;
+import videogameCollection.StoredProfile;
+import videogameCollection.DataGenerator;
+import videogameCollection.DataManager;
+import videogameCollection.DirtySegments;
+import videogameCollection.storage.BlockCompressedInputStream;
+import videogameCollection.storage.BlockCompressedOutputStream;
+import videogameCollection.storage.CatalogLoad;
+import videogameCollection.storage.CheckpointScheduler;
+import videogameCollection.storage.ChunkedStorageEngine;
+import videogameCollection.storage.InMemoryStorageEngine;
+import videogameCollection.storage.IndexedStorageEngine;
+import videogameCollection.storage.LsmStorageEngine;
+import videogameCollection.storage.LsmStore;
+import videogameCollection.storage.SegmentedStorageEngine;
+import videogameCollection.storage.SerializationStorageEngine;
+import videogameCollection.storage.StorageEngine;
+import videogameCollection.batch.BatchRunner;
+import videogameCollection.batch.MatchIngestor;
+import videogameCollection.server.BinaryProtocol;
+import videogameCollection.server.BinaryProtocolClient;
+import videogameCollection.server.BinaryProtocolServer;
 
 /**
  * Unit tests for the Video Game Collection application.
@@ -29,6 +85,30 @@ public class VideoGameCollectionTest {
         testMultiplayer();
         testUserProfile();
         testGameLibrary();
+        testConcurrentUserProfile();
+        testCollectionService();
+        testBatchRunner();
+        testBinaryProtocol();
+        testProfileStore();
+        testStorageEngines();
+        testLazyCatalogLoad();
+        testChunkedStorage();
+        testCompressedStorage();
+        testSegmentedStorage();
+        testCheckpointRecovery();
+        testReviewStore();
+        testReviewSearch();
+        testRecommender();
+        testLibraryStatistics();
+        testProgressHistory();
+        testTypedProgress();
+        testMatchIngestion();
+        testLeaderboards();
+        testRecentForm();
+        testQueryCache();
+        testGameDescriptions();
+        testPager();
+        testDataGenerator();
 
         System.out.println("\nAll tests completed!");
     }
@@ -347,4 +427,1728 @@ public class VideoGameCollectionTest {
 
         System.out.println("GameLibrary tests passed!");
     }
+
+    /**
+     * Tests that UserProfile and game progress stay consistent under concurrent updates.
+     */
+    private static void testConcurrentUserProfile() {
+        System.out.println("\n=== Testing Concurrent UserProfile ===");
+
+        UserProfile profile = new UserProfile("ConcurrentUser", GamePlatform.PC);
+        final int threads = 8;
+        final int gamesPerThread = 200;
+        List<List<AbstractGame>> partitions = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<AbstractGame> games = new ArrayList<>();
+            for (int i = 0; i < gamesPerThread; i++) {
+                games.add(new SinglePlayer("Game " + t + "-" + i, GameGenre.ACTION, GamePlatform.PC, 2020, "Dev", 10));
+            }
+            partitions.add(games);
+        }
+
+        // Each thread adds, rates and reviews its own games; every third game is removed again
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            List<AbstractGame> games = partitions.get(t);
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < games.size(); i++) {
+                    AbstractGame game = games.get(i);
+                    profile.addGame(game);
+                    profile.rateGame(game, 1 + (i % 5));
+                    profile.reviewGame(game, "Review " + i);
+                    if (i % 3 == 0) {
+                        profile.removeGame(game);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        joinAll(workers);
+
+        int expectedOwned = threads * (gamesPerThread - (gamesPerThread + 2) / 3);
+        assert profile.getGamesOwned().size() == expectedOwned : "Concurrent add/remove lost updates";
+        assert profile.getGameRatings().size() == expectedOwned : "Ratings left behind for removed games";
+        assert profile.getGameReviews().size() == expectedOwned : "Reviews left behind for removed games";
+
+        // Concurrent win/loss updates must never expose a torn record
+        Multiplayer game = new Multiplayer("Shared", GameGenre.SHOOTER, GamePlatform.PC, 2020, "Dev");
+        boolean[] torn = new boolean[1];
+        Thread[] updaters = new Thread[4];
+        for (int t = 0; t < updaters.length; t++) {
+            updaters[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    game.updateProgress(i + "/" + i);
+                    // Every record written is i/i, so any rate but 0 (for 0/0) or 50 means a torn pair
+                    double rate = game.getWinRate();
+                    if (rate != 0.0 && Math.abs(rate - 50.0) > 0.001) {
+                        torn[0] = true;
+                    }
+                }
+            });
+            updaters[t].start();
+        }
+        joinAll(updaters);
+        assert !torn[0] : "Observed inconsistent wins/losses pair";
+
+        System.out.println("Concurrent UserProfile tests passed!");
+    }
+
+    /**
+     * Waits for all the given threads to finish.
+     *
+     * @param threads The threads to join
+     */
+    private static void joinAll(Thread[] threads) {
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for test threads", e);
+            }
+        }
+    }
+
+    /**
+     * Tests the non-interactive CollectionService and JSON helpers.
+     */
+    private static void testCollectionService() {
+        System.out.println("\n=== Testing CollectionService ===");
+
+        GameLibrary.setGames(new ArrayList<>());
+        CollectionService service = new CollectionService(new UserProfile("ServiceUser", GamePlatform.PC));
+
+        AbstractGame single = service.addGame("single", "Service Quest", "Role-Playing", "PC", 2015, "Dev", 20);
+        AbstractGame multi = service.addGame("multiplayer", "Service Arena", "Shooter", "PC", 2019, "Dev", 0);
+        assert single.getId() > 0 && multi.getId() > single.getId() : "Games should get increasing IDs";
+        assert GameLibrary.findById(single.getId()) == single : "findById() failed";
+
+        service.rate(single.getId(), 4);
+        service.review(single.getId(), "Solid \"quest\"");
+        service.updateProgress(multi.getId(), "3/1");
+        assert ((Multiplayer) multi).getWins() == 3 : "updateProgress() by ID failed";
+        assert service.search("title", "service").size() == 2 : "search() failed";
+        assert service.sort("rating", false).get(0) == single : "sort() failed";
+
+        Map<String, Object> json = JsonUtil.parseObject(JsonUtil.toJson(single, service.getProfile()));
+        assert JsonUtil.getInt(json, "id") == single.getId() : "JSON id round trip failed";
+        assert JsonUtil.getString(json, "review").equals("Solid \"quest\"") : "JSON string escaping failed";
+        assert JsonUtil.getInt(json, "rating") == 4 : "JSON rating round trip failed";
+
+        service.remove(multi.getId());
+        assert GameLibrary.findById(multi.getId()) == null : "remove() should drop the game from the library";
+        try {
+            service.getGame(multi.getId());
+            assert false : "Should throw exception for removed game";
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+
+        // Linking a loaded profile replaces the library's stale copy of an owned game
+        SinglePlayer libraryCopy = new SinglePlayer("Linked", GameGenre.PUZZLE, GamePlatform.PC, 2010, "Dev", 5);
+        SinglePlayer profileCopy = new SinglePlayer("Linked", GameGenre.PUZZLE, GamePlatform.PC, 2010, "Dev", 5);
+        GameLibrary.setGames(List.of(libraryCopy));
+        UserProfile loaded = new UserProfile("Loaded", GamePlatform.PC);
+        loaded.addGame(profileCopy);
+        GameLibrary.linkProfile(loaded);
+        assert GameLibrary.getGames().size() == 1 && GameLibrary.getGames().get(0) == profileCopy : "linkProfile() failed";
+        assert profileCopy.getId() == libraryCopy.getId() : "linkProfile() should keep the catalog ID";
+
+        System.out.println("CollectionService tests passed!");
+    }
+
+    /**
+     * Tests the non-interactive batch command mode.
+     */
+    private static void testBatchRunner() {
+        System.out.println("\n=== Testing BatchRunner ===");
+
+        GameLibrary.setGames(new ArrayList<>());
+        CollectionService service = new CollectionService(new UserProfile("BatchUser", GamePlatform.PC));
+        String script = String.join("\n",
+                "# comment lines and blank lines are skipped",
+                "{\"op\":\"add\",\"type\":\"single\",\"title\":\"Batch Quest\",\"genre\":\"Puzzle\",\"platform\":\"PC\",\"releaseYear\":2012,\"developer\":\"Dev\",\"totalLevels\":8,\"as\":\"q\"}",
+                "",
+                "{\"op\":\"rate\",\"id\":\"q\",\"rating\":5}",
+                "{\"op\":\"progress\",\"id\":\"q\",\"progress\":\"9\"}",
+                "{\"op\":\"progress\",\"id\":\"q\",\"progress\":\"6\"}",
+                "{\"op\":\"search\",\"field\":\"genre\",\"value\":\"Puzzle\"}",
+                "{\"op\":\"fly\"}");
+
+        BatchRunner runner = new BatchRunner(service, 2);
+        StringWriter output = new StringWriter();
+        try {
+            runner.run(new StringReader(script), output, false);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        String[] results = output.toString().split("\\R");
+        assert results.length == 6 : "Expected one result per command";
+        assert runner.getExecuted() == 6 && runner.getFailed() == 2 : "Unexpected success/failure counts";
+        assert runner.getCommits() == 0 : "Dry run should not save";
+        assert results[2].contains("\"ok\":false") : "Invalid progress should be reported as a failure";
+        assert JsonUtil.getInt(JsonUtil.parseObject(results[4]), "count") == 1 : "Search result count failed";
+
+        SinglePlayer game = (SinglePlayer) service.search("title", "Batch Quest").get(0);
+        assert game.getLevelsCompleted() == 6 : "Batch progress update failed";
+        assert service.getProfile().getGameRating(game) == 5 : "Batch rating failed";
+
+        System.out.println("BatchRunner tests passed!");
+    }
+
+    /**
+     * Tests the NIO binary protocol server and client over loopback.
+     */
+    private static void testBinaryProtocol() {
+        System.out.println("\n=== Testing Binary Protocol ===");
+
+        GameLibrary.setGames(new ArrayList<>());
+        CollectionService service = new CollectionService(new UserProfile("BinaryUser", GamePlatform.PC));
+        BinaryProtocolServer server;
+        try {
+            server = new BinaryProtocolServer(service, 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        server.start();
+
+        try (BinaryProtocolClient client = new BinaryProtocolClient("localhost", server.getPort())) {
+            BinaryProtocol.GameRecord added = client.addGame(true, "Wire Arena", "Shooter", "PC", 2021, "Dev", 0).join();
+            int id = added.getGame().getId();
+            assert added.getGame() instanceof Multiplayer : "Game type not preserved over the wire";
+
+            // Pipeline several requests before waiting for any of them
+            CompletableFuture<Void> rated = client.rate(id, 4);
+            CompletableFuture<Void> progressed = client.updateProgress(id, "7/3");
+            CompletableFuture<int[]> found = client.search(0, "wire");
+            CompletableFuture<BinaryProtocol.GameRecord> fetched = client.getGame(id);
+            CompletableFuture<Void> bad = client.updateProgress(id, "not-a-record");
+            CompletableFuture<BinaryProtocol.GameRecord> missing = client.getGame(id + 1000);
+            CompletableFuture.allOf(rated, progressed, found, fetched).join();
+
+            assert found.join().length == 1 && found.join()[0] == id : "Search over the wire failed";
+            assert fetched.join().getRating() == 4 : "Rating over the wire failed";
+            assert ((Multiplayer) fetched.join().getGame()).getWins() == 7 : "Progress over the wire failed";
+            assertFailsWith(bad, IllegalArgumentException.class);
+            assertFailsWith(missing, NoSuchElementException.class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            server.stop();
+        }
+
+        System.out.println("Binary Protocol tests passed!");
+    }
+
+    /**
+     * Tests the multi-user profile store over the shared game library.
+     */
+    private static void testProfileStore() {
+        System.out.println("\n=== Testing ProfileStore ===");
+
+        GameLibrary.setGames(new ArrayList<>());
+        SinglePlayer shared = new SinglePlayer("Shared Quest", "RPG", "PC", 2015, "Dev", 20);
+        Multiplayer arena = new Multiplayer("Shared Arena", "Shooter", "PC", 2019, "Dev");
+        GameLibrary.add(shared);
+        GameLibrary.add(arena);
+
+        UserProfile alice = new UserProfile("alice", GamePlatform.PC);
+        alice.addGame(shared);
+        alice.addGame(arena);
+        alice.rateGame(arena, 4);
+        alice.reviewGame(shared, "Long but worth it");
+        shared.setLevelsCompleted(12);
+        arena.setRecord(7, 3);
+
+        try {
+            Path dir = Files.createTempDirectory("profiles");
+            ProfileStore store = new ProfileStore(dir);
+            store.importProfile(alice);
+            StoredProfile bob = store.getOrCreate("bob smith", GamePlatform.XBOX_ONE);
+            bob.addGame(shared.getId());
+            bob.rateGame(shared.getId(), 2);
+            store.save(bob);
+
+            ProfileStore reopened = new ProfileStore(dir);
+            assert reopened.listUsernames().size() == 2 : "Listing usernames failed";
+            assert reopened.listUsernames().contains("bob smith") : "Username escaping failed";
+            StoredProfile loaded = reopened.get("alice");
+            assert reopened.getLoadedCount() == 1 : "Loading one user should not load others";
+            assert loaded.getGameCount() == 2 : "Owned games not restored";
+            assert loaded.getGameRating(arena.getId()) == 4 : "Rating not restored";
+            assert "Long but worth it".equals(loaded.getGameReview(shared.getId())) : "Review not restored";
+
+            UserProfile full = loaded.toUserProfile();
+            SinglePlayer aliceQuest = (SinglePlayer) ownedById(full, shared.getId());
+            Multiplayer aliceArena = (Multiplayer) ownedById(full, arena.getId());
+            assert aliceQuest != shared && aliceQuest.getTitle().equals(shared.getTitle()) : "Profile should own its own copy";
+            assert aliceQuest.getLevelsCompleted() == 12 : "Single-player progress not restored";
+            assert aliceArena.getWins() == 7 && aliceArena.getLosses() == 3 : "Multiplayer progress not restored";
+            assert aliceArena.getRecentForm().getMatchCount() == 0 : "Restored record should not count as recent";
+            assert full.getGameRating(aliceArena) == 4 : "Rating not carried into full profile";
+            assert reopened.get("bob smith").getGameRating(shared.getId()) == 2 : "Second user not restored";
+
+            // Each user's progress is their own, in memory and on disk
+            UserProfile bobFull = reopened.get("bob smith").toUserProfile();
+            SinglePlayer bobQuest = (SinglePlayer) ownedById(bobFull, shared.getId());
+            assert bobQuest.getLevelsCompleted() == 0 : "Users should not share progress";
+            bobQuest.setLevelsCompleted(5);
+            assert aliceQuest.getLevelsCompleted() == 12 && shared.getLevelsCompleted() == 12 : "Progress leaked between users";
+            reopened.importProfile(bobFull);
+            aliceQuest.setLevelsCompleted(20);
+            reopened.importProfile(full);
+            ProfileStore third = new ProfileStore(dir);
+            assert third.get("bob smith").getGameProgress(shared.getId())[0] == 5 : "Second user's progress not saved";
+            assert third.get("alice").getGameProgress(shared.getId())[0] == 20 : "Round trip lost progress";
+            assert third.get("alice").getGameProgress(arena.getId())[1] == 3 : "Losses not saved";
+            assert reopened.get("carol") == null : "Unknown user should not exist";
+
+            reopened.removeGameEverywhere(shared.getId());
+            assert !reopened.get("alice").ownsGame(shared.getId()) : "Removing a game from every profile failed";
+            assert reopened.delete("bob smith") && reopened.listUsernames().size() == 1 : "Deleting a user failed";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("ProfileStore tests passed!");
+    }
+
+    /**
+     * Tests the in-memory and LSM storage engines behind DataManager.
+     */
+    @SuppressWarnings("unchecked")
+    private static void testStorageEngines() {
+        System.out.println("\n=== Testing Storage Engines ===");
+
+        GameLibrary.setGames(new ArrayList<>());
+        for (int i = 0; i < 60; i++) {
+            GameLibrary.add(new SinglePlayer("Stored " + i, "RPG", "PC", 2000 + i % 20, "Dev", 10));
+        }
+        UserProfile profile = new UserProfile("StorageUser", GamePlatform.PC);
+        profile.addGame(GameLibrary.findById(1));
+        profile.rateGame(GameLibrary.findById(1), 5);
+
+        StorageEngine previous = DataManager.getStorageEngine();
+        DataManager.setStorageEngine(new InMemoryStorageEngine());
+        try {
+            assert DataManager.saveData(GameLibrary.getGames(), profile) : "In-memory save failed";
+            Object[] data = DataManager.loadData();
+            assert ((List<AbstractGame>) data[0]).size() == 60 : "In-memory games not restored";
+            assert ((UserProfile) data[1]).getUsername().equals("StorageUser") : "In-memory profile not restored";
+        } finally {
+            DataManager.setStorageEngine(previous);
+        }
+
+        try {
+            Path dir = Files.createTempDirectory("lsm");
+            // A tiny memtable forces several flushes and a compaction
+            LsmStore store = new LsmStore(dir, 1024, 3);
+            LsmStorageEngine engine = new LsmStorageEngine(store);
+            engine.saveGames(GameLibrary.getGames());
+            engine.saveProfile(profile);
+            assert store.getSegmentCount() > 1 : "Memtable should have been flushed";
+
+            List<AbstractGame> remaining = GameLibrary.getGames();
+            remaining.remove(GameLibrary.findById(7));
+            engine.saveGames(remaining);
+            store.compact();
+            assert store.getSegmentCount() == 1 : "Compaction should leave one segment";
+            assert engine.loadGame(7) == null : "Deleted game should stay deleted after compaction";
+            assert engine.loadGame(42).getTitle().equals("Stored 41") : "Lookup by ID failed";
+
+            // Abandon the store without closing it, as a crash would; unflushed
+            // writes are recovered from the write-ahead log
+            store.put("user:unflushed", new byte[] { 1, 2, 3 });
+            LsmStore recovered = new LsmStore(dir, 1024, 3);
+            assert recovered.get("user:unflushed").length == 3 : "Write-ahead log not replayed";
+            recovered.close();
+
+            LsmStorageEngine reopened = new LsmStorageEngine(dir);
+            List<AbstractGame> games = reopened.loadGames();
+            assert games.size() == 59 : "Expected 59 games after reopening but got " + games.size();
+            assert games.get(0).getId() < games.get(58).getId() : "Games should load in ID order";
+            UserProfile loadedProfile = reopened.loadProfile();
+            assert loadedProfile.getGameRating(loadedProfile.getGamesOwned().get(0)) == 5 : "Profile not restored";
+            reopened.deleteAll();
+            assert reopened.loadGames().isEmpty() && reopened.loadProfile() == null : "Delete all failed";
+            reopened.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("Storage Engine tests passed!");
+    }
+
+    /**
+     * Tests lazy loading of an indexed catalog in the background.
+     */
+    private static void testLazyCatalogLoad() {
+        System.out.println("\n=== Testing Lazy Catalog Load ===");
+
+        GameLibrary.setGames(new ArrayList<>());
+        for (int i = 0; i < 300; i++) {
+            GameLibrary.add(new Multiplayer("Lazy " + i, "Sports", "PC", 2010, "Dev"));
+        }
+        UserProfile profile = new UserProfile("LazyUser", GamePlatform.NINTENDO_SWITCH);
+        profile.addGame(GameLibrary.findById(120));
+        profile.rateGame(GameLibrary.findById(120), 3);
+
+        try {
+            IndexedStorageEngine engine = new IndexedStorageEngine(Files.createTempDirectory("indexed"));
+            engine.saveGames(GameLibrary.getGames());
+            engine.saveProfile(profile);
+            assert engine.loadGame(77).getTitle().equals("Lazy 76") : "Indexed lookup by ID failed";
+            assert engine.loadProfile().getGamesOwned().size() == 1 : "Indexed profile not restored";
+
+            List<AbstractGame> streamed = new ArrayList<>();
+            CatalogLoad load = engine.startLazyLoad(game -> {
+                synchronized (streamed) {
+                    streamed.add(game);
+                }
+            });
+            assert load.getProfile().getUsername().equals("LazyUser") : "Username should be available immediately";
+            assert load.getTotalCount() == 300 : "Index should report the catalog size";
+            AbstractGame faulted = load.getGame(250);
+            assert faulted.getTitle().equals("Lazy 249") : "Faulting in a single record failed";
+
+            UserProfile loaded = load.await();
+            assert load.getLoadedCount() == 300 && streamed.size() == 300 : "Every game should be loaded exactly once";
+            assert load.getGame(250) == faulted : "Faulted record should be shared with the background loader";
+            AbstractGame owned = loaded.getGamesOwned().get(0);
+            assert owned != load.getGame(120) && owned.getId() == 120 : "Profile should own a copy of the loaded game";
+            assert loaded.getGameRating(owned) == 3 : "Rating not restored by lazy load";
+            load.close();
+            engine.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Saving after a lazy load keeps the progress history recorded before it
+        StorageEngine previous = DataManager.getStorageEngine();
+        try {
+            Path historyDir = Files.createTempDirectory("lazyhistory");
+            System.setProperty("vgc.history.dir", historyDir.toString());
+            DataManager.setStorageEngine(new IndexedStorageEngine(Files.createTempDirectory("indexed")));
+            UserProfile recorder = new UserProfile("LazyHistory", GamePlatform.PC);
+            Multiplayer played = (Multiplayer) GameLibrary.findById(121);
+            recorder.addGame(played);
+            played.recordWin();
+            played.recordLoss();
+            assert recorder.getProgressHistory().getEventCount() == 2 : "Updates not recorded";
+            assert DataManager.saveData(GameLibrary.getGames(), recorder) : "Save failed";
+
+            GameLibrary.setGames(new ArrayList<>());
+            CatalogLoad load = DataManager.loadLazily(GameLibrary::register);
+            UserProfile reloaded = DataManager.awaitLazyLoad(load);
+            assert reloaded.getProgressHistory().getEventCount() == 2 : "History not attached by lazy load";
+            assert DataManager.saveData(GameLibrary.getGames(), reloaded) : "Save after lazy load failed";
+            ProgressHistory saved = ProgressHistory.load(historyDir.resolve("LazyHistory.history"), Clock.systemUTC());
+            assert saved.getEventCount() == 2 : "Lazy load and save lost the history: " + saved.getEventCount();
+            load.close();
+            DataManager.getStorageEngine().close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            System.clearProperty("vgc.history.dir");
+            DataManager.setStorageEngine(previous);
+        }
+
+        System.out.println("Lazy Catalog Load tests passed!");
+    }
+
+    /**
+     * Tests the chunked format, decoded in parallel.
+     */
+    private static void testChunkedStorage() {
+        System.out.println("\n=== Testing Chunked Storage ===");
+
+        List<AbstractGame> games = new ArrayList<>();
+        UserProfile profile = new UserProfile("ChunkUser", GamePlatform.MOBILE);
+        for (int i = 0; i < 45; i++) {
+            SinglePlayer game = new SinglePlayer("Chunk " + i, "Puzzle", "Mobile", 2018, "Dev", 5);
+            game.setId(i + 1);
+            games.add(game);
+            if (i % 3 == 0) {
+                profile.addGame(game);
+                profile.rateGame(game, 4);
+            }
+        }
+        profile.reviewGame(games.get(42), "Last chunk");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // A chunk size of 4 splits the data into many chunks
+            ChunkedStorageEngine engine = new ChunkedStorageEngine(Files.createTempDirectory("chunked"), 4, pool);
+            engine.saveGames(games);
+            engine.saveProfile(profile);
+
+            List<AbstractGame> loaded = engine.loadGames();
+            assert loaded.size() == 45 : "Chunked games not restored";
+            for (int i = 0; i < loaded.size(); i++) {
+                assert loaded.get(i).getId() == i + 1 : "Chunks must be merged in order";
+            }
+            UserProfile loadedProfile = engine.loadProfile();
+            assert loadedProfile.getUsername().equals("ChunkUser") : "Profile header not restored";
+            assert loadedProfile.getGamesOwned().size() == 15 : "Owned games not restored";
+            AbstractGame last = loadedProfile.getGamesOwned().get(14);
+            assert last.getTitle().equals("Chunk 42") : "Owned games must keep their order";
+            assert "Last chunk".equals(loadedProfile.getGameReview(last)) : "Review not restored";
+            assert loadedProfile.getGameRating(last) == 4 : "Rating not restored";
+
+            // A streamed library ends with a partial chunk and reads back the same
+            engine.saveGames(games.subList(0, 42).iterator());
+            assert engine.loadGames().size() == 42 : "Streamed games not restored";
+            assert engine.loadGames().get(41).getTitle().equals("Chunk 41") : "Streamed games out of order";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("Chunked Storage tests passed!");
+    }
+
+    private static void testCompressedStorage() {
+        System.out.println("\n=== Testing Compressed Storage ===");
+
+        try {
+            Path dir = Files.createTempDirectory("compressed");
+            List<AbstractGame> games = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Multiplayer game = new Multiplayer("Compressed Arena " + i, "Shooter", "PC", 2015, "Same Studio");
+                game.setId(i + 1);
+                games.add(game);
+            }
+            SerializationStorageEngine raw = new SerializationStorageEngine(
+                    dir.resolve("raw.ser").toFile(), dir.resolve("rawprofile.ser").toFile(), false);
+            SerializationStorageEngine compressed = new SerializationStorageEngine(
+                    dir.resolve("z.ser").toFile(), dir.resolve("zprofile.ser").toFile(), true);
+            raw.saveGames(games);
+            compressed.saveGames(games);
+            assert Files.size(dir.resolve("z.ser")) < Files.size(dir.resolve("raw.ser")) / 2 : "Games should compress well";
+
+            List<AbstractGame> loaded = compressed.loadGames();
+            assert loaded.size() == 200 : "Compressed games not restored";
+            assert loaded.get(199).getTitle().equals("Compressed Arena 199") : "Compressed game data wrong";
+            // Loading detects the container, so a raw engine still reads compressed files
+            SerializationStorageEngine reader = new SerializationStorageEngine(
+                    dir.resolve("z.ser").toFile(), dir.resolve("zprofile.ser").toFile(), false);
+            assert reader.loadGames().size() == 200 : "Compressed file not detected";
+
+            // Small blocks, then damage the last one: earlier blocks still stream, the damage is reported
+            byte[] data = new byte[5000];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) ("Review text " + i / 40).charAt(i % 12);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(bytes, 1024, 6)) {
+                out.write(data);
+            }
+            byte[] file = bytes.toByteArray();
+            // Flushing does not end a block, so the container is the same however often it is flushed
+            ByteArrayOutputStream flushedBytes = new ByteArrayOutputStream();
+            try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(flushedBytes, 1024, 6)) {
+                for (int off = 0; off < data.length; off += 100) {
+                    out.write(data, off, Math.min(100, data.length - off));
+                    out.flush();
+                }
+            }
+            assert Arrays.equals(flushedBytes.toByteArray(), file) : "Flush should not write a short block";
+            try (BlockCompressedInputStream in = new BlockCompressedInputStream(new ByteArrayInputStream(file))) {
+                assert Arrays.equals(in.readAllBytes(), data) : "Blocks not restored";
+            }
+            file[file.length - 8] ^= 0x55;
+            try (BlockCompressedInputStream in = new BlockCompressedInputStream(new ByteArrayInputStream(file))) {
+                byte[] first = in.readNBytes(1024);
+                assert Arrays.equals(first, Arrays.copyOf(data, 1024)) : "Undamaged block must still be readable";
+                in.readAllBytes();
+                assert false : "Damaged block was not detected";
+            } catch (IOException e) {
+                assert e.getMessage().contains("Block 5") : "Damage should name the block: " + e.getMessage();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("Compressed Storage tests passed!");
+    }
+
+    private static void testSegmentedStorage() {
+        System.out.println("\n=== Testing Segmented Storage ===");
+
+        // The library marks only the segment of a changed game
+        List<AbstractGame> library = new ArrayList<>();
+        for (int i = 0; i < 3 * DirtySegments.SEGMENT_SIZE; i++) {
+            SinglePlayer game = new SinglePlayer("Segment " + i, "RPG", "PC", 2020, "Dev", 10);
+            game.setId(i + 1);
+            library.add(game);
+        }
+        GameLibrary.setGames(library);
+        assert GameLibrary.getChanges().isAllDirty() : "Replaced library must be fully dirty";
+        GameLibrary.getChanges().clear();
+        library.get(DirtySegments.SEGMENT_SIZE + 5).updateProgress("3");
+        assert GameLibrary.getChanges().isDirty(1) : "Progress update should mark its segment";
+        assert !GameLibrary.getChanges().isDirty(0) && !GameLibrary.getChanges().isDirty(2) : "Other segments stay clean";
+        GameLibrary.setGames(new ArrayList<>());
+
+        try {
+            Path dir = Files.createTempDirectory("segmented");
+            SegmentedStorageEngine engine = new SegmentedStorageEngine(dir);
+            UserProfile profile = new UserProfile("SegmentUser", GamePlatform.PC);
+            profile.addGame(library.get(0));
+            profile.addGame(library.get(DirtySegments.SEGMENT_SIZE + 5));
+            profile.addGame(library.get(2 * DirtySegments.SEGMENT_SIZE));
+            profile.rateGame(library.get(0), 5);
+            engine.saveGames(library);
+            engine.saveProfile(profile, profile.getChanges().drain());
+            assert engine.getSegmentsWritten() == 6 : "Full save should write every segment";
+
+            int[] notified = new int[1];
+            profile.addCollectionListener((p, game) -> notified[0]++);
+            DirtySegments libraryChanges = new DirtySegments();
+            libraryChanges.clear();
+            AbstractGame changed = library.get(2 * DirtySegments.SEGMENT_SIZE);
+            changed.updateProgress("7");
+            libraryChanges.markGame(changed.getId());
+            assert notified[0] == 1 : "Progress of an owned game should notify the profile's listeners";
+            engine.saveGames(library, libraryChanges);
+            engine.saveProfile(profile, profile.getChanges().drain());
+            assert engine.getSegmentsWritten() == 8 : "Only the changed segments should be rewritten";
+
+            // A crashed save can leave a segment file that the manifest does not name
+            Files.createFile(dir.resolve("games-000009-99999999.seg"));
+            SegmentedStorageEngine reopened = new SegmentedStorageEngine(dir);
+            assert !Files.exists(dir.resolve("games-000009-99999999.seg")) : "Unlisted segment not removed";
+            assert reopened.getGameSegmentCount() == 3 : "Segments not restored";
+            List<AbstractGame> loaded = reopened.loadGames();
+            assert loaded.size() == library.size() : "Segmented games not restored";
+            assert ((SinglePlayer) loaded.get(2 * DirtySegments.SEGMENT_SIZE)).getLevelsCompleted() == 7 : "Change lost";
+            assert ((SinglePlayer) reopened.loadGame(changed.getId())).getLevelsCompleted() == 7 : "Single game lookup failed";
+            UserProfile loadedProfile = reopened.loadProfile();
+            assert loadedProfile.getGamesOwned().size() == 3 : "Profile segments not restored";
+            assert loadedProfile.getGameRating(loadedProfile.getGamesOwned().get(0)) == 5 : "Rating not restored";
+
+            // Removing the last game of a segment drops the segment
+            loadedProfile.getChanges().clear();
+            loadedProfile.removeGame(loadedProfile.getGamesOwned().get(2));
+            reopened.saveProfile(loadedProfile, loadedProfile.getChanges().drain());
+            assert new SegmentedStorageEngine(dir).loadProfile().getGamesOwned().size() == 2 : "Removal not saved";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("Segmented Storage tests passed!");
+    }
+
+    private static void testCheckpointRecovery() {
+        System.out.println("\n=== Testing Checkpoint Recovery ===");
+
+        try {
+            // Crash at each phase of a checkpoint; reopening must recover every write
+            for (LsmStore.CheckpointPhase phase : LsmStore.CheckpointPhase.values()) {
+                Path dir = Files.createTempDirectory("checkpoint");
+                LsmStore store = new LsmStore(dir, LsmStore.DEFAULT_MEMTABLE_BYTES, 100);
+                store.put("kept", new byte[] { 1 });
+                store.put("deleted", new byte[] { 1 });
+                store.checkpoint();
+                for (int i = 0; i < 50; i++) {
+                    store.put("key" + i, new byte[] { (byte) i });
+                }
+                store.put("kept", new byte[] { 2 });
+                store.delete("deleted");
+                store.setCheckpointObserver(p -> {
+                    if (p == phase) {
+                        throw new IllegalStateException("Simulated crash at " + p);
+                    }
+                });
+                try {
+                    store.checkpoint();
+                    assert false : "Crash at " + phase + " was not simulated";
+                } catch (IllegalStateException expected) {
+                    // The store is abandoned without closing, as a crash would leave it
+                }
+
+                LsmStore recovered = new LsmStore(dir, LsmStore.DEFAULT_MEMTABLE_BYTES, 100);
+                assert recovered.get("kept")[0] == 2 : "Overwrite lost after crash at " + phase;
+                assert recovered.get("deleted") == null : "Delete lost after crash at " + phase;
+                for (int i = 0; i < 50; i++) {
+                    assert recovered.get("key" + i)[0] == i : "Write lost after crash at " + phase;
+                }
+                recovered.checkpoint();
+                assert recovered.getJournalEntries() == 0 : "Checkpoint should empty the journal";
+                try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+                    long journals = files.filter(f -> f.getFileName().toString().startsWith("wal-")).count();
+                    assert journals == 1 : "Obsolete journals left after crash at " + phase + ": " + journals;
+                }
+                recovered.close();
+                assert new LsmStore(dir).get("kept")[0] == 2 : "Data lost after clean close";
+            }
+
+            // A manifest that cannot be written leaves the segment list and files as they were
+            Path blockedDir = Files.createTempDirectory("checkpoint");
+            LsmStore blocked = new LsmStore(blockedDir, LsmStore.DEFAULT_MEMTABLE_BYTES, 100);
+            for (int i = 0; i < 2; i++) {
+                blocked.put("segment" + i, new byte[] { (byte) i });
+                blocked.checkpoint();
+            }
+            blocked.put("pending", new byte[] { 7 });
+            Path blocker = Files.createDirectory(blockedDir.resolve("MANIFEST.tmp"));
+            try {
+                blocked.checkpoint();
+                assert false : "Checkpoint should fail without a manifest";
+            } catch (IOException expected) {
+                // expected
+            }
+            try {
+                blocked.compact();
+                assert false : "Compaction should fail without a manifest";
+            } catch (IOException expected) {
+                // expected
+            }
+            assert blocked.getSegmentCount() == 2 : "Unlisted segment published";
+            assert blocked.get("pending")[0] == 7 && blocked.get("segment0")[0] == 0 : "Data lost by failed manifest";
+            try (java.util.stream.Stream<Path> files = Files.list(blockedDir)) {
+                long segmentFiles = files.filter(f -> f.getFileName().toString().endsWith(".sst")).count();
+                assert segmentFiles == 2 : "Unlisted segment files left behind: " + segmentFiles;
+            }
+            Files.delete(blocker);
+            blocked.close();
+            LsmStore reopened = new LsmStore(blockedDir);
+            assert reopened.get("pending")[0] == 7 && reopened.get("segment1")[0] == 1 : "Data lost after failed manifest";
+            reopened.close();
+
+            // Overwriting one key never fills the memtable, but the journal size limit still triggers
+            LsmStore store = new LsmStore(Files.createTempDirectory("checkpoint"));
+            CheckpointScheduler scheduler = new CheckpointScheduler(store, 3_600_000, 10_000, 1_000_000, 3_600_000);
+            for (int i = 0; i < 50; i++) {
+                store.put("progress", new byte[100]);
+            }
+            assert !scheduler.checkNow() : "Journal below the limits should not be checkpointed";
+            for (int i = 0; i < 100; i++) {
+                store.put("progress", new byte[100]);
+            }
+            assert scheduler.getJournalBytes() > 10_000 : "Journal size not tracked";
+            assert scheduler.checkNow() : "Journal over the size limit should be checkpointed";
+            assert store.getJournalBytes() == 0 && store.getCheckpointCount() == 1 : "Journal not truncated";
+            assert scheduler.getLastCheckpointMillis() > 0 : "Checkpoint duration not recorded";
+            scheduler.close();
+            store.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("Checkpoint Recovery tests passed!");
+    }
+
+    private static void testReviewStore() {
+        System.out.println("\n=== Testing Review Store ===");
+
+        try {
+            Path file = Files.createTempDirectory("reviews").resolve("user.reviews");
+            String longReview = "A long and very repetitive review of a great game. ".repeat(40);
+            ReviewStore store = new ReviewStore(file, true, 2);
+            store.put(1, longReview);
+            store.put(2, "Short");
+            store.put(1, longReview + "Updated.");
+            store.remove(2);
+            assert store.size() == 1 : "Replaced and removed reviews should not count";
+            assert store.getFileBytes() < longReview.length() : "Reviews should be stored compressed";
+            store.close();
+
+            // A crash can leave half a record at the end of the file
+            Files.write(file, new byte[] { 0, 0, 0, 3, 0 }, java.nio.file.StandardOpenOption.APPEND);
+            store = new ReviewStore(file, true, 2);
+            assert store.size() == 1 && !store.contains(2) : "Review index not rebuilt";
+            assert store.get(1).equals(longReview + "Updated.") : "Latest review not returned";
+            assert store.get(1) != null && store.getCacheHits() == 1 && store.getCacheMisses() == 1 : "Cache not used";
+
+            // Attaching a store moves review text out of the serialized profile
+            UserProfile profile = new UserProfile("Reviewer", GamePlatform.PC);
+            SinglePlayer game = new SinglePlayer("Reviewed", "RPG", "PC", 2019, "Dev", 10);
+            game.setId(5);
+            profile.addGame(game);
+            profile.reviewGame(game, longReview);
+            int inlineSize = serializedSize(profile);
+            profile.attachReviewStore(store);
+            assert serializedSize(profile) < inlineSize - longReview.length() / 2 : "Review text still serialized";
+            assert longReview.equals(profile.getGameReview(game)) : "Review not readable from the store";
+            assert profile.getGameReviews().size() == 1 : "Stored reviews missing from the review map";
+            profile.removeGame(game);
+            assert !store.contains(5) : "Removing a game should remove its stored review";
+            store.close();
+
+            // Compacting back to an earlier length and count still changes the fingerprint
+            Path compacted = Files.createTempDirectory("compacted").resolve("user.reviews");
+            store = new ReviewStore(compacted, false, 2);
+            UserProfile fingerprinted = new UserProfile("Fingerprinted", GamePlatform.PC);
+            fingerprinted.addGame(game);
+            fingerprinted.attachReviewStore(store);
+            fingerprinted.reviewGame(game, "Good");
+            long before = fingerprinted.getReviewFingerprint();
+            long bytesBefore = store.getFileBytes();
+            fingerprinted.reviewGame(game, "Poor");
+            store.compact();
+            assert store.getFileBytes() == bytesBefore && store.size() == 1 : "Compaction should restore the length";
+            assert store.getGeneration() == 1 : "Compaction should start a new generation";
+            assert fingerprinted.getReviewFingerprint() != before : "Outdated index would pass the fingerprint check";
+            store.close();
+
+            // A failed store write leaves the game owned
+            try {
+                fingerprinted.removeGame(game);
+                assert false : "Removing through a closed store should fail";
+            } catch (java.io.UncheckedIOException expected) {
+                // expected
+            }
+            assert fingerprinted.ownsGame(game) : "Failed removal should keep the game";
+            store = new ReviewStore(compacted, false, 2);
+            assert store.getGeneration() == 1 && "Poor".equals(store.get(5)) : "Generation not stored in the file";
+            store.close();
+
+            // Version 1 files, without a generation, are still read
+            java.nio.ByteBuffer v1 = java.nio.ByteBuffer.allocate(8 + 13 + 3);
+            v1.putInt(0x56475256).putInt(1).putInt(9).put((byte) 0).putInt(3).putInt(3).put("Old".getBytes());
+            Path oldFile = Files.createTempDirectory("v1").resolve("user.reviews");
+            Files.write(oldFile, v1.array());
+            store = new ReviewStore(oldFile, false, 2);
+            assert "Old".equals(store.get(9)) && store.getGeneration() == 0 : "Version 1 file not read";
+            store.clear();
+            store.put(9, "New");
+            store.close();
+            store = new ReviewStore(oldFile, false, 2);
+            assert "New".equals(store.get(9)) && store.getGeneration() == 1 : "Version 1 file not upgraded";
+            store.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Renaming the user moves the review file, so the reviews survive a restart
+        StorageEngine previousEngine = DataManager.getStorageEngine();
+        try {
+            Path reviewDir = Files.createTempDirectory("renamed-reviews");
+            System.setProperty("vgc.reviews.dir", reviewDir.toString());
+            DataManager.setStorageEngine(new IndexedStorageEngine(Files.createTempDirectory("renamed")));
+            GameLibrary.setGames(new ArrayList<>());
+            SinglePlayer kept = new SinglePlayer("Kept", "RPG", "PC", 2019, "Dev", 10);
+            GameLibrary.add(kept);
+            UserProfile renamed = new UserProfile("Before", GamePlatform.PC);
+            renamed.addGame(kept);
+            renamed.reviewGame(kept, "Worth keeping");
+            assert DataManager.saveData(GameLibrary.getGames(), renamed) : "Save before rename failed";
+            renamed.setUsername("After");
+            renamed.reviewGame(kept, "Still worth keeping");
+            assert DataManager.saveData(GameLibrary.getGames(), renamed) : "Save after rename failed";
+            assert !Files.exists(reviewDir.resolve("Before.reviews")) : "Old review file left behind";
+            try (ReviewStore reopened = new ReviewStore(reviewDir.resolve("After.reviews"))) {
+                assert "Still worth keeping".equals(reopened.get(kept.getId())) : "Reviews lost on rename";
+            }
+            UserProfile reloaded = (UserProfile) DataManager.loadData()[1];
+            assert reloaded.getUsername().equals("After") : "Renamed profile not reloaded";
+            assert "Still worth keeping".equals(reloaded.getGameReview(reloaded.getGamesOwned().get(0)))
+                    : "Reloaded profile lost its reviews";
+
+            // Profile files leave review text to the store, and reloading does not grow it
+            Path chunkedDir = Files.createTempDirectory("chunkedreviews");
+            DataManager.setStorageEngine(new ChunkedStorageEngine(chunkedDir));
+            UserProfile chunked = new UserProfile("Chunked", GamePlatform.PC);
+            chunked.addGame(kept);
+            chunked.reviewGame(kept, "Stored once, not in the profile file");
+            assert DataManager.saveData(GameLibrary.getGames(), chunked) : "Chunked save failed";
+            long reviewBytes = Files.size(reviewDir.resolve("Chunked.reviews"));
+            for (int cycle = 0; cycle < 3; cycle++) {
+                String profileFile = new String(Files.readAllBytes(chunkedDir.resolve("profile.chunks")),
+                        java.nio.charset.StandardCharsets.ISO_8859_1);
+                assert !profileFile.contains("Stored once") : "Review text copied into the profile file";
+                UserProfile cycled = (UserProfile) DataManager.loadData()[1];
+                assert "Stored once, not in the profile file".equals(cycled.getGameReview(cycled.getGamesOwned().get(0)))
+                        : "Review lost when reloading from the store";
+                assert DataManager.saveData(GameLibrary.getGames(), cycled) : "Chunked resave failed";
+            }
+            assert Files.size(reviewDir.resolve("Chunked.reviews")) == reviewBytes : "Review file grew without edits";
+
+            // Reattaching a store that already holds the same text writes nothing
+            UserProfile legacy = new UserProfile("Chunked", GamePlatform.PC);
+            legacy.addGame(kept);
+            legacy.reviewGame(kept, "Stored once, not in the profile file");
+            legacy.attachReviewStore(chunked.getReviewStore());
+            assert Files.size(reviewDir.resolve("Chunked.reviews")) == reviewBytes : "Identical review rewritten";
+            assert StoredProfile.fromUserProfile(legacy).getGameReview(kept.getId()) == null
+                    : "Stored profile should leave reviews to the store";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            System.clearProperty("vgc.reviews.dir");
+            DataManager.setStorageEngine(previousEngine);
+        }
+
+        System.out.println("Review Store tests passed!");
+    }
+
+    private static void testReviewSearch() {
+        System.out.println("\n=== Testing Review Search ===");
+
+        try {
+            ReviewIndex index = new ReviewIndex();
+            index.put(1, "Tight combat and a great soundtrack. The combat never gets old.");
+            index.put(2, "A relaxing farming game with a lovely soundtrack.");
+            index.put(3, "Clunky COMBAT, but the story is worth it.");
+            List<ReviewIndex.Hit> hits = index.search("combat", 10);
+            assert hits.size() == 2 : "Both combat reviews should match";
+            assert hits.get(0).getGameId() == 1 : "More mentions should rank higher";
+            assert index.search("the and of", 10).isEmpty() : "Stop words should not match";
+            assert index.search("soundtrack", 1).size() == 1 : "Limit not applied";
+
+            index.put(3, "Clunky controls, but the story is worth it.");
+            assert index.search("combat", 10).size() == 1 : "Replaced review still matches old text";
+            index.remove(1);
+            assert index.search("combat", 10).isEmpty() : "Removed review still matches";
+            assert index.size() == 2 : "Index size wrong after update and removal";
+
+            String snippet = ReviewIndex.snippet("Slow start. " + "Filler words here. ".repeat(20)
+                    + "Then the combat opens up.", Set.of("combat"), 60);
+            assert snippet.startsWith("...") && snippet.contains("[combat]") : "Bad snippet: " + snippet;
+
+            Path file = Files.createTempDirectory("review-index").resolve("user.reviewindex");
+            assert ReviewIndex.load(file) == null : "Missing index should load as null";
+            index.save(file, 42);
+            ReviewIndex loaded = ReviewIndex.load(file);
+            assert loaded.getFingerprint() == 42 && loaded.size() == 2 : "Index not restored";
+            assert loaded.search("story", 10).get(0).getGameId() == 3 : "Restored index does not match";
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 0x55;
+            Files.write(file, bytes);
+            try {
+                ReviewIndex.load(file);
+                assert false : "Damaged index should not load";
+            } catch (IOException expected) {
+                // Expected
+            }
+
+            // The profile keeps its index current and rebuilds an outdated one
+            UserProfile profile = new UserProfile("Searcher", GamePlatform.PC);
+            SinglePlayer first = new SinglePlayer("First", "RPG", "PC", 2020, "Dev", 10);
+            SinglePlayer second = new SinglePlayer("Second", "RPG", "PC", 2021, "Dev", 10);
+            first.setId(1);
+            second.setId(2);
+            profile.addGame(first);
+            profile.addGame(second);
+            profile.reviewGame(first, "Beautiful open world exploration.");
+            hits = profile.searchReviews("exploration", 5);
+            assert hits.size() == 1 && hits.get(0).getSnippet().contains("[exploration]") : "Review not searchable";
+            profile.reviewGame(second, "More exploration than the first one.");
+            assert profile.searchReviews("EXPLORATION", 5).size() == 2 : "New review not indexed";
+            profile.getReviewIndex().save(file, profile.getReviewFingerprint());
+            profile.removeGame(second);
+            assert profile.searchReviews("exploration", 5).size() == 1 : "Removed game still indexed";
+
+            UserProfile restarted = new UserProfile("Searcher", GamePlatform.PC);
+            restarted.addGame(first);
+            restarted.reviewGame(first, "Beautiful open world exploration.");
+            restarted.attachReviewIndex(ReviewIndex.load(file));
+            assert restarted.getReviewIndex().size() == 1 : "Outdated index not rebuilt";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("Review Search tests passed!");
+    }
+
+    private static void testRecommender() {
+        System.out.println("\n=== Testing Recommender ===");
+
+        List<AbstractGame> catalog = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            AbstractGame game = new SinglePlayer("Game " + i, i % 2 == 0 ? "RPG" : "Shooter", "PC", 2000 + i % 7,
+                    "Studio " + i % 5, 10);
+            game.setId(i);
+            catalog.add(game);
+        }
+
+        // Everyone who loves game 1 also loves game 2 and dislikes game 3
+        Recommender recommender = new Recommender(catalog, 5, ForkJoinPool.commonPool());
+        for (int user = 0; user < 10; user++) {
+            recommender.setRating("fan" + user, 1, 5);
+            recommender.setRating("fan" + user, 2, 5);
+            recommender.setRating("fan" + user, 3, 1);
+            recommender.setRating("fan" + user, 10 + user, 3);
+        }
+        assert recommender.refresh() == 60 : "First refresh should compute every row";
+        assert recommender.getSimilarGames(1).get(0).getId() == 2 : "Co-liked game should be most similar";
+        assert !recommender.getSimilarGames(1).contains(catalog.get(2)) : "Disliked game should not be similar";
+
+        UserProfile profile = new UserProfile("Player", GamePlatform.PC);
+        profile.addGame(catalog.get(0));
+        profile.rateGame(catalog.get(0), 5);
+        recommender.addProfile(profile);
+        recommender.refresh();
+        List<Recommender.Recommendation> recommendations = recommender.recommend(profile, 3);
+        assert recommendations.get(0).getGame().getId() == 2 : "Wrong first recommendation: " + recommendations;
+        assert recommendations.get(0).getBecause().getId() == 1 : "Wrong reason for recommendation";
+
+        // Rating changes are followed and refreshed incrementally
+        profile.addGame(catalog.get(1));
+        profile.rateGame(catalog.get(1), 4);
+        int rows = recommender.refresh();
+        assert rows > 0 && rows < 60 : "Refresh should only recompute affected rows: " + rows;
+        assert recommender.recommend(profile, 10).stream().noneMatch(r -> r.getGame().getId() <= 2)
+                : "Owned games should not be recommended";
+
+        // An incrementally refreshed recommender matches one built from scratch
+        java.util.Random random = new java.util.Random(7);
+        Map<String, Map<Integer, Integer>> ratings = new java.util.HashMap<>();
+        int patched = 0;
+        for (int change = 0; change < 200; change++) {
+            String user = "user" + random.nextInt(15);
+            int gameId = 1 + random.nextInt(60);
+            int rating = random.nextInt(6);
+            recommender.setRating(user, gameId, rating);
+            ratings.computeIfAbsent(user, u -> new java.util.HashMap<>()).put(gameId, rating);
+            int refreshed = recommender.refresh();
+            if (refreshed > 0 && refreshed < 60) {
+                patched++;
+            }
+        }
+        assert patched > 0 : "No refresh was incremental";
+        Recommender fresh = new Recommender(catalog, 5, ForkJoinPool.commonPool());
+        for (int user = 0; user < 10; user++) {
+            fresh.setRating("fan" + user, 1, 5);
+            fresh.setRating("fan" + user, 2, 5);
+            fresh.setRating("fan" + user, 3, 1);
+            fresh.setRating("fan" + user, 10 + user, 3);
+        }
+        fresh.setRating("Player", 1, 5);
+        fresh.setRating("Player", 2, 4);
+        ratings.forEach((user, byGame) -> byGame.forEach((gameId, rating) -> fresh.setRating(user, gameId, rating)));
+        fresh.refresh();
+        for (AbstractGame game : catalog) {
+            assert recommender.getSimilarGames(game.getId()).equals(fresh.getSimilarGames(game.getId()))
+                    : "Incremental neighbours of " + game.getId() + " differ from a full build";
+        }
+
+        System.out.println("Recommender tests passed!");
+    }
+
+    private static void testLibraryStatistics() {
+        System.out.println("\n=== Testing Library Statistics ===");
+
+        UserProfile profile = new UserProfile("Counter", GamePlatform.PC);
+        SinglePlayer quest = new SinglePlayer("Quest", GameGenre.ROLE_PLAYING, GamePlatform.PC, 2020, "Dev", 10);
+        SinglePlayer puzzle = new SinglePlayer("Puzzle", GameGenre.PUZZLE, GamePlatform.NINTENDO_SWITCH, 2018, "Dev", 4);
+        Multiplayer arena = new Multiplayer("Arena", GameGenre.BATTLE_ROYALE, GamePlatform.PC, 2020, "Dev");
+        profile.addGame(quest);
+        profile.addGame(puzzle);
+        profile.addGame(arena);
+        profile.rateGame(quest, 5);
+        profile.rateGame(arena, 2);
+        quest.updateProgress("5");
+        puzzle.updateProgress("4");
+
+        LibraryStatistics statistics = profile.getStatistics();
+        assert statistics.getTotal() == 3 : "Total count wrong";
+        assert statistics.getCount(GamePlatform.PC) == 2 : "Platform count wrong";
+        assert statistics.getAverageRating() == 3.5 : "Average rating wrong";
+        LibraryStatistics.Facets facets = statistics.getFacets();
+        assert facets.getTypeCounts().get(LibraryStatistics.MULTIPLAYER) == 1 : "Type count wrong";
+        assert facets.getYearCounts().get(2020) == 2 : "Year count wrong";
+        assert facets.getRatingCount(0) == 1 && facets.getRatingCount(5) == 1 : "Rating counts wrong";
+        assert facets.getCompletionCounts().get("50-74%") == 1 : "Progress update not counted";
+        assert facets.getCompletionCounts().get("100%") == 1 : "Completed game not counted";
+
+        // Changes move games between counters
+        profile.rateGame(arena, 4);
+        profile.removeGame(quest);
+        facets = statistics.getFacets();
+        assert facets.getTotal() == 2 && facets.getAverageRating() == 4.0 : "Counts not updated on change";
+        assert facets.getYearCounts().get(2020) == 1 : "Year not decremented";
+        assert facets.getGenreCounts().get(GameGenre.ROLE_PLAYING) == null : "Removed genre still counted";
+        assert profile.getAverageRating() == 4.0 : "Profile average should come from the statistics";
+
+        // Recounts racing with removals never leave a removed game counted
+        SinglePlayer contested = new SinglePlayer("Contested", GameGenre.PUZZLE, GamePlatform.PC, 2021, "Dev", 10);
+        Thread[] racers = new Thread[2];
+        racers[0] = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                try {
+                    profile.rateGame(contested, 1 + i % 5);
+                } catch (IllegalArgumentException e) {
+                    // Not owned at the moment
+                }
+            }
+        });
+        racers[1] = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                profile.addGame(contested);
+                profile.removeGame(contested);
+            }
+        });
+        racers[0].start();
+        racers[1].start();
+        joinAll(racers);
+        assert statistics.getTotal() == 2 && statistics.getCount(GameGenre.PUZZLE) == 1 : "Removed game still counted";
+
+        LibraryStatistics.Facets subset = statistics.facetsOf(profile.searchGamesByPlatform(GamePlatform.PC));
+        assert subset.getTotal() == 1 && subset.getRatingCount(4) == 1 : "Result facets wrong";
+
+        // Deserialized profiles rebuild their statistics
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+                out.writeObject(profile);
+            }
+            UserProfile copy = (UserProfile) new java.io.ObjectInputStream(
+                    new java.io.ByteArrayInputStream(bytes.toByteArray())).readObject();
+            assert copy.getStatistics().getTotal() == 2 && copy.getAverageRating() == 4.0 : "Statistics not rebuilt";
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("Library Statistics tests passed!");
+    }
+
+    private static void testProgressHistory() {
+        System.out.println("\n=== Testing Progress History ===");
+
+        // Monday 2 March 2026, noon UTC
+        Instant monday = Instant.parse("2026-03-02T12:00:00Z");
+        ProgressHistory history = new ProgressHistory(Clock.fixed(monday.plus(Duration.ofDays(20)), ZoneOffset.UTC));
+        SinglePlayer quest = new SinglePlayer("Quest", GameGenre.ROLE_PLAYING, GamePlatform.PC, 2020, "Dev", 50);
+        Multiplayer arena = new Multiplayer("Arena", GameGenre.BATTLE_ROYALE, GamePlatform.PC, 2020, "Dev");
+        quest.setId(1);
+        arena.setId(2);
+        quest.updateProgress("3");
+        history.track(quest);
+        history.track(arena);
+
+        // Two levels a day for three weeks, and one win, loss, win... per day
+        for (int day = 0; day < 21; day++) {
+            Instant time = monday.plus(Duration.ofDays(day)).plusSeconds(day * 37);
+            quest.updateProgress(String.valueOf(3 + 2 * (day + 1)));
+            history.record(quest, time);
+            arena.updateProgress((day / 2 + 1) + "/" + ((day + 1) / 2));
+            history.record(arena, time);
+            history.record(arena, time.plusSeconds(60));  // Unchanged, not recorded
+        }
+        assert history.getEventCount() == 42 : "Event count wrong: " + history.getEventCount();
+        assert history.getEncodedBytes() < 42 * 8 : "Events not compact: " + history.getEncodedBytes();
+
+        List<ProgressHistory.Event> events = history.getEvents(1);
+        assert events.size() == 21 : "Game events wrong";
+        assert events.get(0).getLevelsCompleted() == 5 : "Delta from the tracked start wrong";
+        assert events.get(20).getLevelsCompleted() == 45 : "Decoded progress wrong";
+        assert events.get(20).getTime().equals(monday.plus(Duration.ofDays(20)).plusSeconds(20 * 37)) : "Time wrong";
+        assert history.getEvents(2).get(20).getWins() == 11 : "Decoded wins wrong";
+
+        LocalDate start = LocalDate.of(2026, 3, 2);
+        Map<LocalDate, Integer> weekly = history.getLevelsPerWeek(start, start.plusDays(21));
+        assert weekly.size() == 3 && weekly.get(start.plusDays(7)) == 14 : "Weekly levels wrong: " + weekly;
+        ProgressHistory.Totals totals = history.getTotals(start.plusDays(3), start.plusDays(17));
+        assert totals.getLevelsCompleted() == 28 : "Levels over a range wrong: " + totals;
+        assert totals.getWins() + totals.getLosses() == 14 && totals.getUpdates() == 28 : "Range totals wrong: " + totals;
+        assert history.getTotals(2, start, start.plusDays(21)).getWins() == 11 : "Game totals wrong";
+        assert history.getRecentTotals(30).getLevelsCompleted() == 42 : "Recent levels wrong";
+        assert Math.abs(history.getRecentTotals(30).getWinRate() - 100.0 * 11 / 21) < 1e-9 : "Recent win rate wrong";
+        assert history.getTotals(start.plusDays(5), start).getUpdates() == 0 : "Empty range should have no updates";
+
+        // Saved histories keep their events and rebuild their totals
+        try {
+            Path file = Files.createTempDirectory("history").resolve("test.history");
+            history.save(file);
+            ProgressHistory loaded = ProgressHistory.load(file, Clock.systemUTC());
+            assert loaded.getEventCount() == 42 : "Loaded event count wrong";
+            assert loaded.getLevelsPerWeek(start, start.plusDays(21)).equals(weekly) : "Loaded totals wrong";
+            assert ProgressHistory.load(file.resolveSibling("missing"), Clock.systemUTC()) == null : "Missing file not null";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Profiles record every progress update of the games they own
+        UserProfile profile = new UserProfile("Historian", GamePlatform.PC);
+        profile.addGame(quest);
+        quest.updateProgress("46");
+        quest.updateProgress("46");
+        profile.removeGame(quest);
+        quest.updateProgress("47");
+        assert profile.getProgressHistory().getEventCount() == 1 : "Profile did not record updates";
+        assert profile.getProgressHistory().getEvents(1).get(0).getLevelsCompleted() == 46 : "Wrong progress recorded";
+
+        System.out.println("Progress History tests passed!");
+    }
+
+    private static void testTypedProgress() {
+        System.out.println("\n=== Testing Typed Progress Updates ===");
+
+        Multiplayer arena = new Multiplayer("Arena", GameGenre.BATTLE_ROYALE, GamePlatform.PC, 2020, "Dev");
+        SinglePlayer quest = new SinglePlayer("Quest", GameGenre.ROLE_PLAYING, GamePlatform.PC, 2020, "Dev", 10);
+        int[] notified = { 0 };
+        arena.addProgressListener(game -> notified[0]++);
+        quest.addProgressListener(game -> notified[0]++);
+
+        arena.setRecord(3, 1);
+        arena.recordWin();
+        arena.recordLoss();
+        arena.addProgress(2, 0);
+        assert arena.getWins() == 6 && arena.getLosses() == 2 : "Increments wrong: " + arena.getProgress();
+        quest.setProgress(4, 0);
+        quest.completeLevel();
+        quest.addProgress(2, 0);
+        assert quest.getLevelsCompleted() == 7 : "Level increments wrong";
+        assert notified[0] == 7 : "Typed updates should notify listeners";
+
+        // The typed methods validate like the string form
+        assertRejected(() -> quest.completeLevels(4));
+        assertRejected(() -> quest.setProgress(3, 1));
+        assertRejected(() -> arena.recordResults(-1, 0));
+        arena.setRecord(Integer.MAX_VALUE, 0);
+        assertRejected(arena::recordWin);
+        assertRejected(() -> arena.updateProgress("1/2/3"));
+        assertRejected(() -> arena.updateProgress("1/"));
+        assert arena.getWins() == Integer.MAX_VALUE && arena.getLosses() == 0 : "Failed update changed the record";
+        arena.updateProgress("+4/05");
+        assert arena.getWins() == 4 && arena.getLosses() == 5 : "String form no longer parses";
+
+        // Concurrent increments are never lost
+        Thread[] players = new Thread[4];
+        for (int t = 0; t < players.length; t++) {
+            final boolean wins = t % 2 == 0;
+            players[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (wins) {
+                        arena.recordWin();
+                    } else {
+                        arena.recordLoss();
+                    }
+                }
+            });
+            players[t].start();
+        }
+        joinAll(players);
+        assert arena.getWins() == 20_004 && arena.getLosses() == 20_005 : "Lost increments: " + arena.getProgress();
+
+        System.out.println("Typed Progress tests passed!");
+    }
+
+    private static void assertRejected(Runnable update) {
+        try {
+            update.run();
+            assert false : "Invalid progress update should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static void testMatchIngestion() {
+        System.out.println("\n=== Testing Match Ingestion ===");
+
+        GameLibrary.setGames(new ArrayList<>());
+        CollectionService service = new CollectionService(new UserProfile("IngestUser", GamePlatform.PC));
+        Multiplayer arena = (Multiplayer) service.addGame("multiplayer", "Arena", "Shooter", "PC", 2019, "Dev", 0);
+        Multiplayer league = (Multiplayer) service.addGame("multiplayer", "League", "Strategy", "PC", 2012, "Dev", 0);
+        AbstractGame quest = service.addGame("single", "Quest", "Role-Playing", "PC", 2015, "Dev", 20);
+        arena.setRecord(5, 5);
+
+        // A long fold interval, so the test decides when results are folded
+        MatchIngestor ingestor = new MatchIngestor(service, 60_000);
+        Thread[] feeds = new Thread[4];
+        for (int t = 0; t < feeds.length; t++) {
+            final int feed = t;
+            feeds[t] = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    ingestor.record(arena.getId(), feed % 2 == 0, 1_000L * i);
+                }
+            });
+            feeds[t].start();
+        }
+        joinAll(feeds);
+        service.getProfile().getChanges().drain();
+        assert arena.getWins() == 5 : "Results applied before the fold";
+        assert ingestor.fold() == 1 : "Fold should change one game";
+        assert arena.getWins() == 10_005 && arena.getLosses() == 10_005 : "Folded record wrong: " + arena.getProgress();
+        assert arena.getRecentForm().getMatchCount() == 0 && arena.getRecentForm().getStreak() == 0
+                : "Folded counts have no match order and should not make up recent form: " + arena.getRecentForm();
+        assert ingestor.getLastMatchTime(arena.getId()) == 4_999_000L : "Last match time wrong";
+        assert service.getProfile().getChanges().isDirty(DirtySegments.segmentOf(arena.getId()))
+                : "Fold should mark the game changed";
+
+        // Results that would overflow the record stay counted until a fold can take them
+        league.importRecord(Integer.MAX_VALUE - 1, 0);
+        for (int i = 0; i < 3; i++) {
+            ingestor.record(league.getId(), true, 0);
+        }
+        assert ingestor.fold() == 0 && ingestor.getFoldFailureCount() == 1 : "Overflowing fold should fail";
+        assert league.getWins() == Integer.MAX_VALUE - 1 : "Failed fold changed the record";
+        league.importRecord(0, 0);
+        assert ingestor.fold() == 1 && league.getWins() == 3 : "Results lost by a failed fold: " + league.getProgress();
+        league.importRecord(0, 0);
+
+        try {
+            ingestor.record(quest.getId(), true, 0);
+            assert false : "Single-player games should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        String events = "# game,result,timestamp\n"
+                + arena.getId() + ",W,100\n"
+                + league.getId() + ",loss,200\r\n"
+                + "\n"
+                + league.getId() + ",win,300\n"
+                + arena.getId() + ",X,400\n"
+                + quest.getId() + ",W,500\n"
+                + "999,W,600\n"
+                + "not an event\n"
+                + arena.getId() + ",L,700";
+        try {
+            assert ingestor.ingest(new ByteArrayInputStream(events.getBytes())) == 4 : "Stream events not accepted";
+            Path file = Files.createTempFile("matches", ".csv");
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < 200_000; i++) {
+                lines.append(i % 3 == 0 ? league.getId() : arena.getId()).append(i % 4 == 0 ? ",L," : ",W,")
+                        .append(1_700_000_000_000L + i).append('\n');
+            }
+            Files.writeString(file, lines);
+            assert ingestor.ingest(file, new ForkJoinPool(2)) == 200_000 : "File events not accepted";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        assert ingestor.getRejectedCount() == 4 : "Rejected count wrong: " + ingestor.getRejectedCount();
+        ingestor.close();
+        assert league.getWins() + league.getLosses() == 2 + 66_667 : "League results lost: " + league.getProgress();
+        assert arena.getWins() + arena.getLosses() == 20_010 + 2 + 133_333 : "Arena results lost: " + arena.getProgress();
+        assert arena.getLosses() == 10_005 + 1 + 50_000 - 16_667 : "Arena losses wrong: " + arena.getProgress();
+
+        System.out.println("Match Ingestion tests passed!");
+    }
+
+    private static void testLeaderboards() {
+        System.out.println("\n=== Testing Leaderboards ===");
+
+        Leaderboard<String> board = new Leaderboard<>();
+        board.update("ann", 80);
+        board.update("bob", 95.5);
+        board.update("cat", 80);
+        board.update("dan", 10);
+        board.update("eve", 100);
+        assert board.getRank("eve") == 1 && board.getRank("bob") == 2 : "Ranks wrong";
+        assert board.getRank("ann") == 3 && board.getRank("cat") == 3 && board.getRank("dan") == 5 : "Tied ranks wrong";
+        assert board.getRank("zed") == -1 : "Unranked key should have no rank";
+        List<Leaderboard.Entry<String>> top = board.getTop(4);
+        assert top.size() == 4 && top.get(1).getKey().equals("bob") && top.get(3).getRank() == 3 : "Top wrong: " + top;
+        List<Leaderboard.Entry<String>> around = board.getAround("ann", 1);
+        assert around.size() == 3 && around.get(0).getKey().equals("bob") && around.get(2).getKey().equals("cat")
+                : "Around-me wrong: " + around;
+        assert board.getAround("eve", 2).size() == 3 : "Around-me at the top wrong";
+
+        board.update("dan", 99);
+        board.remove("eve");
+        assert board.getRank("dan") == 1 && board.getRank("ann") == 3 && board.size() == 4 : "Update not applied";
+        try {
+            board.update("ann", 100.5);
+            assert false : "Out-of-range score should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        // Concurrent updates to different keys all land
+        Leaderboard<Integer> busy = new Leaderboard<>();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            final int offset = t * 1000;
+            writers[t] = new Thread(() -> {
+                for (int round = 0; round < 5; round++) {
+                    for (int i = 0; i < 1000; i++) {
+                        busy.update(offset + i, ((offset + i) * 7 + round) % 10_001 / 100.0);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        joinAll(writers);
+        assert busy.size() == 4000 : "Keys lost";
+        for (Leaderboard.Entry<Integer> entry : busy.getTop(4000)) {
+            assert busy.getRank(entry.getKey()) == entry.getRank() : "Fenwick rank disagrees with the order";
+        }
+
+        // Users loaded from a profile store are ranked by their own progress
+        GameLibrary.setGames(new ArrayList<>());
+        Leaderboards.clear();
+        SinglePlayer catalogQuest = new SinglePlayer("Quest", GameGenre.ROLE_PLAYING, GamePlatform.PC, 2020, "Dev", 10);
+        Multiplayer catalogArena = new Multiplayer("Arena", GameGenre.BATTLE_ROYALE, GamePlatform.PC, 2020, "Dev");
+        GameLibrary.add(catalogQuest);
+        GameLibrary.add(catalogArena);
+        UserProfile alice;
+        UserProfile bruno;
+        try {
+            Path dir = Files.createTempDirectory("ranked");
+            ProfileStore store = new ProfileStore(dir);
+            StoredProfile storedAlice = store.getOrCreate("Alice", GamePlatform.PC);
+            storedAlice.addGame(1);
+            storedAlice.addGame(2);
+            storedAlice.setGameProgress(1, 3, 0);
+            store.save(storedAlice);
+            StoredProfile storedBruno = store.getOrCreate("Bruno", GamePlatform.PC);
+            storedBruno.addGame(1);
+            storedBruno.setGameProgress(1, 7, 0);
+            store.save(storedBruno);
+            ProfileStore reopened = new ProfileStore(dir);
+            alice = reopened.get("Alice").toUserProfile();
+            bruno = reopened.get("Bruno").toUserProfile();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        Leaderboards.track(alice);
+        Leaderboards.track(bruno);
+        assert Leaderboards.getGameBoard(1).getRank("Bruno") == 1 : "Cross-user ranking wrong";
+        assert Leaderboards.getGameBoard(1).getRank("Alice") == 2 : "Cross-user ranking wrong";
+        assert Leaderboards.getGameBoard(1).getScore("Alice") == 30.0 : "Stored progress not ranked";
+        Multiplayer arena = (Multiplayer) ownedById(alice, 2);
+        arena.setRecord(3, 1);
+        assert Leaderboards.getUserBoard("Alice").getTop(1).get(0).getKey() == 2 : "Per-user ranking wrong";
+        assert Leaderboards.getUserBoard("Alice").getScore(2) == 75.0 : "Win rate not ranked";
+
+        ((SinglePlayer) ownedById(alice, 1)).updateProgress("10");
+        assert Leaderboards.getGameBoard(1).getScore("Bruno") == 70.0 : "Another user's progress moved Bruno";
+        assert catalogQuest.getLevelsCompleted() == 0 : "Catalog game should keep no user's progress";
+        alice.setUsername("Alicia");
+        alice.removeGame(arena);
+        assert Leaderboards.getGameBoard(1).getRank("Alicia") == 1 : "Progress or rename not applied";
+        assert Leaderboards.getGameBoard(1).getRank("Alice") == -1 : "Old username still ranked";
+        assert Leaderboards.getGameBoard(2).size() == 0 : "Removed game still ranked";
+        Leaderboards.untrack(bruno);
+        assert Leaderboards.getGameBoard(1).size() == 1 : "Untracked profile still ranked";
+        Leaderboards.clear();
+
+        System.out.println("Leaderboards tests passed!");
+    }
+
+    private static void testRecentForm() {
+        System.out.println("\n=== Testing Recent Form ===");
+
+        long hour = 3_600_000L;
+        long start = 1_767_225_600_000L;  // A whole hour
+        RecentForm form = new RecentForm();
+        assert form.getRecentWinRate(10) == 0.0 && form.getWinsWithin(hour, start) == 0 : "Empty form not empty";
+
+        // Hour h: h % 3 == 0 is a loss, otherwise a win; one match per hour for 200 hours
+        for (int h = 0; h < 200; h++) {
+            form.record(h % 3 != 0, start + h * hour + 60_000);
+        }
+        long now = start + 199 * hour + 120_000;
+        assert form.getMatchCount() == 200 : "Match count wrong";
+        assert form.getRecentWins(3) == 2 && form.getRecentWins(100) == 67 : "Last-N wins wrong: " + form.getRecentWins(100);
+        assert Math.abs(form.getRecentWinRate(30) - 200.0 / 3) < 1e-9 : "Last-N win rate wrong";
+        assert form.getWinsWithin(24 * hour, now) == 16 && form.getLossesWithin(24 * hour, now) == 8 : "Last-day counts wrong";
+        assert form.getWinsWithin(hour, now + 5 * hour) == 0 : "Idle hours should hold no matches";
+        assert form.getStreak() == 1 && form.getLongestWinStreak() == 2 && form.getLongestLossStreak() == 1 : "Streaks wrong";
+        assert form.getMovingWinRate() > 50 && form.getMovingWinRate() < 80 : "Moving average wrong";
+
+        // Bulk results skip to the end of each run
+        form.record(1_000, 250, now);
+        assert form.getMatchCount() == 1_450 && form.getStreak() == -250 : "Bulk results wrong";
+        assert form.getLongestWinStreak() == 1_001 && form.getRecentWins(100) == 0 : "Bulk streaks wrong";
+        assert form.getWinsWithin(hour, now) == 1_001 : "Bulk hour wrong";
+        try {
+            form.getRecentWins(RecentForm.MATCH_WINDOW + 1);
+            assert false : "Window overflow should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        // Multiplayer games feed their form from every kind of update
+        Multiplayer arena = new Multiplayer("Arena", GameGenre.BATTLE_ROYALE, GamePlatform.PC, 2020, "Dev");
+        assert arena.getRecentProgress().equals("No recent matches") : "New game should have no form";
+        arena.updateProgress("2/1");
+        arena.recordWin();
+        arena.recordLoss();
+        arena.recordLoss();
+        assert arena.getRecentForm().getMatchCount() == 6 && arena.getRecentForm().getRecentWins(6) == 3 : "Form not fed";
+        assert arena.getRecentProgress().equals("Last 6: 3-3 (50%), streak L2") : arena.getRecentProgress();
+        arena.updateProgress("0/0");
+        assert arena.getRecentForm().getMatchCount() == 0 : "Lowered record should clear the form";
+        assert arena.getProgress().equals("W/L: 0/0") : "getProgress() changed";
+
+        System.out.println("Recent Form tests passed!");
+    }
+
+    private static void testQueryCache() {
+        System.out.println("\n=== Testing Query Cache ===");
+
+        UserProfile profile = new UserProfile("CacheUser", GamePlatform.PC);
+        SinglePlayer quest = new SinglePlayer("Quest", GameGenre.ROLE_PLAYING, GamePlatform.PC, 2015, "Dev", 40);
+        SinglePlayer racer = new SinglePlayer("Racer", GameGenre.RACING, GamePlatform.MOBILE, 2021, "Dev", 10);
+        profile.addGame(quest);
+        profile.addGame(racer);
+        QueryCache cache = profile.getQueryCache();
+
+        List<AbstractGame> first = profile.getGamesSortedByReleaseYear(false);
+        List<AbstractGame> second = profile.getGamesSortedByReleaseYear(false);
+        assert first.equals(Arrays.asList(racer, quest)) && second.equals(first) : "Cached sort wrong";
+        assert cache.getHits() == 1 && cache.getMisses() == 1 && cache.getHitRate() == 50.0 : "Hit not counted";
+        second.clear();
+        assert profile.getGamesSortedByReleaseYear(false).size() == 2 : "Callers must not share the cached list";
+        assert profile.searchGamesByTitle("QUEST").equals(profile.searchGamesByTitle("quest")) : "Title not normalized";
+        assert cache.getHits() == 3 && cache.size() == 2 && cache.getEstimatedBytes() > 0 : "Title lookup not cached";
+
+        // Every kind of change makes the next lookup see it
+        SinglePlayer racer2 = new SinglePlayer("Racer 2", GameGenre.RACING, GamePlatform.PC, 2023, "Dev", 10);
+        assert profile.searchGamesByGenre(GameGenre.RACING).equals(List.of(racer)) : "Genre search wrong";
+        profile.addGame(racer2);
+        assert profile.searchGamesByGenre(GameGenre.RACING).equals(List.of(racer, racer2)) : "Stale after add";
+        assert cache.getInvalidationCount() >= 1 : "Change should drop the cache";
+        profile.rateGame(quest, 5);
+        profile.rateGame(racer, 2);
+        assert profile.getGamesSortedByRating(false).equals(List.of(quest, racer, racer2)) : "Rating sort wrong";
+        profile.rateGame(racer2, 4);
+        assert profile.getGamesSortedByRating(false).equals(List.of(quest, racer2, racer)) : "Stale after rating";
+        profile.removeGame(racer);
+        assert profile.searchGamesByPlatform(GamePlatform.MOBILE).isEmpty() : "Stale after remove";
+        long before = profile.getVersion();
+        quest.updateProgress("12");
+        assert profile.getVersion() > before : "Progress should move the version on";
+        long libraryBefore = GameLibrary.getVersion();
+        GameLibrary.register(new SinglePlayer("Catalog Only", GameGenre.PUZZLE, GamePlatform.PC, 2020, "Dev", 5));
+        assert GameLibrary.getVersion() > libraryBefore : "Library change should move its version on";
+
+        // Least recently used queries are evicted once the cache is full
+        QueryCache small = new QueryCache(2);
+        List<AbstractGame> games = List.of(quest);
+        small.get("a", 1, () -> new ArrayList<>(games));
+        small.get("b", 1, () -> new ArrayList<>(games));
+        small.get("a", 1, () -> new ArrayList<>(games));
+        small.get("c", 1, () -> new ArrayList<>(games));
+        assert small.size() == 2 && small.getEvictionCount() == 1 : "LRU bound not kept";
+        small.get("a", 1, () -> new ArrayList<>(games));
+        assert small.getHits() == 2 : "Recently used entry evicted";
+        small.get("a", 1, List::of);
+        assert small.get("a", 0, List::of).size() == 1 : "Older version should not drop newer results";
+        assert small.get("a", 2, List::of).isEmpty() && small.size() == 1 : "Newer version should drop the cache";
+        assert small.toString().contains("hit rate") : "Report missing";
+        try {
+            new QueryCache(0);
+            assert false : "Zero capacity should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        System.out.println("Query Cache tests passed!");
+    }
+
+    private static void testGameDescriptions() {
+        System.out.println("\n=== Testing Game Descriptions ===");
+
+        SinglePlayer quest = new SinglePlayer("Quest", GameGenre.ROLE_PLAYING, GamePlatform.PC, 2015, "Dev", 40);
+        String text = quest.toString();
+        assert text.equals("Game: Quest (2015) by Dev - Genre: Role-Playing, Platform: PC - Single Player - "
+                + quest.getProgress()) : "Description changed: " + text;
+        assert quest.toString() == text : "Description should be cached";
+
+        // Every kind of progress update is reflected, including in listeners
+        String[] seen = new String[1];
+        quest.addProgressListener(game -> seen[0] = game.toString());
+        quest.completeLevel();
+        assert !quest.toString().equals(text) && quest.toString().contains(quest.getProgress()) : "Stale after update";
+        assert seen[0].equals(quest.toString()) : "Listener saw a stale description";
+        quest.updateProgress("20");
+        assert quest.toString().endsWith(quest.getProgress()) : "Stale after string update";
+
+        Multiplayer arena = new Multiplayer("Arena", GameGenre.SHOOTER, GamePlatform.PC, 2020, "Dev");
+        String before = arena.toString();
+        arena.recordResults(3, 1);
+        assert !arena.toString().equals(before) && arena.toString().endsWith(arena.getProgress()) : "Stale after results";
+        arena.setRecord(0, 0);
+        assert arena.toString().equals(before) : "Description should follow the record back";
+
+        System.out.println("Game Description tests passed!");
+    }
+
+    private static void testPager() {
+        System.out.println("\n=== Testing Pager ===");
+
+        // Each page reads only its own items and one more, however long the list
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            numbers.add(i);
+        }
+        int[] itemsRead = new int[1];
+        PageSource<Integer> list = PageSource.of(numbers);
+        PageSource<Integer> counted = new PageSource<>() {
+            @Override
+            public List<Integer> read(int offset, int limit) {
+                List<Integer> page = list.read(offset, limit);
+                itemsRead[0] += page.size();
+                return page;
+            }
+
+            @Override
+            public int size() {
+                return list.size();
+            }
+        };
+        Pager<Integer> pager = new Pager<>(counted, 10);
+        assert pager.getItems().equals(numbers.subList(0, 10)) && !pager.hasPrevious() && pager.hasNext() : "First page wrong";
+        assert pager.getPageCount() == 100_000 : "Page count wrong";
+        assert pager.goTo(50_000) && pager.getItems().get(0) == 499_990 && pager.getFirstIndex() == 499_990 : "Jump wrong";
+        assert pager.previous() && pager.getPageNumber() == 49_999 : "Previous wrong";
+        assert pager.goTo(100_000) && !pager.hasNext() && !pager.next() : "Last page wrong";
+        assert !pager.goTo(100_001) && !pager.goTo(0) && pager.getPageNumber() == 100_000 : "Out of range jump moved";
+        assert itemsRead[0] == 11 * 3 + 10 : "Read more than the pages shown: " + itemsRead[0];
+        pager.setPageSize(25);
+        assert pager.getItems().get(0) == 999_975 && pager.getPageSize() == 25 : "Resize lost the position";
+
+        // Iterator sources are pulled only as far as the pages shown
+        int[] pulled = new int[1];
+        java.util.Iterator<Integer> stream = numbers.stream().peek(n -> pulled[0]++).iterator();
+        Pager<Integer> cursor = new Pager<>(PageSource.of(stream), 5);
+        assert cursor.getPageCount() == -1 && cursor.next() && cursor.next() : "Iterator paging wrong";
+        assert cursor.getItems().equals(numbers.subList(10, 15)) && pulled[0] <= 16 : "Pulled too far: " + pulled[0];
+        assert cursor.previous() && cursor.getItems().equals(numbers.subList(5, 10)) : "Iterator previous wrong";
+        Pager<Integer> shortCursor = new Pager<>(PageSource.of(List.of(1, 2, 3).iterator()), 2);
+        assert shortCursor.next() && !shortCursor.hasNext() && shortCursor.getPageCount() == 2 : "Iterator end wrong";
+        assert new Pager<>(PageSource.of(new ArrayList<Integer>()), 5).getItems().isEmpty() : "Empty source wrong";
+
+        // The owned games can be paged without copying the collection
+        UserProfile profile = new UserProfile("PagerUser", GamePlatform.PC);
+        for (int i = 0; i < 12; i++) {
+            profile.addGame(new SinglePlayer("Game " + i, GameGenre.PUZZLE, GamePlatform.PC, 2000 + i, "Dev", 10));
+        }
+        Pager<AbstractGame> owned = new Pager<>(profile.getGamesOwnedPages(), 5);
+        assert owned.getPageCount() == 3 && owned.goTo(3) && owned.getItems().size() == 2 : "Owned pages wrong";
+        assert owned.getItems().get(1).getTitle().equals("Game 11") : "Owned order wrong";
+        try {
+            new Pager<>(list, 0);
+            assert false : "Zero page size should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        System.out.println("Pager tests passed!");
+    }
+
+    private static void testDataGenerator() {
+        System.out.println("\n=== Testing DataGenerator ===");
+
+        // The same seed gives the same data, and any slice matches the full set
+        DataGenerator generator = new DataGenerator(7);
+        List<AbstractGame> games = generator.games(2_000);
+        List<AbstractGame> again = new DataGenerator(7).games(2_000);
+        for (int i = 0; i < games.size(); i++) {
+            assert games.get(i).getId() == i + 1 : "Game IDs should follow the index";
+            assert games.get(i).toString().equals(again.get(i).toString()) : "Same seed gave different games";
+        }
+        assert generator.game(1_234).toString().equals(games.get(1_234).toString()) : "Slice differs from the full set";
+        assert !new DataGenerator(8).game(0).toString().equals(games.get(0).toString()) : "Seed was ignored";
+
+        // Developers are skewed and online genres are mostly multiplayer
+        Map<String, Integer> perDeveloper = new HashMap<>();
+        int multiplayer = 0;
+        for (AbstractGame game : games) {
+            perDeveloper.merge(game.getDeveloper(), 1, Integer::sum);
+            if (game instanceof Multiplayer) {
+                Multiplayer online = (Multiplayer) game;
+                assert online.getRecentForm().getMatchCount() == 0 : "Generated records should not count as recent";
+                multiplayer++;
+            }
+        }
+        int busiest = perDeveloper.values().stream().max(Integer::compare).orElse(0);
+        assert busiest > 100 && perDeveloper.size() > 300 : "Developers not Zipf-like: " + busiest + " of " + perDeveloper.size();
+        assert multiplayer > 0 && multiplayer < games.size() : "Expected a mix of game types";
+
+        // Users own popular games, mostly rated, with some reviews
+        int owned = 0;
+        int rated = 0;
+        int reviewed = 0;
+        for (int i = 0; i < 200; i++) {
+            StoredProfile user = generator.user(i, games.size());
+            assert user.getUsername().equals(String.format("player%06d", i)) : "Username wrong";
+            for (int id : user.getOwnedIds()) {
+                assert id >= 1 && id <= games.size() : "Owned ID outside the catalog: " + id;
+                owned++;
+                rated += user.getGameRating(id) != null ? 1 : 0;
+                reviewed += user.getGameReview(id) != null ? 1 : 0;
+            }
+        }
+        assert owned > 200 * 5 && rated > owned / 2 && rated < owned && reviewed > 0 && reviewed < rated
+                : "User data unexpected: " + owned + " owned, " + rated + " rated, " + reviewed + " reviewed";
+
+        // Every owned game has the user's own progress, valid for the game's type
+        StoredProfile first = generator.user(0, games.size());
+        int withProgress = 0;
+        for (int id : first.getOwnedIds()) {
+            int[] progress = first.getGameProgress(id);
+            AbstractGame game = games.get(id - 1);
+            if (game instanceof SinglePlayer) {
+                assert progress[0] <= ((SinglePlayer) game).getTotalLevels() && progress[1] == 0
+                        : "Generated levels out of range for game " + id;
+            }
+            withProgress += progress[0] + progress[1] > 0 ? 1 : 0;
+        }
+        assert withProgress > 0 : "No progress generated";
+        assert Arrays.equals(first.getGameProgress(first.getOwnedIds()[0]),
+                new DataGenerator(7).user(0, games.size()).getGameProgress(first.getOwnedIds()[0])) : "Progress not repeatable";
+        assert Arrays.equals(first.getOwnedIds(), new DataGenerator(7).user(0, games.size()).getOwnedIds()) : "Users not repeatable";
+        UserProfile profile = generator.profile(0, games);
+        assert profile.getGamesOwned().size() == first.getGameCount() : "Profile lost games";
+        assert ownedById(profile, first.getOwnedIds()[0]).getTitle().equals(games.get(first.getOwnedIds()[0] - 1).getTitle())
+                : "Profile should own copies of catalog games";
+        for (int id : first.getOwnedIds()) {
+            AbstractGame copy = ownedById(profile, id);
+            int[] progress = first.getGameProgress(id);
+            int primary = copy instanceof SinglePlayer ? ((SinglePlayer) copy).getLevelsCompleted() : ((Multiplayer) copy).getWins();
+            assert primary == progress[0] : "Profile copies should hold the generated progress";
+        }
+
+        // Users stream straight to a profile store
+        try {
+            ProfileStore store = new ProfileStore(Files.createTempDirectory("generated"));
+            generator.generateUsers(25, games.size(), store);
+            assert store.listUsernames().size() == 25 : "Generated users not stored";
+            assert store.get("player000000").getGameCount() == first.getGameCount() : "Stored user differs";
+            int firstId = first.getOwnedIds()[0];
+            assert Arrays.equals(store.get("player000000").getGameProgress(firstId), first.getGameProgress(firstId))
+                    : "Generated progress not stored";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        try {
+            generator.user(0, 0);
+            assert false : "Empty catalog should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            generator.game(-1);
+            assert false : "Negative index should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        System.out.println("DataGenerator tests passed!");
+    }
+
+    private static AbstractGame ownedById(UserProfile profile, int id) {
+        return profile.getGamesOwned().stream().filter(game -> game.getId() == id).findFirst().orElse(null);
+    }
+
+    private static int serializedSize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.size();
+    }
+
+    /**
+     * Asserts that a future failed with the given exception type.
+     *
+     * @param future The future to check
+     * @param type The expected exception type
+     */
+    private static void assertFailsWith(CompletableFuture<?> future, Class<? extends Throwable> type) {
+        try {
+            future.join();
+            assert false : "Expected " + type.getSimpleName();
+        } catch (CompletionException e) {
+            assert type.isInstance(e.getCause()) : "Expected " + type.getSimpleName() + " but got " + e.getCause();
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package videogameCollection.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+
+import videogameCollection.DataGenerator;
+import videogameCollection.GamePlatform;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Builds the same games and profiles for every run, so results stay
+ * comparable with the baseline.
+ */
+final class BenchmarkData {
+    static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates the catalog {@link DataGenerator} produces for the seed, with
+     * ids 1..count.
+     *
+     * @param count The number of games
+     * @return The games
+     */
+    static List<AbstractGame> games(int count) {
+        return new DataGenerator(SEED).games(count);
+    }
+
+    /**
+     * Creates a profile owning the given games, two thirds of them rated.
+     *
+     * @param games The games
+     * @return The profile
+     */
+    static UserProfile profile(List<AbstractGame> games) {
+        Random random = new Random(SEED);
+        UserProfile profile = new UserProfile("Benchmark", GamePlatform.PC);
+        for (AbstractGame game : games) {
+            profile.addGame(game);
+            if (random.nextInt(3) != 0) {
+                profile.rateGame(game, 1 + random.nextInt(5));
+            }
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,152 @@
+package videogameCollection.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import videogameCollection.CollectionService;
+import videogameCollection.GameGenre;
+import videogameCollection.GamePlatform;
+import videogameCollection.UserProfile;
+import videogameCollection.server.BinaryProtocol;
+import videogameCollection.server.BinaryProtocolClient;
+import videogameCollection.server.BinaryProtocolServer;
+
+/**
+ * Loopback benchmark for the binary protocol. Starts an in-process server
+ * over a fresh profile, then drives it from many connections, each keeping
+ * a window of pipelined requests in flight. Reports operations per second
+ * and p50/p99 request latency.
+ * <p>
+ * Usage: {@code BinaryProtocolBenchmark [connections] [pipelineDepth] [seconds]}.
+ */
+public class BinaryProtocolBenchmark {
+    private static final int SEED_GAMES = 1000;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional connection count, pipeline depth and duration in seconds
+     * @throws Exception if the server cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        BinaryProtocolServer server = new BinaryProtocolServer(
+                new CollectionService(new UserProfile("BinaryBench", GamePlatform.PC)), 0);
+        server.start();
+
+        int[] ids = new int[SEED_GAMES];
+        try (BinaryProtocolClient seeder = new BinaryProtocolClient("localhost", server.getPort())) {
+            GameGenre[] genres = GameGenre.values();
+            List<CompletableFuture<BinaryProtocol.GameRecord>> added = new ArrayList<>(SEED_GAMES);
+            for (int i = 0; i < SEED_GAMES; i++) {
+                added.add(seeder.addGame(i % 2 == 1, "Bench Game " + i, genres[i % genres.length].getDisplayName(),
+                        "PC", 1990 + i % 30, "Studio " + (i % 23), 40));
+            }
+            for (int i = 0; i < SEED_GAMES; i++) {
+                ids[i] = added.get(i).join().getGame().getId();
+            }
+        }
+        System.out.printf("Seeded %d games; %d connections x %d pipelined requests for %d s%n",
+                SEED_GAMES, connections, depth, seconds);
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Worker[] workers = new Worker[connections];
+        for (int i = 0; i < connections; i++) {
+            workers[i] = new Worker(new BinaryProtocolClient("localhost", server.getPort()), ids, depth, deadline);
+            workers[i].start();
+        }
+        long total = 0;
+        long errors = 0;
+        for (Worker worker : workers) {
+            worker.join();
+            worker.client.close();
+            total += worker.count;
+            errors += worker.errors;
+        }
+        server.stop();
+
+        long[] all = new long[(int) total];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, all, offset, worker.count);
+            offset += worker.count;
+        }
+        Arrays.sort(all);
+        System.out.printf("Requests: %d (%d errors)%n", total, errors);
+        System.out.printf("Throughput: %.0f ops/s%n", (double) total / seconds);
+        if (total > 0) {
+            System.out.printf("Latency p50: %.3f ms, p99: %.3f ms%n",
+                    all[(int) (total * 0.50)] / 1e6, all[(int) Math.min(total - 1, total * 0.99)] / 1e6);
+        }
+    }
+
+    /**
+     * One connection sending windows of pipelined requests.
+     */
+    private static class Worker extends Thread {
+        private final BinaryProtocolClient client;
+        private final int[] ids;
+        private final int depth;
+        private final long deadline;
+        private long[] latencies = new long[1 << 16];
+        private int count;
+        private long errors;
+
+        Worker(BinaryProtocolClient client, int[] ids, int depth, long deadline) {
+            this.client = client;
+            this.ids = ids;
+            this.depth = depth;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            CompletableFuture<?>[] window = new CompletableFuture<?>[depth];
+            long[] started = new long[depth];
+            long[] finished = new long[depth];
+            while (System.nanoTime() < deadline) {
+                for (int i = 0; i < depth; i++) {
+                    int index = random.nextInt(ids.length);
+                    int roll = random.nextInt(100);
+                    final int slot = i;
+                    started[i] = System.nanoTime();
+                    CompletableFuture<?> request;
+                    if (roll < 50) {
+                        request = client.getGame(ids[index]);
+                    } else if (roll < 80) {
+                        request = client.rate(ids[index], 1 + random.nextInt(5));
+                    } else if (roll < 95) {
+                        // Seeded games alternate single-player and multiplayer
+                        request = client.updateProgress(ids[index],
+                                index % 2 == 0 ? String.valueOf(random.nextInt(41)) : random.nextInt(50) + "/" + random.nextInt(50));
+                    } else {
+                        request = client.search(0, "Game 1");
+                    }
+                    window[i] = request.whenComplete((result, error) -> finished[slot] = System.nanoTime());
+                }
+                try {
+                    CompletableFuture.allOf(window).join();
+                } catch (RuntimeException e) {
+                    for (CompletableFuture<?> request : window) {
+                        if (request.isCompletedExceptionally()) {
+                            errors++;
+                        }
+                    }
+                }
+                for (int i = 0; i < depth; i++) {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = finished[i] - started[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package videogameCollection.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import videogameCollection.JsonUtil;
+
+/**
+ * Compares a JMH JSON results file with the baseline.
+ * <p>
+ * Usage: {@code CompareBaseline [baseline.json] [results.json] [threshold%]}.
+ * Every benchmark and parameter combination found in both files is printed
+ * with its baseline and new score and the change in percent. All benchmarks
+ * here report time per operation, so a positive change is a slowdown. The
+ * program exits with status 1 if any benchmark is slower than the baseline
+ * by more than the threshold (10% by default).
+ */
+public class CompareBaseline {
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args Optional baseline file, results file and threshold
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Path baselineFile = Paths.get(args.length > 0 ? args[0] : "benchmarks/baseline.json");
+        Path resultsFile = Paths.get(args.length > 1 ? args[1] : "benchmarks/results.json");
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Double> baseline = read(baselineFile);
+        Map<String, Double> results = read(resultsFile);
+        int regressions = 0;
+        System.out.printf("%-64s %12s %12s %8s%n", "Benchmark", "Baseline", "Now", "Change");
+        for (Map.Entry<String, Double> entry : new TreeMap<>(results).entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            double now = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-64s %12s %12.3f %8s%n", entry.getKey(), "-", now, "new");
+                continue;
+            }
+            double change = (now - before) / before * 100.0;
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-64s %12.3f %12.3f %+7.1f%%%s%n", entry.getKey(), before, now, change,
+                    regressed ? "  SLOWER" : "");
+        }
+        System.out.printf("%d of %d benchmarks slower than the baseline by more than %.0f%%%n",
+                regressions, results.size(), threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the score of every benchmark in a results file, keyed by the
+     * benchmark name and its parameters.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Double> read(Path file) throws IOException {
+        Object parsed = JsonUtil.parse(Files.readString(file));
+        if (!(parsed instanceof List)) {
+            throw new IllegalArgumentException(file + " is not a JMH JSON results file");
+        }
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (Object run : (List<Object>) parsed) {
+            Map<String, Object> benchmark = (Map<String, Object>) run;
+            String name = (String) benchmark.get("benchmark");
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            Object params = benchmark.get("params");
+            if (params instanceof Map) {
+                name += new TreeMap<>((Map<String, Object>) params).toString();
+            }
+            Map<String, Object> metric = (Map<String, Object>) benchmark.get("primaryMetric");
+            scores.put(name, ((Number) metric.get("score")).doubleValue());
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,90 @@
+package videogameCollection.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+import videogameCollection.storage.SerializationStorageEngine;
+
+/**
+ * Compares the raw and block-compressed serialization files.
+ * <p>
+ * Usage: {@code CompressionBenchmark [games] [rounds]}. The synthetic
+ * library from {@link LoadBenchmark} is saved and loaded with both formats
+ * in a temporary directory. The report gives each format's file size, the
+ * compression ratio and the best save and load times. Throughput is given
+ * in MB/s of raw serialized data so that both formats are measured against
+ * the same amount of work.
+ */
+public class CompressionBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional game count and timed rounds
+     * @throws Exception if the files cannot be written or read
+     */
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        List<AbstractGame> games = LoadBenchmark.createGames(gameCount);
+        UserProfile profile = LoadBenchmark.createProfile(games);
+        Path dir = Files.createTempDirectory("compression-benchmark");
+
+        long[] raw = run(new SerializationStorageEngine(dir.resolve("raw-games").toFile(),
+                dir.resolve("raw-profile").toFile(), false), dir, "raw", games, profile, rounds);
+        long[] compressed = run(new SerializationStorageEngine(dir.resolve("z-games").toFile(),
+                dir.resolve("z-profile").toFile(), true), dir, "z", games, profile, rounds);
+
+        System.out.printf("%d games, %d owned, %d rounds per format%n",
+                gameCount, profile.getGamesOwned().size(), rounds);
+        report("raw", raw, raw[0]);
+        report("compressed", compressed, raw[0]);
+        System.out.printf("compression ratio %.2f:1 (%.1f%% of raw size)%n",
+                (double) raw[0] / compressed[0], 100.0 * compressed[0] / raw[0]);
+    }
+
+    /**
+     * Saves and loads with one engine, once to warm up and then
+     * {@code rounds} times, and returns {file bytes, best save ns, best load ns}.
+     */
+    private static long[] run(SerializationStorageEngine engine, Path dir, String prefix,
+                              List<AbstractGame> games, UserProfile profile, int rounds) throws Exception {
+        long bestSave = Long.MAX_VALUE;
+        long bestLoad = Long.MAX_VALUE;
+        for (int round = -1; round < rounds; round++) {
+            long start = System.nanoTime();
+            engine.saveGames(games);
+            engine.saveProfile(profile);
+            long saved = System.nanoTime();
+            int loaded = engine.loadGames().size();
+            engine.loadProfile();
+            long end = System.nanoTime();
+            if (loaded != games.size()) {
+                throw new IllegalStateException("Loaded " + loaded + " of " + games.size() + " games");
+            }
+            if (round >= 0) {
+                bestSave = Math.min(bestSave, saved - start);
+                bestLoad = Math.min(bestLoad, end - saved);
+            }
+        }
+        File gameFile = dir.resolve(prefix + "-games").toFile();
+        File profileFile = dir.resolve(prefix + "-profile").toFile();
+        long size = gameFile.length() + profileFile.length();
+        engine.deleteAll();
+        return new long[] { size, bestSave, bestLoad };
+    }
+
+    private static void report(String name, long[] result, long rawBytes) {
+        double megabytes = rawBytes / (1024.0 * 1024.0);
+        double saveSeconds = result[1] / 1e9;
+        double loadSeconds = result[2] / 1e9;
+        System.out.printf("%-11s %,12d bytes   save %8.1f ms (%6.1f MB/s)   load %8.1f ms (%6.1f MB/s)%n",
+                name, result[0], saveSeconds * 1000, megabytes / saveSeconds,
+                loadSeconds * 1000, megabytes / loadSeconds);
+    }
+}
@@ -0,0 +1,49 @@
+package videogameCollection.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import videogameCollection.GameGenre;
+import videogameCollection.GameLibrary;
+import videogameCollection.GamePlatform;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Adding a game to a library of {@code size} games and removing it again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibraryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private SinglePlayer game;
+
+    @Setup
+    public void setUp() {
+        GameLibrary.setGames(BenchmarkData.games(size));
+        game = new SinglePlayer("Added Game", GameGenre.PUZZLE, GamePlatform.PC, 2024, "Studio", 10);
+    }
+
+    @Benchmark
+    public void addAndRemove() {
+        GameLibrary.add(game);
+        GameLibrary.remove(game);
+    }
+}
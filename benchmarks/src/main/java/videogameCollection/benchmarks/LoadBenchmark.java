@@ -0,0 +1,133 @@
+package videogameCollection.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import videogameCollection.DataGenerator;
+import videogameCollection.GamePlatform;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+import videogameCollection.storage.ChunkedStorageEngine;
+import videogameCollection.storage.SerializationStorageEngine;
+import videogameCollection.storage.StorageEngine;
+
+/**
+ * Measures how load time scales with threads for the chunked format.
+ * <p>
+ * Usage: {@code LoadBenchmark [games] [maxThreads] [rounds]}. A synthetic
+ * library (the user owns every other game, half of them rated and
+ * reviewed) is saved with the serialization and chunked engines in a
+ * temporary directory. Loading is then timed for the serialization files and
+ * for the chunked files with 1, 2, 4 ... maxThreads decoding threads, and
+ * the speedup over one thread is reported. Games and profile are loaded
+ * concurrently, as {@code DataManager.loadData} does.
+ */
+public class LoadBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional game count, maximum thread count and timed rounds
+     * @throws Exception if the files cannot be written or read
+     */
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        List<AbstractGame> games = createGames(gameCount);
+        UserProfile profile = createProfile(games);
+
+        Path dir = Files.createTempDirectory("load-benchmark");
+        SerializationStorageEngine serialized = new SerializationStorageEngine(
+                dir.resolve("gamedata.ser").toFile(), dir.resolve("profiledata.ser").toFile());
+        serialized.saveGames(games);
+        serialized.saveProfile(profile);
+        new ChunkedStorageEngine(dir.resolve("chunks")).saveGames(games);
+        new ChunkedStorageEngine(dir.resolve("chunks")).saveProfile(profile);
+
+        System.out.printf("%d games, %d owned, %d rounds per configuration%n",
+                gameCount, profile.getGamesOwned().size(), rounds);
+        double baseline = time(() -> serialized, rounds, gameCount);
+        System.out.printf("%-22s %9.1f ms%n", "serialization files", baseline);
+
+        double single = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1 : Math.min(threads * 2, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Supplier<StorageEngine> engine = () -> {
+                try {
+                    return new ChunkedStorageEngine(dir.resolve("chunks"), ChunkedStorageEngine.DEFAULT_CHUNK_SIZE, pool);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            double millis = time(engine, rounds, gameCount);
+            if (threads == 1) {
+                single = millis;
+            }
+            System.out.printf("chunked, %2d thread(s) %9.1f ms   speedup %.2fx vs 1 thread, %.2fx vs serialization%n",
+                    threads, millis, single / millis, baseline / millis);
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Creates a synthetic library of games with ids 1..count, the same
+     * catalog {@link DataGenerator} produces for its default seed.
+     */
+    static List<AbstractGame> createGames(int count) {
+        return new DataGenerator().games(count);
+    }
+
+    /**
+     * Creates a profile owning every other game, with every fourth game rated and reviewed.
+     */
+    static UserProfile createProfile(List<AbstractGame> games) {
+        UserProfile profile = new UserProfile("Benchmark", GamePlatform.PC);
+        for (int i = 0; i < games.size(); i += 2) {
+            AbstractGame game = games.get(i);
+            profile.addGame(game);
+            if (i % 4 == 0) {
+                profile.rateGame(game, 1 + i % 5);
+                profile.reviewGame(game, "Review number " + i + " of a benchmark game");
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Loads games and profile concurrently, once to warm up and then
+     * {@code rounds} times, and returns the best time in milliseconds.
+     */
+    private static double time(Supplier<StorageEngine> engines, int rounds, int expectedGames) throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int round = -1; round < rounds; round++) {
+            StorageEngine engine = engines.get();
+            long start = System.nanoTime();
+            Thread profileLoader = new Thread(() -> {
+                try {
+                    engine.loadProfile();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            profileLoader.start();
+            int loaded = engine.loadGames().size();
+            profileLoader.join();
+            double millis = (System.nanoTime() - start) / 1e6;
+            if (loaded != expectedGames) {
+                throw new IllegalStateException("Loaded " + loaded + " of " + expectedGames + " games");
+            }
+            if (round >= 0) {
+                best = Math.min(best, millis);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,121 @@
+package videogameCollection.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import videogameCollection.CollectionService;
+import videogameCollection.GameLibrary;
+import videogameCollection.GamePlatform;
+import videogameCollection.UserProfile;
+import videogameCollection.batch.MatchIngestor;
+import videogameCollection.game.Multiplayer;
+
+/**
+ * Measures match ingestion throughput.
+ * <p>
+ * Usage: {@code MatchIngestBenchmark [events] [threads] [games]}. The
+ * benchmark writes a file of {@code events} results spread over
+ * {@code games} multiplayer games, ingests it on a pool of {@code threads}
+ * workers, and then has {@code threads} threads call
+ * {@link MatchIngestor#record} directly. Each is reported as the best of
+ * three runs, in events per second, after checking that no result was lost.
+ */
+public class MatchIngestBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional event count, thread count and game count
+     * @throws IOException if the event file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int gameCount = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        GameLibrary.setGames(new ArrayList<>());
+        CollectionService service = new CollectionService(new UserProfile("Benchmark", GamePlatform.PC));
+        List<Multiplayer> games = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            games.add((Multiplayer) service.addGame("multiplayer", "Arena " + i, "Shooter", "PC", 2020, "Studio", 0));
+        }
+
+        Path file = Files.createTempFile("matches", ".csv");
+        try {
+            StringBuilder lines = new StringBuilder();
+            Random random = new Random(42);
+            for (int i = 0; i < events; i++) {
+                lines.append(games.get(random.nextInt(gameCount)).getId())
+                        .append(random.nextBoolean() ? ",W," : ",L,")
+                        .append(1_700_000_000_000L + i).append('\n');
+            }
+            Files.writeString(file, lines);
+            System.out.printf("%d events over %d games, %d threads, %.1f MB file%n",
+                    events, gameCount, threads, Files.size(file) / 1e6);
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double best = 0;
+            for (int round = 0; round < 3; round++) {
+                MatchIngestor ingestor = new MatchIngestor(service);
+                long start = System.nanoTime();
+                ingestor.ingest(file, pool);
+                best = Math.max(best, events / ((System.nanoTime() - start) / 1e9));
+                ingestor.close();
+                check(games, events);
+            }
+            pool.shutdown();
+            System.out.printf("%-24s %14.0f events/sec%n", "ingest(file)", best);
+
+            best = 0;
+            for (int round = 0; round < 3; round++) {
+                MatchIngestor ingestor = new MatchIngestor(service);
+                Thread[] feeds = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    final int feed = t;
+                    feeds[t] = new Thread(() -> {
+                        for (int i = feed; i < events; i += threads) {
+                            ingestor.record(games.get(i % gameCount).getId(), (i & 1) == 0, i);
+                        }
+                    });
+                }
+                long start = System.nanoTime();
+                for (Thread feed : feeds) {
+                    feed.start();
+                }
+                for (Thread feed : feeds) {
+                    try {
+                        feed.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                best = Math.max(best, events / ((System.nanoTime() - start) / 1e9));
+                ingestor.close();
+                check(games, events);
+            }
+            System.out.printf("%-24s %14.0f events/sec%n", "record()", best);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Checks that every event reached a game, then resets the records.
+     */
+    private static void check(List<Multiplayer> games, int events) {
+        long total = 0;
+        for (Multiplayer game : games) {
+            total += game.getWins() + game.getLosses();
+            game.setRecord(0, 0);
+        }
+        if (total != events) {
+            throw new IllegalStateException("Expected " + events + " results but folded " + total);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package videogameCollection.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import videogameCollection.DataManager;
+import videogameCollection.GameLibrary;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+import videogameCollection.storage.SerializationStorageEngine;
+
+/**
+ * Saving and loading a library and a profile owning every game, with the
+ * default serialization engine writing to a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    // Held so the level set here is not lost when the logger is collected
+    private static final Logger APP_LOGGER = Logger.getLogger("videogameCollection");
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private Path directory;
+    private List<AbstractGame> games;
+    private UserProfile profile;
+
+    @Setup
+    public void setUp() throws IOException {
+        APP_LOGGER.setLevel(Level.WARNING);
+        directory = Files.createTempDirectory("vgc-bench");
+        DataManager.setStorageEngine(new SerializationStorageEngine(directory.resolve("gamedata.ser").toFile(),
+                directory.resolve("profiledata.ser").toFile()));
+        games = BenchmarkData.games(size);
+        GameLibrary.setGames(games);
+        profile = BenchmarkData.profile(games);
+        if (!DataManager.saveData(games, profile)) {
+            throw new IllegalStateException("Initial save failed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        DataManager.getStorageEngine().deleteAll();
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public boolean saveData() {
+        return DataManager.saveData(games, profile);
+    }
+
+    @Benchmark
+    public Object[] loadData() {
+        return DataManager.loadData();
+    }
+}
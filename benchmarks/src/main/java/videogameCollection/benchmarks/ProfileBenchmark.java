@@ -0,0 +1,84 @@
+package videogameCollection.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import videogameCollection.GameGenre;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Searches, sorted listings and the average rating of a profile. Apart from
+ * the {@code Cached} variant, each call starts with an empty query cache,
+ * so the scan or sort itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private UserProfile profile;
+
+    @Setup
+    public void setUp() {
+        profile = BenchmarkData.profile(BenchmarkData.games(size));
+    }
+
+    @Benchmark
+    public List<AbstractGame> searchGamesByTitle() {
+        profile.getQueryCache().clear();
+        return profile.searchGamesByTitle("kingdom");
+    }
+
+    @Benchmark
+    public List<AbstractGame> searchGamesByGenre() {
+        profile.getQueryCache().clear();
+        return profile.searchGamesByGenre(GameGenre.ACTION);
+    }
+
+    @Benchmark
+    public List<AbstractGame> searchGamesByGenreCached() {
+        return profile.searchGamesByGenre(GameGenre.ACTION);
+    }
+
+    @Benchmark
+    public List<AbstractGame> getGamesSortedByTitle() {
+        profile.getQueryCache().clear();
+        return profile.getGamesSortedByTitle(true);
+    }
+
+    @Benchmark
+    public List<AbstractGame> getGamesSortedByReleaseYear() {
+        profile.getQueryCache().clear();
+        return profile.getGamesSortedByReleaseYear(false);
+    }
+
+    @Benchmark
+    public List<AbstractGame> getGamesSortedByRating() {
+        profile.getQueryCache().clear();
+        return profile.getGamesSortedByRating(false);
+    }
+
+    @Benchmark
+    public double getAverageRating() {
+        return profile.getAverageRating();
+    }
+}
@@ -0,0 +1,96 @@
+package videogameCollection.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Compares the string and typed ways of updating progress.
+ * <p>
+ * Usage: {@code ProgressBenchmark [updates] [rounds]}. Each path applies
+ * {@code updates} progress updates to a game with no listeners, and the
+ * benchmark reports the best time per update over the rounds and the bytes
+ * allocated per update, where the JVM can measure them. The string paths
+ * parse prepared strings, or format the numbers first as a feed of match
+ * results would have to.
+ */
+public class ProgressBenchmark {
+    private static final int TOTAL_LEVELS = 1_000;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional update count and number of rounds
+     */
+    public static void main(String[] args) {
+        int updates = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Multiplayer arena = new Multiplayer("Arena", "Action", "PC", 2020, "Studio");
+        SinglePlayer quest = new SinglePlayer("Quest", "RPG", "PC", 2020, "Studio", TOTAL_LEVELS);
+        String[] records = new String[1024];
+        String[] levels = new String[1024];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = i + "/" + (i / 2);
+            levels[i] = String.valueOf(i % TOTAL_LEVELS);
+        }
+
+        System.out.printf("%d updates, best of %d rounds%n", updates, rounds);
+        System.out.printf("%-40s %10s %14s%n", "path", "ns/update", "bytes/update");
+        run("Multiplayer.updateProgress(prepared)", updates, rounds,
+                i -> arena.updateProgress(records[i & 1023]));
+        run("Multiplayer.updateProgress(formatted)", updates, rounds,
+                i -> arena.updateProgress((i & 1023) + "/" + (i & 511)));
+        run("Multiplayer.setRecord", updates, rounds,
+                i -> arena.setRecord(i & 1023, i & 511));
+        arena.setRecord(0, 0);
+        run("Multiplayer.recordWin", updates, rounds,
+                i -> arena.recordWin());
+        run("SinglePlayer.updateProgress(prepared)", updates, rounds,
+                i -> quest.updateProgress(levels[i & 1023]));
+        run("SinglePlayer.setLevelsCompleted", updates, rounds,
+                i -> quest.setLevelsCompleted(i % TOTAL_LEVELS));
+        run("SinglePlayer.completeLevel", updates, rounds, i -> {
+            if (quest.getLevelsCompleted() == TOTAL_LEVELS) {
+                quest.setLevelsCompleted(0);
+            }
+            quest.completeLevel();
+        });
+    }
+
+    private static void run(String name, int updates, int rounds, IntConsumer update) {
+        double bestNanos = Double.MAX_VALUE;
+        long bytes = -1;
+        for (int round = 0; round <= rounds; round++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < updates; i++) {
+                update.accept(i);
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+            // Round 0 warms up
+            if (round > 0) {
+                bestNanos = Math.min(bestNanos, (double) elapsed / updates);
+                if (allocatedBefore >= 0) {
+                    bytes = allocatedAfter - allocatedBefore;
+                }
+            }
+        }
+        System.out.printf("%-40s %10.1f %14s%n", name, bestNanos,
+                bytes < 0 ? "n/a" : String.format("%.1f", (double) bytes / updates));
+    }
+
+    /**
+     * Gets the bytes allocated by the current thread, or -1 if the JVM
+     * cannot tell.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,62 @@
+package videogameCollection.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import videogameCollection.GameGenre;
+import videogameCollection.GamePlatform;
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Parsing and applying progress strings with {@code updateProgress}. The
+ * values cycle upwards through a fixed set, so nearly every update is an
+ * increase, as in normal play.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressParsingBenchmark {
+    private static final int VALUES = 1024;
+
+    private final String[] levels = new String[VALUES];
+    private final String[] records = new String[VALUES];
+    private SinglePlayer singlePlayer;
+    private Multiplayer multiplayer;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < VALUES; i++) {
+            levels[i] = Integer.toString(i);
+            records[i] = (i + i / 2) + "/" + (i / 2);
+        }
+        singlePlayer = new SinglePlayer("Quest", GameGenre.ROLE_PLAYING, GamePlatform.PC, 2020, "Studio", VALUES);
+        multiplayer = new Multiplayer("Arena", GameGenre.SHOOTER, GamePlatform.PC, 2020, "Studio");
+    }
+
+    @Benchmark
+    public SinglePlayer singlePlayerUpdateProgress() {
+        singlePlayer.updateProgress(levels[next++ & (VALUES - 1)]);
+        return singlePlayer;
+    }
+
+    @Benchmark
+    public Multiplayer multiplayerUpdateProgress() {
+        multiplayer.updateProgress(records[next++ & (VALUES - 1)]);
+        return multiplayer;
+    }
+}
@@ -0,0 +1,88 @@
+package videogameCollection.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import videogameCollection.DataGenerator;
+import videogameCollection.GamePlatform;
+import videogameCollection.Recommender;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Measures how the recommender scales with users and games.
+ * <p>
+ * Usage: {@code RecommenderBenchmark [ratingsPerUser] [threads]}. For each
+ * combination of 1,000 to 20,000 users and 1,000 to 20,000 games from
+ * {@link DataGenerator}, every user rates {@code ratingsPerUser} games,
+ * drawn with a skew towards popular games. The benchmark reports the time of the first (full) build,
+ * of an incremental refresh after one user changes one rating, and the
+ * average time to recommend ten games to a user owning 50 games.
+ */
+public class RecommenderBenchmark {
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional ratings per user and thread count
+     */
+    public static void main(String[] args) {
+        int ratingsPerUser = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int[] userCounts = { 1_000, 5_000, 20_000 };
+        int[] gameCounts = { 1_000, 5_000, 20_000 };
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        System.out.printf("%d ratings per user, %d threads%n", ratingsPerUser, threads);
+        System.out.printf("%8s %8s %12s %14s %8s %14s%n", "users", "games", "build ms", "refresh ms", "rows", "recommend us");
+        for (int userCount : userCounts) {
+            for (int gameCount : gameCounts) {
+                List<AbstractGame> games = new DataGenerator().games(gameCount);
+                Random random = new Random(42);
+                Recommender recommender = new Recommender(games, Recommender.DEFAULT_NEIGHBORS, pool);
+                for (int user = 0; user < userCount; user++) {
+                    for (int i = 0; i < ratingsPerUser; i++) {
+                        recommender.setRating("user" + user, popularGame(random, gameCount), 1 + random.nextInt(5));
+                    }
+                }
+
+                long start = System.nanoTime();
+                recommender.refresh();
+                double buildMillis = (System.nanoTime() - start) / 1e6;
+
+                recommender.setRating("user0", popularGame(random, gameCount), 1 + random.nextInt(5));
+                int rows = recommender.refresh();
+                double refreshMillis = recommender.getLastRefreshMillis();
+
+                UserProfile profile = new UserProfile("Benchmark", GamePlatform.PC);
+                for (int i = 0; i < 50; i++) {
+                    AbstractGame game = games.get(popularGame(random, gameCount) - 1);
+                    profile.addGame(game);
+                    profile.rateGame(game, 1 + random.nextInt(5));
+                }
+                int calls = 2_000;
+                for (int i = 0; i < calls; i++) {
+                    recommender.recommend(profile, 10);
+                }
+                start = System.nanoTime();
+                for (int i = 0; i < calls; i++) {
+                    recommender.recommend(profile, 10);
+                }
+                double recommendMicros = (System.nanoTime() - start) / 1e3 / calls;
+
+                System.out.printf("%8d %8d %12.1f %14.2f %8d %14.1f%n",
+                        userCount, gameCount, buildMillis, refreshMillis, rows, recommendMicros);
+            }
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Picks a game ID, with low IDs far more popular than high ones.
+     */
+    private static int popularGame(Random random, int gameCount) {
+        double u = random.nextDouble();
+        return 1 + (int) (gameCount * u * u * u);
+    }
+}
@@ -0,0 +1,94 @@
+package videogameCollection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes and reads small files that end with a CRC-32 of their contents.
+ * A file is written to a temporary sibling and moved into place atomically,
+ * so readers see either the old contents or the new ones, and a damaged
+ * file fails its checksum instead of being half read.
+ */
+final class ChecksummedFile {
+
+    /**
+     * Writes the contents of a file.
+     */
+    @FunctionalInterface
+    interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads the contents of a file.
+     *
+     * @param <T> The type read
+     */
+    @FunctionalInterface
+    interface Parser<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private ChecksummedFile() {
+    }
+
+    /**
+     * Writes a file, replacing it atomically, creating its directory if needed.
+     *
+     * @param file The file
+     * @param body Writes the contents, without the checksum
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, Body body) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream stream = Files.newOutputStream(temp);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new CheckedOutputStream(stream, crc)))) {
+            body.write(out);
+            out.flush();
+            // The checksum covers everything before it
+            new DataOutputStream(stream).writeLong(crc.getValue());
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a file written by {@link #write}, checking its checksum.
+     *
+     * @param <T> The type read
+     * @param file The file
+     * @param description What the file holds, for error messages
+     * @param parser Reads the contents, without the checksum
+     * @return What the parser returned, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    static <T> T read(Path file, String description, Parser<T> parser) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file))) {
+            T result = parser.read(new DataInputStream(new CheckedInputStream(stream, crc)));
+            long expected = crc.getValue();
+            if (new DataInputStream(stream).readLong() != expected) {
+                throw new IOException(description + " checksum mismatch: " + file);
+            }
+            return result;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package videogameCollection;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.logging.Logger;
+
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Non-interactive access to the collection for server and batch modes.
+ * Wraps the same domain operations the console menus use, addressing games
+ * by catalog ID instead of prompting on standard input. The profile is
+ * tracked by {@link Leaderboards}.
+ */
+public class CollectionService {
+    private static final Logger LOGGER = Logger.getLogger(CollectionService.class.getName());
+
+    private final UserProfile profile;
+
+    /**
+     * Creates a service over an already loaded profile.
+     * The profile's games are linked into the shared game library.
+     *
+     * @param profile The profile to operate on
+     */
+    public CollectionService(UserProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Profile cannot be null");
+        }
+        this.profile = profile;
+        GameLibrary.linkProfile(profile);
+        Leaderboards.track(profile);
+    }
+
+    /**
+     * Loads the saved library and profile and creates a service over them.
+     *
+     * @return The service
+     */
+    @SuppressWarnings("unchecked")
+    public static CollectionService loadFromDisk() {
+        Object[] data = DataManager.loadData();
+        GameLibrary.setGames((List<AbstractGame>) data[0]);
+        UserProfile profile = (UserProfile) data[1];
+        DataManager.markLoaded(profile);
+        LOGGER.info("Serving collection for user: " + profile.getUsername());
+        return new CollectionService(profile);
+    }
+
+    /**
+     * Gets the profile this service operates on.
+     *
+     * @return The user profile
+     */
+    public UserProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Creates a game and adds it to the library and the user's collection.
+     *
+     * @param type "single" or "multiplayer"
+     * @param title The title of the game
+     * @param genre The genre display name
+     * @param platform The platform display name
+     * @param releaseYear The release year
+     * @param developer The developer
+     * @param totalLevels The total levels (single-player games only)
+     * @return The added game
+     * @throws IllegalArgumentException if any value is invalid
+     */
+    public AbstractGame addGame(String type, String title, String genre, String platform,
+                                int releaseYear, String developer, int totalLevels) {
+        AbstractGame game;
+        if ("single".equalsIgnoreCase(type)) {
+            game = new SinglePlayer(title, genre, platform, releaseYear, developer, totalLevels);
+        } else if ("multiplayer".equalsIgnoreCase(type)) {
+            game = new Multiplayer(title, genre, platform, releaseYear, developer);
+        } else {
+            throw new IllegalArgumentException("Game type must be 'single' or 'multiplayer'");
+        }
+
+        GameLibrary.register(game);
+        profile.addGame(game);
+        return game;
+    }
+
+    /**
+     * Gets an owned game by ID.
+     *
+     * @param id The game ID
+     * @return The game
+     * @throws NoSuchElementException if the user owns no game with that ID
+     */
+    public AbstractGame getGame(int id) {
+        AbstractGame game = GameLibrary.findById(id);
+        if (game == null || !profile.ownsGame(game)) {
+            throw new NoSuchElementException("No game with ID " + id + " in your collection");
+        }
+        return game;
+    }
+
+    /**
+     * Searches the user's games.
+     *
+     * @param field "title", "genre" or "platform"
+     * @param value The value to search for
+     * @return The matching games
+     * @throws IllegalArgumentException if the field is unknown
+     */
+    public List<AbstractGame> search(String field, String value) {
+        if (field == null) {
+            return profile.getGamesOwned();
+        }
+        switch (field.toLowerCase()) {
+            case "title":
+                return profile.searchGamesByTitle(value);
+            case "genre":
+                return profile.searchGamesByGenre(GameGenre.fromString(value));
+            case "platform":
+                return profile.searchGamesByPlatform(GamePlatform.fromString(value));
+            default:
+                throw new IllegalArgumentException("Unknown search field: " + field);
+        }
+    }
+
+    /**
+     * Lists the user's games in sorted order.
+     *
+     * @param key "title", "year" or "rating"
+     * @param ascending true for ascending order, false for descending
+     * @return The sorted games
+     * @throws IllegalArgumentException if the sort key is unknown
+     */
+    public List<AbstractGame> sort(String key, boolean ascending) {
+        switch (key == null ? "" : key.toLowerCase()) {
+            case "title":
+                return profile.getGamesSortedByTitle(ascending);
+            case "year":
+                return profile.getGamesSortedByReleaseYear(ascending);
+            case "rating":
+                return profile.getGamesSortedByRating(ascending);
+            default:
+                throw new IllegalArgumentException("Unknown sort key: " + key);
+        }
+    }
+
+    /**
+     * Rates an owned game.
+     *
+     * @param id The game ID
+     * @param rating The rating (1-5)
+     * @return The rated game
+     */
+    public AbstractGame rate(int id, int rating) {
+        AbstractGame game = getGame(id);
+        profile.rateGame(game, rating);
+        return game;
+    }
+
+    /**
+     * Reviews an owned game.
+     *
+     * @param id The game ID
+     * @param review The review text
+     * @return The reviewed game
+     */
+    public AbstractGame review(int id, String review) {
+        AbstractGame game = getGame(id);
+        profile.reviewGame(game, review);
+        return game;
+    }
+
+    /**
+     * Updates the progress of an owned game.
+     *
+     * @param id The game ID
+     * @param progressData The progress in the game's own format
+     * @return The updated game
+     */
+    public AbstractGame updateProgress(int id, String progressData) {
+        AbstractGame game = getGame(id);
+        game.updateProgress(progressData);
+        return game;
+    }
+
+    /**
+     * Removes a game from the user's collection and the library.
+     *
+     * @param id The game ID
+     * @return The removed game
+     */
+    public AbstractGame remove(int id) {
+        AbstractGame game = getGame(id);
+        profile.removeGame(game);
+        GameLibrary.remove(game);
+        return game;
+    }
+
+    /**
+     * Saves the library and profile.
+     *
+     * @return true if the data was saved successfully, false otherwise
+     */
+    public boolean save() {
+        return DataManager.saveData(GameLibrary.getGames(), profile);
+    }
+}
@@ -0,0 +1,490 @@
+package videogameCollection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Generates large, realistic game catalogs and users for load and scale
+ * tests, always the same for the same seed.
+ * <p>
+ * Game {@code i} and user {@code i} are each derived from the seed and their
+ * index alone, so any slice of a dataset can be generated on its own, in
+ * any order or in parallel, and matches the same slice of the full dataset.
+ * Game {@code i} has catalog ID {@code i + 1}.
+ * <p>
+ * Developers follow a Zipf distribution, so a few studios make many games
+ * and most make one or two. Genres and platforms are skewed by fixed
+ * weights, release years lean towards recent ones, and titles are drawn
+ * from a small vocabulary. Shooters, battle royales and the like are
+ * usually multiplayer. Each game comes with progress already made.
+ * <p>
+ * Users own a log-normally distributed number of games (about 20 for a
+ * typical user, a few hundred for collectors), picked by a Zipf distribution
+ * over catalog IDs so that low IDs are the popular games. Most owned games
+ * are rated, mostly favourably, and some are reviewed. Every owned game has
+ * the user's own progress: levels completed, or a win/loss record.
+ * <p>
+ * Usage: {@code DataGenerator [games] [users] [seed] [profileDirectory]}.
+ * The catalog is streamed to the storage engine chosen by {@link DataManager},
+ * and each user is written to a {@link ProfileStore} in the directory
+ * (default {@code profiles}) as it is generated.
+ */
+public class DataGenerator {
+    public static final long DEFAULT_SEED = 42;
+
+    private static final long GAME_STREAM = 1;
+    private static final long USER_STREAM = 2;
+    private static final int DEVELOPERS = 5_000;
+    private static final double DEVELOPER_EXPONENT = 1.0;
+    private static final double POPULARITY_EXPONENT = 0.9;
+    private static final int MAX_OWNED = 2_000;
+    private static final double RATED_SHARE = 0.7;
+    private static final double REVIEWED_SHARE = 0.15;
+    private static final int[] RATING_WEIGHTS = { 5, 10, 20, 35, 30 };
+
+    private static final String[] ADJECTIVES = {
+        "Crimson", "Silent", "Eternal", "Broken", "Hidden", "Iron", "Lost", "Neon", "Shattered", "Golden",
+        "Frozen", "Savage", "Ancient", "Last", "Endless", "Dark", "Wild", "Forgotten", "Rising", "Hollow",
+        "Stellar", "Burning", "Cursed", "Little", "Mighty", "Quantum", "Rogue", "Sacred", "Twisted", "Final"
+    };
+    private static final String[] NOUNS = {
+        "Kingdom", "Legends", "Frontier", "Horizon", "Empire", "Odyssey", "Dungeon", "Protocol", "Saga", "Realm",
+        "Outpost", "Tides", "Circuit", "Knight", "Harvest", "Skies", "Arena", "Colony", "Siege", "Voyage",
+        "Wasteland", "Dynasty", "Machine", "Garden", "Hunters", "Rebellion", "Station", "Crown", "Abyss", "Drift"
+    };
+    private static final String[] SUFFIXES = {
+        "", "", "", "", "", " II", " III", " 4", ": Remastered", ": Origins", " Tactics", " Chronicles", " Deluxe"
+    };
+    private static final String[] STUDIO_NAMES = {
+        "Iron", "Blue", "Pixel", "Red", "Silver", "Moon", "Lantern", "Northern", "Copper", "Maple",
+        "Falcon", "Granite", "Orbit", "Willow", "Ember", "Harbor", "Echo", "Cobalt", "Summit", "Fable"
+    };
+    private static final String[] STUDIO_KINDS = {
+        "Studios", "Games", "Interactive", "Works", "Entertainment", "Softworks", "Labs", "Digital", "Forge", "Collective"
+    };
+    private static final String[] PRAISE = {
+        "The combat feels tight and responsive.", "Gorgeous art direction throughout.",
+        "The story kept me hooked until the end.", "Great level design with lots of secrets.",
+        "Plays smoothly even on older hardware.", "The soundtrack is outstanding.",
+        "Easy to pick up and hard to put down.", "Co-op with friends is a blast."
+    };
+    private static final String[] CRITICISM = {
+        "Too many bugs at launch.", "The difficulty spikes are frustrating.",
+        "The story drags in the middle.", "Performance drops in busy scenes.",
+        "Matchmaking takes far too long.", "Repetitive missions after a few hours.",
+        "The controls feel floaty.", "Overpriced for the amount of content."
+    };
+
+    private static final double[] GENRE_WEIGHTS = cumulative(GameGenre.values());
+    private static final double[] PLATFORM_WEIGHTS = cumulative(GamePlatform.values());
+
+    private final long seed;
+    private final Zipf developers = new Zipf(DEVELOPERS, DEVELOPER_EXPONENT);
+
+    /**
+     * Samples ranks 1..n with probability proportional to 1 / rank^exponent
+     * in constant time and memory, by rejection-inversion (Hormann and
+     * Derflinger, 1996).
+     */
+    private static final class Zipf {
+        private final int n;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        Zipf(int n, double exponent) {
+            this.n = n;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralN = hIntegral(n + 0.5);
+            this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+        }
+
+        int sample(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInverse(u);
+                int k = (int) Math.max(1, Math.min(n, (long) (x + 0.5)));
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1.0 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = Math.max(-1.0, x * (1.0 - exponent));
+            return Math.exp(helper1(t) * x);
+        }
+
+        // log1p(x) / x and expm1(x) / x, accurate near 0
+        private static double helper1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+
+        private static double helper2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+        }
+    }
+
+    /**
+     * Creates a generator with the {@value #DEFAULT_SEED} seed shared by the benchmarks.
+     */
+    public DataGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed The seed every game and user is derived from
+     */
+    public DataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates one game of the catalog.
+     *
+     * @param index The position of the game in the catalog, from 0
+     * @return The game, with catalog ID {@code index + 1}
+     * @throws IllegalArgumentException if the index is negative or the last int
+     */
+    public AbstractGame game(int index) {
+        if (index < 0 || index == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Game index must be between 0 and " + (Integer.MAX_VALUE - 1));
+        }
+        SplittableRandom random = random(GAME_STREAM, index);
+        GameGenre genre = GameGenre.values()[pick(random, GENRE_WEIGHTS)];
+        GamePlatform platform = GamePlatform.values()[pick(random, PLATFORM_WEIGHTS)];
+        // Weighted towards recent years, as catalogs are
+        int year = 2025 - (int) (45 * random.nextDouble() * random.nextDouble());
+        String developer = developerName(developers.sample(random) - 1);
+        String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                + SUFFIXES[random.nextInt(SUFFIXES.length)];
+
+        AbstractGame game;
+        if (random.nextDouble() < (isOnlineGenre(genre) ? 0.8 : 0.1)) {
+            Multiplayer multiplayer = new Multiplayer(title, genre, platform, year, developer);
+            int matches = (int) Math.exp(random.nextDouble() * 8);
+            double skill = Math.max(0.05, Math.min(0.95, 0.5 + 0.12 * random.nextGaussian()));
+            int wins = (int) Math.round(matches * skill);
+            multiplayer.importRecord(wins, matches - wins);
+            game = multiplayer;
+        } else {
+            int levels = 5 + random.nextInt(116);
+            SinglePlayer singlePlayer = new SinglePlayer(title, genre, platform, year, developer, levels);
+            // Most players stop early; some finish
+            double reached = random.nextDouble() < 0.15 ? 1.0 : random.nextDouble() * random.nextDouble();
+            singlePlayer.setLevelsCompleted((int) (levels * reached));
+            game = singlePlayer;
+        }
+        game.setId(index + 1);
+        return game;
+    }
+
+    /**
+     * Generates the first games of the catalog, passing each on as soon as
+     * it is made; for example {@code generateGames(1_000_000, GameLibrary::register)}
+     * fills the library without holding a second copy.
+     *
+     * @param count The number of games
+     * @param sink Receives the games in catalog order
+     * @throws IllegalArgumentException if count is negative
+     */
+    public void generateGames(int count, Consumer<? super AbstractGame> sink) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        for (int i = 0; i < count; i++) {
+            sink.accept(game(i));
+        }
+    }
+
+    /**
+     * Generates the first games of the catalog into a list.
+     *
+     * @param count The number of games
+     * @return The games, with IDs 1..count
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<AbstractGame> games(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        List<AbstractGame> games = new ArrayList<>(count);
+        generateGames(count, games::add);
+        return games;
+    }
+
+    /**
+     * Generates one user over a catalog of the given size.
+     *
+     * @param index The user's position, from 0; the username is derived from it
+     * @param catalogSize The number of games in the catalog (IDs 1..catalogSize)
+     * @return The user's owned games, progress, ratings and reviews
+     * @throws IllegalArgumentException if the index is negative or the catalog is empty
+     */
+    public StoredProfile user(int index, int catalogSize) {
+        if (index < 0) {
+            throw new IllegalArgumentException("User index cannot be negative");
+        }
+        if (catalogSize <= 0) {
+            throw new IllegalArgumentException("Catalog size must be positive");
+        }
+        SplittableRandom random = random(USER_STREAM, index);
+        GamePlatform platform = GamePlatform.values()[pick(random, PLATFORM_WEIGHTS)];
+        StoredProfile user = new StoredProfile(String.format("player%06d", index), platform);
+
+        int target = (int) Math.min(Math.min(MAX_OWNED, catalogSize),
+                Math.max(1, Math.round(Math.exp(3.0 + random.nextGaussian()))));
+        Zipf popularity = new Zipf(catalogSize, POPULARITY_EXPONENT);
+        // Popular games are drawn again and again, so give up before the loop gets long
+        for (int attempts = 0; user.getGameCount() < target && attempts < 4 * target; attempts++) {
+            user.addGame(popularity.sample(random));
+        }
+        for (int id : user.getOwnedIds()) {
+            if (random.nextDouble() >= RATED_SHARE) {
+                continue;
+            }
+            int rating = 1 + pick(random, RATING_WEIGHTS);
+            user.rateGame(id, rating);
+            if (random.nextDouble() < REVIEWED_SHARE) {
+                user.reviewGame(id, review(random, rating));
+            }
+        }
+        for (int id : user.getOwnedIds()) {
+            AbstractGame game = game(id - 1);
+            if (game instanceof SinglePlayer) {
+                int levels = ((SinglePlayer) game).getTotalLevels();
+                double reached = random.nextDouble() < 0.15 ? 1.0 : random.nextDouble() * random.nextDouble();
+                user.setGameProgress(id, (int) (levels * reached), 0);
+            } else {
+                int matches = (int) Math.exp(random.nextDouble() * 6);
+                double skill = Math.max(0.05, Math.min(0.95, 0.5 + 0.12 * random.nextGaussian()));
+                int wins = (int) Math.round(matches * skill);
+                user.setGameProgress(id, wins, matches - wins);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Generates one user as a full profile over a catalog of games generated
+     * by this generator. The profile owns copies of the catalog's games that
+     * hold the user's progress.
+     *
+     * @param index The user's position, from 0
+     * @param catalog The catalog, in catalog order
+     * @return The profile
+     * @throws IllegalArgumentException if the index is negative or the catalog is empty
+     */
+    public UserProfile profile(int index, List<AbstractGame> catalog) {
+        return user(index, catalog.size()).toUserProfile(id -> catalog.get(id - 1));
+    }
+
+    /**
+     * Generates users and writes each to a profile store as soon as it is
+     * made, so memory use stays flat however many users there are.
+     *
+     * @param count The number of users
+     * @param catalogSize The number of games in the catalog
+     * @param store The store to write to
+     * @throws IOException if a profile cannot be written
+     * @throws IllegalArgumentException if count is negative or the catalog is empty
+     */
+    public void generateUsers(int count, int catalogSize, ProfileStore store) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        for (int i = 0; i < count; i++) {
+            store.save(user(i, catalogSize));
+        }
+    }
+
+    /**
+     * Generates a catalog and users and writes them to disk.
+     *
+     * @param args Optional game count, user count, seed and profile directory
+     * @throws IOException if the data cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        Path profiles = Paths.get(args.length > 3 ? args[3] : "profiles");
+        DataGenerator generator = new DataGenerator(seed);
+
+        // Each game is generated as the engine asks for it, so engines that
+        // stream never hold the whole catalog
+        long start = System.nanoTime();
+        DataManager.getStorageEngine().saveGames(IntStream.range(0, gameCount).mapToObj(generator::game).iterator());
+        double gameSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games generated and saved in %.2f s (%.0f/s)%n", gameCount, gameSeconds,
+                gameCount / gameSeconds);
+
+        start = System.nanoTime();
+        generator.generateUsers(userCount, gameCount, new ProfileStore(profiles));
+        double userSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d users generated and saved to %s in %.2f s (%.0f/s)%n", userCount, profiles,
+                userSeconds, userCount / userSeconds);
+    }
+
+    /**
+     * Creates the random source of one game or user, independent of all others.
+     */
+    private SplittableRandom random(long stream, int index) {
+        return new SplittableRandom(mix(seed + mix(stream * 0x9E3779B97F4A7C15L + index)));
+    }
+
+    /**
+     * Scrambles the bits of a value (the SplitMix64 finalizer).
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int pick(SplittableRandom random, double[] cumulative) {
+        double u = random.nextDouble() * cumulative[cumulative.length - 1];
+        int i = 0;
+        while (cumulative[i] <= u) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int pick(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int u = random.nextInt(total);
+        int i = 0;
+        while (u >= weights[i]) {
+            u -= weights[i++];
+        }
+        return i;
+    }
+
+    /**
+     * Sums the weights of enum values in declaration order, for {@link #pick(SplittableRandom, double[])}.
+     */
+    private static double[] cumulative(Enum<?>[] values) {
+        double[] sums = new double[values.length];
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i] instanceof GameGenre ? weight((GameGenre) values[i]) : weight((GamePlatform) values[i]);
+            sums[i] = sum;
+        }
+        return sums;
+    }
+
+    private static int weight(GameGenre genre) {
+        switch (genre) {
+            case ACTION:
+                return 14;
+            case ADVENTURE:
+                return 10;
+            case ACTION_ADVENTURE:
+            case ROLE_PLAYING:
+                return 9;
+            case SHOOTER:
+                return 8;
+            case PUZZLE:
+                return 7;
+            case STRATEGY:
+            case SIMULATION:
+                return 6;
+            case PLATFORMER:
+            case SPORTS:
+                return 5;
+            case RACING:
+                return 4;
+            case HORROR:
+            case FIGHTING:
+            case OPEN_WORLD:
+            case SURVIVAL:
+                return 3;
+            case BATTLE_ROYALE:
+            case MMORPG:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    private static int weight(GamePlatform platform) {
+        switch (platform) {
+            case PC:
+                return 30;
+            case PLAYSTATION_5:
+            case NINTENDO_SWITCH:
+                return 14;
+            case PLAYSTATION_4:
+                return 12;
+            case MOBILE:
+                return 10;
+            case XBOX_SERIES_X:
+                return 8;
+            case XBOX_ONE:
+                return 6;
+            case MULTIPLE:
+                return 5;
+            default:
+                return 1;
+        }
+    }
+
+    private static boolean isOnlineGenre(GameGenre genre) {
+        switch (genre) {
+            case SHOOTER:
+            case BATTLE_ROYALE:
+            case MMORPG:
+            case FIGHTING:
+            case SPORTS:
+            case RACING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String developerName(int rank) {
+        int names = STUDIO_NAMES.length * STUDIO_KINDS.length;
+        String name = STUDIO_NAMES[rank % STUDIO_NAMES.length] + " "
+                + STUDIO_KINDS[(rank / STUDIO_NAMES.length) % STUDIO_KINDS.length];
+        return rank < names ? name : name + " " + (rank / names + 1);
+    }
+
+    private static String review(SplittableRandom random, int rating) {
+        StringBuilder review = new StringBuilder(rating >= 4 ? "Loved it." : rating == 3 ? "Decent." : "Disappointing.");
+        int sentences = 1 + random.nextInt(3);
+        for (int i = 0; i < sentences; i++) {
+            boolean positive = random.nextInt(5) < rating;
+            String[] pool = positive ? PRAISE : CRITICISM;
+            review.append(' ').append(pool[random.nextInt(pool.length)]);
+        }
+        return review.toString();
+    }
+}
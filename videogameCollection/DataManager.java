@@ -1,54 +1,139 @@
 package videogameCollection;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import videogameCollection.game.AbstractGame;
+import videogameCollection.storage.CatalogLoad;
+import videogameCollection.storage.ChunkedStorageEngine;
+import videogameCollection.storage.InMemoryStorageEngine;
+import videogameCollection.storage.IncrementalStorageEngine;
+import videogameCollection.storage.IndexedStorageEngine;
+import videogameCollection.storage.LazyLoadable;
+import videogameCollection.storage.LsmStorageEngine;
+import videogameCollection.storage.SegmentedStorageEngine;
+import videogameCollection.storage.SerializationStorageEngine;
+import videogameCollection.storage.StorageEngine;
 
 /**
  * Handles data persistence for the video game collection application.
  * Provides methods to save and load game and user profile data.
+ * <p>
+ * The actual storage format is provided by a {@link StorageEngine}. The
+ * default engine is chosen with the {@code vgc.storage} system property:
+ * {@code serialization} (the default, {@code gamedata.ser} and
+ * {@code profiledata.ser}), {@code compressed} (the same files, written
+ * block-compressed), {@code lsm} (a log-structured store),
+ * {@code indexed} (an indexed catalog that supports lazy loading),
+ * {@code chunked} (chunks decoded in parallel), {@code segmented} (only
+ * changed ID ranges are rewritten) or {@code memory}. The directory-based
+ * engines keep their files in the directory named by
+ * {@code vgc.storage.dir}, by default {@code gamedata.lsm},
+ * {@code gamedata.idx}, {@code gamedata.chunks} or {@code gamedata.segments}.
+ * <p>
+ * If the {@code vgc.reviews.dir} property names a directory, each profile's
+ * review text is kept there in a {@link ReviewStore} instead of in the
+ * profile, so loading a profile does not read its reviews. The full-text
+ * {@link ReviewIndex} of the reviews is saved next to it and reused at
+ * startup unless the reviews changed after it was saved.
+ * <p>
+ * If the {@code vgc.history.dir} property names a directory, each profile's
+ * {@link ProgressHistory} is saved there with the profile and attached again
+ * when it is loaded, so the history survives restarts.
  */
 public class DataManager {
-    private static final String GAME_FILE = "gamedata.ser";
-    private static final String PROFILE_FILE = "profiledata.ser";
     private static final Logger LOGGER = Logger.getLogger(DataManager.class.getName());
 
+    private static final Map<String, String> DIRECTORY_SUFFIXES = Map.of(
+            "lsm", "lsm", "indexed", "idx", "chunked", "chunks", "segmented", "segments");
+
+    private static StorageEngine engine = createDefaultEngine();
+    private static final Map<String, ReviewStore> reviewStores = new HashMap<>();
+
+    /**
+     * Gets the storage engine used for saving and loading.
+     *
+     * @return The storage engine
+     */
+    public static synchronized StorageEngine getStorageEngine() {
+        return engine;
+    }
+
     /**
-     * Saves game library and user profile data to files.
+     * Replaces the storage engine. The previous engine is not closed.
+     *
+     * @param storageEngine The new storage engine
+     * @throws IllegalArgumentException if the engine is null
+     */
+    public static synchronized void setStorageEngine(StorageEngine storageEngine) {
+        if (storageEngine == null) {
+            throw new IllegalArgumentException("Storage engine cannot be null");
+        }
+        engine = storageEngine;
+    }
+
+    /**
+     * Saves game library and user profile data.
+     * <p>
+     * If the engine is an {@link IncrementalStorageEngine}, only the segments
+     * marked in {@link GameLibrary#getChanges()} and the profile's
+     * {@link UserProfile#getChanges()} are written; the marks are cleared on
+     * success and kept if saving fails.
      *
      * @param games The list of games to save
      * @param profile The user profile to save
      * @return true if the data was saved successfully, false otherwise
      */
     public static boolean saveData(List<AbstractGame> games, UserProfile profile) {
-        boolean success;
+        StorageEngine storage = getStorageEngine();
+        IncrementalStorageEngine incremental = storage instanceof IncrementalStorageEngine
+                ? (IncrementalStorageEngine) storage : null;
+        boolean success = true;
 
         // Save games
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(GAME_FILE))) {
-            oos.writeObject(games);
-            LOGGER.info("Games saved successfully to " + GAME_FILE);
-            success = true;
-        } catch (IOException e) {
+        DirtySegments gameChanges = GameLibrary.getChanges().drain();
+        try {
+            if (incremental != null) {
+                incremental.saveGames(games, gameChanges);
+            } else {
+                storage.saveGames(games);
+            }
+            LOGGER.info("Saved " + games.size() + " games");
+        } catch (IOException | RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Error saving games", e);
+            GameLibrary.getChanges().restore(gameChanges);
             success = false;
         }
 
         // Save profile
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(PROFILE_FILE))) {
-            oos.writeObject(profile);
-            LOGGER.info("Profile saved successfully to " + PROFILE_FILE);
-            success = true;
-        } catch (IOException e) {
+        DirtySegments profileChanges = profile.getChanges().drain();
+        try {
+            attachReviewStore(profile);
+            if (incremental != null) {
+                incremental.saveProfile(profile, profileChanges);
+            } else {
+                storage.saveProfile(profile);
+            }
+            LOGGER.info("Profile saved successfully for user: " + profile.getUsername());
+            saveReviewIndex(profile);
+            saveProgressHistory(profile);
+        } catch (IOException | RuntimeException e) {
             LOGGER.log(Level.SEVERE, "Error saving profile", e);
+            profile.getChanges().restore(profileChanges);
             success = false;
         }
 
@@ -56,63 +141,331 @@ public class DataManager {
     }
 
     /**
-     * Loads game library and user profile data from files.
+     * Records that the game library and a profile match the saved data, so
+     * that the next save only writes what changes from now on. Call this
+     * after installing the result of {@link #loadData()} with
+     * {@link GameLibrary#setGames(List)} and before linking the profile.
+     *
+     * @param profile The loaded profile
+     */
+    public static void markLoaded(UserProfile profile) {
+        GameLibrary.getChanges().clear();
+        profile.getChanges().clear();
+    }
+
+    /**
+     * Loads game library and user profile data.
      *
      * @return An array containing the games list at index 0 and the user profile at index 1
      */
     public static Object[] loadData() {
+        StorageEngine storage = getStorageEngine();
         List<AbstractGame> games = new ArrayList<>();
-        UserProfile profile = new UserProfile("Guest", GamePlatform.OTHER);
+        UserProfile profile = null;
 
-        // Load games
-        File gameFile = new File(GAME_FILE);
-        if (gameFile.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(gameFile))) {
-                games = (List<AbstractGame>) ois.readObject();
-                LOGGER.info("Loaded " + games.size() + " games from " + GAME_FILE);
-            } catch (IOException | ClassNotFoundException e) {
-                LOGGER.log(Level.SEVERE, "Error loading games", e);
+        // Load the profile on another thread while the games load here
+        CompletableFuture<UserProfile> profileLoad = CompletableFuture.supplyAsync(() -> {
+            try {
+                return storage.loadProfile();
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
-        } else {
-            LOGGER.info("Game file not found. Starting with empty game library.");
+        });
+
+        // Load games
+        try {
+            games = storage.loadGames();
+            LOGGER.info("Loaded " + games.size() + " games");
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Error loading games", e);
         }
 
         // Load profile
-        File profileFile = new File(PROFILE_FILE);
-        if (profileFile.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(profileFile))) {
-                profile = (UserProfile) ois.readObject();
-                LOGGER.info("Loaded profile for user: " + profile.getUsername());
-            } catch (IOException | ClassNotFoundException e) {
-                LOGGER.log(Level.SEVERE, "Error loading profile", e);
-            }
+        try {
+            profile = profileLoad.join();
+        } catch (CompletionException e) {
+            LOGGER.log(Level.SEVERE, "Error loading profile", e.getCause());
+        }
+        if (profile == null) {
+            LOGGER.info("No saved profile found. Starting with default profile.");
+            profile = new UserProfile("Guest", GamePlatform.OTHER);
         } else {
-            LOGGER.info("Profile file not found. Starting with default profile.");
+            LOGGER.info("Loaded profile for user: " + profile.getUsername());
         }
+        attachSavedState(profile);
 
         return new Object[] { games, profile };
     }
 
     /**
-     * Deletes all saved data files.
+     * Waits for a load started with {@link #loadLazily} to finish, then
+     * attaches the profile's review store, review index and progress
+     * history, as {@link #loadData()} does. Without them the next save
+     * would replace the saved history with an empty one.
      *
-     * @return true if all files were deleted successfully, false otherwise
+     * @param load The running load
+     * @return The fully loaded profile, or null if none was saved
+     * @throws IOException if loading failed
+     */
+    public static UserProfile awaitLazyLoad(CatalogLoad load) throws IOException {
+        UserProfile profile = load.await();
+        if (profile != null) {
+            attachSavedState(profile);
+        }
+        return profile;
+    }
+
+    /**
+     * Attaches the state kept beside the stored profile. Failures are logged,
+     * so the profile is usable without it.
+     */
+    private static void attachSavedState(UserProfile profile) {
+        try {
+            attachReviewStore(profile);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error opening review store", e);
+        }
+        try {
+            attachReviewIndex(profile);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Error indexing reviews", e);
+        }
+        attachProgressHistory(profile);
+    }
+
+    /**
+     * Starts loading in the background if the storage engine supports it,
+     * so the caller can continue before the whole catalog has been read.
+     *
+     * @param onGameLoaded Called once for every game as it is decoded
+     * @return The running load, or null if the engine can only load eagerly
+     *         or the lazy load could not be started
+     */
+    public static CatalogLoad loadLazily(Consumer<AbstractGame> onGameLoaded) {
+        StorageEngine storage = getStorageEngine();
+        if (!(storage instanceof LazyLoadable)) {
+            return null;
+        }
+        try {
+            return ((LazyLoadable) storage).startLazyLoad(onGameLoaded);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Error starting lazy load", e);
+            return null;
+        }
+    }
+
+    /**
+     * Deletes all saved data.
+     *
+     * @return true if all data was deleted successfully, false otherwise
      */
     public static boolean deleteAllData() {
-        boolean success = true;
+        try {
+            getStorageEngine().deleteAll();
+            synchronized (reviewStores) {
+                for (Map.Entry<String, ReviewStore> entry : reviewStores.entrySet()) {
+                    entry.getValue().clear();
+                    Files.deleteIfExists(reviewIndexFile(entry.getKey()));
+                }
+            }
+            String historyDirectory = System.getProperty("vgc.history.dir");
+            if (historyDirectory != null && Files.isDirectory(Paths.get(historyDirectory))) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(historyDirectory), "*.history")) {
+                    for (Path file : files) {
+                        Files.delete(file);
+                    }
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete saved data", e);
+            return false;
+        }
+    }
 
-        File gameFile = new File(GAME_FILE);
-        if (gameFile.exists() && !gameFile.delete()) {
-            LOGGER.warning("Failed to delete game file");
-            success = false;
+    /**
+     * Moves a profile's reviews into its review store if
+     * {@code vgc.reviews.dir} is set and the profile has no store yet.
+     * Stores stay open for the life of the application, one per username.
+     * If the profile was renamed since its store was opened, the review
+     * file is moved to the new username first, so the reviews are found
+     * under that name on the next start.
+     *
+     * @param profile The profile
+     * @throws IOException if the review store cannot be opened, moved or written
+     */
+    static void attachReviewStore(UserProfile profile) throws IOException {
+        String directory = System.getProperty("vgc.reviews.dir");
+        if (directory == null) {
+            return;
+        }
+        ReviewStore attached = profile.getReviewStore();
+        if (attached != null) {
+            followRename(attached, profile.getUsername());
+            return;
+        }
+        ReviewStore store;
+        synchronized (reviewStores) {
+            store = reviewStores.get(profile.getUsername());
+            if (store == null) {
+                store = new ReviewStore(reviewFile(directory, profile.getUsername()));
+                reviewStores.put(profile.getUsername(), store);
+            }
         }
+        profile.attachReviewStore(store);
+    }
 
-        File profileFile = new File(PROFILE_FILE);
-        if (profileFile.exists() && !profileFile.delete()) {
-            LOGGER.warning("Failed to delete profile file");
-            success = false;
+    /**
+     * Moves a review store opened under another username to the file of the
+     * given username. The saved review index of the old name is dropped; the
+     * index is saved again under the new name.
+     */
+    private static void followRename(ReviewStore store, String username) throws IOException {
+        synchronized (reviewStores) {
+            String previous = null;
+            for (Map.Entry<String, ReviewStore> entry : reviewStores.entrySet()) {
+                if (entry.getValue() == store) {
+                    previous = entry.getKey();
+                    break;
+                }
+            }
+            if (previous == null || previous.equals(username)) {
+                return;
+            }
+            store.moveTo(reviewFile(System.getProperty("vgc.reviews.dir"), username));
+            reviewStores.remove(previous);
+            reviewStores.put(username, store);
+            Files.deleteIfExists(reviewIndexFile(previous));
+            LOGGER.info("Moved reviews of " + previous + " to " + store.getFile());
         }
+    }
 
-        return success;
+    private static Path reviewFile(String directory, String username) {
+        return Paths.get(directory, ProfileStore.encodeFileName(username) + ".reviews");
+    }
+
+    /**
+     * Attaches the saved review index of a profile if {@code vgc.reviews.dir}
+     * is set. A missing, damaged or outdated index is rebuilt from the reviews.
+     *
+     * @param profile The profile
+     */
+    static void attachReviewIndex(UserProfile profile) {
+        Path file = reviewIndexFile(profile.getUsername());
+        if (file == null || profile.getReviewIndex() != null) {
+            return;
+        }
+        ReviewIndex index = null;
+        try {
+            index = ReviewIndex.load(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Rebuilding unreadable review index " + file, e);
+        }
+        profile.attachReviewIndex(index == null ? new ReviewIndex() : index);
+    }
+
+    /**
+     * Saves a profile's review index if {@code vgc.reviews.dir} is set. A
+     * failure is only logged, since the index can be rebuilt.
+     *
+     * @param profile The profile
+     */
+    private static void saveReviewIndex(UserProfile profile) {
+        Path file = reviewIndexFile(profile.getUsername());
+        ReviewIndex index = profile.getReviewIndex();
+        if (file == null || index == null) {
+            return;
+        }
+        // Taken before the index is written, so a review added meanwhile makes it look outdated
+        long fingerprint = profile.getReviewFingerprint();
+        try {
+            index.save(file, fingerprint);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Error saving review index " + file, e);
+        }
+    }
+
+    /**
+     * Attaches the saved progress history of a profile if
+     * {@code vgc.history.dir} is set. An unreadable history is logged and
+     * the profile keeps a new, empty one.
+     *
+     * @param profile The profile
+     */
+    static void attachProgressHistory(UserProfile profile) {
+        Path file = progressHistoryFile(profile.getUsername());
+        if (file == null) {
+            return;
+        }
+        try {
+            ProgressHistory history = ProgressHistory.load(file, Clock.systemDefaultZone());
+            if (history != null) {
+                profile.attachProgressHistory(history);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable progress history " + file, e);
+        }
+    }
+
+    /**
+     * Saves a profile's progress history if {@code vgc.history.dir} is set.
+     *
+     * @param profile The profile
+     * @throws IOException if the history cannot be written
+     */
+    private static void saveProgressHistory(UserProfile profile) throws IOException {
+        Path file = progressHistoryFile(profile.getUsername());
+        if (file != null) {
+            profile.getProgressHistory().save(file);
+        }
+    }
+
+    private static Path progressHistoryFile(String username) {
+        String directory = System.getProperty("vgc.history.dir");
+        return directory == null ? null
+                : Paths.get(directory, ProfileStore.encodeFileName(username) + ".history");
+    }
+
+    private static Path reviewIndexFile(String username) {
+        String directory = System.getProperty("vgc.reviews.dir");
+        return directory == null ? null
+                : Paths.get(directory, ProfileStore.encodeFileName(username) + ".reviewindex");
+    }
+
+    private static StorageEngine createDefaultEngine() {
+        String type = System.getProperty("vgc.storage", "serialization");
+        switch (type) {
+            case "memory":
+                return new InMemoryStorageEngine();
+            case "lsm":
+            case "indexed":
+            case "chunked":
+            case "segmented":
+                String directory = System.getProperty("vgc.storage.dir", "gamedata." + DIRECTORY_SUFFIXES.get(type));
+                try {
+                    switch (type) {
+                        case "lsm":
+                            return new LsmStorageEngine(Paths.get(directory));
+                        case "indexed":
+                            return new IndexedStorageEngine(Paths.get(directory));
+                        case "segmented":
+                            return new SegmentedStorageEngine(Paths.get(directory));
+                        default:
+                            return new ChunkedStorageEngine(Paths.get(directory));
+                    }
+                } catch (IOException e) {
+                    LOGGER.log(Level.SEVERE, "Cannot open " + type + " storage in " + directory
+                            + ", falling back to serialization files", e);
+                    return new SerializationStorageEngine();
+                }
+            case "serialization":
+                return new SerializationStorageEngine();
+            case "compressed":
+                return new SerializationStorageEngine(new File(SerializationStorageEngine.GAME_FILE),
+                        new File(SerializationStorageEngine.PROFILE_FILE), true);
+            default:
+                LOGGER.warning("Unknown storage engine '" + type + "', using serialization files");
+                return new SerializationStorageEngine();
+        }
     }
 }
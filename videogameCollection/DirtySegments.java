@@ -0,0 +1,127 @@
+package videogameCollection;
+
+import java.util.BitSet;
+
+/**
+ * Records which segments of a collection have changed since they were last saved.
+ * <p>
+ * A segment is a fixed range of {@link #SEGMENT_SIZE} game IDs. Adding,
+ * removing, rating, reviewing or updating the progress of a game marks the
+ * segment containing its ID, so a segmented snapshot only has to rewrite
+ * those segments. A new tracker starts with everything marked, since
+ * nothing about it is known to be on disk yet. All methods are thread-safe.
+ */
+public final class DirtySegments {
+    public static final int SEGMENT_SIZE = 256;
+
+    private final BitSet segments = new BitSet();
+    private boolean all = true;
+
+    /**
+     * Gets the segment that holds a game ID. Games without an ID share segment 0.
+     *
+     * @param id The game ID
+     * @return The segment number
+     */
+    public static int segmentOf(int id) {
+        return id <= 0 ? 0 : (id - 1) / SEGMENT_SIZE;
+    }
+
+    /**
+     * Marks the segment holding a game as changed.
+     *
+     * @param id The ID of the changed game
+     */
+    public synchronized void markGame(int id) {
+        if (!all) {
+            segments.set(segmentOf(id));
+        }
+    }
+
+    /**
+     * Marks every segment as changed.
+     */
+    public synchronized void markAll() {
+        all = true;
+        segments.clear();
+    }
+
+    /**
+     * Checks whether every segment is marked.
+     *
+     * @return true if the whole collection must be rewritten
+     */
+    public synchronized boolean isAllDirty() {
+        return all;
+    }
+
+    /**
+     * Checks whether a segment is marked.
+     *
+     * @param segment The segment number
+     * @return true if the segment has changed
+     */
+    public synchronized boolean isDirty(int segment) {
+        return all || segments.get(segment);
+    }
+
+    /**
+     * Gets the marked segments. Only meaningful when not {@link #isAllDirty()}.
+     *
+     * @return The marked segment numbers in ascending order
+     */
+    public synchronized int[] getSegments() {
+        return segments.stream().toArray();
+    }
+
+    /**
+     * Checks whether nothing has changed.
+     *
+     * @return true if no segment is marked
+     */
+    public synchronized boolean isClean() {
+        return !all && segments.isEmpty();
+    }
+
+    /**
+     * Takes the current changes and clears this tracker.
+     *
+     * @return A tracker holding the changes taken
+     */
+    public synchronized DirtySegments drain() {
+        DirtySegments taken = new DirtySegments();
+        taken.all = all;
+        taken.segments.or(segments);
+        clear();
+        return taken;
+    }
+
+    /**
+     * Marks again the changes of an earlier {@link #drain()}, for example
+     * because saving them failed.
+     *
+     * @param changes The changes to restore
+     */
+    public synchronized void restore(DirtySegments changes) {
+        synchronized (changes) {
+            if (changes.all) {
+                markAll();
+            } else if (!all) {
+                segments.or(changes.segments);
+            }
+        }
+    }
+
+    /**
+     * Clears all marks, recording that the collection matches what is on disk.
+     */
+    public synchronized void clear() {
+        all = false;
+        segments.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return all ? "DirtySegments{all}" : "DirtySegments" + segments;
+    }
+}
@@ -1,39 +1,187 @@
 package videogameCollection;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import videogameCollection.game.AbstractGame;
 import videogameCollection.game.Multiplayer;
 import videogameCollection.game.SinglePlayer;
 
+/**
+ * Shared catalog of every game known to the application.
+ * Each game is given a unique positive ID when it is added.
+ * All methods are synchronized so the library can be used from server threads.
+ * <p>
+ * Adding or removing a game, or updating its progress, marks the game's
+ * segment in {@link #getChanges()} so that a segmented snapshot only
+ * rewrites what changed.
+ */
 public class GameLibrary {
 
     private static List<AbstractGame> games = new ArrayList<>();
+    private static Map<Integer, AbstractGame> gamesById = new HashMap<>();
+    private static int nextId = 1;
+    private static final DirtySegments changes = new DirtySegments();
+    private static final AtomicLong version = new AtomicLong();
+    private static final AbstractGame.ProgressListener PROGRESS_LISTENER = game -> changes.markGame(game.getId());
 
-    public static void add(SinglePlayer sPgame1) {
-        games.add(sPgame1);
+    public static synchronized void add(SinglePlayer sPgame1) {
+        register(sPgame1);
     }
 
-    public static void add(Multiplayer mPgame3) {
-        games.add(mPgame3);
+    public static synchronized void add(Multiplayer mPgame3) {
+        register(mPgame3);
     }
 
-    public static void add(AbstractGame game) {
-        games.add(game);
+    public static synchronized void add(AbstractGame game) {
+        register(game);
         System.out.println("Game added to library: " + game.getTitle());
     }
 
-    public static List<AbstractGame> getGames() {
+    /**
+     * Adds a game to the library without printing a confirmation.
+     * Used by the non-interactive front ends.
+     *
+     * @param game The game to add
+     */
+    public static synchronized void register(AbstractGame game) {
+        assignId(game);
+        games.add(game);
+        gamesById.put(game.getId(), game);
+        game.addProgressListener(PROGRESS_LISTENER);
+        changes.markGame(game.getId());
+        version.incrementAndGet();
+    }
+
+    public static synchronized List<AbstractGame> getGames() {
         return new ArrayList<>(games);
     }
 
-    public static void setGames(List<AbstractGame> list) {
+    public static synchronized void setGames(List<AbstractGame> list) {
+        for (AbstractGame game : games) {
+            game.removeProgressListener(PROGRESS_LISTENER);
+        }
         games = new ArrayList<>(list);
+        gamesById = new HashMap<>();
+        nextId = 1;
+        for (AbstractGame game : games) {
+            nextId = Math.max(nextId, game.getId() + 1);
+        }
+        for (AbstractGame game : games) {
+            assignId(game);
+            gamesById.put(game.getId(), game);
+            game.addProgressListener(PROGRESS_LISTENER);
+        }
+        changes.markAll();
+        version.incrementAndGet();
+    }
+
+    public static synchronized void remove(AbstractGame game) {
+        if (games.remove(game)) {
+            if (gamesById.get(game.getId()) == game) {
+                gamesById.remove(game.getId());
+            }
+            game.removeProgressListener(PROGRESS_LISTENER);
+            changes.markGame(game.getId());
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the version of the library, which increases whenever a game is
+     * added, removed or replaced.
+     *
+     * @return The version
+     */
+    public static long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets the segments of the library changed since the last save.
+     *
+     * @return The live change tracker
+     */
+    public static DirtySegments getChanges() {
+        return changes;
+    }
+
+    /**
+     * Finds a game by its catalog ID.
+     *
+     * @param id The game ID
+     * @return The game, or null if no game has that ID
+     */
+    public static synchronized AbstractGame findById(int id) {
+        return gamesById.get(id);
+    }
+
+    /**
+     * Makes the library and a loaded profile share the same game instances.
+     * Games and profiles are saved to separate files, so after loading each
+     * owned game is a separate copy. The profile's copy carries the latest
+     * progress, so it replaces the library's copy with the same ID (or, for
+     * data saved before IDs existed, the same title, developer, platform and
+     * year). Owned games missing from the library are added to it.
+     *
+     * @param profile The profile whose games should be linked
+     */
+    public static synchronized void linkProfile(UserProfile profile) {
+        for (AbstractGame owned : profile.getGamesOwned()) {
+            int index = indexOfMatch(owned, profile);
+            if (index < 0) {
+                register(owned);
+                continue;
+            }
+
+            AbstractGame existing = games.get(index);
+            if (existing == owned) {
+                continue;
+            }
+            if (owned.getId() == 0) {
+                owned.setId(existing.getId());
+            }
+            games.set(index, owned);
+            gamesById.remove(existing.getId());
+            gamesById.put(owned.getId(), owned);
+            existing.removeProgressListener(PROGRESS_LISTENER);
+            owned.addProgressListener(PROGRESS_LISTENER);
+            changes.markGame(existing.getId());
+            changes.markGame(owned.getId());
+            version.incrementAndGet();
+        }
+    }
+
+    private static int indexOfMatch(AbstractGame game, UserProfile profile) {
+        if (game.getId() != 0) {
+            AbstractGame byId = gamesById.get(game.getId());
+            if (byId != null && byId.getClass() == game.getClass()) {
+                return games.indexOf(byId);
+            }
+        }
+        for (int i = 0; i < games.size(); i++) {
+            AbstractGame candidate = games.get(i);
+            if (candidate.getClass() == game.getClass()
+                    && !profile.ownsGame(candidate)
+                    && candidate.getTitle().equals(game.getTitle())
+                    && candidate.getDeveloper().equals(game.getDeveloper())
+                    && candidate.getPlatform() == game.getPlatform()
+                    && candidate.getReleaseYear() == game.getReleaseYear()) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    public static void remove(AbstractGame game) {
-        games.remove(game);
+    private static void assignId(AbstractGame game) {
+        if (game.getId() == 0 || (gamesById.containsKey(game.getId()) && gamesById.get(game.getId()) != game)) {
+            game.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, game.getId() + 1);
+        }
     }
 
 }
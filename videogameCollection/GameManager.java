@@ -14,6 +14,9 @@ import videogameCollection.game.SinglePlayer;
  */
 public class GameManager {
     private static final Scanner scanner = new Scanner(System.in);
+    private static Recommender recommender;
+    private static UserProfile recommenderProfile;
+    private static long recommenderCatalogVersion;
 
     /**
      * Adds a new game to the user's collection.
@@ -222,20 +225,20 @@ public class GameManager {
      * @param userProfile The user profile to display the library for
      */
     public static void viewLibrary(UserProfile userProfile) {
-        List<AbstractGame> games = userProfile.getGamesOwned();
-        if (games.isEmpty()) {
+        LibraryStatistics statistics = userProfile.getStatistics();
+        if (statistics.getTotal() == 0) {
             System.out.println("Your game library is empty. Add some games first!");
             return;
         }
 
         System.out.println("\n===== YOUR GAME LIBRARY =====");
-        System.out.println("Total games: " + games.size());
+        System.out.println("Total games: " + statistics.getTotal());
 
-        if (!userProfile.getGameRatings().isEmpty()) {
-            System.out.printf("Average rating: %.1f/5\n", userProfile.getAverageRating());
+        if (statistics.getRatedCount() > 0) {
+            System.out.printf("Average rating: %.1f/5\n", statistics.getAverageRating());
         }
 
-        UIHelper.displayGamesList(games);
+        UIHelper.displayGamesList(userProfile.getGamesOwnedPages(), UIHelper.ITEMS_PER_PAGE);
     }
 
     /**
@@ -248,8 +251,10 @@ public class GameManager {
         System.out.println("1. Search by title");
         System.out.println("2. Search by genre");
         System.out.println("3. Search by platform");
-        System.out.println("4. Return to main menu");
-        System.out.print("Choose an option (1-4): ");
+        System.out.println("4. Search review text");
+        System.out.println("5. What should I play next?");
+        System.out.println("6. Return to main menu");
+        System.out.print("Choose an option (1-6): ");
 
         try {
             int choice = Integer.parseInt(scanner.nextLine());
@@ -265,6 +270,12 @@ public class GameManager {
                     searchGamesByPlatform(userProfile);
                     break;
                 case 4:
+                    searchReviews(userProfile);
+                    break;
+                case 5:
+                    recommendGames(userProfile);
+                    break;
+                case 6:
                     return;
                 default:
                     System.out.println("Invalid choice. Please try again.");
@@ -296,6 +307,7 @@ public class GameManager {
             System.out.println("\nNo games found matching '" + title + "'.");
         } else {
             System.out.println("\nFound " + results.size() + " game(s):");
+            UIHelper.displayFacets(userProfile.getStatistics().facetsOf(results));
             UIHelper.displayGamesList(results);
         }
     }
@@ -320,6 +332,7 @@ public class GameManager {
                     System.out.println("No games found in the " + genre + " genre.");
                 } else {
                     System.out.println("\nFound " + results.size() + " game(s) in the " + genre + " genre:");
+                    UIHelper.displayFacets(userProfile.getStatistics().facetsOf(results));
                     UIHelper.displayGamesList(results);
                 }
             } else {
@@ -350,6 +363,7 @@ public class GameManager {
                     System.out.println("No games found on the " + platform + " platform.");
                 } else {
                     System.out.println("\nFound " + results.size() + " game(s) on the " + platform + " platform:");
+                    UIHelper.displayFacets(userProfile.getStatistics().facetsOf(results));
                     UIHelper.displayGamesList(results);
                 }
             } else {
@@ -360,6 +374,68 @@ public class GameManager {
         }
     }
 
+    /**
+     * Searches the text of the user's reviews and lists the best matches.
+     *
+     * @param userProfile The user profile whose reviews to search
+     */
+    private static void searchReviews(UserProfile userProfile) {
+        System.out.print("\nEnter words to search for (or press Enter to cancel): ");
+        String query = scanner.nextLine().trim();
+
+        if (query.isEmpty()) {
+            System.out.println("Search cancelled.");
+            return;
+        }
+
+        List<ReviewIndex.Hit> hits = userProfile.searchReviews(query, 10);
+        if (hits.isEmpty()) {
+            System.out.println("\nNo reviews found matching '" + query + "'.");
+            return;
+        }
+
+        System.out.println("\nFound " + hits.size() + " review(s):");
+        for (ReviewIndex.Hit hit : hits) {
+            AbstractGame game = GameLibrary.findById(hit.getGameId());
+            String title = game != null ? game.getTitle() : "Game #" + hit.getGameId();
+            System.out.printf("%s (%.2f)%n  %s%n", title, hit.getScore(), hit.getSnippet());
+        }
+    }
+
+    /**
+     * Recommends catalog games the user does not own, based on the games
+     * they own and rate. The recommender is kept between calls and only
+     * rebuilt when the profile changes or the library version moves on.
+     *
+     * @param userProfile The user profile to recommend games for
+     */
+    private static void recommendGames(UserProfile userProfile) {
+        // Read before the games, so a change made meanwhile triggers another rebuild next time
+        long catalogVersion = GameLibrary.getVersion();
+        if (recommender == null || recommenderProfile != userProfile || recommenderCatalogVersion != catalogVersion) {
+            if (recommender != null) {
+                recommender.removeProfile(recommenderProfile);
+            }
+            recommender = new Recommender(GameLibrary.getGames());
+            recommender.addProfile(userProfile);
+            recommenderProfile = userProfile;
+            recommenderCatalogVersion = catalogVersion;
+        }
+        recommender.refresh();
+
+        List<Recommender.Recommendation> recommendations = recommender.recommend(userProfile, 10);
+        if (recommendations.isEmpty()) {
+            System.out.println("\nNo recommendations yet. Add and rate some games first!");
+            return;
+        }
+        System.out.println("\nYou might like:");
+        for (Recommender.Recommendation recommendation : recommendations) {
+            System.out.printf("%s (%s, %s) - because you own %s%n", recommendation.getGame().getTitle(),
+                recommendation.getGame().getGenreString(), recommendation.getGame().getPlatformString(),
+                recommendation.getBecause().getTitle());
+        }
+    }
+
     /**
      * Displays the sort games menu and handles user input.
      *
@@ -539,6 +615,9 @@ public class GameManager {
 
         System.out.println("\nSelected game: " + gameToUpdate.getTitle());
         System.out.println("Current progress: " + gameToUpdate.getProgress());
+        if (gameToUpdate instanceof Multiplayer) {
+            System.out.println("Recent form: " + ((Multiplayer) gameToUpdate).getRecentProgress());
+        }
 
         if (gameToUpdate instanceof SinglePlayer) {
             SinglePlayer spGame = (SinglePlayer) gameToUpdate;
@@ -555,6 +634,9 @@ public class GameManager {
             gameToUpdate.updateProgress(progressData);
             System.out.println("Progress updated successfully!");
             System.out.println("New progress: " + gameToUpdate.getProgress());
+            if (gameToUpdate instanceof Multiplayer) {
+                System.out.println("Recent form: " + ((Multiplayer) gameToUpdate).getRecentProgress());
+            }
         } catch (IllegalArgumentException e) {
             System.out.println("Error updating progress: " + e.getMessage());
         }
@@ -0,0 +1,421 @@
+package videogameCollection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Minimal JSON support for the non-interactive front ends.
+ * Parses objects, arrays, strings, numbers, booleans and null, and renders
+ * games and simple values without any external library.
+ */
+public class JsonUtil {
+
+    /**
+     * Parses a JSON document.
+     *
+     * @param json The JSON text
+     * @return A Map, List, String, Long, Double, Boolean or null
+     * @throws IllegalArgumentException if the text is not valid JSON
+     */
+    public static Object parse(String json) {
+        Parser parser = new Parser(json);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) {
+            throw new IllegalArgumentException("Unexpected trailing characters at position " + parser.pos);
+        }
+        return value;
+    }
+
+    /**
+     * Parses a JSON document that must be an object.
+     *
+     * @param json The JSON text
+     * @return The parsed object
+     * @throws IllegalArgumentException if the text is not a JSON object
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String json) {
+        Object value = parse(json);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Gets a required string field from a parsed object.
+     *
+     * @param object The parsed object
+     * @param field The field name
+     * @return The field value
+     * @throws IllegalArgumentException if the field is missing or not a string
+     */
+    public static String getString(Map<String, Object> object, String field) {
+        Object value = object.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    /**
+     * Gets a required integer field from a parsed object.
+     *
+     * @param object The parsed object
+     * @param field The field name
+     * @return The field value
+     * @throws IllegalArgumentException if the field is missing or not an integer
+     */
+    public static int getInt(Map<String, Object> object, String field) {
+        Object value = object.get(field);
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException("Field '" + field + "' must be an integer");
+        }
+        return Math.toIntExact((Long) value);
+    }
+
+    /**
+     * Renders a game as a JSON object.
+     *
+     * @param game The game to render
+     * @param profile The profile used to look up rating and review, or null
+     * @return The JSON text
+     */
+    public static String toJson(AbstractGame game, UserProfile profile) {
+        StringBuilder sb = new StringBuilder(192);
+        appendGame(sb, game, profile);
+        return sb.toString();
+    }
+
+    /**
+     * Renders a list of games as a JSON array.
+     *
+     * @param games The games to render
+     * @param profile The profile used to look up ratings and reviews, or null
+     * @return The JSON text
+     */
+    public static String toJson(List<AbstractGame> games, UserProfile profile) {
+        StringBuilder sb = new StringBuilder(64 + games.size() * 192);
+        sb.append('[');
+        for (int i = 0; i < games.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendGame(sb, games.get(i), profile);
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Renders a single-field object, for example {"error":"..."}.
+     *
+     * @param field The field name
+     * @param value The field value (String, Number, Boolean or null)
+     * @return The JSON text
+     */
+    public static String toJson(String field, Object value) {
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        appendString(sb, field);
+        sb.append(':');
+        appendValue(sb, value);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Renders a string as a quoted JSON string literal.
+     *
+     * @param value The string, or null
+     * @return The JSON text
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        appendString(sb, value);
+        return sb.toString();
+    }
+
+    private static void appendGame(StringBuilder sb, AbstractGame game, UserProfile profile) {
+        sb.append("{\"id\":").append(game.getId());
+        sb.append(",\"type\":").append(game instanceof Multiplayer ? "\"multiplayer\"" : "\"single\"");
+        sb.append(",\"title\":");
+        appendString(sb, game.getTitle());
+        sb.append(",\"genre\":");
+        appendString(sb, game.getGenre().getDisplayName());
+        sb.append(",\"platform\":");
+        appendString(sb, game.getPlatform().getDisplayName());
+        sb.append(",\"releaseYear\":").append(game.getReleaseYear());
+        sb.append(",\"developer\":");
+        appendString(sb, game.getDeveloper());
+        if (game instanceof SinglePlayer) {
+            SinglePlayer sp = (SinglePlayer) game;
+            sb.append(",\"levelsCompleted\":").append(sp.getLevelsCompleted());
+            sb.append(",\"totalLevels\":").append(sp.getTotalLevels());
+        } else if (game instanceof Multiplayer) {
+            Multiplayer mp = (Multiplayer) game;
+            sb.append(",\"wins\":").append(mp.getWins());
+            sb.append(",\"losses\":").append(mp.getLosses());
+        }
+        sb.append(",\"progress\":");
+        appendString(sb, game.getProgress());
+        if (profile != null) {
+            sb.append(",\"rating\":");
+            appendValue(sb, profile.getGameRating(game));
+            sb.append(",\"review\":");
+            appendValue(sb, profile.getGameReview(game));
+        }
+        sb.append('}');
+    }
+
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            sb.append(value);
+        } else {
+            appendString(sb, value.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Recursive-descent JSON parser.
+     */
+    private static class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            if (text == null) {
+                throw new IllegalArgumentException("JSON text cannot be null");
+            }
+            this.text = text;
+        }
+
+        Object readValue() {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            char c = text.charAt(pos);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    return readLiteral("true", Boolean.TRUE);
+                case 'f':
+                    return readLiteral("false", Boolean.FALSE);
+                case 'n':
+                    return readLiteral("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return readNumber();
+                    }
+                    throw error("Unexpected character '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            pos++; // '{'
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected a field name");
+                }
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                object.put(key, readValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            pos++; // '['
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                char c = next();
+                if (c == ']') {
+                    return array;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+
+        private String readString() {
+            pos++; // opening quote
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append(escaped);
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(text, pos, pos + 4, 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("Invalid escape '\\" + escaped + "'");
+                }
+            }
+        }
+
+        private Object readNumber() {
+            int start = pos;
+            boolean decimal = false;
+            if (peek() == '-') {
+                pos++;
+            }
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c >= '0' && c <= '9') {
+                    pos++;
+                } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                    decimal = true;
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+            String number = text.substring(start, pos);
+            try {
+                return decimal ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + number + "'");
+            }
+        }
+
+        private Object readLiteral(String literal, Object value) {
+            if (!text.startsWith(literal, pos)) {
+                throw error("Unexpected token");
+            }
+            pos += literal.length();
+            return value;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private char next() {
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(pos++);
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+}
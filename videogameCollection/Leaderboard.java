@@ -0,0 +1,259 @@
+package videogameCollection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A ranking of keys by a percentage score, highest first, kept up to date
+ * one key at a time.
+ * <p>
+ * Entries are held in a concurrent skip list ordered by score and then by
+ * key, so top-N and around-me queries walk only the entries they return.
+ * Scores are counted to a hundredth of a percent in a Fenwick tree of
+ * atomic counters, so the rank of a key (one plus the number of keys with a
+ * higher score; equal scores share a rank) takes a logarithmic number of
+ * reads however many keys there are. Updates to the same key are applied
+ * one at a time, and updates to different keys run concurrently; a query
+ * that overlaps an update may see it half applied, off by one rank.
+ *
+ * @param <K> The key type, such as a username or game ID
+ */
+public class Leaderboard<K extends Comparable<K>> {
+    public static final double MAX_SCORE = 100.0;
+
+    private static final int UNITS_PER_POINT = 100;
+    private static final int MAX_UNITS = (int) (MAX_SCORE * UNITS_PER_POINT);
+
+    /**
+     * A key's place in the ranking. Immutable.
+     *
+     * @param <K> The key type
+     */
+    public static final class Entry<K> {
+        private final K key;
+        private final double score;
+        private final int rank;
+
+        private Entry(K key, double score, int rank) {
+            this.key = key;
+            this.score = score;
+            this.rank = rank;
+        }
+
+        /**
+         * Gets the ranked key.
+         *
+         * @return The key
+         */
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the key's score.
+         *
+         * @return The score, to a hundredth of a percent
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the key's rank.
+         *
+         * @return The rank, starting at 1
+         */
+        public int getRank() {
+            return rank;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + rank + " " + key + " (" + score + "%)";
+        }
+    }
+
+    /**
+     * A key with its score in hundredths, ordered highest score first.
+     */
+    private static final class Node<K extends Comparable<K>> implements Comparable<Node<K>> {
+        final K key;
+        final int units;
+
+        Node(K key, int units) {
+            this.key = key;
+            this.units = units;
+        }
+
+        @Override
+        public int compareTo(Node<K> other) {
+            if (units != other.units) {
+                return Integer.compare(other.units, units);
+            }
+            return key.compareTo(other.key);
+        }
+    }
+
+    private final ConcurrentSkipListSet<Node<K>> order = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<K, Node<K>> nodes = new ConcurrentHashMap<>();
+    // Fenwick tree over positions 1..MAX_UNITS+1, position 1 holding the highest score
+    private final AtomicLongArray counts = new AtomicLongArray(MAX_UNITS + 2);
+
+    /**
+     * Sets the score of a key, adding it if it is not ranked yet.
+     *
+     * @param key The key
+     * @param score The score, from 0 to 100
+     * @throws IllegalArgumentException if the key is null or the score is out of range
+     */
+    public void update(K key, double score) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (!(score >= 0 && score <= MAX_SCORE)) {
+            throw new IllegalArgumentException("Score must be between 0 and " + MAX_SCORE);
+        }
+        int units = (int) Math.round(score * UNITS_PER_POINT);
+        nodes.compute(key, (k, previous) -> {
+            if (previous != null) {
+                if (previous.units == units) {
+                    return previous;
+                }
+                order.remove(previous);
+                count(previous.units, -1);
+            }
+            Node<K> node = new Node<>(k, units);
+            order.add(node);
+            count(units, 1);
+            return node;
+        });
+    }
+
+    /**
+     * Removes a key from the ranking.
+     *
+     * @param key The key
+     */
+    public void remove(K key) {
+        nodes.computeIfPresent(key, (k, previous) -> {
+            order.remove(previous);
+            count(previous.units, -1);
+            return null;
+        });
+    }
+
+    /**
+     * Gets the rank of a key.
+     *
+     * @param key The key
+     * @return The rank, starting at 1, or -1 if the key is not ranked
+     */
+    public int getRank(K key) {
+        Node<K> node = nodes.get(key);
+        return node == null ? -1 : rankOf(node.units);
+    }
+
+    /**
+     * Gets the score of a key.
+     *
+     * @param key The key
+     * @return The score, or -1 if the key is not ranked
+     */
+    public double getScore(K key) {
+        Node<K> node = nodes.get(key);
+        return node == null ? -1 : toScore(node.units);
+    }
+
+    /**
+     * Gets the highest ranked keys.
+     *
+     * @param limit The maximum number of entries
+     * @return The entries, best first
+     */
+    public List<Entry<K>> getTop(int limit) {
+        List<Entry<K>> top = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        Iterator<Node<K>> nodes = order.iterator();
+        int rank = 0;
+        int previousUnits = -1;
+        while (top.size() < limit && nodes.hasNext()) {
+            Node<K> node = nodes.next();
+            if (node.units != previousUnits) {
+                rank = top.size() + 1;
+                previousUnits = node.units;
+            }
+            top.add(new Entry<>(node.key, toScore(node.units), rank));
+        }
+        return top;
+    }
+
+    /**
+     * Gets a key's entry with up to {@code radius} entries ranked just above
+     * and just below it.
+     *
+     * @param key The key
+     * @param radius The number of neighbours on each side
+     * @return The entries, best first, or an empty list if the key is not ranked
+     */
+    public List<Entry<K>> getAround(K key, int radius) {
+        Node<K> node = key == null ? null : nodes.get(key);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<Node<K>> window = new ArrayList<>(2 * radius + 1);
+        Iterator<Node<K>> above = order.headSet(node, false).descendingIterator();
+        while (window.size() < radius && above.hasNext()) {
+            window.add(above.next());
+        }
+        Collections.reverse(window);
+        int end = window.size() + radius + 1;
+        Iterator<Node<K>> below = order.tailSet(node, true).iterator();
+        while (window.size() < end && below.hasNext()) {
+            window.add(below.next());
+        }
+        List<Entry<K>> entries = new ArrayList<>(window.size());
+        for (Node<K> neighbour : window) {
+            entries.add(new Entry<>(neighbour.key, toScore(neighbour.units), rankOf(neighbour.units)));
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the number of ranked keys.
+     *
+     * @return The key count
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Leaderboard{keys=" + nodes.size() + "}";
+    }
+
+    /**
+     * One plus the number of keys scoring above the given score.
+     */
+    private int rankOf(int units) {
+        long above = 0;
+        for (int position = MAX_UNITS - units; position > 0; position -= position & -position) {
+            above += counts.get(position);
+        }
+        return (int) above + 1;
+    }
+
+    private void count(int units, int delta) {
+        for (int position = MAX_UNITS + 1 - units; position < counts.length(); position += position & -position) {
+            counts.addAndGet(position, delta);
+        }
+    }
+
+    private static double toScore(int units) {
+        return (double) units / UNITS_PER_POINT;
+    }
+}
@@ -0,0 +1,176 @@
+package videogameCollection;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import videogameCollection.game.AbstractGame;
+
+/**
+ * The leaderboards of every tracked profile, updated whenever a game is
+ * added, removed or makes progress.
+ * <p>
+ * Each user has a board ranking their games by completion percentage, and
+ * each game has a board ranking the users who own it by their completion
+ * percentage in it. For a multiplayer game the completion percentage is the
+ * win rate, so the same boards rank players by win rate. Games are ranked by
+ * catalog ID; games without one are not ranked.
+ * <p>
+ * Scores are read from the game instances each profile owns, so every
+ * tracked profile must own its own copies. Profiles loaded from a
+ * {@link ProfileStore} do; two profiles holding the same instance would
+ * always tie.
+ */
+public class Leaderboards {
+    private static final Map<String, Leaderboard<Integer>> userBoards = new ConcurrentHashMap<>();
+    private static final Map<Integer, Leaderboard<String>> gameBoards = new ConcurrentHashMap<>();
+    private static final Map<UserProfile, Tracker> trackers = new IdentityHashMap<>();
+
+    /**
+     * Keeps the boards current for one profile, under the username the
+     * profile had when it was last ranked.
+     */
+    private static final class Tracker implements UserProfile.CollectionListener {
+        private String username;
+
+        Tracker(String username) {
+            this.username = username;
+        }
+
+        @Override
+        public synchronized void collectionChanged(UserProfile profile, AbstractGame game) {
+            if (!profile.getUsername().equals(username)) {
+                Leaderboards.forget(username);
+                username = profile.getUsername();
+                for (AbstractGame owned : profile.getGamesOwned()) {
+                    rank(username, profile, owned);
+                }
+            } else {
+                rank(username, profile, game);
+            }
+        }
+
+        synchronized void rankAll(UserProfile profile) {
+            for (AbstractGame owned : profile.getGamesOwned()) {
+                rank(username, profile, owned);
+            }
+        }
+
+        synchronized void forget() {
+            Leaderboards.forget(username);
+        }
+    }
+
+    /**
+     * Ranks a profile's games and keeps them ranked as they change. Tracking
+     * a profile twice has no further effect.
+     *
+     * @param profile The profile
+     * @throws IllegalArgumentException if the profile is null
+     */
+    public static void track(UserProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Profile cannot be null");
+        }
+        Tracker tracker;
+        synchronized (trackers) {
+            if (trackers.containsKey(profile)) {
+                return;
+            }
+            tracker = new Tracker(profile.getUsername());
+            trackers.put(profile, tracker);
+        }
+        profile.addCollectionListener(tracker);
+        tracker.rankAll(profile);
+    }
+
+    /**
+     * Stops tracking a profile and removes it from every board.
+     *
+     * @param profile The profile
+     */
+    public static void untrack(UserProfile profile) {
+        Tracker tracker;
+        synchronized (trackers) {
+            tracker = trackers.remove(profile);
+        }
+        if (tracker != null) {
+            profile.removeCollectionListener(tracker);
+            tracker.forget();
+        }
+    }
+
+    /**
+     * Gets the board ranking a user's games by completion percentage.
+     *
+     * @param username The username
+     * @return The board, keyed by game ID; empty if the user is not tracked
+     */
+    public static Leaderboard<Integer> getUserBoard(String username) {
+        Leaderboard<Integer> board = userBoards.get(username);
+        return board == null ? new Leaderboard<>() : board;
+    }
+
+    /**
+     * Gets the board ranking the owners of a game by their completion
+     * percentage, or win rate for a multiplayer game.
+     *
+     * @param gameId The game's catalog ID
+     * @return The board, keyed by username; empty if nobody tracked owns the game
+     */
+    public static Leaderboard<String> getGameBoard(int gameId) {
+        Leaderboard<String> board = gameBoards.get(gameId);
+        return board == null ? new Leaderboard<>() : board;
+    }
+
+    /**
+     * Stops tracking every profile and clears the boards.
+     */
+    public static void clear() {
+        List<UserProfile> profiles;
+        synchronized (trackers) {
+            profiles = new ArrayList<>(trackers.keySet());
+        }
+        for (UserProfile profile : profiles) {
+            untrack(profile);
+        }
+        userBoards.clear();
+        gameBoards.clear();
+    }
+
+    private static void rank(String username, UserProfile profile, AbstractGame game) {
+        int id = game.getId();
+        if (id <= 0) {
+            return;
+        }
+        if (profile.ownsGame(game)) {
+            double score = Math.max(0, Math.min(Leaderboard.MAX_SCORE, game.getCompletionPercentage()));
+            userBoards.computeIfAbsent(username, name -> new Leaderboard<>()).update(id, score);
+            gameBoards.computeIfAbsent(id, key -> new Leaderboard<>()).update(username, score);
+        } else {
+            Leaderboard<Integer> userBoard = userBoards.get(username);
+            if (userBoard != null) {
+                userBoard.remove(id);
+            }
+            Leaderboard<String> gameBoard = gameBoards.get(id);
+            if (gameBoard != null) {
+                gameBoard.remove(username);
+            }
+        }
+    }
+
+    private static void forget(String username) {
+        Leaderboard<Integer> userBoard = userBoards.remove(username);
+        if (userBoard == null) {
+            return;
+        }
+        for (Leaderboard.Entry<Integer> entry : userBoard.getTop(Integer.MAX_VALUE)) {
+            Leaderboard<String> gameBoard = gameBoards.get(entry.getKey());
+            if (gameBoard != null) {
+                gameBoard.remove(username);
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package videogameCollection;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+
+/**
+ * Counts over the games in a collection, kept up to date as it changes.
+ * <p>
+ * For every game the facet values it was last counted under are
+ * remembered, so an update only moves one game between counters and never
+ * rescans the collection. Games are counted by genre, platform, release
+ * year, game type, rating (0 stars for unrated) and completion bucket, and
+ * the sum of ratings gives the average rating directly. A dashboard read
+ * costs time proportional to the number of facet values, whatever the size
+ * of the collection. All methods are thread-safe.
+ */
+public class LibraryStatistics {
+    public static final String SINGLE_PLAYER = "Single-player";
+    public static final String MULTIPLAYER = "Multiplayer";
+    static final String[] COMPLETION_BUCKETS = { "0%", "1-24%", "25-49%", "50-74%", "75-99%", "100%" };
+
+    /**
+     * The facet values a game is counted under.
+     */
+    private static final class Entry {
+        final GameGenre genre;
+        final GamePlatform platform;
+        final int year;
+        final boolean multiplayer;
+        final int rating;
+        final int completion;
+
+        Entry(AbstractGame game, Integer rating) {
+            this.genre = game.getGenre();
+            this.platform = game.getPlatform();
+            this.year = game.getReleaseYear();
+            this.multiplayer = game instanceof Multiplayer;
+            this.rating = rating == null ? 0 : rating;
+            this.completion = completionBucket(game.getCompletionPercentage());
+        }
+    }
+
+    /**
+     * Counts of a set of games by each facet. Immutable.
+     */
+    public static final class Facets {
+        private final int total;
+        private final int[] genres;
+        private final int[] platforms;
+        private final SortedMap<Integer, Integer> years;
+        private final int multiplayer;
+        private final int[] ratings;
+        private final int[] completion;
+        private final long ratingSum;
+
+        private Facets(int total, int[] genres, int[] platforms, SortedMap<Integer, Integer> years,
+                       int multiplayer, int[] ratings, int[] completion, long ratingSum) {
+            this.total = total;
+            this.genres = genres;
+            this.platforms = platforms;
+            this.years = Collections.unmodifiableSortedMap(years);
+            this.multiplayer = multiplayer;
+            this.ratings = ratings;
+            this.completion = completion;
+            this.ratingSum = ratingSum;
+        }
+
+        /**
+         * Gets the number of games.
+         *
+         * @return The game count
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Gets the number of games of each genre that has any.
+         *
+         * @return Counts by genre, in declaration order
+         */
+        public Map<GameGenre, Integer> getGenreCounts() {
+            Map<GameGenre, Integer> counts = new EnumMap<>(GameGenre.class);
+            for (GameGenre genre : GameGenre.values()) {
+                if (genres[genre.ordinal()] > 0) {
+                    counts.put(genre, genres[genre.ordinal()]);
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * Gets the number of games on each platform that has any.
+         *
+         * @return Counts by platform, in declaration order
+         */
+        public Map<GamePlatform, Integer> getPlatformCounts() {
+            Map<GamePlatform, Integer> counts = new EnumMap<>(GamePlatform.class);
+            for (GamePlatform platform : GamePlatform.values()) {
+                if (platforms[platform.ordinal()] > 0) {
+                    counts.put(platform, platforms[platform.ordinal()]);
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * Gets the number of games released in each year that has any.
+         *
+         * @return Counts by release year, oldest first
+         */
+        public SortedMap<Integer, Integer> getYearCounts() {
+            return years;
+        }
+
+        /**
+         * Gets the number of single-player and multiplayer games.
+         *
+         * @return Counts by game type
+         */
+        public Map<String, Integer> getTypeCounts() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            counts.put(SINGLE_PLAYER, total - multiplayer);
+            counts.put(MULTIPLAYER, multiplayer);
+            return counts;
+        }
+
+        /**
+         * Gets the number of games with each rating.
+         *
+         * @param stars The rating, or 0 for unrated games
+         * @return The game count
+         * @throws IllegalArgumentException if stars is not between 0 and 5
+         */
+        public int getRatingCount(int stars) {
+            if (stars < 0 || stars >= ratings.length) {
+                throw new IllegalArgumentException("Stars must be between 0 and 5");
+            }
+            return ratings[stars];
+        }
+
+        /**
+         * Gets the number of games in each completion bucket.
+         *
+         * @return Counts from "0%" to "100%"
+         */
+        public Map<String, Integer> getCompletionCounts() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (int i = 0; i < COMPLETION_BUCKETS.length; i++) {
+                counts.put(COMPLETION_BUCKETS[i], completion[i]);
+            }
+            return counts;
+        }
+
+        /**
+         * Gets the number of rated games.
+         *
+         * @return The rated game count
+         */
+        public int getRatedCount() {
+            return total - ratings[0];
+        }
+
+        /**
+         * Gets the average rating of the rated games.
+         *
+         * @return The average rating, or 0.0 if no game is rated
+         */
+        public double getAverageRating() {
+            int rated = getRatedCount();
+            return rated == 0 ? 0.0 : (double) ratingSum / rated;
+        }
+    }
+
+    private final Map<AbstractGame, Entry> entries = new HashMap<>();
+    private final int[] genres = new int[GameGenre.values().length];
+    private final int[] platforms = new int[GamePlatform.values().length];
+    private final TreeMap<Integer, Integer> years = new TreeMap<>();
+    private final int[] ratings = new int[6];
+    private final int[] completion = new int[COMPLETION_BUCKETS.length];
+    private int multiplayer;
+    private long ratingSum;
+
+    /**
+     * Recounts one game from its current state.
+     *
+     * @param game The game
+     * @param owned Whether the game is in the collection
+     * @param rating The game's rating, or null if unrated
+     */
+    public synchronized void update(AbstractGame game, boolean owned, Integer rating) {
+        Entry previous = entries.remove(game);
+        if (previous != null) {
+            count(previous, -1);
+        }
+        if (owned) {
+            Entry entry = new Entry(game, rating);
+            entries.put(game, entry);
+            count(entry, 1);
+        }
+    }
+
+    /**
+     * Gets the number of games in the collection.
+     *
+     * @return The game count
+     */
+    public synchronized int getTotal() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of rated games.
+     *
+     * @return The rated game count
+     */
+    public synchronized int getRatedCount() {
+        return entries.size() - ratings[0];
+    }
+
+    /**
+     * Gets the average rating of the rated games.
+     *
+     * @return The average rating, or 0.0 if no game is rated
+     */
+    public synchronized double getAverageRating() {
+        int rated = entries.size() - ratings[0];
+        return rated == 0 ? 0.0 : (double) ratingSum / rated;
+    }
+
+    /**
+     * Gets the number of games of a genre.
+     *
+     * @param genre The genre
+     * @return The game count
+     */
+    public synchronized int getCount(GameGenre genre) {
+        return genres[genre.ordinal()];
+    }
+
+    /**
+     * Gets the number of games on a platform.
+     *
+     * @param platform The platform
+     * @return The game count
+     */
+    public synchronized int getCount(GamePlatform platform) {
+        return platforms[platform.ordinal()];
+    }
+
+    /**
+     * Gets the counts of the whole collection.
+     *
+     * @return A snapshot of every facet
+     */
+    public synchronized Facets getFacets() {
+        return new Facets(entries.size(), genres.clone(), platforms.clone(), new TreeMap<>(years),
+                multiplayer, ratings.clone(), completion.clone(), ratingSum);
+    }
+
+    /**
+     * Counts a set of games, such as a search result, by each facet. Games in
+     * the collection are counted with their rating; other games as unrated.
+     *
+     * @param games The games to count
+     * @return The counts
+     */
+    public Facets facetsOf(Collection<AbstractGame> games) {
+        int[] genreCounts = new int[genres.length];
+        int[] platformCounts = new int[platforms.length];
+        TreeMap<Integer, Integer> yearCounts = new TreeMap<>();
+        int[] ratingCounts = new int[ratings.length];
+        int[] completionCounts = new int[completion.length];
+        int multiplayerCount = 0;
+        long sum = 0;
+        synchronized (this) {
+            for (AbstractGame game : games) {
+                Entry entry = entries.get(game);
+                if (entry == null) {
+                    entry = new Entry(game, null);
+                }
+                genreCounts[entry.genre.ordinal()]++;
+                platformCounts[entry.platform.ordinal()]++;
+                yearCounts.merge(entry.year, 1, Integer::sum);
+                ratingCounts[entry.rating]++;
+                completionCounts[entry.completion]++;
+                multiplayerCount += entry.multiplayer ? 1 : 0;
+                sum += entry.rating;
+            }
+        }
+        return new Facets(games.size(), genreCounts, platformCounts, yearCounts, multiplayerCount,
+                ratingCounts, completionCounts, sum);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LibraryStatistics{games=" + entries.size() + ", rated=" + getRatedCount()
+                + ", averageRating=" + getAverageRating() + "}";
+    }
+
+    private void count(Entry entry, int delta) {
+        genres[entry.genre.ordinal()] += delta;
+        platforms[entry.platform.ordinal()] += delta;
+        years.merge(entry.year, delta, (a, b) -> a + b == 0 ? null : a + b);
+        ratings[entry.rating] += delta;
+        completion[entry.completion] += delta;
+        multiplayer += entry.multiplayer ? delta : 0;
+        ratingSum += (long) entry.rating * delta;
+    }
+
+    static int completionBucket(double percentage) {
+        if (percentage <= 0) {
+            return 0;
+        }
+        if (percentage >= 100) {
+            return COMPLETION_BUCKETS.length - 1;
+        }
+        return 1 + (int) (percentage / 25);
+    }
+}
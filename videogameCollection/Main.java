@@ -1,4 +1,5 @@
 package videogameCollection;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -6,6 +7,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import videogameCollection.game.AbstractGame;
+import videogameCollection.storage.CatalogLoad;
 
 /**
  * Main application class for the Video Game Collection application.
@@ -15,6 +17,7 @@ public class Main {
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
     private final Scanner scanner = new Scanner(System.in);
     private UserProfile userProfile;
+    private CatalogLoad catalogLoad;
 
     /**
      * Application entry point.
@@ -46,6 +49,7 @@ public class Main {
         } else {
             System.out.println("Welcome back, " + userProfile.getUsername() + "!");
         }
+        Leaderboards.track(userProfile);
 
         mainMenu();
     }
@@ -95,6 +99,7 @@ public class Main {
     }
 
     private void handleMenuChoice(int choice) {
+        waitForCatalog();
         switch (choice) {
             case 1:
                 GameManager.addGame(userProfile);
@@ -147,9 +152,51 @@ public class Main {
     }
 
     /**
-     * Loads data from files.
+     * Waits, showing progress, until a lazy catalog load has finished.
+     * Every menu option reads or changes the collection, so none may run
+     * against a half-loaded catalog.
+     */
+    private void waitForCatalog() {
+        if (catalogLoad == null) {
+            return;
+        }
+        while (!catalogLoad.isDone()) {
+            System.out.printf("\rLoading collection... %d/%d games", catalogLoad.getLoadedCount(),
+                    catalogLoad.getTotalCount());
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        try {
+            DataManager.awaitLazyLoad(catalogLoad);
+            // The profile's games hold its own progress; the library should show the same instances
+            GameLibrary.linkProfile(userProfile);
+            System.out.println();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error loading data", e);
+            System.out.println("\nSome saved data could not be loaded: " + e.getMessage());
+        }
+        catalogLoad = null;
+    }
+
+    /**
+     * Loads data from files. If the storage engine supports it, only the
+     * profile name is read now and the catalog loads in the background.
      */
     private void loadData() {
+        GameLibrary.setGames(new ArrayList<>());
+        catalogLoad = DataManager.loadLazily(GameLibrary::register);
+        if (catalogLoad != null) {
+            // Not initializeDefaultProfile(): that would clear the library the loader is filling
+            userProfile = catalogLoad.getProfile() != null
+                    ? catalogLoad.getProfile()
+                    : new UserProfile("Guest", GamePlatform.OTHER);
+            return;
+        }
+
         try {
             Object[] data = DataManager.loadData();
             if (data == null || data.length < 2) {
@@ -166,6 +213,8 @@ public class Main {
             }
 
             GameLibrary.setGames(games);
+            DataManager.markLoaded(profile);
+            GameLibrary.linkProfile(profile);
             userProfile = profile;
             LOGGER.info("Loaded " + games.size() + " games from storage");
         } catch (Exception e) {
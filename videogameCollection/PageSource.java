@@ -0,0 +1,85 @@
+package videogameCollection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Items that can be read a page at a time by position, such as a scan of
+ * the owned games, a sorted listing or the results of a search. A
+ * {@link Pager} reads only the items of the page it shows.
+ *
+ * @param <T> The item type
+ */
+public interface PageSource<T> {
+
+    /**
+     * Reads the items at the given positions. Fewer items are returned
+     * past the end.
+     *
+     * @param offset The position of the first item, from 0
+     * @param limit The maximum number of items
+     * @return A new list of the items
+     */
+    List<T> read(int offset, int limit);
+
+    /**
+     * Gets the number of items, if it is known.
+     *
+     * @return The item count, or -1 if it is not known yet
+     */
+    int size();
+
+    /**
+     * Pages through a list. The list is not copied; reading a page copies
+     * only the items on it.
+     *
+     * @param items The items, preferably with random access
+     * @param <T> The item type
+     * @return The source
+     */
+    static <T> PageSource<T> of(List<T> items) {
+        return new PageSource<>() {
+            @Override
+            public List<T> read(int offset, int limit) {
+                int from = Math.min(offset, items.size());
+                return new ArrayList<>(items.subList(from, (int) Math.min((long) from + limit, items.size())));
+            }
+
+            @Override
+            public int size() {
+                return items.size();
+            }
+        };
+    }
+
+    /**
+     * Pages through items produced one at a time. Items are pulled only as
+     * far as the pages read, and are kept so earlier pages can be read
+     * again. The count becomes known once the iterator is exhausted.
+     *
+     * @param items The items
+     * @param <T> The item type
+     * @return The source
+     */
+    static <T> PageSource<T> of(Iterator<T> items) {
+        return new PageSource<>() {
+            private final List<T> seen = new ArrayList<>();
+
+            @Override
+            public synchronized List<T> read(int offset, int limit) {
+                long end = (long) offset + limit;
+                while (seen.size() < end && items.hasNext()) {
+                    seen.add(items.next());
+                }
+                int from = Math.min(offset, seen.size());
+                return new ArrayList<>(seen.subList(from, (int) Math.min(end, seen.size())));
+            }
+
+            @Override
+            public synchronized int size() {
+                return items.hasNext() ? -1 : seen.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package videogameCollection;
+
+import java.util.List;
+
+/**
+ * A cursor over a {@link PageSource} that moves forwards, backwards or
+ * straight to a page, reading only the items of the current page (and one
+ * more, to tell whether a next page exists). The work per page therefore
+ * depends on the page size, not on the number of items; only a source that
+ * produces items one at a time has to read through skipped pages once.
+ * <p>
+ * Pages are numbered from 1. A pager is not thread-safe.
+ *
+ * @param <T> The item type
+ */
+public class Pager<T> {
+    private final PageSource<T> source;
+    private int pageSize;
+    private int page = 1;
+    private List<T> items;
+    private boolean hasNext;
+
+    /**
+     * Creates a pager showing the first page.
+     *
+     * @param source The items to page through
+     * @param pageSize The number of items per page
+     * @throws IllegalArgumentException if the source is null or the page size is not positive
+     */
+    public Pager(PageSource<T> source, int pageSize) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source cannot be null");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        load(1);
+    }
+
+    /**
+     * Gets the items on the current page.
+     *
+     * @return The items, empty only if the source is empty
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the number of the current page.
+     *
+     * @return The page number, from 1
+     */
+    public int getPageNumber() {
+        return page;
+    }
+
+    /**
+     * Gets the position of the first item on the current page.
+     *
+     * @return The position, from 0
+     */
+    public int getFirstIndex() {
+        return (page - 1) * pageSize;
+    }
+
+    /**
+     * Gets the number of items per page.
+     *
+     * @return The page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets the number of pages, if the source knows its size.
+     *
+     * @return The page count (at least 1), or -1 if it is not known yet
+     */
+    public int getPageCount() {
+        int size = source.size();
+        return size < 0 ? -1 : Math.max(1, (size + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Checks whether there is a page after the current one.
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Checks whether there is a page before the current one.
+     *
+     * @return true if there is a previous page
+     */
+    public boolean hasPrevious() {
+        return page > 1;
+    }
+
+    /**
+     * Moves to the next page.
+     *
+     * @return true if the pager moved
+     */
+    public boolean next() {
+        return hasNext && goTo(page + 1);
+    }
+
+    /**
+     * Moves to the previous page.
+     *
+     * @return true if the pager moved
+     */
+    public boolean previous() {
+        return page > 1 && goTo(page - 1);
+    }
+
+    /**
+     * Moves to the given page. The pager stays where it is if the page is
+     * empty, unless it is the first page.
+     *
+     * @param number The page number, from 1
+     * @return true if the pager is on the page
+     */
+    public boolean goTo(int number) {
+        if (number < 1) {
+            return false;
+        }
+        int pageCount = getPageCount();
+        if (pageCount > 0 && number > pageCount) {
+            return false;
+        }
+        return load(number);
+    }
+
+    /**
+     * Changes the number of items per page, staying on the page that holds
+     * the first item of the current page.
+     *
+     * @param pageSize The new page size
+     * @throws IllegalArgumentException if the page size is not positive
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        int first = getFirstIndex();
+        this.pageSize = pageSize;
+        if (!load(first / pageSize + 1)) {
+            load(1);
+        }
+    }
+
+    /**
+     * Reads a page and makes it current if it has items or is the first page.
+     */
+    private boolean load(int number) {
+        long offset = (long) (number - 1) * pageSize;
+        if (offset > Integer.MAX_VALUE) {
+            return false;
+        }
+        List<T> read = source.read((int) offset, pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1);
+        if (read.isEmpty() && number > 1) {
+            return false;
+        }
+        hasNext = read.size() > pageSize;
+        items = hasNext ? read.subList(0, pageSize) : read;
+        page = number;
+        return true;
+    }
+}
@@ -3,6 +3,14 @@ package videogameCollection;
 /**
  * Interface for objects that can track gameplay progress.
  * Implemented by games to provide a standardized way to update and retrieve progress.
+ * <p>
+ * Progress has two numeric parts: levels completed (the second part is
+ * always 0) for single-player games, and wins and losses for multiplayer
+ * games. The typed methods read and change them directly, without
+ * formatting or parsing strings, so they suit bulk feeds of match results.
+ * An update allocates nothing itself, but every change notifies the game's
+ * progress listeners on the calling thread, and a listener may allocate;
+ * a game owned by a {@code UserProfile} has one that does.
  */
 public interface Playable {
     /**
@@ -13,6 +21,27 @@ public interface Playable {
      */
     void updateProgress(String progressData);
 
+    /**
+     * Sets the progress from its numeric parts. This is the typed form of
+     * {@link #updateProgress(String)} and validates the same way.
+     *
+     * @param primary Levels completed, or wins
+     * @param secondary 0, or losses
+     * @throws IllegalArgumentException if the progress is invalid
+     */
+    void setProgress(int primary, int secondary);
+
+    /**
+     * Adds to the progress atomically, so concurrent increments are never
+     * lost. Recording one win is {@code addProgress(1, 0)}.
+     *
+     * @param primary Levels completed, or wins, to add
+     * @param secondary 0, or losses to add
+     * @throws IllegalArgumentException if either amount is negative or the
+     *         result would be invalid
+     */
+    void addProgress(int primary, int secondary);
+
     /**
      * Gets a string representation of the current progress.
      *
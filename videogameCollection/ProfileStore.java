@@ -0,0 +1,359 @@
+package videogameCollection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the profiles of many users over the one shared {@link GameLibrary} catalog.
+ * <p>
+ * Each user is kept in a separate file inside the store directory, so loading
+ * or saving one user never reads or rewrites anyone else's data. Profiles are
+ * loaded on first access and cached. Files are written to a temporary file and
+ * atomically moved into place, so a crash never leaves a half-written profile.
+ * Progress is kept per user alongside the owned IDs, and a loaded user owns
+ * copies of the catalog games holding it, so users never share progress.
+ */
+public class ProfileStore {
+    private static final String EXTENSION = ".profile";
+    private static final int MAGIC = 0x56474350; // "VGCP"
+    private static final int VERSION = 2;     // 2 added per-game progress
+
+    private final Path directory;
+    private final Map<String, StoredProfile> loaded = new ConcurrentHashMap<>();
+
+    /**
+     * Opens (and if necessary creates) a profile store directory.
+     *
+     * @param directory The directory holding one file per user
+     * @throws IOException if the directory cannot be created
+     */
+    public ProfileStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Gets a user's profile, loading it from disk on first access.
+     *
+     * @param username The username
+     * @return The profile, or null if the user does not exist
+     * @throws IOException if the profile file cannot be read
+     */
+    public StoredProfile get(String username) throws IOException {
+        StoredProfile profile = loaded.get(username);
+        if (profile != null) {
+            return profile;
+        }
+        profile = read(username);
+        if (profile == null) {
+            return null;
+        }
+        StoredProfile existing = loaded.putIfAbsent(username, profile);
+        return existing != null ? existing : profile;
+    }
+
+    /**
+     * Gets a user's profile, creating an empty one if the user does not exist yet.
+     *
+     * @param username The username
+     * @param preferredPlatform The platform for a newly created profile
+     * @return The profile
+     * @throws IOException if the profile file cannot be read
+     */
+    public StoredProfile getOrCreate(String username, GamePlatform preferredPlatform) throws IOException {
+        StoredProfile profile = get(username);
+        if (profile != null) {
+            return profile;
+        }
+        StoredProfile created = new StoredProfile(username, preferredPlatform);
+        StoredProfile existing = loaded.putIfAbsent(username, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Adds a full profile to the store, replacing any profile with the same username.
+     *
+     * @param profile The profile to import; its games must already be in the library
+     * @return The stored profile
+     * @throws IOException if the profile cannot be written
+     */
+    public StoredProfile importProfile(UserProfile profile) throws IOException {
+        StoredProfile stored = StoredProfile.fromUserProfile(profile);
+        loaded.put(stored.getUsername(), stored);
+        save(stored);
+        return stored;
+    }
+
+    /**
+     * Writes one user's profile to disk.
+     *
+     * @param profile The profile to save
+     * @throws IOException if the profile cannot be written
+     */
+    public void save(StoredProfile profile) throws IOException {
+        Path target = fileFor(profile.getUsername());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            write(profile, out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes every loaded profile to disk.
+     *
+     * @throws IOException if a profile cannot be written
+     */
+    public void saveAll() throws IOException {
+        for (StoredProfile profile : loaded.values()) {
+            save(profile);
+        }
+    }
+
+    /**
+     * Deletes a user's profile from memory and disk.
+     *
+     * @param username The username
+     * @return true if a stored profile was deleted
+     * @throws IOException if the file cannot be deleted
+     */
+    public boolean delete(String username) throws IOException {
+        loaded.remove(username);
+        return Files.deleteIfExists(fileFor(username));
+    }
+
+    /**
+     * Removes a game from every stored profile, for example after it is deleted
+     * from the catalog. Every profile file is visited, so use this sparingly.
+     *
+     * @param gameId The catalog ID
+     * @throws IOException if a profile cannot be read or written
+     */
+    public void removeGameEverywhere(int gameId) throws IOException {
+        for (String username : listUsernames()) {
+            StoredProfile profile = get(username);
+            if (profile != null && profile.removeGame(gameId)) {
+                save(profile);
+            }
+        }
+    }
+
+    /**
+     * Lists the usernames of every stored profile without loading them.
+     *
+     * @return The usernames
+     * @throws IOException if the directory cannot be listed
+     */
+    public List<String> listUsernames() throws IOException {
+        List<String> usernames = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                usernames.add(decodeFileName(name.substring(0, name.length() - EXTENSION.length())));
+            }
+        }
+        for (String username : loaded.keySet()) {
+            if (!usernames.contains(username)) {
+                usernames.add(username);
+            }
+        }
+        return usernames;
+    }
+
+    /**
+     * Gets the number of profiles currently held in memory.
+     *
+     * @return The loaded profile count
+     */
+    public int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * Drops a profile from memory without saving it.
+     *
+     * @param username The username
+     */
+    public void evict(String username) {
+        loaded.remove(username);
+    }
+
+    private StoredProfile read(String username) throws IOException {
+        try (InputStream file = Files.newInputStream(fileFor(username));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            return read(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void write(StoredProfile profile, DataOutputStream out) throws IOException {
+        Object[] snapshot = profile.snapshot();
+        int[] ids = (int[]) snapshot[0];
+        byte[] ratings = (byte[]) snapshot[1];
+        int[] primaryProgress = (int[]) snapshot[2];
+        int[] secondaryProgress = (int[]) snapshot[3];
+        String[] reviews = (String[]) snapshot[4];
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, profile.getUsername());
+        writeString(out, profile.getPreferredPlatform().name());
+        out.writeInt(ids.length);
+        // IDs are sorted, so store the gaps between them
+        int previous = 0;
+        for (int id : ids) {
+            writeVarInt(out, id - previous);
+            previous = id;
+        }
+        out.write(ratings);
+        for (int i = 0; i < ids.length; i++) {
+            writeVarInt(out, primaryProgress[i]);
+            writeVarInt(out, secondaryProgress[i]);
+        }
+
+        int reviewCount = 0;
+        if (reviews != null) {
+            for (String review : reviews) {
+                if (review != null) {
+                    reviewCount++;
+                }
+            }
+        }
+        out.writeInt(reviewCount);
+        for (int i = 0; reviewCount > 0 && i < reviews.length; i++) {
+            if (reviews[i] != null) {
+                writeVarInt(out, i);
+                writeString(out, reviews[i]);
+            }
+        }
+    }
+
+    private static StoredProfile read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a profile file");
+        }
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported profile file version: " + version);
+        }
+        String username = readString(in);
+        GamePlatform platform = GamePlatform.valueOf(readString(in));
+        int count = in.readInt();
+        int[] ids = new int[count];
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += readVarInt(in);
+            ids[i] = previous;
+        }
+        byte[] ratings = new byte[count];
+        in.readFully(ratings);
+        // Version 1 files have no progress; those games start from nothing
+        int[] primaryProgress = new int[count];
+        int[] secondaryProgress = new int[count];
+        for (int i = 0; version >= 2 && i < count; i++) {
+            primaryProgress[i] = readVarInt(in);
+            secondaryProgress[i] = readVarInt(in);
+        }
+
+        int reviewCount = in.readInt();
+        String[] reviews = reviewCount == 0 ? null : new String[count];
+        for (int i = 0; i < reviewCount; i++) {
+            int index = readVarInt(in);
+            reviews[index] = readString(in);
+        }
+        return new StoredProfile(username, platform, ids, ratings, primaryProgress, secondaryProgress, reviews);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of file in a variable-length integer");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    private Path fileFor(String username) {
+        return directory.resolve(encodeFileName(username) + EXTENSION);
+    }
+
+    /**
+     * Maps a username to a safe file name: letters, digits, '-' and '_' are
+     * kept and every other UTF-8 byte is written as %XX.
+     */
+    static String encodeFileName(String username) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : username.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                sb.append(c);
+            } else {
+                sb.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String decodeFileName(String name) {
+        byte[] bytes = new byte[name.length()];
+        int length = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '%' && i + 2 < name.length()) {
+                bytes[length++] = (byte) Integer.parseInt(name.substring(i + 1, i + 3), 16);
+                i += 2;
+            } else {
+                bytes[length++] = (byte) c;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "ProfileStore{" + directory + ", loaded=" + loaded.size() + '}';
+    }
+}
@@ -0,0 +1,604 @@
+package videogameCollection;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * A timestamped record of every progress update, per game.
+ * <p>
+ * Each game's events are appended to a byte array as the change in time
+ * (in seconds) and in levels completed, or wins and losses, each written as
+ * a zig-zag variable-length integer, so a typical event takes three to six
+ * bytes. Alongside the raw events, daily and weekly totals are kept for each
+ * game and for the whole collection, so questions such as "levels completed
+ * per week" or "win rate over the last 30 days" are answered from the
+ * totals without decoding any events. Days follow the clock's time zone and
+ * weeks start on Monday. Only games with a catalog ID are recorded. All
+ * methods are thread-safe.
+ */
+public class ProgressHistory {
+    private static final int MAGIC = 0x56475048; // "VGPH"
+    private static final int VERSION = 1;
+    private static final int LEVELS = 0;
+    private static final int WINS = 1;
+    private static final int LOSSES = 2;
+    private static final int EVENTS = 3;
+
+    /**
+     * One progress update: the game's progress after it was applied.
+     */
+    public static final class Event {
+        private final Instant time;
+        private final int levelsCompleted;
+        private final int wins;
+        private final int losses;
+
+        private Event(Instant time, int levelsCompleted, int wins, int losses) {
+            this.time = time;
+            this.levelsCompleted = levelsCompleted;
+            this.wins = wins;
+            this.losses = losses;
+        }
+
+        /**
+         * Gets when the update was recorded.
+         *
+         * @return The time, to the second
+         */
+        public Instant getTime() {
+            return time;
+        }
+
+        /**
+         * Gets the levels completed after the update.
+         *
+         * @return The levels completed, or 0 for a multiplayer game
+         */
+        public int getLevelsCompleted() {
+            return levelsCompleted;
+        }
+
+        /**
+         * Gets the wins after the update.
+         *
+         * @return The wins, or 0 for a single-player game
+         */
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * Gets the losses after the update.
+         *
+         * @return The losses, or 0 for a single-player game
+         */
+        public int getLosses() {
+            return losses;
+        }
+
+        @Override
+        public String toString() {
+            return time + " levels=" + levelsCompleted + " W/L=" + wins + "/" + losses;
+        }
+    }
+
+    /**
+     * Progress made over a period: the change in levels completed, wins and
+     * losses, and the number of updates. Immutable.
+     */
+    public static final class Totals {
+        private final int[] counts;
+
+        private Totals(int[] counts) {
+            this.counts = counts;
+        }
+
+        /**
+         * Gets the levels completed over the period.
+         *
+         * @return The net change in levels completed
+         */
+        public int getLevelsCompleted() {
+            return counts[LEVELS];
+        }
+
+        /**
+         * Gets the wins over the period.
+         *
+         * @return The net change in wins
+         */
+        public int getWins() {
+            return counts[WINS];
+        }
+
+        /**
+         * Gets the losses over the period.
+         *
+         * @return The net change in losses
+         */
+        public int getLosses() {
+            return counts[LOSSES];
+        }
+
+        /**
+         * Gets the number of progress updates over the period.
+         *
+         * @return The update count
+         */
+        public int getUpdates() {
+            return counts[EVENTS];
+        }
+
+        /**
+         * Calculates the win rate over the period as a percentage.
+         *
+         * @return The win rate percentage, or 0 if no games were played
+         */
+        public double getWinRate() {
+            int played = counts[WINS] + counts[LOSSES];
+            return played <= 0 ? 0.0 : (double) counts[WINS] / played * 100.0;
+        }
+
+        @Override
+        public String toString() {
+            return "Totals{levels=" + counts[LEVELS] + ", wins=" + counts[WINS] + ", losses="
+                    + counts[LOSSES] + ", updates=" + counts[EVENTS] + "}";
+        }
+    }
+
+    /**
+     * Daily and weekly totals, keyed by epoch day (of the Monday for weeks).
+     */
+    private static final class Rollup {
+        final TreeMap<Long, int[]> days = new TreeMap<>();
+        final TreeMap<Long, int[]> weeks = new TreeMap<>();
+
+        void add(long day, int levels, int wins, int losses) {
+            add(days.computeIfAbsent(day, d -> new int[4]), levels, wins, losses);
+            add(weeks.computeIfAbsent(weekOf(day), w -> new int[4]), levels, wins, losses);
+        }
+
+        private static void add(int[] bucket, int levels, int wins, int losses) {
+            bucket[LEVELS] += levels;
+            bucket[WINS] += wins;
+            bucket[LOSSES] += losses;
+            bucket[EVENTS]++;
+        }
+
+        /**
+         * Sums the days from {@code from} up to but excluding {@code to},
+         * reading whole weeks from the weekly totals.
+         */
+        int[] sum(long from, long to) {
+            int[] total = new int[4];
+            if (from >= to) {
+                return total;
+            }
+            long firstWeek = weekOf(from) == from ? from : weekOf(from) + 7;
+            long lastWeek = weekOf(to);
+            if (firstWeek >= lastWeek) {
+                sum(days.subMap(from, to), total);
+            } else {
+                sum(days.subMap(from, firstWeek), total);
+                sum(weeks.subMap(firstWeek, lastWeek), total);
+                sum(days.subMap(lastWeek, to), total);
+            }
+            return total;
+        }
+
+        private static void sum(Map<Long, int[]> buckets, int[] total) {
+            for (int[] bucket : buckets.values()) {
+                for (int i = 0; i < total.length; i++) {
+                    total[i] += bucket[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * The encoded events of one game and the progress after the last one.
+     */
+    private static final class Series {
+        final boolean multiplayer;
+        final long baseTime;
+        final int baseFirst;
+        final int baseSecond;
+        final Rollup rollup = new Rollup();
+        byte[] data = new byte[16];
+        int size;
+        int count;
+        long lastTime;
+        int lastFirst;
+        int lastSecond;
+
+        Series(boolean multiplayer, long baseTime, int baseFirst, int baseSecond) {
+            this.multiplayer = multiplayer;
+            this.baseTime = baseTime;
+            this.baseFirst = baseFirst;
+            this.baseSecond = baseSecond;
+            this.lastTime = baseTime;
+            this.lastFirst = baseFirst;
+            this.lastSecond = baseSecond;
+        }
+
+        void append(long time, int first, int second) {
+            if (data.length - size < 30) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            size = writeVarLong(data, size, zigZag(time - lastTime));
+            size = writeVarLong(data, size, zigZag((long) first - lastFirst));
+            size = writeVarLong(data, size, zigZag((long) second - lastSecond));
+            count++;
+            lastTime = time;
+            lastFirst = first;
+            lastSecond = second;
+        }
+    }
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private final Map<Integer, Series> series = new HashMap<>();
+    private final Rollup total = new Rollup();
+    private long eventCount;
+
+    /**
+     * Creates an empty history using the system clock and time zone.
+     */
+    public ProgressHistory() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates an empty history.
+     *
+     * @param clock The clock that timestamps updates and decides the days
+     * @throws IllegalArgumentException if the clock is null
+     */
+    public ProgressHistory(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    /**
+     * Starts following a game. A game seen for the first time is taken as
+     * the starting point of its history; if it has progressed since it was
+     * last recorded, the difference is recorded as an update now.
+     *
+     * @param game The game
+     */
+    public synchronized void track(AbstractGame game) {
+        if (game.getId() <= 0 || !isTracked(game)) {
+            return;
+        }
+        Series existing = series.get(game.getId());
+        if (existing == null) {
+            series.put(game.getId(), new Series(game instanceof Multiplayer,
+                    clock.instant().getEpochSecond(), first(game), second(game)));
+        } else {
+            record(game, clock.instant());
+        }
+    }
+
+    /**
+     * Records a game's current progress as an update made now.
+     *
+     * @param game The game
+     */
+    public void record(AbstractGame game) {
+        record(game, clock.instant());
+    }
+
+    /**
+     * Records a game's current progress as an update made at the given time.
+     * Nothing is recorded if the progress is unchanged since the last update.
+     *
+     * @param game The game
+     * @param time When the update was made
+     */
+    public synchronized void record(AbstractGame game, Instant time) {
+        if (game.getId() <= 0 || !isTracked(game)) {
+            return;
+        }
+        long second = time.getEpochSecond();
+        int first = first(game);
+        int other = second(game);
+        Series s = series.get(game.getId());
+        if (s == null) {
+            // First seen mid-update: the earlier progress is unknown, so count from zero
+            s = new Series(game instanceof Multiplayer, second, 0, 0);
+            series.put(game.getId(), s);
+        } else if (s.lastFirst == first && s.lastSecond == other) {
+            return;
+        }
+        int deltaFirst = first - s.lastFirst;
+        int deltaSecond = other - s.lastSecond;
+        s.append(second, first, other);
+        rollUp(s, second, deltaFirst, deltaSecond);
+        eventCount++;
+    }
+
+    /**
+     * Gets the recorded updates of a game, oldest first. This decodes the
+     * game's raw events; the range queries do not.
+     *
+     * @param gameId The game's catalog ID
+     * @return The updates, or an empty list if none were recorded
+     */
+    public synchronized List<Event> getEvents(int gameId) {
+        Series s = series.get(gameId);
+        if (s == null) {
+            return Collections.emptyList();
+        }
+        List<Event> events = new ArrayList<>(s.count);
+        long time = s.baseTime;
+        long first = s.baseFirst;
+        long second = s.baseSecond;
+        int[] position = { 0 };
+        for (int i = 0; i < s.count; i++) {
+            time += unZigZag(readVarLong(s.data, position));
+            first += unZigZag(readVarLong(s.data, position));
+            second += unZigZag(readVarLong(s.data, position));
+            events.add(s.multiplayer
+                    ? new Event(Instant.ofEpochSecond(time), 0, (int) first, (int) second)
+                    : new Event(Instant.ofEpochSecond(time), (int) first, 0, 0));
+        }
+        return events;
+    }
+
+    /**
+     * Sums the progress of all games over a range of days.
+     *
+     * @param from The first day
+     * @param to The day after the last day
+     * @return The progress made
+     */
+    public synchronized Totals getTotals(LocalDate from, LocalDate to) {
+        return new Totals(total.sum(from.toEpochDay(), to.toEpochDay()));
+    }
+
+    /**
+     * Sums the progress of one game over a range of days.
+     *
+     * @param gameId The game's catalog ID
+     * @param from The first day
+     * @param to The day after the last day
+     * @return The progress made
+     */
+    public synchronized Totals getTotals(int gameId, LocalDate from, LocalDate to) {
+        Series s = series.get(gameId);
+        return new Totals(s == null ? new int[4] : s.rollup.sum(from.toEpochDay(), to.toEpochDay()));
+    }
+
+    /**
+     * Sums the progress of all games over the last few days, today included.
+     *
+     * @param days The number of days
+     * @return The progress made
+     * @throws IllegalArgumentException if days is not positive
+     */
+    public Totals getRecentTotals(int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Days must be positive");
+        }
+        LocalDate today = LocalDate.now(clock);
+        return getTotals(today.minusDays(days - 1), today.plusDays(1));
+    }
+
+    /**
+     * Gets the levels completed across all games in each week that has any
+     * updates.
+     *
+     * @param from A day in the first week
+     * @param to The day after the last day; its week is included if it
+     *           does not start on that day
+     * @return Levels completed keyed by the Monday of each week, oldest first
+     */
+    public synchronized SortedMap<LocalDate, Integer> getLevelsPerWeek(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Integer> levels = new TreeMap<>();
+        for (Map.Entry<Long, int[]> week : total.weeks.subMap(weekOf(from.toEpochDay()), to.toEpochDay()).entrySet()) {
+            levels.put(LocalDate.ofEpochDay(week.getKey()), week.getValue()[LEVELS]);
+        }
+        return levels;
+    }
+
+    /**
+     * Gets the number of recorded updates.
+     *
+     * @return The update count
+     */
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Gets the number of bytes the encoded events take, not counting spare
+     * capacity or the daily and weekly totals.
+     *
+     * @return The encoded size
+     */
+    public synchronized long getEncodedBytes() {
+        long bytes = 0;
+        for (Series s : series.values()) {
+            bytes += s.size;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the history to a file, replacing it atomically.
+     *
+     * @param file The history file
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(Path file) throws IOException {
+        ChecksummedFile.write(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(series.size());
+            for (Map.Entry<Integer, Series> entry : series.entrySet()) {
+                Series s = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeBoolean(s.multiplayer);
+                out.writeLong(s.baseTime);
+                out.writeInt(s.baseFirst);
+                out.writeInt(s.baseSecond);
+                out.writeInt(s.count);
+                out.writeInt(s.size);
+                out.write(s.data, 0, s.size);
+            }
+        });
+    }
+
+    /**
+     * Reads a history written by {@link #save(Path)}, rebuilding the daily
+     * and weekly totals in the clock's time zone.
+     *
+     * @param file The history file
+     * @param clock The clock for further updates
+     * @return The history, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public static ProgressHistory load(Path file, Clock clock) throws IOException {
+        return ChecksummedFile.read(file, "Progress history", in -> {
+            ProgressHistory history = new ProgressHistory(clock);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a progress history: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported progress history version: " + version);
+            }
+            int games = in.readInt();
+            for (int i = 0; i < games; i++) {
+                history.readSeries(in, file);
+            }
+            return history;
+        });
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ProgressHistory{games=" + series.size() + ", updates=" + eventCount + "}";
+    }
+
+    /**
+     * Reads one game's events and replays them into the totals.
+     */
+    private void readSeries(DataInput in, Path file) throws IOException {
+        int gameId = in.readInt();
+        Series s = new Series(in.readBoolean(), in.readLong(), in.readInt(), in.readInt());
+        int count = in.readInt();
+        int size = in.readInt();
+        if (count < 0 || size < 0 || size > count * 30L) {
+            throw new IOException("Progress history is damaged: " + file);
+        }
+        byte[] data = new byte[size];
+        in.readFully(data);
+        int[] position = { 0 };
+        try {
+            for (int i = 0; i < count; i++) {
+                long time = s.lastTime + unZigZag(readVarLong(data, position));
+                int first = (int) (s.lastFirst + unZigZag(readVarLong(data, position)));
+                int second = (int) (s.lastSecond + unZigZag(readVarLong(data, position)));
+                rollUp(s, time, first - s.lastFirst, second - s.lastSecond);
+                s.lastTime = time;
+                s.lastFirst = first;
+                s.lastSecond = second;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Progress history is damaged: " + file, e);
+        }
+        if (position[0] != size) {
+            throw new IOException("Progress history is damaged: " + file);
+        }
+        s.data = size == 0 ? new byte[16] : data;
+        s.size = size;
+        s.count = count;
+        series.put(gameId, s);
+        eventCount += count;
+    }
+
+    /**
+     * Adds one update to the game's and the collection's totals.
+     */
+    private void rollUp(Series s, long epochSecond, int deltaFirst, int deltaSecond) {
+        long day = LocalDate.ofInstant(Instant.ofEpochSecond(epochSecond), zone).toEpochDay();
+        if (s.multiplayer) {
+            s.rollup.add(day, 0, deltaFirst, deltaSecond);
+            total.add(day, 0, deltaFirst, deltaSecond);
+        } else {
+            s.rollup.add(day, deltaFirst, 0, 0);
+            total.add(day, deltaFirst, 0, 0);
+        }
+    }
+
+    private static boolean isTracked(AbstractGame game) {
+        return game instanceof SinglePlayer || game instanceof Multiplayer;
+    }
+
+    private static int first(AbstractGame game) {
+        return game instanceof Multiplayer
+                ? ((Multiplayer) game).getWins()
+                : ((SinglePlayer) game).getLevelsCompleted();
+    }
+
+    private static int second(AbstractGame game) {
+        return game instanceof Multiplayer ? ((Multiplayer) game).getLosses() : 0;
+    }
+
+    /**
+     * Gets the epoch day of the Monday starting the week of a day.
+     */
+    private static long weekOf(long epochDay) {
+        // 1970-01-01 was a Thursday
+        return epochDay - Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarLong(byte[] data, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package videogameCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import videogameCollection.game.AbstractGame;
+
+/**
+ * A bounded cache of search and sort results, evicting the least recently
+ * used query when full.
+ * <p>
+ * Every lookup passes the current version of the data the results were
+ * computed from. When the version moves on, the whole cache is dropped
+ * before the lookup is answered, so a result computed from older data is
+ * never returned; a result computed while the version changed is not
+ * stored. Results are computed outside the cache lock and handed out as
+ * fresh lists the caller may modify. All methods are thread-safe.
+ */
+public class QueryCache {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // Rough sizes for the memory estimate, assuming compressed references
+    private static final int ENTRY_BYTES = 40 + 24 + 16 + 16;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final int capacity;
+    private final LinkedHashMap<String, AbstractGame[]> entries;
+    private long version = Long.MIN_VALUE;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private long estimatedBytes;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity The maximum number of queries to keep
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public QueryCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AbstractGame[]> eldest) {
+                if (size() <= QueryCache.this.capacity) {
+                    return false;
+                }
+                evictions++;
+                estimatedBytes -= sizeOf(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets the results of a query, computing and storing them if they are
+     * not cached for the given version.
+     *
+     * @param key The normalized query
+     * @param version The current version of the queried data
+     * @param query Computes the results
+     * @return A new list holding the results
+     */
+    public List<AbstractGame> get(String key, long version, Supplier<List<AbstractGame>> query) {
+        synchronized (this) {
+            invalidateBefore(version);
+            AbstractGame[] cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return new ArrayList<>(Arrays.asList(cached));
+            }
+            misses++;
+        }
+        List<AbstractGame> results = query.get();
+        AbstractGame[] stored = results.toArray(new AbstractGame[0]);
+        synchronized (this) {
+            invalidateBefore(version);
+            if (this.version == version && entries.put(key, stored) == null) {
+                estimatedBytes += sizeOf(key, stored);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public synchronized void clear() {
+        if (!entries.isEmpty()) {
+            invalidations++;
+        }
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    /**
+     * Gets the number of cached queries.
+     *
+     * @return The entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the maximum number of cached queries.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return The hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to run the query.
+     *
+     * @return The miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Calculates the share of lookups answered from the cache.
+     *
+     * @return The hit rate percentage, or 0 if there were no lookups
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups * 100.0;
+    }
+
+    /**
+     * Gets the number of queries dropped to make room for newer ones.
+     *
+     * @return The eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of times the cache was dropped because the data changed.
+     *
+     * @return The invalidation count
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    /**
+     * Estimates the memory held by the cached queries, not counting the
+     * games themselves.
+     *
+     * @return The estimated size in bytes
+     */
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d/%d queries, ~%d KB, hit rate %.0f%% (%d of %d), %d evicted, %d invalidated",
+                entries.size(), capacity, (estimatedBytes + 1023) / 1024, getHitRate(), hits, hits + misses,
+                evictions, invalidations);
+    }
+
+    /**
+     * Drops the cache if it holds results older than the given version.
+     */
+    private void invalidateBefore(long version) {
+        if (version > this.version) {
+            clear();
+            this.version = version;
+        }
+    }
+
+    private static long sizeOf(String key, AbstractGame[] results) {
+        return ENTRY_BYTES + key.length() + (long) REFERENCE_BYTES * results.length;
+    }
+}
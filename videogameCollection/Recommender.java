@@ -0,0 +1,853 @@
+package videogameCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Item-to-item recommender over a fixed catalog.
+ * <p>
+ * The similarity of two games combines their co-ratings with their content.
+ * The rating part is the cosine of the two games' rating vectors after
+ * subtracting each user's mean rating, shrunk towards zero when few users
+ * rated both. The content part adds {@value #CONTENT_WEIGHT} times a score
+ * for a shared developer, genre and platform, so games nobody has rated
+ * yet still have neighbours. Only the {@code neighbors} most similar games
+ * of each game are kept.
+ * <p>
+ * Rows of the similarity matrix are computed on a fork-join pool. Rating
+ * changes only mark games dirty; {@link #refresh()} then recomputes the
+ * rows of those games (and, since a user's mean moves, of the other games
+ * that user rated) and patches the neighbour lists of the games they
+ * affect. Each list keeps half as many spare entries again, so an entry that
+ * gets less similar can be dropped or moved down; a list is only recomputed
+ * in full once it runs short of entries. Recommending reads the cached
+ * neighbour lists without locking.
+ */
+public class Recommender {
+    public static final int DEFAULT_NEIGHBORS = 20;
+
+    private static final double SHRINKAGE = 10;
+    private static final double CONTENT_WEIGHT = 0.2;
+    private static final int ROWS_PER_TASK = 16;
+
+    /**
+     * A game recommended to a user.
+     */
+    public static final class Recommendation {
+        private final AbstractGame game;
+        private final double score;
+        private final AbstractGame because;
+
+        Recommendation(AbstractGame game, double score, AbstractGame because) {
+            this.game = game;
+            this.score = score;
+            this.because = because;
+        }
+
+        /**
+         * Gets the recommended game.
+         *
+         * @return The game
+         */
+        public AbstractGame getGame() {
+            return game;
+        }
+
+        /**
+         * Gets the recommendation score; higher is a stronger recommendation.
+         *
+         * @return The score
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Gets the owned game that contributed most to this recommendation.
+         *
+         * @return The game it is recommended because of
+         */
+        public AbstractGame getBecause() {
+            return because;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Recommendation{game='%s', score=%.3f, because='%s'}",
+                    game.getTitle(), score, because.getTitle());
+        }
+    }
+
+    /**
+     * The most similar games of one game, most similar first, with some
+     * spare entries beyond the ones served. No game missing from the list
+     * ranks above the bound, the best candidate that was left out (or, if
+     * none was, any positive similarity). Never modified once published.
+     */
+    private static final class Neighbors {
+        static final Neighbors NONE = new Neighbors(new int[0], new float[0], 0, -1);
+
+        final int[] games;
+        final float[] similarities;
+        final float boundSimilarity;
+        final int boundGame;
+
+        Neighbors(int[] games, float[] similarities, float boundSimilarity, int boundGame) {
+            this.games = games;
+            this.similarities = similarities;
+            this.boundSimilarity = boundSimilarity;
+            this.boundGame = boundGame;
+        }
+    }
+
+    /**
+     * One user's ratings, sorted by game index.
+     */
+    private static final class UserRatings {
+        int[] games = new int[4];
+        byte[] ratings = new byte[4];
+        int size;
+        double mean;
+
+        int rating(int game) {
+            int position = Arrays.binarySearch(games, 0, size, game);
+            return position < 0 ? 0 : ratings[position];
+        }
+
+        boolean set(int game, int rating) {
+            int position = Arrays.binarySearch(games, 0, size, game);
+            if (position >= 0) {
+                if (rating == ratings[position]) {
+                    return false;
+                }
+                if (rating == 0) {
+                    System.arraycopy(games, position + 1, games, position, size - position - 1);
+                    System.arraycopy(ratings, position + 1, ratings, position, size - position - 1);
+                    size--;
+                } else {
+                    ratings[position] = (byte) rating;
+                }
+            } else {
+                if (rating == 0) {
+                    return false;
+                }
+                position = -position - 1;
+                if (size == games.length) {
+                    games = Arrays.copyOf(games, size * 2);
+                    ratings = Arrays.copyOf(ratings, size * 2);
+                }
+                System.arraycopy(games, position, games, position + 1, size - position);
+                System.arraycopy(ratings, position, ratings, position + 1, size - position);
+                games[position] = game;
+                ratings[position] = (byte) rating;
+                size++;
+            }
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += ratings[i];
+            }
+            mean = size == 0 ? 0 : (double) sum / size;
+            return true;
+        }
+    }
+
+    /**
+     * The similarities of one game to all its candidates, kept for patching
+     * other games' neighbour lists during an incremental refresh.
+     */
+    private static final class Row {
+        final Neighbors top;
+        final int[] candidates;
+        final float[] similarities;
+
+        Row(Neighbors top, int[] candidates, float[] similarities) {
+            this.top = top;
+            this.candidates = candidates;
+            this.similarities = similarities;
+        }
+    }
+
+    /**
+     * Per-thread accumulators sized to the catalog.
+     */
+    private final class Scratch {
+        final double[] dot = new double[games.length];
+        final int[] coRatings = new int[games.length];
+        final int[] stamp = new int[games.length];
+        int[] touched = new int[64];
+        int touchedCount;
+        int generation;
+    }
+
+    private final AbstractGame[] games;
+    private final Map<Integer, Integer> indexById = new HashMap<>();
+    private final int neighbors;
+    private final int capacity;
+    private final ForkJoinPool pool;
+    private final int[][] developerBuckets;
+    private final int[][] genrePlatformBuckets;
+    private final int[] developerBucketOf;
+    private final int[] developerPosition;
+    private final int[] genrePlatformBucketOf;
+    private final int[] genrePlatformPosition;
+    private final List<UserRatings> users = new ArrayList<>();
+    private final Map<String, Integer> userIndex = new HashMap<>();
+    private final Map<UserProfile, UserProfile.CollectionListener> listeners = new IdentityHashMap<>();
+    private final int[][] raters;
+    private final int[] raterCounts;
+    private final double[] norms;
+    private final BitSet dirty = new BitSet();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private volatile Neighbors[] neighborLists;
+    private boolean built;
+    private long lastRefreshNanos;
+    private int lastRefreshRows;
+
+    /**
+     * Creates a recommender keeping {@value #DEFAULT_NEIGHBORS} neighbours
+     * per game, computed on the common fork-join pool.
+     *
+     * @param catalog The games that can be rated and recommended
+     */
+    public Recommender(List<AbstractGame> catalog) {
+        this(catalog, DEFAULT_NEIGHBORS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a recommender. Games without a catalog ID are ignored.
+     *
+     * @param catalog The games that can be rated and recommended
+     * @param neighbors The number of most similar games kept per game
+     * @param pool The pool similarity rows are computed on
+     * @throws IllegalArgumentException if the catalog or pool is null or neighbors is not positive
+     */
+    public Recommender(List<AbstractGame> catalog, int neighbors, ForkJoinPool pool) {
+        if (catalog == null || pool == null) {
+            throw new IllegalArgumentException("Catalog and pool cannot be null");
+        }
+        if (neighbors <= 0) {
+            throw new IllegalArgumentException("Neighbors must be positive");
+        }
+        List<AbstractGame> indexed = new ArrayList<>(catalog.size());
+        for (AbstractGame game : catalog) {
+            if (game.getId() > 0 && !indexById.containsKey(game.getId())) {
+                indexById.put(game.getId(), indexed.size());
+                indexed.add(game);
+            }
+        }
+        this.games = indexed.toArray(new AbstractGame[0]);
+        this.neighbors = neighbors;
+        this.capacity = neighbors + Math.max(1, neighbors / 2);
+        this.pool = pool;
+        this.raters = new int[games.length][];
+        this.raterCounts = new int[games.length];
+        this.norms = new double[games.length];
+        this.developerBucketOf = new int[games.length];
+        this.developerPosition = new int[games.length];
+        this.genrePlatformBucketOf = new int[games.length];
+        this.genrePlatformPosition = new int[games.length];
+        this.developerBuckets = buckets(game -> String.valueOf(game.getDeveloper()).toLowerCase(),
+                developerBucketOf, developerPosition);
+        this.genrePlatformBuckets = buckets(game -> game.getGenre() + "/" + game.getPlatform(),
+                genrePlatformBucketOf, genrePlatformPosition);
+        this.neighborLists = new Neighbors[games.length];
+        Arrays.fill(neighborLists, Neighbors.NONE);
+        dirty.set(0, games.length);
+    }
+
+    /**
+     * Sets one user's rating of a game. The change takes effect on the next {@link #refresh()}.
+     *
+     * @param username The user
+     * @param gameId The game ID
+     * @param rating The rating (1-5), or 0 to remove it
+     * @throws IllegalArgumentException if the rating is out of range
+     */
+    public synchronized void setRating(String username, int gameId, int rating) {
+        if (rating < 0 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 0 and 5");
+        }
+        Integer game = indexById.get(gameId);
+        if (game == null) {
+            return;
+        }
+        int user = userIndex.computeIfAbsent(username, name -> {
+            users.add(new UserRatings());
+            return users.size() - 1;
+        });
+        UserRatings ratings = users.get(user);
+        boolean had = ratings.rating(game) != 0;
+        if (!ratings.set(game, rating)) {
+            return;
+        }
+        if (!had) {
+            addRater(game, user);
+        } else if (rating == 0) {
+            removeRater(game, user);
+        }
+        // The user's mean moved, which changes the centred ratings of all their games
+        dirty.set(game);
+        for (int i = 0; i < ratings.size; i++) {
+            dirty.set(ratings.games[i]);
+        }
+    }
+
+    /**
+     * Replaces all of one user's ratings.
+     *
+     * @param username The user
+     * @param ratingsById The user's ratings by game ID
+     */
+    public synchronized void setRatings(String username, Map<Integer, Integer> ratingsById) {
+        Integer user = userIndex.get(username);
+        if (user != null) {
+            UserRatings old = users.get(user);
+            for (int game : Arrays.copyOf(old.games, old.size)) {
+                if (!ratingsById.containsKey(games[game].getId())) {
+                    setRating(username, games[game].getId(), 0);
+                }
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : ratingsById.entrySet()) {
+            setRating(username, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Copies a profile's ratings and keeps following its rating changes.
+     *
+     * @param profile The profile
+     */
+    public void addProfile(UserProfile profile) {
+        Map<Integer, Integer> ratings = new HashMap<>();
+        for (Map.Entry<AbstractGame, Integer> entry : profile.getGameRatings().entrySet()) {
+            ratings.put(entry.getKey().getId(), entry.getValue());
+        }
+        setRatings(profile.getUsername(), ratings);
+        UserProfile.CollectionListener listener = (changed, game) -> {
+            Integer rating = changed.ownsGame(game) ? changed.getGameRating(game) : null;
+            setRating(changed.getUsername(), game.getId(), rating == null ? 0 : rating);
+        };
+        synchronized (listeners) {
+            UserProfile.CollectionListener previous = listeners.put(profile, listener);
+            if (previous != null) {
+                profile.removeCollectionListener(previous);
+            }
+        }
+        profile.addCollectionListener(listener);
+    }
+
+    /**
+     * Stops following a profile added with {@link #addProfile(UserProfile)}.
+     * Its ratings stay in the recommender.
+     *
+     * @param profile The profile
+     */
+    public void removeProfile(UserProfile profile) {
+        UserProfile.CollectionListener listener;
+        synchronized (listeners) {
+            listener = listeners.remove(profile);
+        }
+        if (listener != null) {
+            profile.removeCollectionListener(listener);
+        }
+    }
+
+    /**
+     * Recomputes the neighbour lists affected by rating changes since the
+     * last refresh. The first refresh computes every list.
+     *
+     * @return The number of similarity rows computed
+     */
+    public synchronized int refresh() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int[] rows = dirty.stream().toArray();
+        for (int row : rows) {
+            norms[row] = norm(row);
+        }
+
+        int computed;
+        if (!built || rows.length * 4 > games.length) {
+            // Patching pays off only when few rows change
+            Neighbors[] next = new Neighbors[games.length];
+            int[] all = new int[games.length];
+            Arrays.setAll(all, i -> i);
+            for (int row = 0; row < games.length; row++) {
+                if (!dirty.get(row)) {
+                    norms[row] = norm(row);
+                }
+            }
+            Row[] results = computeRows(all, false);
+            for (int row = 0; row < games.length; row++) {
+                next[row] = results[row].top;
+            }
+            neighborLists = next;
+            built = true;
+            computed = games.length;
+        } else {
+            computed = patch(rows);
+        }
+        dirty.clear();
+        lastRefreshRows = computed;
+        lastRefreshNanos = System.nanoTime() - start;
+        return computed;
+    }
+
+    /**
+     * Recommends owned games' most similar games that the user does not own.
+     * Each owned game votes for its neighbours with its similarity, weighted
+     * by the user's rating of it (rating minus 2, so a 1 counts against and
+     * a 2 not at all); owned games the user has not rated count as 1.
+     *
+     * @param profile The user's profile
+     * @param limit The maximum number of recommendations
+     * @return The recommendations, best first
+     * @throws IllegalArgumentException if the limit is not positive
+     */
+    public List<Recommendation> recommend(UserProfile profile, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Neighbors[] lists = neighborLists;
+        Set<Integer> owned = new HashSet<>();
+        List<AbstractGame> ownedGames = profile.getGamesOwned();
+        for (AbstractGame game : ownedGames) {
+            Integer index = indexById.get(game.getId());
+            if (index != null) {
+                owned.add(index);
+            }
+        }
+        // score, strongest contribution, contributing game
+        Map<Integer, double[]> scores = new HashMap<>();
+        for (AbstractGame game : ownedGames) {
+            Integer index = indexById.get(game.getId());
+            if (index == null) {
+                continue;
+            }
+            Integer rating = profile.getGameRating(game);
+            double weight = rating == null ? 1 : rating - 2;
+            if (weight == 0) {
+                continue;
+            }
+            Neighbors list = lists[index];
+            for (int k = 0; k < Math.min(neighbors, list.games.length); k++) {
+                int candidate = list.games[k];
+                if (owned.contains(candidate)) {
+                    continue;
+                }
+                double vote = weight * list.similarities[k];
+                double[] score = scores.computeIfAbsent(candidate, c -> new double[] { 0, Double.NEGATIVE_INFINITY, -1 });
+                score[0] += vote;
+                if (vote > score[1]) {
+                    score[1] = vote;
+                    score[2] = index;
+                }
+            }
+        }
+
+        List<Map.Entry<Integer, double[]>> ranked = new ArrayList<>();
+        for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+            if (entry.getValue()[0] > 0) {
+                ranked.add(entry);
+            }
+        }
+        ranked.sort(Comparator.comparingDouble((Map.Entry<Integer, double[]> e) -> -e.getValue()[0])
+                .thenComparingInt(e -> games[e.getKey()].getId()));
+        List<Recommendation> recommendations = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Map.Entry<Integer, double[]> entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            double[] score = entry.getValue();
+            recommendations.add(new Recommendation(games[entry.getKey()], score[0], games[(int) score[2]]));
+        }
+        return recommendations;
+    }
+
+    /**
+     * Gets the games most similar to a game.
+     *
+     * @param gameId The game ID
+     * @return The similar games, most similar first; empty if the game is not in the catalog
+     */
+    public List<AbstractGame> getSimilarGames(int gameId) {
+        Integer index = indexById.get(gameId);
+        List<AbstractGame> similar = new ArrayList<>();
+        if (index != null) {
+            Neighbors list = neighborLists[index];
+            for (int k = 0; k < Math.min(neighbors, list.games.length); k++) {
+                similar.add(games[list.games[k]]);
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * Gets the number of games in the catalog.
+     *
+     * @return The game count
+     */
+    public int getGameCount() {
+        return games.length;
+    }
+
+    /**
+     * Gets the number of similarity rows computed by the last refresh.
+     *
+     * @return The row count
+     */
+    public synchronized int getLastRefreshRows() {
+        return lastRefreshRows;
+    }
+
+    /**
+     * Gets how long the last refresh took.
+     *
+     * @return The duration in milliseconds
+     */
+    public synchronized double getLastRefreshMillis() {
+        return lastRefreshNanos / 1e6;
+    }
+
+    /**
+     * Recomputes the changed rows and patches the lists of the games they affect.
+     */
+    private int patch(int[] rows) {
+        Row[] results = computeRows(rows, true);
+        Neighbors[] next = neighborLists.clone();
+        // New similarity of each changed game to every game, NaN where it shares no rater
+        float[][] changed = new float[rows.length][];
+        for (int r = 0; r < rows.length; r++) {
+            next[rows[r]] = results[r].top;
+            changed[r] = new float[games.length];
+            Arrays.fill(changed[r], Float.NaN);
+            for (int k = 0; k < results[r].candidates.length; k++) {
+                changed[r][results[r].candidates[k]] = results[r].similarities[k];
+            }
+        }
+
+        List<Integer> recompute = new ArrayList<>();
+        for (int game = 0; game < games.length; game++) {
+            if (!dirty.get(game)) {
+                Neighbors patched = patchList(game, next[game], rows, changed);
+                if (patched == null) {
+                    recompute.add(game);
+                } else {
+                    next[game] = patched;
+                }
+            }
+        }
+        int[] again = recompute.stream().mapToInt(Integer::intValue).toArray();
+        Row[] recomputed = computeRows(again, false);
+        for (int r = 0; r < again.length; r++) {
+            next[again[r]] = recomputed[r].top;
+        }
+        neighborLists = next;
+        return rows.length + again.length;
+    }
+
+    /**
+     * Applies new similarities to changed games to a neighbour list. Entries
+     * and new candidates that do not rank above the list's bound are left
+     * out, as games missing from the list may rank above them.
+     *
+     * @return The list itself if it is unaffected, the new list, or null if
+     *         it ran short of entries and must be recomputed
+     */
+    private Neighbors patchList(int row, Neighbors list, int[] changedRows, float[][] changed) {
+        boolean affected = false;
+        for (int k = 0; k < list.games.length && !affected; k++) {
+            affected = dirty.get(list.games[k]);
+        }
+        for (int r = 0; r < changedRows.length && !affected; r++) {
+            float similarity = changed[r][row];
+            affected = !Float.isNaN(similarity)
+                    && better(similarity, changedRows[r], list.boundSimilarity, list.boundGame);
+        }
+        if (!affected) {
+            return list;
+        }
+
+        int[] candidates = new int[list.games.length + changedRows.length];
+        float[] similarities = new float[candidates.length];
+        int n = 0;
+        for (int k = 0; k < list.games.length; k++) {
+            if (!dirty.get(list.games[k])) {
+                candidates[n] = list.games[k];
+                similarities[n++] = list.similarities[k];
+            }
+        }
+        for (int r = 0; r < changedRows.length; r++) {
+            int game = changedRows[r];
+            float similarity = changed[r][row];
+            if (Float.isNaN(similarity)) {
+                // A changed game sharing no rater with this one is only a candidate if close in content
+                if (!inWindow(row, game)) {
+                    continue;
+                }
+                similarity = (float) (CONTENT_WEIGHT * content(row, game));
+            }
+            if (better(similarity, game, list.boundSimilarity, list.boundGame)) {
+                candidates[n] = game;
+                similarities[n++] = similarity;
+            }
+        }
+        Neighbors patched = top(candidates, similarities, n, list.boundSimilarity, list.boundGame);
+        return patched.games.length < neighbors && patched.boundGame >= 0 ? null : patched;
+    }
+
+    private Row[] computeRows(int[] rows, boolean keepCandidates) {
+        Row[] results = new Row[rows.length];
+        if (rows.length > 0) {
+            pool.invoke(new RowTask(rows, results, keepCandidates, 0, rows.length));
+        }
+        return results;
+    }
+
+    /**
+     * Splits a range of rows in half until it is small, then computes each row.
+     */
+    private final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] rows;
+        private final Row[] results;
+        private final boolean keepCandidates;
+        private final int from;
+        private final int to;
+
+        RowTask(int[] rows, Row[] results, boolean keepCandidates, int from, int to) {
+            this.rows = rows;
+            this.results = results;
+            this.keepCandidates = keepCandidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(rows, results, keepCandidates, from, mid),
+                        new RowTask(rows, results, keepCandidates, mid, to));
+                return;
+            }
+            Scratch s = scratch.get();
+            for (int i = from; i < to; i++) {
+                results[i] = computeRow(rows[i], s, keepCandidates);
+            }
+        }
+    }
+
+    /**
+     * Computes the similarities of one game to every game sharing a rater
+     * or nearby in its developer and genre/platform buckets.
+     */
+    private Row computeRow(int row, Scratch s, boolean keepCandidates) {
+        s.generation++;
+        s.touchedCount = 0;
+        for (int k = 0; k < raterCounts[row]; k++) {
+            UserRatings ratings = users.get(raters[row][k]);
+            double centred = ratings.rating(row) - ratings.mean;
+            for (int m = 0; m < ratings.size; m++) {
+                int other = ratings.games[m];
+                if (other != row) {
+                    touch(s, other);
+                    s.dot[other] += centred * (ratings.ratings[m] - ratings.mean);
+                    s.coRatings[other]++;
+                }
+            }
+        }
+        touchWindow(s, row, developerBuckets[developerBucketOf[row]], developerPosition[row]);
+        touchWindow(s, row, genrePlatformBuckets[genrePlatformBucketOf[row]], genrePlatformPosition[row]);
+
+        int[] candidates = new int[s.touchedCount];
+        float[] similarities = new float[s.touchedCount];
+        for (int k = 0; k < s.touchedCount; k++) {
+            int other = s.touched[k];
+            double similarity = CONTENT_WEIGHT * content(row, other);
+            if (norms[row] > 0 && norms[other] > 0) {
+                similarity += s.dot[other] / (norms[row] * norms[other])
+                        * s.coRatings[other] / (s.coRatings[other] + SHRINKAGE);
+            }
+            candidates[k] = other;
+            similarities[k] = (float) similarity;
+            s.dot[other] = 0;
+            s.coRatings[other] = 0;
+        }
+        Neighbors top = top(candidates, similarities, candidates.length, 0, -1);
+        return keepCandidates ? new Row(top, candidates, similarities) : new Row(top, null, null);
+    }
+
+    private void touch(Scratch s, int game) {
+        if (s.stamp[game] != s.generation) {
+            s.stamp[game] = s.generation;
+            if (s.touchedCount == s.touched.length) {
+                s.touched = Arrays.copyOf(s.touched, s.touchedCount * 2);
+            }
+            s.touched[s.touchedCount++] = game;
+        }
+    }
+
+    /**
+     * Touches the games closest in release year to a game within its bucket.
+     */
+    private void touchWindow(Scratch s, int row, int[] bucket, int position) {
+        int from = Math.max(0, position - neighbors);
+        int to = Math.min(bucket.length, position + neighbors + 1);
+        for (int i = from; i < to; i++) {
+            if (bucket[i] != row) {
+                touch(s, bucket[i]);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a game is among the games {@link #computeRow} considers
+     * for another because they are close in its buckets.
+     */
+    private boolean inWindow(int row, int game) {
+        return (developerBucketOf[row] == developerBucketOf[game]
+                        && Math.abs(developerPosition[row] - developerPosition[game]) <= neighbors)
+                || (genrePlatformBucketOf[row] == genrePlatformBucketOf[game]
+                        && Math.abs(genrePlatformPosition[row] - genrePlatformPosition[game]) <= neighbors);
+    }
+
+    /**
+     * Keeps the most similar positive candidates, most similar first, ties by
+     * game ID. The bound of the result is the better of the given bound and
+     * the best candidate left out.
+     */
+    private Neighbors top(int[] candidates, float[] similarities, int count, float boundSimilarity, int boundGame) {
+        int[] bestGames = new int[capacity];
+        float[] best = new float[capacity];
+        int size = 0;
+        for (int k = 0; k < count; k++) {
+            float similarity = similarities[k];
+            int game = candidates[k];
+            if (similarity <= 0) {
+                continue;
+            }
+            if (size == capacity && !better(similarity, game, best[size - 1], bestGames[size - 1])) {
+                if (better(similarity, game, boundSimilarity, boundGame)) {
+                    boundSimilarity = similarity;
+                    boundGame = game;
+                }
+                continue;
+            }
+            int position = size;
+            if (size == capacity) {
+                position--;
+                if (better(best[position], bestGames[position], boundSimilarity, boundGame)) {
+                    boundSimilarity = best[position];
+                    boundGame = bestGames[position];
+                }
+            } else {
+                size++;
+            }
+            while (position > 0 && better(similarity, game, best[position - 1], bestGames[position - 1])) {
+                best[position] = best[position - 1];
+                bestGames[position] = bestGames[position - 1];
+                position--;
+            }
+            best[position] = similarity;
+            bestGames[position] = game;
+        }
+        if (size == 0 && boundGame < 0) {
+            return Neighbors.NONE;
+        }
+        return new Neighbors(Arrays.copyOf(bestGames, size), Arrays.copyOf(best, size), boundSimilarity, boundGame);
+    }
+
+    /**
+     * Checks whether one candidate ranks above another: more similar, or as
+     * similar with a lower game ID. Every positive candidate ranks above the
+     * game -1.
+     */
+    private boolean better(float similarity, int game, float otherSimilarity, int otherGame) {
+        if (otherGame < 0) {
+            return similarity > otherSimilarity;
+        }
+        return similarity > otherSimilarity
+                || (similarity == otherSimilarity && games[game].getId() < games[otherGame].getId());
+    }
+
+    private double content(int a, int b) {
+        double score = 0;
+        if (developerBucketOf[a] == developerBucketOf[b]) {
+            score += 0.5;
+        }
+        if (games[a].getGenre() == games[b].getGenre()) {
+            score += 0.3;
+        }
+        if (games[a].getPlatform() == games[b].getPlatform()) {
+            score += 0.2;
+        }
+        return score;
+    }
+
+    private double norm(int game) {
+        double sum = 0;
+        for (int k = 0; k < raterCounts[game]; k++) {
+            UserRatings ratings = users.get(raters[game][k]);
+            double centred = ratings.rating(game) - ratings.mean;
+            sum += centred * centred;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private void addRater(int game, int user) {
+        if (raters[game] == null) {
+            raters[game] = new int[4];
+        } else if (raterCounts[game] == raters[game].length) {
+            raters[game] = Arrays.copyOf(raters[game], raterCounts[game] * 2);
+        }
+        raters[game][raterCounts[game]++] = user;
+    }
+
+    private void removeRater(int game, int user) {
+        int[] list = raters[game];
+        for (int k = 0; k < raterCounts[game]; k++) {
+            if (list[k] == user) {
+                list[k] = list[--raterCounts[game]];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Groups games by a key, each group sorted by release year, and records
+     * every game's group and position in it.
+     */
+    private int[][] buckets(Function<AbstractGame, String> key, int[] bucketOf, int[] position) {
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < games.length; i++) {
+            groups.computeIfAbsent(key.apply(games[i]), k -> new ArrayList<>()).add(i);
+        }
+        int[][] buckets = new int[groups.size()][];
+        int b = 0;
+        for (List<Integer> group : groups.values()) {
+            group.sort(Comparator.comparingInt((Integer i) -> games[i].getReleaseYear()).thenComparingInt(i -> i));
+            buckets[b] = group.stream().mapToInt(Integer::intValue).toArray();
+            for (int p = 0; p < buckets[b].length; p++) {
+                bucketOf[buckets[b][p]] = b;
+                position[buckets[b][p]] = p;
+            }
+            b++;
+        }
+        return buckets;
+    }
+}
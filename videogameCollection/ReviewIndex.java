@@ -0,0 +1,613 @@
+package videogameCollection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Full-text inverted index over review text, keyed by game ID, ranked with BM25.
+ * <p>
+ * Text is split into runs of letters and digits, case folded, and common
+ * English stop words and single characters are dropped. Each indexed review
+ * is a document with its own number; a term's postings list the documents
+ * containing it, in ascending order, with the term's frequency. Replacing or
+ * removing a review only marks its old document deleted, so updates cost as
+ * much as indexing the new text. Deleted documents are skipped when scoring
+ * and dropped once they outnumber the live ones. The index does not keep the
+ * text itself; snippets are cut from text supplied at query time.
+ * <p>
+ * An index can be saved and loaded together with a fingerprint of the
+ * reviews it was built from, so a caller can tell whether it is still
+ * current. All methods are synchronized.
+ */
+public class ReviewIndex {
+    public static final int DEFAULT_SNIPPET_LENGTH = 120;
+
+    private static final int MAGIC = 0x56475249; // "VGRI"
+    private static final int VERSION = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final int MIN_PURGE_DOCUMENTS = 1024;
+    private static final int NORM_CACHE_SIZE = 1024;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "had", "has", "have",
+            "he", "her", "his", "i", "if", "in", "into", "is", "it", "its", "me", "my", "no", "not", "of",
+            "on", "or", "our", "she", "so", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "we", "were", "will", "with", "you", "your");
+
+    /**
+     * A review matching a query.
+     */
+    public static final class Hit {
+        private final int gameId;
+        private final double score;
+        private final String snippet;
+
+        Hit(int gameId, double score, String snippet) {
+            this.gameId = gameId;
+            this.score = score;
+            this.snippet = snippet;
+        }
+
+        /**
+         * Gets the ID of the reviewed game.
+         *
+         * @return The game ID
+         */
+        public int getGameId() {
+            return gameId;
+        }
+
+        /**
+         * Gets the BM25 score; higher is more relevant.
+         *
+         * @return The score
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Gets an excerpt of the review around the first matching term, with
+         * matching terms in brackets.
+         *
+         * @return The snippet, or null if no text was available
+         */
+        public String getSnippet() {
+            return snippet;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Hit{gameId=%d, score=%.3f, snippet=%s}", gameId, score, snippet);
+        }
+    }
+
+    /**
+     * The documents containing a term, in ascending document order.
+     */
+    private static final class Postings {
+        int[] documents = new int[2];
+        int[] frequencies = new int[2];
+        int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Map<Integer, Integer> documentsByGame = new HashMap<>();
+    private int[] gameIds = new int[16];
+    private int[] lengths = new int[16];
+    private final BitSet deleted = new BitSet();
+    private int documentCount;
+    private int deletedCount;
+    private long totalLength;
+    private long fingerprint;
+    private float[] scores = new float[0];
+    private int[] touched = new int[16];
+
+    /**
+     * Splits text into index terms: runs of letters and digits, case folded,
+     * without stop words or single characters.
+     *
+     * @param text The text to split
+     * @return The terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            String term = term(text, start, i);
+            if (term != null) {
+                tokens.add(term);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexes or re-indexes a game's review.
+     *
+     * @param gameId The game ID
+     * @param review The review text
+     * @throws IllegalArgumentException if the review is null
+     */
+    public synchronized void put(int gameId, String review) {
+        if (review == null) {
+            throw new IllegalArgumentException("Review cannot be null");
+        }
+        delete(gameId);
+        Map<String, int[]> counts = new HashMap<>();
+        int length = 0;
+        for (String term : tokenize(review)) {
+            counts.computeIfAbsent(term, t -> new int[1])[0]++;
+            length++;
+        }
+        int document = documentCount++;
+        if (document == gameIds.length) {
+            gameIds = Arrays.copyOf(gameIds, document * 2);
+            lengths = Arrays.copyOf(lengths, document * 2);
+        }
+        gameIds[document] = gameId;
+        lengths[document] = length;
+        totalLength += length;
+        documentsByGame.put(gameId, document);
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), t -> new Postings()).add(document, entry.getValue()[0]);
+        }
+        purgeIfMostlyDeleted();
+    }
+
+    /**
+     * Removes a game's review from the index.
+     *
+     * @param gameId The game ID
+     */
+    public synchronized void remove(int gameId) {
+        delete(gameId);
+        purgeIfMostlyDeleted();
+    }
+
+    /**
+     * Checks whether a game's review is indexed.
+     *
+     * @param gameId The game ID
+     * @return true if the game has an indexed review
+     */
+    public synchronized boolean contains(int gameId) {
+        return documentsByGame.containsKey(gameId);
+    }
+
+    /**
+     * Gets the number of indexed reviews.
+     *
+     * @return The review count
+     */
+    public synchronized int size() {
+        return documentsByGame.size();
+    }
+
+    /**
+     * Gets the number of distinct terms, including terms only found in
+     * deleted documents that have not been purged yet.
+     *
+     * @return The term count
+     */
+    public synchronized int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Finds the reviews best matching a query, without snippets.
+     *
+     * @param query The query text
+     * @param limit The maximum number of results
+     * @return The matches, most relevant first
+     */
+    public List<Hit> search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /**
+     * Finds the reviews best matching a query. A review matches if it
+     * contains any query term; reviews are ranked by their BM25 score.
+     *
+     * @param query The query text
+     * @param limit The maximum number of results
+     * @param texts Supplies the text of a game's review for snippets, or null for no snippets
+     * @return The matches, most relevant first
+     * @throws IllegalArgumentException if the query is null or the limit is not positive
+     */
+    public List<Hit> search(String query, int limit, IntFunction<String> texts) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        int[] best;
+        float[] bestScores;
+        synchronized (this) {
+            int live = documentsByGame.size();
+            if (queryTerms.isEmpty() || live == 0) {
+                return Collections.emptyList();
+            }
+            if (scores.length < documentCount) {
+                scores = new float[gameIds.length];
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / live);
+            // Length normalisation depends only on the document length, so short lengths are precomputed
+            float[] norms = new float[NORM_CACHE_SIZE];
+            for (int length = 0; length < NORM_CACHE_SIZE; length++) {
+                norms[length] = (float) (K1 * (1 - B + B * length / averageLength));
+            }
+            boolean anyDeleted = deletedCount > 0;
+            int touchedCount = 0;
+            for (String term : queryTerms) {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (live - postings.size + 0.5) / (postings.size + 0.5));
+                int[] documents = postings.documents;
+                int[] frequencies = postings.frequencies;
+                for (int i = 0; i < postings.size; i++) {
+                    int document = documents[i];
+                    if (anyDeleted && deleted.get(document)) {
+                        continue;
+                    }
+                    int frequency = frequencies[i];
+                    int length = lengths[document];
+                    float norm = length < NORM_CACHE_SIZE ? norms[length]
+                            : (float) (K1 * (1 - B + B * length / averageLength));
+                    if (scores[document] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = document;
+                    }
+                    scores[document] += idf * frequency * (float) (K1 + 1) / (frequency + norm);
+                }
+            }
+
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(limit, touchedCount) + 1,
+                    (a, b) -> compare(scores[a], gameIds[a], scores[b], gameIds[b]));
+            for (int i = 0; i < touchedCount; i++) {
+                int document = touched[i];
+                if (top.size() < limit) {
+                    top.add(document);
+                } else if (compare(scores[document], gameIds[document], scores[top.peek()], gameIds[top.peek()]) > 0) {
+                    top.poll();
+                    top.add(document);
+                }
+            }
+            best = new int[top.size()];
+            bestScores = new float[top.size()];
+            for (int i = best.length - 1; i >= 0; i--) {
+                int document = top.poll();
+                best[i] = gameIds[document];
+                bestScores[i] = scores[document];
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best.length);
+        for (int i = 0; i < best.length; i++) {
+            hits.add(new Hit(best[i], bestScores[i], null));
+        }
+        // Snippets may need a disk read, so they are cut outside the lock
+        return texts == null ? hits : withSnippets(hits, query, texts);
+    }
+
+    /**
+     * Adds snippets to search results.
+     *
+     * @param hits The results of {@link #search(String, int)}
+     * @param query The query they were found with
+     * @param texts Supplies the text of a game's review
+     * @return The results with snippets
+     */
+    static List<Hit> withSnippets(List<Hit> hits, String query, IntFunction<String> texts) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        List<Hit> withSnippets = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            String text = texts.apply(hit.gameId);
+            String snippet = text == null ? null : snippet(text, queryTerms, DEFAULT_SNIPPET_LENGTH);
+            withSnippets.add(new Hit(hit.gameId, hit.score, snippet));
+        }
+        return withSnippets;
+    }
+
+    /**
+     * Cuts an excerpt of about {@code length} characters around the first of
+     * the given terms found in a text, putting matching terms in brackets.
+     *
+     * @param text The text
+     * @param queryTerms The terms to look for, as produced by {@link #tokenize(String)}
+     * @param length The approximate length of the excerpt
+     * @return The excerpt, with "..." where the text was cut
+     */
+    public static String snippet(String text, Set<String> queryTerms, int length) {
+        int first = -1;
+        int i = 0;
+        while (i < text.length() && first < 0) {
+            while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (matches(queryTerms, text, start, i)) {
+                first = start;
+            }
+        }
+        int start = Math.max(0, (first < 0 ? 0 : first) - length / 3);
+        while (start > 0 && start < first && !Character.isWhitespace(text.charAt(start - 1))) {
+            start++;
+        }
+        int end = Math.min(text.length(), start + length);
+        while (end < text.length() && end > start && !Character.isWhitespace(text.charAt(end))) {
+            end--;
+        }
+        if (end <= start) {
+            end = Math.min(text.length(), start + length);
+        }
+
+        StringBuilder snippet = new StringBuilder(end - start + 16);
+        if (start > 0) {
+            snippet.append("...");
+        }
+        i = start;
+        while (i < end) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                snippet.append(text.charAt(i++));
+                continue;
+            }
+            int wordStart = i;
+            while (i < end && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            boolean match = matches(queryTerms, text, wordStart, i);
+            snippet.append(match ? "[" : "").append(text, wordStart, i).append(match ? "]" : "");
+        }
+        if (end < text.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString().trim();
+    }
+
+    /**
+     * Removes every review from the index.
+     */
+    public synchronized void clear() {
+        terms.clear();
+        documentsByGame.clear();
+        deleted.clear();
+        gameIds = new int[16];
+        lengths = new int[16];
+        scores = new float[0];
+        touched = new int[16];
+        documentCount = 0;
+        deletedCount = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Gets the fingerprint of the reviews this index was built from, as
+     * passed to {@link #save(Path, long)} or {@link #setFingerprint(long)}.
+     *
+     * @return The fingerprint, or 0 for a new index
+     */
+    public synchronized long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Records the fingerprint of the reviews this index now holds.
+     *
+     * @param fingerprint The fingerprint
+     */
+    public synchronized void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Writes the index to a file, replacing it atomically. Deleted documents
+     * are purged first.
+     *
+     * @param file The index file
+     * @param fingerprint A fingerprint of the reviews the index holds
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(Path file, long fingerprint) throws IOException {
+        purge();
+        this.fingerprint = fingerprint;
+        ChecksummedFile.write(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(documentCount);
+            for (int document = 0; document < documentCount; document++) {
+                ProfileStore.writeVarInt(out, gameIds[document]);
+                ProfileStore.writeVarInt(out, lengths[document]);
+            }
+            out.writeInt(terms.size());
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                Postings postings = entry.getValue();
+                out.writeUTF(entry.getKey());
+                ProfileStore.writeVarInt(out, postings.size);
+                int previous = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    ProfileStore.writeVarInt(out, postings.documents[i] - previous);
+                    ProfileStore.writeVarInt(out, postings.frequencies[i]);
+                    previous = postings.documents[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads an index written by {@link #save(Path, long)}.
+     *
+     * @param file The index file
+     * @return The index, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public static ReviewIndex load(Path file) throws IOException {
+        return ChecksummedFile.read(file, "Review index", in -> {
+            ReviewIndex index = new ReviewIndex();
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a review index: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported review index version: " + version);
+            }
+            index.fingerprint = in.readLong();
+            int documents = in.readInt();
+            if (documents < 0) {
+                throw new IOException("Review index is damaged: " + file);
+            }
+            index.gameIds = new int[Math.max(16, documents)];
+            index.lengths = new int[Math.max(16, documents)];
+            for (int document = 0; document < documents; document++) {
+                index.gameIds[document] = ProfileStore.readVarInt(in);
+                index.lengths[document] = ProfileStore.readVarInt(in);
+                index.totalLength += index.lengths[document];
+                index.documentsByGame.put(index.gameIds[document], document);
+            }
+            index.documentCount = documents;
+            int termCount = in.readInt();
+            for (int t = 0; t < termCount; t++) {
+                String term = in.readUTF();
+                Postings postings = new Postings();
+                postings.size = ProfileStore.readVarInt(in);
+                postings.documents = new int[Math.max(1, postings.size)];
+                postings.frequencies = new int[Math.max(1, postings.size)];
+                int document = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    document += ProfileStore.readVarInt(in);
+                    if (document >= documents) {
+                        throw new IOException("Review index is damaged: " + file);
+                    }
+                    postings.documents[i] = document;
+                    postings.frequencies[i] = ProfileStore.readVarInt(in);
+                }
+                index.terms.put(term, postings);
+            }
+            return index;
+        });
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ReviewIndex{reviews=" + documentsByGame.size() + ", terms=" + terms.size() + "}";
+    }
+
+    /**
+     * Marks a game's current document deleted.
+     */
+    private void delete(int gameId) {
+        Integer document = documentsByGame.remove(gameId);
+        if (document != null) {
+            deleted.set(document);
+            deletedCount++;
+            totalLength -= lengths[document];
+        }
+    }
+
+    private void purgeIfMostlyDeleted() {
+        if (deletedCount > Math.max(documentsByGame.size(), MIN_PURGE_DOCUMENTS)) {
+            purge();
+        }
+    }
+
+    /**
+     * Drops deleted documents from the postings and renumbers the rest.
+     */
+    private void purge() {
+        if (deletedCount == 0) {
+            return;
+        }
+        int[] renumbered = new int[documentCount];
+        int live = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                renumbered[document] = live;
+                gameIds[live] = gameIds[document];
+                lengths[live] = lengths[document];
+                documentsByGame.put(gameIds[live], live);
+                live++;
+            }
+        }
+        terms.values().removeIf(postings -> {
+            int kept = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int document = renumbered[postings.documents[i]];
+                if (document >= 0) {
+                    postings.documents[kept] = document;
+                    postings.frequencies[kept] = postings.frequencies[i];
+                    kept++;
+                }
+            }
+            postings.size = kept;
+            return kept == 0;
+        });
+        documentCount = live;
+        deletedCount = 0;
+        deleted.clear();
+    }
+
+    private static String term(String text, int start, int end) {
+        int length = end - start;
+        if (length < 2 || length > MAX_TERM_LENGTH) {
+            return null;
+        }
+        String term = text.substring(start, end).toLowerCase();
+        return STOP_WORDS.contains(term) ? null : term;
+    }
+
+    private static boolean matches(Set<String> queryTerms, String text, int start, int end) {
+        String term = term(text, start, end);
+        return term != null && queryTerms.contains(term);
+    }
+
+    private static int compare(float score, int gameId, float otherScore, int otherGameId) {
+        int order = Float.compare(score, otherScore);
+        // On equal scores the lower game ID ranks higher
+        return order != 0 ? order : Integer.compare(otherGameId, gameId);
+    }
+}
@@ -0,0 +1,459 @@
+package videogameCollection;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only file of review texts, keyed by game ID, kept outside the profile.
+ * <pre>
+ * header : int MAGIC | int VERSION | long generation
+ * record : int gameId | byte kind | int rawLength | int storedLength | stored bytes
+ * </pre>
+ * A record's kind is plain UTF-8 text, deflated text, or a removal marker.
+ * Only the offset of each game's latest record is held in memory; the text
+ * is read on demand and the most recently read reviews are kept in a small
+ * LRU cache, so heap use does not grow with review length. Replacing or
+ * removing a review appends a record, and the file is compacted once more
+ * than half of it is superseded records. A torn record at the end of the
+ * file, left by a crash, is cut off when the store is opened.
+ * <p>
+ * Between compactions the file only grows, so its length identifies its
+ * contents. The generation in the header is increased whenever the file is
+ * compacted or cleared, so the generation and length together never repeat
+ * an earlier state. Version 1 files, which have no generation, are read as
+ * generation 0 and upgraded when they are first compacted or cleared.
+ * <p>
+ * All methods are synchronized.
+ */
+public class ReviewStore implements Closeable {
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final Logger LOGGER = Logger.getLogger(ReviewStore.class.getName());
+    private static final int MAGIC = 0x56475256; // "VGRV"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int V1_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 13;
+    private static final byte KIND_TEXT = 0;
+    private static final byte KIND_DEFLATED = 1;
+    private static final byte KIND_REMOVED = 2;
+    private static final int MIN_COMPRESSED_LENGTH = 64;
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    private Path file;
+    private final boolean compress;
+    private final Map<Integer, Long> offsets = new HashMap<>();
+    private final LinkedHashMap<Integer, String> cache;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+    private FileChannel channel;
+    private int headerBytes = HEADER_BYTES;
+    private long generation;
+    private long size;
+    private long liveBytes;
+    private long cacheHits;
+    private long cacheMisses;
+
+    /**
+     * Opens a store that compresses long reviews and caches
+     * {@value #DEFAULT_CACHE_SIZE} reviews.
+     *
+     * @param file The review file, created if missing
+     * @throws IOException if the file cannot be opened
+     */
+    public ReviewStore(Path file) throws IOException {
+        this(file, true, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Opens (and if necessary creates) a review file.
+     *
+     * @param file The review file
+     * @param compress Whether to deflate reviews that shrink when compressed
+     * @param cacheSize The number of recently read reviews to keep in memory
+     * @throws IOException if the file cannot be opened or is not a review file
+     * @throws IllegalArgumentException if the cache size is negative
+     */
+    public ReviewStore(Path file, boolean compress, int cacheSize) throws IOException {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative");
+        }
+        this.file = file;
+        this.compress = compress;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            writeFully(channel, header(0), 0);
+        }
+        scan();
+    }
+
+    /**
+     * Stores or replaces a game's review.
+     *
+     * @param gameId The game ID
+     * @param review The review text
+     * @throws IOException if the review cannot be written
+     * @throws IllegalArgumentException if the ID is not positive or the review is null
+     */
+    public synchronized void put(int gameId, String review) throws IOException {
+        if (gameId <= 0) {
+            throw new IllegalArgumentException("Game ID must be positive");
+        }
+        if (review == null) {
+            throw new IllegalArgumentException("Review cannot be null");
+        }
+        byte[] raw = review.getBytes(StandardCharsets.UTF_8);
+        byte kind = KIND_TEXT;
+        byte[] stored = raw;
+        if (compress && raw.length >= MIN_COMPRESSED_LENGTH) {
+            byte[] deflated = deflate(raw);
+            if (deflated != null) {
+                kind = KIND_DEFLATED;
+                stored = deflated;
+            }
+        }
+        append(gameId, kind, raw.length, stored);
+        cache.put(gameId, review);
+    }
+
+    /**
+     * Gets a game's review, reading it from disk unless it is cached.
+     *
+     * @param gameId The game ID
+     * @return The review, or null if the game has none
+     * @throws IOException if the review cannot be read
+     */
+    public synchronized String get(int gameId) throws IOException {
+        String review = cache.get(gameId);
+        if (review != null) {
+            cacheHits++;
+            return review;
+        }
+        Long offset = offsets.get(gameId);
+        if (offset == null) {
+            return null;
+        }
+        cacheMisses++;
+        review = read(offset);
+        cache.put(gameId, review);
+        return review;
+    }
+
+    /**
+     * Checks whether a game has a review, without reading it.
+     *
+     * @param gameId The game ID
+     * @return true if the game has a review
+     */
+    public synchronized boolean contains(int gameId) {
+        return offsets.containsKey(gameId);
+    }
+
+    /**
+     * Removes a game's review. Removing a missing review does nothing.
+     *
+     * @param gameId The game ID
+     * @throws IOException if the removal cannot be written
+     */
+    public synchronized void remove(int gameId) throws IOException {
+        if (offsets.containsKey(gameId)) {
+            append(gameId, KIND_REMOVED, 0, new byte[0]);
+            cache.remove(gameId);
+        }
+    }
+
+    /**
+     * Gets the number of stored reviews.
+     *
+     * @return The review count
+     */
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Gets the size of the review file, including superseded records.
+     *
+     * @return The file size in bytes
+     */
+    public synchronized long getFileBytes() {
+        return size;
+    }
+
+    /**
+     * Gets the generation of the file, increased each time it is compacted or cleared.
+     *
+     * @return The generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the number of reads answered from the cache.
+     *
+     * @return The cache hit count
+     */
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Gets the number of reads that went to disk.
+     *
+     * @return The cache miss count
+     */
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Gets the review file.
+     *
+     * @return The path of the file
+     */
+    public synchronized Path getFile() {
+        return file;
+    }
+
+    /**
+     * Moves the review file, for example when the user it belongs to is
+     * renamed. A file already at the target is replaced. The store stays
+     * open at the new location, or at the old one if the move fails.
+     *
+     * @param target The new path of the file
+     * @throws IOException if the file cannot be moved
+     */
+    public synchronized void moveTo(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        channel.force(true);
+        channel.close();
+        try {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            file = target;
+        } finally {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * Rewrites the file with only the latest record of each review.
+     *
+     * @throws IOException if the file cannot be rewritten
+     */
+    public synchronized void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<Integer, Long> moved = new HashMap<>();
+        long position = HEADER_BYTES;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header(generation + 1), 0);
+            for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+                ByteBuffer header = readFully(entry.getValue(), RECORD_HEADER_BYTES);
+                int length = RECORD_HEADER_BYTES + header.getInt(9);
+                ByteBuffer record = readFully(entry.getValue(), length);
+                writeFully(out, record, position);
+                moved.put(entry.getKey(), position);
+                position += length;
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        offsets.clear();
+        offsets.putAll(moved);
+        headerBytes = HEADER_BYTES;
+        generation++;
+        size = position;
+        liveBytes = position - HEADER_BYTES;
+        LOGGER.fine("Compacted " + file + " to " + size + " bytes");
+    }
+
+    /**
+     * Removes every review.
+     *
+     * @throws IOException if the file cannot be truncated
+     */
+    public synchronized void clear() throws IOException {
+        channel.truncate(0);
+        writeFully(channel, header(generation + 1), 0);
+        offsets.clear();
+        cache.clear();
+        headerBytes = HEADER_BYTES;
+        generation++;
+        size = HEADER_BYTES;
+        liveBytes = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        deflater.end();
+        inflater.end();
+        channel.close();
+    }
+
+    /**
+     * Builds the offset index from the record headers, cutting off a torn last record.
+     */
+    private void scan() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = readFully(0, V1_HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a review file: " + file);
+        }
+        int version = header.getInt();
+        if (version == 1) {
+            headerBytes = V1_HEADER_BYTES;
+            generation = 0;
+        } else if (version == VERSION) {
+            headerBytes = HEADER_BYTES;
+            generation = readFully(V1_HEADER_BYTES, Long.BYTES).getLong();
+        } else {
+            throw new IOException("Unsupported review file version: " + version);
+        }
+        long position = headerBytes;
+        while (position + RECORD_HEADER_BYTES <= fileSize) {
+            ByteBuffer record = readFully(position, RECORD_HEADER_BYTES);
+            int gameId = record.getInt();
+            byte kind = record.get();
+            record.getInt();
+            int length = RECORD_HEADER_BYTES + record.getInt();
+            if (position + length > fileSize) {
+                break;
+            }
+            index(gameId, kind, position, length);
+            position += length;
+        }
+        if (position < fileSize) {
+            LOGGER.warning("Cutting off a torn record at the end of " + file);
+            channel.truncate(position);
+        }
+        size = position;
+    }
+
+    private void append(int gameId, byte kind, int rawLength, byte[] stored) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + stored.length);
+        record.putInt(gameId).put(kind).putInt(rawLength).putInt(stored.length).put(stored).flip();
+        long position = size;
+        writeFully(channel, record, position);
+        size += record.limit();
+        index(gameId, kind, position, record.limit());
+        if (size - headerBytes - liveBytes > Math.max(liveBytes, MIN_COMPACTION_BYTES)) {
+            compact();
+        }
+    }
+
+    private void index(int gameId, byte kind, long position, int length) throws IOException {
+        Long previous = offsets.remove(gameId);
+        if (previous != null) {
+            liveBytes -= RECORD_HEADER_BYTES + readFully(previous, RECORD_HEADER_BYTES).getInt(9);
+        }
+        if (kind != KIND_REMOVED) {
+            offsets.put(gameId, position);
+            liveBytes += length;
+        }
+    }
+
+    private String read(long offset) throws IOException {
+        ByteBuffer header = readFully(offset, RECORD_HEADER_BYTES);
+        header.getInt();
+        byte kind = header.get();
+        int rawLength = header.getInt();
+        int storedLength = header.getInt();
+        byte[] stored = readFully(offset + RECORD_HEADER_BYTES, storedLength).array();
+        if (kind == KIND_TEXT) {
+            return new String(stored, StandardCharsets.UTF_8);
+        }
+        if (kind != KIND_DEFLATED) {
+            throw new IOException("Corrupt review record at offset " + offset);
+        }
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(stored);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != rawLength) {
+                throw new IOException("Corrupt review record at offset " + offset);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt review record at offset " + offset, e);
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deflates a review, or returns null if that does not make it smaller.
+     */
+    private byte[] deflate(byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] buffer = new byte[raw.length];
+        int length = 0;
+        while (!deflater.finished() && length < buffer.length) {
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        if (!deflater.finished() || length >= raw.length) {
+            return null;
+        }
+        byte[] deflated = new byte[length];
+        System.arraycopy(buffer, 0, deflated, 0, length);
+        return deflated;
+    }
+
+    private static ByteBuffer header(long generation) {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(generation).flip();
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of review file " + file);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += target.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package videogameCollection;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Compact representation of one user's profile inside a {@link ProfileStore}.
+ * <p>
+ * Owned games are held as a sorted array of catalog IDs with parallel
+ * arrays of ratings (0 means unrated) and of the user's own progress in each
+ * game, in the two numeric parts of {@link Playable}, so memory grows with
+ * the number of games this user owns rather than with the catalog. Review
+ * texts are kept in a parallel array that is only allocated once the user
+ * writes a review. Instances are thread-safe; all methods synchronize on the
+ * instance.
+ */
+public class StoredProfile {
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+
+    private final String username;
+    private GamePlatform preferredPlatform;
+    private int[] ownedIds;
+    private byte[] ratings;
+    private int[] primaryProgress;      // Levels completed, or wins
+    private int[] secondaryProgress;    // 0, or losses
+    private String[] reviews;
+    private int size;
+
+    /**
+     * Creates an empty profile.
+     *
+     * @param username The username
+     * @param preferredPlatform The preferred platform
+     * @throws IllegalArgumentException if username is null or empty
+     */
+    public StoredProfile(String username, GamePlatform preferredPlatform) {
+        if (username == null || username.trim().isEmpty()) {
+            throw new IllegalArgumentException("Username cannot be null or empty");
+        }
+        this.username = username;
+        this.preferredPlatform = preferredPlatform == null ? GamePlatform.OTHER : preferredPlatform;
+        this.ownedIds = new int[4];
+        this.ratings = new byte[4];
+        this.primaryProgress = new int[4];
+        this.secondaryProgress = new int[4];
+    }
+
+    /**
+     * Restores a profile from its stored arrays.
+     *
+     * @param username The username
+     * @param preferredPlatform The preferred platform
+     * @param ownedIds The sorted owned game IDs
+     * @param ratings The rating of each owned game (0 if unrated)
+     * @param primaryProgress The levels completed or wins in each owned game
+     * @param secondaryProgress The losses in each owned game (0 for single-player games)
+     * @param reviews The review of each owned game, or null if none were written
+     */
+    StoredProfile(String username, GamePlatform preferredPlatform, int[] ownedIds, byte[] ratings,
+            int[] primaryProgress, int[] secondaryProgress, String[] reviews) {
+        this(username, preferredPlatform);
+        this.ownedIds = ownedIds;
+        this.ratings = ratings;
+        this.primaryProgress = primaryProgress;
+        this.secondaryProgress = secondaryProgress;
+        this.reviews = reviews;
+        this.size = ownedIds.length;
+    }
+
+    /**
+     * Creates a compact copy of a full profile, including the progress held
+     * in its games. Reviews kept in the profile's review store stay there.
+     * Every owned game must have a catalog ID.
+     *
+     * @param profile The profile to convert
+     * @return The compact profile
+     * @throws IllegalArgumentException if an owned game has no catalog ID
+     */
+    public static StoredProfile fromUserProfile(UserProfile profile) {
+        StoredProfile stored = new StoredProfile(profile.getUsername(), profile.getPreferredPlatform());
+        for (AbstractGame game : profile.getGamesOwned()) {
+            if (game.getId() == 0) {
+                throw new IllegalArgumentException("Game '" + game.getTitle() + "' has not been added to the library");
+            }
+            stored.addGame(game.getId());
+            if (game instanceof SinglePlayer) {
+                stored.setGameProgress(game.getId(), ((SinglePlayer) game).getLevelsCompleted(), 0);
+            } else if (game instanceof Multiplayer) {
+                Multiplayer multiplayer = (Multiplayer) game;
+                stored.setGameProgress(game.getId(), multiplayer.getWins(), multiplayer.getLosses());
+            }
+            Integer rating = profile.getGameRating(game);
+            if (rating != null) {
+                stored.rateGame(game.getId(), rating);
+            }
+            String review = profile.getInlineReview(game);
+            if (review != null) {
+                stored.reviewGame(game.getId(), review);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Builds a full profile owning copies of the game library's games that
+     * hold this user's progress. IDs no longer present in the library are skipped.
+     *
+     * @return The full profile
+     */
+    public UserProfile toUserProfile() {
+        return toUserProfile(GameLibrary::findById);
+    }
+
+    /**
+     * Builds a full profile, resolving catalog IDs with the given function.
+     * The profile owns copies of the resolved games that hold this user's
+     * progress; the resolved games themselves are not changed. IDs the
+     * function cannot resolve are skipped.
+     *
+     * @param resolver Maps a catalog ID to a game, or to null if it is unknown
+     * @return The full profile
+     */
+    public synchronized UserProfile toUserProfile(IntFunction<AbstractGame> resolver) {
+        UserProfile profile = new UserProfile(username, preferredPlatform);
+        applyTo(profile, resolver);
+        return profile;
+    }
+
+    /**
+     * Adds this profile's owned games, progress, ratings and reviews to an
+     * existing profile, as copies of the resolved games (see
+     * {@link AbstractGame#copyForPlayer()}). IDs the resolver cannot resolve are skipped.
+     *
+     * @param profile The profile to fill
+     * @param resolver Maps a catalog ID to a game, or to null if it is unknown
+     */
+    public synchronized void applyTo(UserProfile profile, IntFunction<AbstractGame> resolver) {
+        for (int i = 0; i < size; i++) {
+            AbstractGame catalogGame = resolver.apply(ownedIds[i]);
+            if (catalogGame == null) {
+                continue;
+            }
+            AbstractGame game = catalogGame.copyForPlayer();
+            restoreProgress(game, primaryProgress[i], secondaryProgress[i]);
+            profile.addGame(game);
+            if (ratings[i] != 0) {
+                profile.rateGame(game, ratings[i]);
+            }
+            if (reviews != null && reviews[i] != null) {
+                profile.reviewGame(game, reviews[i]);
+            }
+        }
+    }
+
+    /**
+     * Gets the username.
+     *
+     * @return The username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the preferred platform.
+     *
+     * @return The preferred platform
+     */
+    public synchronized GamePlatform getPreferredPlatform() {
+        return preferredPlatform;
+    }
+
+    /**
+     * Sets the preferred platform.
+     *
+     * @param preferredPlatform The new preferred platform
+     */
+    public synchronized void setPreferredPlatform(GamePlatform preferredPlatform) {
+        this.preferredPlatform = preferredPlatform == null ? GamePlatform.OTHER : preferredPlatform;
+    }
+
+    /**
+     * Gets the number of games the user owns.
+     *
+     * @return The owned game count
+     */
+    public synchronized int getGameCount() {
+        return size;
+    }
+
+    /**
+     * Gets a copy of the owned game IDs in ascending order.
+     *
+     * @return The owned game IDs
+     */
+    public synchronized int[] getOwnedIds() {
+        return Arrays.copyOf(ownedIds, size);
+    }
+
+    /**
+     * Checks whether the user owns a game.
+     *
+     * @param gameId The catalog ID
+     * @return true if the game is owned
+     */
+    public synchronized boolean ownsGame(int gameId) {
+        return indexOf(gameId) >= 0;
+    }
+
+    /**
+     * Adds a game to the user's collection. Adding an owned game does nothing.
+     *
+     * @param gameId The catalog ID
+     * @throws IllegalArgumentException if the ID is not positive
+     */
+    public synchronized void addGame(int gameId) {
+        if (gameId <= 0) {
+            throw new IllegalArgumentException("Game ID must be positive");
+        }
+        int index = indexOf(gameId);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -(index + 1);
+        if (size == ownedIds.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            ownedIds = Arrays.copyOf(ownedIds, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            primaryProgress = Arrays.copyOf(primaryProgress, capacity);
+            secondaryProgress = Arrays.copyOf(secondaryProgress, capacity);
+            if (reviews != null) {
+                reviews = Arrays.copyOf(reviews, capacity);
+            }
+        }
+        System.arraycopy(ownedIds, insertAt, ownedIds, insertAt + 1, size - insertAt);
+        System.arraycopy(ratings, insertAt, ratings, insertAt + 1, size - insertAt);
+        System.arraycopy(primaryProgress, insertAt, primaryProgress, insertAt + 1, size - insertAt);
+        System.arraycopy(secondaryProgress, insertAt, secondaryProgress, insertAt + 1, size - insertAt);
+        if (reviews != null) {
+            System.arraycopy(reviews, insertAt, reviews, insertAt + 1, size - insertAt);
+            reviews[insertAt] = null;
+        }
+        ownedIds[insertAt] = gameId;
+        ratings[insertAt] = 0;
+        primaryProgress[insertAt] = 0;
+        secondaryProgress[insertAt] = 0;
+        size++;
+    }
+
+    /**
+     * Removes a game and its progress, rating and review from the user's collection.
+     *
+     * @param gameId The catalog ID
+     * @return true if the game was removed, false if it was not owned
+     */
+    public synchronized boolean removeGame(int gameId) {
+        int index = indexOf(gameId);
+        if (index < 0) {
+            return false;
+        }
+        int moved = size - index - 1;
+        System.arraycopy(ownedIds, index + 1, ownedIds, index, moved);
+        System.arraycopy(ratings, index + 1, ratings, index, moved);
+        System.arraycopy(primaryProgress, index + 1, primaryProgress, index, moved);
+        System.arraycopy(secondaryProgress, index + 1, secondaryProgress, index, moved);
+        if (reviews != null) {
+            System.arraycopy(reviews, index + 1, reviews, index, moved);
+            reviews[size - 1] = null;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Rates an owned game.
+     *
+     * @param gameId The catalog ID
+     * @param rating The rating (1-5)
+     * @throws IllegalArgumentException if the game is not owned or the rating is invalid
+     */
+    public synchronized void rateGame(int gameId, int rating) {
+        if (rating < MIN_RATING || rating > MAX_RATING) {
+            throw new IllegalArgumentException("Rating must be between " + MIN_RATING + " and " + MAX_RATING);
+        }
+        ratings[requireOwned(gameId, "rate")] = (byte) rating;
+    }
+
+    /**
+     * Gets the rating of a game.
+     *
+     * @param gameId The catalog ID
+     * @return The rating, or null if the game is unrated or not owned
+     */
+    public synchronized Integer getGameRating(int gameId) {
+        int index = indexOf(gameId);
+        return index < 0 || ratings[index] == 0 ? null : (int) ratings[index];
+    }
+
+    /**
+     * Sets the user's progress in an owned game.
+     *
+     * @param gameId The catalog ID
+     * @param primary Levels completed, or wins
+     * @param secondary 0, or losses
+     * @throws IllegalArgumentException if the game is not owned or either value is negative
+     */
+    public synchronized void setGameProgress(int gameId, int primary, int secondary) {
+        if (primary < 0 || secondary < 0) {
+            throw new IllegalArgumentException("Progress cannot be negative");
+        }
+        int index = requireOwned(gameId, "track progress in");
+        primaryProgress[index] = primary;
+        secondaryProgress[index] = secondary;
+    }
+
+    /**
+     * Gets the user's progress in a game.
+     *
+     * @param gameId The catalog ID
+     * @return The levels completed or wins, and the losses (0 for single-player
+     *         games), or null if the game is not owned
+     */
+    public synchronized int[] getGameProgress(int gameId) {
+        int index = indexOf(gameId);
+        return index < 0 ? null : new int[] { primaryProgress[index], secondaryProgress[index] };
+    }
+
+    /**
+     * Reviews an owned game.
+     *
+     * @param gameId The catalog ID
+     * @param review The review text
+     * @throws IllegalArgumentException if the game is not owned or the review is empty
+     */
+    public synchronized void reviewGame(int gameId, String review) {
+        if (review == null || review.trim().isEmpty()) {
+            throw new IllegalArgumentException("Review cannot be null or empty");
+        }
+        int index = requireOwned(gameId, "review");
+        if (reviews == null) {
+            reviews = new String[ownedIds.length];
+        }
+        reviews[index] = review;
+    }
+
+    /**
+     * Gets the review of a game.
+     *
+     * @param gameId The catalog ID
+     * @return The review, or null if none exists
+     */
+    public synchronized String getGameReview(int gameId) {
+        int index = indexOf(gameId);
+        return index < 0 || reviews == null ? null : reviews[index];
+    }
+
+    /**
+     * Gets the average rating of all rated games.
+     *
+     * @return The average rating, or 0 if no games are rated
+     */
+    public synchronized double getAverageRating() {
+        int sum = 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (ratings[i] != 0) {
+                sum += ratings[i];
+                count++;
+            }
+        }
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Gets copies of the stored arrays, trimmed to the owned game count.
+     * Used by {@link ProfileStore} when writing the profile.
+     *
+     * @return The IDs, ratings, primary and secondary progress, and reviews (reviews may be null)
+     */
+    synchronized Object[] snapshot() {
+        return new Object[] {
+            Arrays.copyOf(ownedIds, size),
+            Arrays.copyOf(ratings, size),
+            Arrays.copyOf(primaryProgress, size),
+            Arrays.copyOf(secondaryProgress, size),
+            reviews == null ? null : Arrays.copyOf(reviews, size)
+        };
+    }
+
+    /**
+     * Puts stored progress into a fresh copy of a game. Levels beyond the
+     * game's total, left over from an older catalog entry, are capped.
+     */
+    private static void restoreProgress(AbstractGame game, int primary, int secondary) {
+        if (game instanceof SinglePlayer) {
+            SinglePlayer singlePlayer = (SinglePlayer) game;
+            singlePlayer.setLevelsCompleted(Math.min(primary, singlePlayer.getTotalLevels()));
+        } else if (game instanceof Multiplayer) {
+            ((Multiplayer) game).importRecord(primary, secondary);
+        }
+    }
+
+    private int requireOwned(int gameId, String action) {
+        int index = indexOf(gameId);
+        if (index < 0) {
+            throw new IllegalArgumentException("You can only " + action + " games you own");
+        }
+        return index;
+    }
+
+    private int indexOf(int gameId) {
+        return Arrays.binarySearch(ownedIds, 0, size, gameId);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StoredProfile{" +
+                "username='" + username + '\'' +
+                ", preferredPlatform='" + preferredPlatform + '\'' +
+                ", gamesOwned=" + size +
+                '}';
+    }
+}
@@ -1,6 +1,7 @@
 package videogameCollection;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 import videogameCollection.game.AbstractGame;
@@ -10,6 +11,8 @@ import videogameCollection.game.AbstractGame;
  * Contains methods for displaying information to the user.
  */
 public class UIHelper {
+    public static final int ITEMS_PER_PAGE = 5;
+
     private static final Scanner scanner = new Scanner(System.in);
 
     /**
@@ -33,47 +36,149 @@ public class UIHelper {
     }
 
     /**
-     * Displays a list of games with detailed information.
+     * Displays a list of games with detailed information,
+     * {@value #ITEMS_PER_PAGE} to a page.
      *
      * @param games The list of games to display
      */
     public static void displayGamesList(List<AbstractGame> games) {
-        if (games.isEmpty()) {
+        displayGamesList(PageSource.of(games), ITEMS_PER_PAGE);
+    }
+
+    /**
+     * Displays games with detailed information, one page at a time. Only the
+     * games on the page shown are read from the source. Each page is built
+     * in memory and written to the console at once.
+     *
+     * @param games The games to display
+     * @param pageSize The number of games per page
+     * @throws IllegalArgumentException if the page size is not positive
+     */
+    public static void displayGamesList(PageSource<AbstractGame> games, int pageSize) {
+        Pager<AbstractGame> pager = new Pager<>(games, pageSize);
+        if (pager.getItems().isEmpty()) {
             System.out.println("\nNo games to display.");
             return;
         }
 
-        final int ITEMS_PER_PAGE = 5;
-        int currentPage = 1;
-        int totalPages = (games.size() + ITEMS_PER_PAGE - 1) / ITEMS_PER_PAGE;
-
+        StringBuilder page = new StringBuilder();
         while (true) {
-            System.out.println("\n----------------------------------------");
-            int start = (currentPage - 1) * ITEMS_PER_PAGE;
-            int end = Math.min(start + ITEMS_PER_PAGE, games.size());
-
-            for (int i = start; i < end; i++) {
-                System.out.println("\n" + (i + 1) + ". " + games.get(i).toString());
+            page.setLength(0);
+            line(page, "\n----------------------------------------");
+            int number = pager.getFirstIndex();
+            for (AbstractGame game : pager.getItems()) {
+                page.append('\n').append(++number).append(". ");
+                line(page, game.toString());
             }
 
-            if (totalPages > 1) {
-                System.out.println("\n----------------------------------------");
-                System.out.printf("Page %d of %d\n", currentPage, totalPages);
-                System.out.print("(N)ext, (P)revious, or (E)xit to menu: ");
-                
+            if (pager.hasNext() || pager.hasPrevious()) {
+                line(page, "\n----------------------------------------");
+                page.append("Page ").append(pager.getPageNumber());
+                int pageCount = pager.getPageCount();
+                if (pageCount > 0) {
+                    page.append(" of ").append(pageCount);
+                }
+                page.append('\n');
+                page.append("(N)ext, (P)revious, page number, or (E)xit to menu: ");
+                System.out.print(page);
+                System.out.flush();
+
                 String choice = scanner.nextLine().trim().toUpperCase();
-                if (choice.equals("N") && currentPage < totalPages) {
-                    currentPage++;
-                } else if (choice.equals("P") && currentPage > 1) {
-                    currentPage--;
+                if (choice.equals("N")) {
+                    pager.next();
+                } else if (choice.equals("P")) {
+                    pager.previous();
                 } else if (choice.equals("E")) {
                     break;
+                } else if (!choice.isEmpty() && choice.chars().allMatch(Character::isDigit)) {
+                    if (choice.length() > 9 || !pager.goTo(Integer.parseInt(choice))) {
+                        System.out.println("No such page.");
+                    }
                 }
             } else {
-                System.out.println("\nPress Enter to continue...");
+                line(page, "\nPress Enter to continue...");
+                System.out.print(page);
+                System.out.flush();
                 scanner.nextLine();
                 break;
             }
         }
     }
+
+    /**
+     * Appends text and a line separator, as {@code println} would print them.
+     */
+    private static void line(StringBuilder out, String text) {
+        out.append(text).append(System.lineSeparator());
+    }
+
+    /**
+     * Displays the genre and platform counts of a set of games on one line each.
+     *
+     * @param facets The counts to display
+     */
+    public static void displayFacets(LibraryStatistics.Facets facets) {
+        System.out.println("By genre: " + formatCounts(facets.getGenreCounts()));
+        System.out.println("By platform: " + formatCounts(facets.getPlatformCounts()));
+    }
+
+    /**
+     * Displays a breakdown of a collection by every facet.
+     *
+     * @param facets The counts to display
+     */
+    public static void displayStatistics(LibraryStatistics.Facets facets) {
+        System.out.println("\n===== LIBRARY STATISTICS =====");
+        System.out.println("Total games: " + facets.getTotal());
+        if (facets.getTotal() == 0) {
+            return;
+        }
+        System.out.println("By type: " + formatCounts(facets.getTypeCounts()));
+        displayFacets(facets);
+        System.out.println("By release year: " + formatCounts(facets.getYearCounts()));
+        StringBuilder ratings = new StringBuilder();
+        for (int stars = 5; stars >= 1; stars--) {
+            ratings.append(stars).append("* ").append(facets.getRatingCount(stars)).append(", ");
+        }
+        ratings.append("unrated ").append(facets.getRatingCount(0));
+        System.out.println("By rating: " + ratings);
+        if (facets.getRatedCount() > 0) {
+            System.out.printf("Average rating: %.1f/5\n", facets.getAverageRating());
+        }
+        System.out.println("By completion: " + formatCounts(facets.getCompletionCounts()));
+    }
+
+    /**
+     * Displays a user's best games by completion, each with the user's rank
+     * among the tracked players who own it.
+     *
+     * @param username The username
+     * @param limit The maximum number of games to show
+     */
+    public static void displayRankings(String username, int limit) {
+        System.out.println("\n===== GAME RANKINGS =====");
+        List<Leaderboard.Entry<Integer>> top = Leaderboards.getUserBoard(username).getTop(limit);
+        if (top.isEmpty()) {
+            System.out.println("No ranked games.");
+            return;
+        }
+        for (Leaderboard.Entry<Integer> entry : top) {
+            AbstractGame game = GameLibrary.findById(entry.getKey());
+            Leaderboard<String> players = Leaderboards.getGameBoard(entry.getKey());
+            System.out.printf("%d. %s - %.1f%% (rank %d of %d players)\n", entry.getRank(),
+                    game == null ? "Game " + entry.getKey() : game.getTitle(), entry.getScore(),
+                    players.getRank(username), players.size());
+        }
+    }
+
+    private static String formatCounts(Map<?, Integer> counts) {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<?, Integer> entry : counts.entrySet()) {
+            if (line.length() > 0) {
+                line.append(", ");
+            }
+            line.append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        return line.length() == 0 ? "none" : line.toString();
+    }
 }
@@ -1,12 +1,24 @@
 package videogameCollection;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import videogameCollection.game.AbstractGame;
@@ -14,6 +26,25 @@ import videogameCollection.game.AbstractGame;
 /**
  * Represents a user profile in the video game collection application.
  * Stores user information, owned games, reviews, and ratings.
+ * <p>
+ * A profile is safe to share between threads. Operations on a single game
+ * (add, remove, rate, review) are serialised by a lock stripe chosen from the
+ * game, so they are linearizable while updates to unrelated games proceed in
+ * parallel. The ordered list of owned games is only write-locked when a game
+ * is added or removed.
+ * <p>
+ * Every change to the collection, including progress updates of owned
+ * games, marks the game's segment in the profile's {@link DirtySegments}
+ * and is reported to the registered {@link CollectionListener}s. It also
+ * recounts the game in the profile's {@link LibraryStatistics} and moves the
+ * profile's version on, which invalidates the cached results of searches
+ * and sorted listings.
+ * <p>
+ * Reviews are kept in the profile itself unless a {@link ReviewStore} is
+ * attached, in which case the text of reviews of catalog games lives only
+ * in the store and is neither held in memory nor serialized with the profile.
+ * Reviews of catalog games can be searched by their text through a
+ * {@link ReviewIndex} that is kept up to date as reviews change.
  */
 public class UserProfile implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -25,6 +56,35 @@ public class UserProfile implements Serializable {
     private Map<AbstractGame, Integer> gameRatings;  // Store ratings
     private static final int MIN_RATING = 1;
     private static final int MAX_RATING = 5;
+    private static final int LOCK_STRIPES = 64;
+
+    private transient Set<AbstractGame> ownedIndex;      // O(1) ownership checks
+    private transient ReadWriteLock ownershipLock;       // Guards the order of gamesOwned
+    private transient Object[] gameLocks;                // Per-game lock stripes
+    private transient DirtySegments changes;             // Segments changed since the last save
+    private transient List<CollectionListener> collectionListeners;
+    private transient AbstractGame.ProgressListener progressListener;
+    private transient LibraryStatistics statistics;      // Counts kept current on every change
+    private transient volatile ReviewStore reviewStore;  // Out-of-line review text, or null
+    private transient volatile ReviewIndex reviewIndex;  // Full-text index of reviews, or null
+    private transient volatile ProgressHistory progressHistory; // Every progress update, timestamped
+    private transient AtomicLong version;                // Incremented on every change
+    private transient QueryCache queryCache;             // Search and sort results by query
+
+    /**
+     * Notified after a game in the collection is added, removed, rated,
+     * reviewed or has its progress updated.
+     */
+    @FunctionalInterface
+    public interface CollectionListener {
+        /**
+         * Called after a change has been applied.
+         *
+         * @param profile The profile that changed
+         * @param game The game the change concerns
+         */
+        void collectionChanged(UserProfile profile, AbstractGame game);
+    }
 
     /**
      * Constructor for UserProfile with GamePlatform enum.
@@ -41,8 +101,263 @@ public class UserProfile implements Serializable {
         this.username = username;
         this.preferredPlatform = preferredPlatform;
         this.gamesOwned = new ArrayList<>();
-        this.gameReviews = new HashMap<>();
-        this.gameRatings = new HashMap<>();
+        this.gameReviews = new ConcurrentHashMap<>();
+        this.gameRatings = new ConcurrentHashMap<>();
+        initConcurrencyState();
+    }
+
+    /**
+     * Creates the transient lookup index and locks.
+     * Called on construction and after deserialization.
+     */
+    private void initConcurrencyState() {
+        this.ownedIndex = ConcurrentHashMap.newKeySet();
+        this.ownedIndex.addAll(gamesOwned);
+        this.ownershipLock = new ReentrantReadWriteLock();
+        this.gameLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            gameLocks[i] = new Object();
+        }
+        this.changes = new DirtySegments();
+        this.version = new AtomicLong();
+        this.queryCache = new QueryCache(QueryCache.DEFAULT_CAPACITY);
+        this.statistics = new LibraryStatistics();
+        for (AbstractGame game : gamesOwned) {
+            statistics.update(game, true, gameRatings.get(game));
+        }
+        this.collectionListeners = new CopyOnWriteArrayList<>();
+        this.progressHistory = new ProgressHistory();
+        for (AbstractGame game : gamesOwned) {
+            progressHistory.track(game);
+        }
+        this.progressListener = game -> {
+            progressHistory.record(game);
+            changed(game);
+        };
+        for (AbstractGame game : gamesOwned) {
+            game.addProgressListener(progressListener);
+        }
+    }
+
+    /**
+     * Marks a game's segment as changed and notifies the listeners.
+     *
+     * @param game The changed game
+     */
+    private void changed(AbstractGame game) {
+        version.incrementAndGet();
+        changes.markGame(game.getId());
+        // Read and counted under the game's stripe, so a stale recount cannot land after a later change
+        synchronized (lockFor(game)) {
+            statistics.update(game, ownedIndex.contains(game), gameRatings.get(game));
+        }
+        for (CollectionListener listener : collectionListeners) {
+            listener.collectionChanged(this, game);
+        }
+    }
+
+    /**
+     * Registers a listener for changes to the collection. Listeners are not serialized.
+     *
+     * @param listener The listener to add
+     * @throws IllegalArgumentException if the listener is null
+     */
+    public void addCollectionListener(CollectionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        collectionListeners.add(listener);
+    }
+
+    /**
+     * Removes a collection listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeCollectionListener(CollectionListener listener) {
+        collectionListeners.remove(listener);
+    }
+
+    /**
+     * Moves review text out of the profile into a review store. Reviews the
+     * profile holds for catalog games are written to the store and dropped
+     * from memory, except that text the store already holds is not written
+     * again; reviews already in the store are kept. Games without a
+     * catalog ID keep their reviews in the profile.
+     *
+     * @param store The review store for this profile
+     * @throws IOException if a review cannot be written to the store
+     * @throws IllegalArgumentException if the store is null
+     */
+    public void attachReviewStore(ReviewStore store) throws IOException {
+        if (store == null) {
+            throw new IllegalArgumentException("Review store cannot be null");
+        }
+        for (AbstractGame game : getGamesOwned()) {
+            synchronized (lockFor(game)) {
+                String review = gameReviews.get(game);
+                if (review != null && game.getId() > 0) {
+                    // Skip reviews the store already holds, so reattaching does not grow its file
+                    if (!review.equals(store.get(game.getId()))) {
+                        store.put(game.getId(), review);
+                    }
+                    gameReviews.remove(game);
+                }
+            }
+        }
+        reviewStore = store;
+    }
+
+    /**
+     * Gets the attached review store.
+     *
+     * @return The review store, or null if reviews are kept in the profile
+     */
+    public ReviewStore getReviewStore() {
+        return reviewStore;
+    }
+
+    /**
+     * Attaches a full-text index of this profile's reviews. If the index
+     * was not built from the profile's current reviews, as told by
+     * {@link #getReviewFingerprint()}, it is cleared and rebuilt.
+     *
+     * @param index The review index
+     * @throws IllegalArgumentException if the index is null
+     * @throws UncheckedIOException if reviews cannot be read from the review store
+     */
+    public void attachReviewIndex(ReviewIndex index) {
+        if (index == null) {
+            throw new IllegalArgumentException("Review index cannot be null");
+        }
+        long fingerprint = getReviewFingerprint();
+        if (index.getFingerprint() != fingerprint) {
+            index.clear();
+            for (Map.Entry<AbstractGame, String> entry : getGameReviews().entrySet()) {
+                if (entry.getKey().getId() > 0) {
+                    index.put(entry.getKey().getId(), entry.getValue());
+                }
+            }
+            index.setFingerprint(fingerprint);
+        }
+        reviewIndex = index;
+    }
+
+    /**
+     * Gets the attached review index.
+     *
+     * @return The review index, or null if none has been attached
+     */
+    public ReviewIndex getReviewIndex() {
+        return reviewIndex;
+    }
+
+    /**
+     * Computes a fingerprint of the reviews of catalog games, used to tell
+     * whether a saved {@link ReviewIndex} still matches them. Inline reviews
+     * are hashed; with a review store, the store's generation, size and file
+     * length are used instead. The file only grows within a generation, and
+     * compacting or clearing it starts a new one, so no two states share all three.
+     *
+     * @return The fingerprint, 0 if there are no such reviews
+     */
+    public long getReviewFingerprint() {
+        long fingerprint = 0;
+        for (Map.Entry<AbstractGame, String> entry : gameReviews.entrySet()) {
+            int id = entry.getKey().getId();
+            if (id > 0) {
+                fingerprint += mix(id * 31L + entry.getValue().hashCode());
+            }
+        }
+        ReviewStore store = reviewStore;
+        if (store != null && store.size() > 0) {
+            fingerprint += mix((store.getGeneration() * 31 + store.getFileBytes()) * 31 + store.size());
+        }
+        return fingerprint;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Replaces the progress history, for example with one loaded from disk.
+     * Owned games that progressed since the history was saved have the
+     * difference recorded as an update now.
+     *
+     * @param history The progress history
+     * @throws IllegalArgumentException if the history is null
+     */
+    public void attachProgressHistory(ProgressHistory history) {
+        if (history == null) {
+            throw new IllegalArgumentException("Progress history cannot be null");
+        }
+        for (AbstractGame game : getGamesOwned()) {
+            history.track(game);
+        }
+        progressHistory = history;
+    }
+
+    /**
+     * Gets the history of progress updates to the owned games. It only
+     * covers updates made since it was created or attached.
+     *
+     * @return The live progress history
+     */
+    public ProgressHistory getProgressHistory() {
+        return progressHistory;
+    }
+
+    /**
+     * Gets the statistics of the collection, kept current on every change.
+     *
+     * @return The live statistics
+     */
+    public LibraryStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets the version of the collection, which increases on every change
+     * reported to the listeners.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets the cache of search and sort results.
+     *
+     * @return The live cache
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Gets the segments of the collection changed since the last save.
+     * A new or freshly loaded profile starts with every segment marked.
+     *
+     * @return The live change tracker
+     */
+    public DirtySegments getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gets the lock stripe that serialises operations on the given game.
+     *
+     * @param game The game to lock
+     * @return The lock object for the game
+     */
+    private Object lockFor(AbstractGame game) {
+        int h = System.identityHashCode(game);
+        h ^= (h >>> 16);
+        return gameLocks[h & (LOCK_STRIPES - 1)];
     }
 
     /**
@@ -63,7 +378,48 @@ public class UserProfile implements Serializable {
      * @return A list of games owned by the user
      */
     public List<AbstractGame> getGamesOwned() {
-        return new ArrayList<>(gamesOwned); // Return a definitive copy
+        ownershipLock.readLock().lock();
+        try {
+            return new ArrayList<>(gamesOwned); // Return a definitive copy
+        } finally {
+            ownershipLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the owned games as a source for a {@link Pager}. Each page is read
+     * from the live collection, in the order the games were added, copying
+     * only the games on it.
+     *
+     * @return The source
+     */
+    public PageSource<AbstractGame> getGamesOwnedPages() {
+        return new PageSource<>() {
+            @Override
+            public List<AbstractGame> read(int offset, int limit) {
+                ownershipLock.readLock().lock();
+                try {
+                    return PageSource.of(gamesOwned).read(offset, limit);
+                } finally {
+                    ownershipLock.readLock().unlock();
+                }
+            }
+
+            @Override
+            public int size() {
+                return ownedIndex.size();
+            }
+        };
+    }
+
+    /**
+     * Checks whether the user owns the given game.
+     *
+     * @param game The game to check
+     * @return true if the game is in the user's collection
+     */
+    public boolean ownsGame(AbstractGame game) {
+        return game != null && ownedIndex.contains(game);
     }
 
     /**
@@ -135,9 +491,21 @@ public class UserProfile implements Serializable {
             throw new IllegalArgumentException("Game cannot be null");
         }
 
-        if (!gamesOwned.contains(game)) {
-            gamesOwned.add(game);
+        synchronized (lockFor(game)) {
+            if (ownedIndex.contains(game)) {
+                return;
+            }
+            ownershipLock.writeLock().lock();
+            try {
+                gamesOwned.add(game);
+                ownedIndex.add(game);
+            } finally {
+                ownershipLock.writeLock().unlock();
+            }
+            game.addProgressListener(progressListener);
+            progressHistory.track(game);
         }
+        changed(game);
     }
 
     /**
@@ -152,13 +520,37 @@ public class UserProfile implements Serializable {
             return false;
         }
 
-        if (gamesOwned.remove(game)) {
+        synchronized (lockFor(game)) {
+            if (!ownedIndex.contains(game)) {
+                return false;
+            }
+            // Write the store first so a failed write leaves the profile untouched
+            ReviewStore store = reviewStore;
+            if (store != null && game.getId() > 0) {
+                try {
+                    store.remove(game.getId());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not remove review of " + game.getTitle(), e);
+                }
+            }
+            ownershipLock.writeLock().lock();
+            try {
+                gamesOwned.remove(game);
+                ownedIndex.remove(game);
+            } finally {
+                ownershipLock.writeLock().unlock();
+            }
             // Also remove any associated reviews and ratings
             gameReviews.remove(game);
             gameRatings.remove(game);
-            return true;
+            ReviewIndex index = reviewIndex;
+            if (index != null) {
+                index.remove(game.getId());
+            }
+            game.removeProgressListener(progressListener);
         }
-        return false;
+        changed(game);
+        return true;
     }
 
     /**
@@ -177,11 +569,27 @@ public class UserProfile implements Serializable {
             throw new IllegalArgumentException("Review cannot be null or empty");
         }
 
-        if (!gamesOwned.contains(game)) {
-            throw new IllegalArgumentException("You can only review games you own");
+        synchronized (lockFor(game)) {
+            if (!ownedIndex.contains(game)) {
+                throw new IllegalArgumentException("You can only review games you own");
+            }
+
+            ReviewStore store = reviewStore;
+            if (store != null && game.getId() > 0) {
+                try {
+                    store.put(game.getId(), review);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not store review of " + game.getTitle(), e);
+                }
+            } else {
+                gameReviews.put(game, review);
+            }
+            ReviewIndex index = reviewIndex;
+            if (index != null && game.getId() > 0) {
+                index.put(game.getId(), review);
+            }
         }
-
-        gameReviews.put(game, review);
+        changed(game);
     }
 
     /**
@@ -196,15 +604,18 @@ public class UserProfile implements Serializable {
             throw new IllegalArgumentException("Game cannot be null");
         }
 
-        if (!gamesOwned.contains(game)) {
-            throw new IllegalArgumentException("You can only rate games you own");
-        }
-
         if (rating < MIN_RATING || rating > MAX_RATING) {
             throw new IllegalArgumentException("Rating must be between " + MIN_RATING + " and " + MAX_RATING);
         }
 
-        gameRatings.put(game, rating);
+        synchronized (lockFor(game)) {
+            if (!ownedIndex.contains(game)) {
+                throw new IllegalArgumentException("You can only rate games you own");
+            }
+
+            gameRatings.put(game, rating);
+        }
+        changed(game);
     }
 
     /**
@@ -217,12 +628,25 @@ public class UserProfile implements Serializable {
     }
 
     /**
-     * Gets an unmodifiable view of all game reviews.
+     * Gets an unmodifiable view of all game reviews. With a review store
+     * attached this is a copy that reads every review from the store.
      *
      * @return A map of games to reviews
+     * @throws UncheckedIOException if a review cannot be read from the store
      */
     public Map<AbstractGame, String> getGameReviews() {
-        return Collections.unmodifiableMap(gameReviews);
+        ReviewStore store = reviewStore;
+        if (store == null) {
+            return Collections.unmodifiableMap(gameReviews);
+        }
+        Map<AbstractGame, String> reviews = new HashMap<>(gameReviews);
+        for (AbstractGame game : getGamesOwned()) {
+            String review = getGameReview(game);
+            if (review != null) {
+                reviews.put(game, review);
+            }
+        }
+        return Collections.unmodifiableMap(reviews);
     }
 
     /**
@@ -230,9 +654,35 @@ public class UserProfile implements Serializable {
      *
      * @param game The game to get the review for
      * @return The review, or null if no review exists
+     * @throws UncheckedIOException if the review cannot be read from the store
      */
     public String getGameReview(AbstractGame game) {
-        return gameReviews.get(game);
+        if (game == null) {
+            return null;
+        }
+        String review = gameReviews.get(game);
+        ReviewStore store = reviewStore;
+        if (review == null && store != null && game.getId() > 0 && ownedIndex.contains(game)) {
+            try {
+                review = store.get(game.getId());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read review of " + game.getTitle(), e);
+            }
+        }
+        return review;
+    }
+
+    /**
+     * Gets the review text held in the profile itself, which is what storage
+     * engines save with the profile. Reviews kept in an attached review store
+     * are not returned, so saving a profile neither reads them back nor
+     * copies them into the profile file.
+     *
+     * @param game The game to get the review for
+     * @return The review held in the profile, or null if there is none
+     */
+    public String getInlineReview(AbstractGame game) {
+        return game == null ? null : gameReviews.get(game);
     }
 
     /**
@@ -242,7 +692,7 @@ public class UserProfile implements Serializable {
      * @return The rating, or null if no rating exists
      */
     public Integer getGameRating(AbstractGame game) {
-        return gameRatings.get(game);
+        return game == null ? null : gameRatings.get(game);
     }
 
     /**
@@ -257,9 +707,50 @@ public class UserProfile implements Serializable {
         }
 
         String searchTerm = title.toLowerCase();
-        return gamesOwned.stream()
+        return cached("title:" + searchTerm, () -> getGamesOwned().stream()
                 .filter(game -> game.getTitle().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Searches the text of reviews of catalog games, ranked by relevance.
+     * Builds a {@link ReviewIndex} on first use if none is attached.
+     *
+     * @param query The words to look for
+     * @param limit The maximum number of results
+     * @return The matching reviews, most relevant first, with snippets
+     * @throws IllegalArgumentException if the query is null or the limit is not positive
+     * @throws UncheckedIOException if reviews cannot be read from the review store
+     */
+    public List<ReviewIndex.Hit> searchReviews(String query, int limit) {
+        ReviewIndex index = reviewIndex;
+        if (index == null) {
+            synchronized (this) {
+                if (reviewIndex == null) {
+                    attachReviewIndex(new ReviewIndex());
+                }
+                index = reviewIndex;
+            }
+        }
+        ReviewStore store = reviewStore;
+        if (store != null) {
+            return index.search(query, limit, id -> {
+                try {
+                    return store.get(id);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read review of game " + id, e);
+                }
+            });
+        }
+        List<ReviewIndex.Hit> hits = index.search(query, limit);
+        Map<Integer, String> texts = new HashMap<>();
+        for (ReviewIndex.Hit hit : hits) {
+            texts.put(hit.getGameId(), null);
+        }
+        for (Map.Entry<AbstractGame, String> entry : gameReviews.entrySet()) {
+            texts.replace(entry.getKey().getId(), entry.getValue());
+        }
+        return ReviewIndex.withSnippets(hits, query, texts::get);
     }
 
     /**
@@ -273,9 +764,9 @@ public class UserProfile implements Serializable {
             return new ArrayList<>();
         }
 
-        return gamesOwned.stream()
+        return cached("genre:" + genre.name(), () -> getGamesOwned().stream()
                 .filter(game -> game.getGenre() == genre)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -289,9 +780,9 @@ public class UserProfile implements Serializable {
             return new ArrayList<>();
         }
 
-        return gamesOwned.stream()
+        return cached("platform:" + platform.name(), () -> getGamesOwned().stream()
                 .filter(game -> game.getPlatform() == platform)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -301,7 +792,11 @@ public class UserProfile implements Serializable {
      * @return A sorted list of games
      */
     public List<AbstractGame> getGamesSortedByTitle(boolean ascending) {
-        List<AbstractGame> sortedGames = new ArrayList<>(gamesOwned);
+        return cached(sortKey("title", ascending), () -> sortByTitle(ascending));
+    }
+
+    private List<AbstractGame> sortByTitle(boolean ascending) {
+        List<AbstractGame> sortedGames = getGamesOwned();
 
         if (ascending) {
             sortedGames.sort(Comparator.comparing(AbstractGame::getTitle));
@@ -319,7 +814,11 @@ public class UserProfile implements Serializable {
      * @return A sorted list of games
      */
     public List<AbstractGame> getGamesSortedByReleaseYear(boolean ascending) {
-        List<AbstractGame> sortedGames = new ArrayList<>(gamesOwned);
+        return cached(sortKey("year", ascending), () -> sortByReleaseYear(ascending));
+    }
+
+    private List<AbstractGame> sortByReleaseYear(boolean ascending) {
+        List<AbstractGame> sortedGames = getGamesOwned();
 
         if (ascending) {
             sortedGames.sort(Comparator.comparingInt(AbstractGame::getReleaseYear));
@@ -338,45 +837,81 @@ public class UserProfile implements Serializable {
      * @return A sorted list of games
      */
     public List<AbstractGame> getGamesSortedByRating(boolean ascending) {
-        List<AbstractGame> sortedGames = new ArrayList<>(gamesOwned);
-
-        Comparator<AbstractGame> ratingComparator = (g1, g2) -> {
-            Integer r1 = gameRatings.get(g1);
-            Integer r2 = gameRatings.get(g2);
+        return cached(sortKey("rating", ascending), () -> sortByRating(ascending));
+    }
 
-            // Handle null ratings (games without ratings)
-            if (r1 == null && r2 == null) return 0;
-            if (r1 == null) return 1;  // Null ratings at the end
-            if (r2 == null) return -1;
+    private List<AbstractGame> sortByRating(boolean ascending) {
+        List<AbstractGame> sortedGames = getGamesOwned();
 
-            return r1.compareTo(r2);
-        };
-
-        if (ascending) {
-            sortedGames.sort(ratingComparator);
-        } else {
-            sortedGames.sort(ratingComparator.reversed());
+        // Read each rating once so concurrent updates cannot break the sort contract
+        Map<AbstractGame, Integer> ratings = new IdentityHashMap<>();
+        for (AbstractGame game : sortedGames) {
+            ratings.put(game, gameRatings.get(game));
         }
 
+        Comparator<Integer> order = ascending ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        // Null ratings (games without ratings) stay at the end in both directions
+        sortedGames.sort(Comparator.comparing(ratings::get, Comparator.nullsLast(order)));
+
         return sortedGames;
     }
 
+    /**
+     * Answers a query from the cache, or runs it and caches the results.
+     * The results stay valid until the profile or the library changes.
+     *
+     * @param key The normalized query
+     * @param query Computes the results
+     * @return A new list holding the results
+     */
+    private List<AbstractGame> cached(String key, Supplier<List<AbstractGame>> query) {
+        // Both versions only increase, so their sum changes whenever either does
+        return queryCache.get(key, version.get() + GameLibrary.getVersion(), query);
+    }
+
+    private static String sortKey(String field, boolean ascending) {
+        return "sort:" + field + (ascending ? ":asc" : ":desc");
+    }
+
     /**
      * Gets the average rating of all rated games.
      *
      * @return The average rating, or 0 if no games are rated
      */
     public double getAverageRating() {
-        if (gameRatings.isEmpty()) {
-            return 0.0;
-        }
+        return statistics.getAverageRating();
+    }
 
-        double sum = 0.0;
-        for (Integer rating : gameRatings.values()) {
-            sum += rating;
+    /**
+     * Writes the profile while holding the ownership read lock so the
+     * serialized game list is a consistent snapshot.
+     *
+     * @param out The stream to write to
+     * @throws IOException if the profile cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ownershipLock.readLock().lock();
+        try {
+            out.defaultWriteObject();
+        } finally {
+            ownershipLock.readLock().unlock();
         }
+    }
 
-        return sum / gameRatings.size();
+    /**
+     * Restores the profile, upgrading maps written by older versions to
+     * concurrent maps and rebuilding the transient locks.
+     *
+     * @param in The stream to read from
+     * @throws IOException if the profile cannot be read
+     * @throws ClassNotFoundException if a serialized class cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        gamesOwned = new ArrayList<>(gamesOwned);
+        gameReviews = new ConcurrentHashMap<>(gameReviews);
+        gameRatings = new ConcurrentHashMap<>(gameRatings);
+        initConcurrencyState();
     }
 
     @Override
@@ -384,8 +919,8 @@ public class UserProfile implements Serializable {
         return "UserProfile{" +
                 "username='" + username + '\'' +
                 ", preferredPlatform='" + preferredPlatform + '\'' +
-                ", gamesOwned=" + gamesOwned.size() +
-                ", reviews=" + gameReviews.size() +
+                ", gamesOwned=" + ownedIndex.size() +
+                ", reviews=" + (gameReviews.size() + (reviewStore == null ? 0 : reviewStore.size())) +
                 ", ratings=" + gameRatings.size() +
                 '}';
     }
@@ -80,18 +80,21 @@ public class UserProfileManager {
         System.out.println("\n===== USER PROFILE =====");
         System.out.println("Username: " + userProfile.getUsername());
         System.out.println("Preferred Platform: " + userProfile.getPreferredPlatform());
-        System.out.println("Games Owned: " + userProfile.getGamesOwned().size());
+        LibraryStatistics statistics = userProfile.getStatistics();
+        System.out.println("Games Owned: " + statistics.getTotal());
 
-        if (!userProfile.getGameRatings().isEmpty()) {
-            System.out.printf("Average Rating: %.1f/5\n", userProfile.getAverageRating());
+        if (statistics.getRatedCount() > 0) {
+            System.out.printf("Average Rating: %.1f/5\n", statistics.getAverageRating());
         }
 
         System.out.println("\n1. Change username");
         System.out.println("2. Change preferred platform");
         System.out.println("3. Add sample games");
         System.out.println("4. Delete all data");
-        System.out.println("5. Return to main menu");
-        System.out.print("Choose an option (1-5): ");
+        System.out.println("5. Library statistics");
+        System.out.println("6. Game rankings");
+        System.out.println("7. Return to main menu");
+        System.out.print("Choose an option (1-7): ");
 
         try {
             int choice = Integer.parseInt(scanner.nextLine());
@@ -109,6 +112,14 @@ public class UserProfileManager {
                 case 4:
                     return deleteAllData();
                 case 5:
+                    UIHelper.displayStatistics(statistics.getFacets());
+                    System.out.println("Search cache: " + userProfile.getQueryCache());
+                    break;
+                case 6:
+                    Leaderboards.track(userProfile);
+                    UIHelper.displayRankings(userProfile.getUsername(), 10);
+                    break;
+                case 7:
                     return false;
                 default:
                     System.out.println("Invalid choice. Please try again.");
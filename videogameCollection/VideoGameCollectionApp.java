@@ -1,19 +1,50 @@
 package videogameCollection;
 
+import java.io.IOException;
+
+import videogameCollection.batch.BatchRunner;
+import videogameCollection.batch.MatchIngestor;
+import videogameCollection.server.HttpApiServer;
+
 /**
  * Main launcher for the Video Game Collection application.
- * Launches the console-based interface.
+ * Launches the console-based interface, or a headless mode when requested:
+ * <ul>
+ *   <li>{@code --server [port]} serves the collection over an HTTP/JSON API</li>
+ *   <li>{@code --batch [file|-] [--commit-every N] [--dry-run]} runs JSON commands from a file or stdin</li>
+ *   <li>{@code --ingest [file|-] [--threads N]} applies a file or stream of match results</li>
+ * </ul>
  */
 public class VideoGameCollectionApp {
 
     /**
      * Application entry point.
      *
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments selecting the mode (console if empty)
+     * @throws IOException if a headless mode fails to start
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            HttpApiServer.main(tail(args));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchRunner.main(tail(args));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--ingest")) {
+            MatchIngestor.main(tail(args));
+            return;
+        }
+
         System.out.println("Welcome to the Video Game Collection Application!");
         System.out.println("Launching console-based interface...");
         Main.main(args);
     }
+
+    private static String[] tail(String[] args) {
+        String[] rest = new String[args.length - 1];
+        System.arraycopy(args, 1, rest, 0, rest.length);
+        return rest;
+    }
 }
@@ -0,0 +1,238 @@
+package videogameCollection.batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import videogameCollection.CollectionService;
+import videogameCollection.JsonUtil;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Non-interactive batch mode. Reads one JSON command per line and runs it
+ * directly against the collection, writing one JSON result per line.
+ *
+ * <pre>
+ * {"op":"add","type":"single","title":"...","genre":"Action","platform":"PC","releaseYear":2020,"developer":"...","totalLevels":10,"as":"g1"}
+ * {"op":"rate","id":"g1","rating":5}
+ * {"op":"review","id":12,"review":"..."}
+ * {"op":"progress","id":"g1","progress":"4"}
+ * {"op":"search","field":"genre","value":"Action"}
+ * {"op":"remove","id":"g1"}
+ * </pre>
+ *
+ * A game's {@code id} is either its catalog ID or a label given with
+ * {@code "as"} when it was added earlier in the same batch. Blank lines and
+ * lines starting with {@code #} are ignored. The collection is saved once
+ * every {@code commitEvery} commands and at the end of the run.
+ */
+public class BatchRunner {
+    private final CollectionService service;
+    private final int commitEvery;
+    private final Map<String, Integer> labels = new HashMap<>();
+    private long executed;
+    private long failed;
+    private long commits;
+
+    /**
+     * Creates a batch runner.
+     *
+     * @param service The collection service to run commands against
+     * @param commitEvery How many commands to run between saves; 0 saves only at the end
+     */
+    public BatchRunner(CollectionService service, int commitEvery) {
+        if (commitEvery < 0) {
+            throw new IllegalArgumentException("Commit interval cannot be negative");
+        }
+        this.service = service;
+        this.commitEvery = commitEvery;
+    }
+
+    /**
+     * Runs every command from the input and writes the results.
+     *
+     * @param input The command stream
+     * @param output The result stream
+     * @param persist true to save the collection while running, false for a dry run
+     * @throws IOException if reading or writing fails
+     */
+    public void run(Reader input, Writer output, boolean persist) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input, 1 << 16);
+        BufferedWriter writer = output instanceof BufferedWriter ? (BufferedWriter) output : new BufferedWriter(output, 1 << 16);
+
+        String line;
+        long lineNumber = 0;
+        long sinceCommit = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            writer.write(execute(lineNumber, trimmed));
+            writer.newLine();
+            executed++;
+
+            if (persist && commitEvery > 0 && ++sinceCommit >= commitEvery) {
+                commit();
+                sinceCommit = 0;
+            }
+        }
+
+        if (persist && (commitEvery == 0 || sinceCommit > 0)) {
+            commit();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Executes a single command line.
+     *
+     * @param lineNumber The line number, echoed in the result
+     * @param json The command
+     * @return The JSON result line
+     */
+    String execute(long lineNumber, String json) {
+        String prefix = "{\"line\":" + lineNumber;
+        try {
+            Map<String, Object> command = JsonUtil.parseObject(json);
+            String op = JsonUtil.getString(command, "op");
+            switch (op) {
+                case "add": {
+                    Object levels = command.get("totalLevels");
+                    AbstractGame game = service.addGame(
+                            JsonUtil.getString(command, "type"),
+                            JsonUtil.getString(command, "title"),
+                            JsonUtil.getString(command, "genre"),
+                            JsonUtil.getString(command, "platform"),
+                            JsonUtil.getInt(command, "releaseYear"),
+                            JsonUtil.getString(command, "developer"),
+                            levels == null ? 0 : JsonUtil.getInt(command, "totalLevels"));
+                    if (command.get("as") != null) {
+                        labels.put(JsonUtil.getString(command, "as"), game.getId());
+                    }
+                    return gameResult(prefix, game);
+                }
+                case "rate":
+                    return gameResult(prefix, service.rate(resolveId(command), JsonUtil.getInt(command, "rating")));
+                case "review":
+                    return gameResult(prefix, service.review(resolveId(command), JsonUtil.getString(command, "review")));
+                case "progress":
+                    return gameResult(prefix, service.updateProgress(resolveId(command), JsonUtil.getString(command, "progress")));
+                case "remove":
+                    return gameResult(prefix, service.remove(resolveId(command)));
+                case "search": {
+                    Object field = command.get("field");
+                    Object value = command.get("value");
+                    List<AbstractGame> games = service.search(
+                            field == null ? null : field.toString(), value == null ? null : value.toString());
+                    return prefix + ",\"ok\":true,\"count\":" + games.size()
+                            + ",\"games\":" + JsonUtil.toJson(games, service.getProfile()) + "}";
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown op: " + op);
+            }
+        } catch (IllegalArgumentException | NoSuchElementException | ArithmeticException e) {
+            failed++;
+            return prefix + ",\"ok\":false,\"error\":" + JsonUtil.quote(e.getMessage()) + "}";
+        }
+    }
+
+    private String gameResult(String prefix, AbstractGame game) {
+        return prefix + ",\"ok\":true,\"game\":" + JsonUtil.toJson(game, service.getProfile()) + "}";
+    }
+
+    private int resolveId(Map<String, Object> command) {
+        Object id = command.get("id");
+        if (id instanceof String) {
+            Integer labelled = labels.get(id);
+            if (labelled == null) {
+                throw new NoSuchElementException("Unknown game label: " + id);
+            }
+            return labelled;
+        }
+        return JsonUtil.getInt(command, "id");
+    }
+
+    private void commit() {
+        if (!service.save()) {
+            throw new IllegalStateException("Failed to save collection after " + executed + " commands");
+        }
+        commits++;
+    }
+
+    /**
+     * Gets the number of commands executed so far.
+     *
+     * @return The command count
+     */
+    public long getExecuted() {
+        return executed;
+    }
+
+    /**
+     * Gets the number of commands that failed.
+     *
+     * @return The failure count
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the number of times the collection was saved.
+     *
+     * @return The commit count
+     */
+    public long getCommits() {
+        return commits;
+    }
+
+    /**
+     * Runs a batch against the saved collection.
+     * Usage: {@code BatchRunner [file|-] [--commit-every N] [--dry-run]}.
+     * Results go to standard output, the summary to standard error.
+     *
+     * @param args Command line arguments
+     * @throws IOException if the input cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String file = "-";
+        int commitEvery = 1000;
+        boolean persist = true;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--commit-every") && i + 1 < args.length) {
+                commitEvery = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--dry-run")) {
+                persist = false;
+            } else {
+                file = args[i];
+            }
+        }
+
+        CollectionService service = CollectionService.loadFromDisk();
+        BatchRunner runner = new BatchRunner(service, commitEvery);
+        long start = System.nanoTime();
+        try (InputStream in = file.equals("-") ? System.in : new FileInputStream(file)) {
+            Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+            Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            runner.run(reader, writer, persist);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Processed %d commands (%d failed, %d commits) in %.3f s: %.0f commands/sec%n",
+                runner.getExecuted(), runner.getFailed(), runner.getCommits(), seconds,
+                seconds > 0 ? runner.getExecuted() / seconds : 0.0);
+    }
+}
@@ -0,0 +1,555 @@
+package videogameCollection.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import videogameCollection.CollectionService;
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+
+/**
+ * Applies a stream of match results to multiplayer games.
+ * <p>
+ * Each event is one line of the form {@code gameId,result,timestamp}, where
+ * the result is {@code W} or {@code L} (or {@code win} or {@code loss}) and
+ * the timestamp is in epoch milliseconds:
+ *
+ * <pre>
+ * 12,W,1767225600000
+ * 12,L,1767225601500
+ * </pre>
+ *
+ * Blank lines and lines starting with {@code #} are ignored, and malformed
+ * lines or unknown games are counted as rejected. Any number of threads may
+ * record events at once: each game has a {@link LongAdder} for wins and one
+ * for losses, so concurrent results spread over separate cells instead of
+ * contending for the game's record. A background task folds the counters
+ * into the games' wins and losses every {@code foldIntervalMillis}, which
+ * notifies the profile so the next save persists them. Folded counts carry
+ * no match order, so they bypass the games' {@link Multiplayer#getRecentForm()
+ * recent form}, which is cleared rather than given made-up streaks; only the
+ * latest match time is kept, see {@link #getLastMatchTime}. Files are parsed in
+ * place, in parallel chunks, without creating a string per line.
+ */
+public class MatchIngestor implements Closeable {
+    public static final long DEFAULT_FOLD_INTERVAL_MILLIS = 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(MatchIngestor.class.getName());
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_LINE = 256;
+    private static final int ACCEPTED = 1;
+    private static final int SKIPPED = 0;
+    private static final int REJECTED = -1;
+
+    /**
+     * Results of one game not yet folded into its record.
+     */
+    private static final class Counters {
+        final Multiplayer game;
+        final LongAdder wins = new LongAdder();
+        final LongAdder losses = new LongAdder();
+        final LongAccumulator lastMatch = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        Counters(Multiplayer game) {
+            this.game = game;
+        }
+    }
+
+    private final CollectionService service;
+    private final ScheduledExecutorService executor;
+    private volatile Counters[] counters = new Counters[64];   // Indexed by game ID
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private long folds;
+    private long foldFailures;
+
+    /**
+     * Starts an ingestor that folds at the interval given by the
+     * {@code vgc.ingest.foldInterval} property, by default every second.
+     *
+     * @param service The collection whose games receive the results
+     */
+    public MatchIngestor(CollectionService service) {
+        this(service, Long.getLong("vgc.ingest.foldInterval", DEFAULT_FOLD_INTERVAL_MILLIS));
+    }
+
+    /**
+     * Starts an ingestor.
+     *
+     * @param service The collection whose games receive the results
+     * @param foldIntervalMillis How often to fold counters into the games
+     * @throws IllegalArgumentException if the service is null or the interval is not positive
+     */
+    public MatchIngestor(CollectionService service, long foldIntervalMillis) {
+        if (service == null) {
+            throw new IllegalArgumentException("Service cannot be null");
+        }
+        if (foldIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Fold interval must be positive");
+        }
+        this.service = service;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "match-fold");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::fold, foldIntervalMillis, foldIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records one match result. The game's record changes at the next fold.
+     *
+     * @param gameId The game's catalog ID
+     * @param win true for a win, false for a loss
+     * @param timestamp When the match ended, in epoch milliseconds
+     * @throws NoSuchElementException if the user owns no game with that ID
+     * @throws IllegalArgumentException if the game is not multiplayer or the timestamp is negative
+     */
+    public void record(int gameId, boolean win, long timestamp) {
+        if (timestamp < 0) {
+            throw new IllegalArgumentException("Timestamp cannot be negative");
+        }
+        Counters game = countersFor(gameId);
+        if (win) {
+            game.wins.increment();
+        } else {
+            game.losses.increment();
+        }
+        game.lastMatch.accumulate(timestamp);
+        accepted.increment();
+    }
+
+    /**
+     * Reads events from a stream until it ends.
+     *
+     * @param in The event stream
+     * @return The number of events accepted
+     * @throws IOException if reading fails
+     */
+    public long ingest(InputStream in) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        ByteBuffer data = ByteBuffer.wrap(buffer);
+        long count = 0;
+        int filled = 0;
+        int read;
+        while ((read = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+            filled += read;
+            int start = 0;
+            for (int i = 0; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    count += accept(data, start, i);
+                    start = i + 1;
+                }
+            }
+            if (start == 0 && filled == buffer.length) {
+                // A line longer than the buffer cannot be valid
+                rejected.increment();
+                filled = skipLine(in, buffer);
+                continue;
+            }
+            System.arraycopy(buffer, start, buffer, 0, filled - start);
+            filled -= start;
+        }
+        if (filled > 0) {
+            count += accept(data, 0, filled);
+        }
+        return count;
+    }
+
+    /**
+     * Reads every event in a file, parsing chunks of it in parallel.
+     *
+     * @param file The event file
+     * @param pool The pool to parse on
+     * @return The number of events accepted
+     * @throws IOException if the file cannot be read
+     */
+    public long ingest(Path file, ForkJoinPool pool) throws IOException {
+        long before = accepted.sum();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            if (chunks > 0) {
+                pool.invoke(new ChunkTask(channel, size, 0, chunks));
+            }
+        } catch (ChunkFailure e) {
+            throw e.getCause();
+        }
+        return accepted.sum() - before;
+    }
+
+    /**
+     * Folds the counted results into the games' records, without feeding
+     * their recent form.
+     *
+     * @return The number of games whose record changed
+     */
+    public synchronized int fold() {
+        int changed = 0;
+        for (Counters game : counters) {
+            if (game == null) {
+                continue;
+            }
+            // sumThenReset never loses a concurrent increment; it is left for the next fold
+            long wins = game.wins.sumThenReset();
+            long losses = game.losses.sumThenReset();
+            if (wins == 0 && losses == 0) {
+                continue;
+            }
+            int foldedWins = (int) Math.min(wins, Integer.MAX_VALUE);
+            int foldedLosses = (int) Math.min(losses, Integer.MAX_VALUE);
+            try {
+                game.game.importResults(foldedWins, foldedLosses);
+                changed++;
+                wins -= foldedWins;
+                losses -= foldedLosses;
+            } catch (RuntimeException e) {
+                foldFailures++;
+                LOGGER.log(Level.WARNING, "Could not fold results into " + game.game.getTitle(), e);
+            }
+            // Results not folded are counted again, so a later fold retries them
+            if (wins != 0) {
+                game.wins.add(wins);
+            }
+            if (losses != 0) {
+                game.losses.add(losses);
+            }
+        }
+        folds++;
+        return changed;
+    }
+
+    /**
+     * Gets the time of the latest match recorded for a game.
+     *
+     * @param gameId The game's catalog ID
+     * @return The timestamp in epoch milliseconds, or -1 if none was recorded
+     */
+    public long getLastMatchTime(int gameId) {
+        Counters[] table = counters;
+        Counters game = gameId >= 0 && gameId < table.length ? table[gameId] : null;
+        long last = game == null ? Long.MIN_VALUE : game.lastMatch.get();
+        return last == Long.MIN_VALUE ? -1 : last;
+    }
+
+    /**
+     * Gets the number of events accepted so far.
+     *
+     * @return The accepted count
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * Gets the number of malformed lines and events for unknown games.
+     *
+     * @return The rejected count
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gets the number of folds run so far.
+     *
+     * @return The fold count
+     */
+    public synchronized long getFoldCount() {
+        return folds;
+    }
+
+    /**
+     * Gets the number of games whose results could not be folded, because
+     * a count would overflow. Their results are kept for the next fold.
+     *
+     * @return The failure count
+     */
+    public synchronized long getFoldFailureCount() {
+        return foldFailures;
+    }
+
+    /**
+     * Stops the background task and folds what is left.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fold();
+    }
+
+    private Counters countersFor(int gameId) {
+        Counters[] table = counters;
+        if (gameId >= 0 && gameId < table.length) {
+            Counters game = table[gameId];
+            if (game != null) {
+                return game;
+            }
+        }
+        return addCounters(gameId);
+    }
+
+    private synchronized Counters addCounters(int gameId) {
+        Counters[] table = counters;
+        if (gameId >= 0 && gameId < table.length && table[gameId] != null) {
+            return table[gameId];
+        }
+        AbstractGame game = service.getGame(gameId);
+        if (!(game instanceof Multiplayer)) {
+            throw new IllegalArgumentException("Game " + gameId + " is not a multiplayer game");
+        }
+        Counters added = new Counters((Multiplayer) game);
+        if (gameId >= table.length) {
+            table = Arrays.copyOf(table, Math.max(gameId + 1, table.length * 2));
+        } else {
+            table = table.clone();
+        }
+        table[gameId] = added;
+        counters = table;
+        return added;
+    }
+
+    /**
+     * Parses and records the line in {@code data[start, end)}.
+     *
+     * @return 1 if an event was recorded, 0 otherwise
+     */
+    private int accept(ByteBuffer data, int start, int end) {
+        int result = parse(data, start, end);
+        if (result == REJECTED) {
+            rejected.increment();
+        }
+        return result == ACCEPTED ? 1 : 0;
+    }
+
+    private int parse(ByteBuffer data, int start, int end) {
+        while (end > start && isSpace(data.get(end - 1))) {
+            end--;
+        }
+        while (start < end && isSpace(data.get(start))) {
+            start++;
+        }
+        if (start == end || data.get(start) == '#') {
+            return SKIPPED;
+        }
+        long gameId = 0;
+        int i = start;
+        while (i < end && isDigit(data.get(i)) && gameId <= Integer.MAX_VALUE) {
+            gameId = gameId * 10 + (data.get(i++) - '0');
+        }
+        if (i == start || i >= end || data.get(i) != ',' || gameId > Integer.MAX_VALUE) {
+            return REJECTED;
+        }
+        int resultStart = ++i;
+        while (i < end && data.get(i) != ',') {
+            i++;
+        }
+        Boolean win = parseResult(data, resultStart, i);
+        if (win == null || i >= end) {
+            return REJECTED;
+        }
+        int timeStart = ++i;
+        long timestamp = 0;
+        while (i < end && isDigit(data.get(i)) && timestamp < Long.MAX_VALUE / 10) {
+            timestamp = timestamp * 10 + (data.get(i++) - '0');
+        }
+        if (i == timeStart || i != end) {
+            return REJECTED;
+        }
+        try {
+            record((int) gameId, win, timestamp);
+            return ACCEPTED;
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            return REJECTED;
+        }
+    }
+
+    private static Boolean parseResult(ByteBuffer data, int start, int end) {
+        if (matches(data, start, end, "W") || matches(data, start, end, "WIN")) {
+            return Boolean.TRUE;
+        }
+        if (matches(data, start, end, "L") || matches(data, start, end, "LOSS")) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    private static boolean matches(ByteBuffer data, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if ((data.get(start + i) & ~0x20) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Discards the rest of an overlong line, keeping whatever follows it.
+     *
+     * @return The number of bytes kept at the start of the buffer
+     */
+    private static int skipLine(InputStream in, byte[] buffer) throws IOException {
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    System.arraycopy(buffer, i + 1, buffer, 0, read - i - 1);
+                    return read - i - 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Carries an I/O failure out of a chunk task.
+     */
+    private static final class ChunkFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ChunkFailure(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Parses the lines that start in a range of chunks, splitting the range
+     * until it is one chunk.
+     */
+    private final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long size;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long size, int from, int to) {
+            this.channel = channel;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(channel, size, from, mid), new ChunkTask(channel, size, mid, to));
+                return;
+            }
+            long start = (long) from * CHUNK_SIZE;
+            long end = Math.min(size, start + CHUNK_SIZE);
+            // One byte before the chunk tells whether a line starts at its first byte,
+            // and the lines that start in the chunk may run past its end
+            long mapStart = Math.max(0, start - 1);
+            long mapEnd = Math.min(size, end + MAX_LINE);
+            MappedByteBuffer data;
+            try {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+            } catch (IOException e) {
+                throw new ChunkFailure(e);
+            }
+            int limit = (int) (mapEnd - mapStart);
+            int position = (int) (start - mapStart);
+            if (start > 0 && data.get(0) != '\n') {
+                while (position < limit && data.get(position) != '\n') {
+                    position++;
+                }
+                position++;
+            }
+            int owned = (int) (end - mapStart);
+            while (position < owned) {
+                int newline = position;
+                while (newline < limit && data.get(newline) != '\n') {
+                    newline++;
+                }
+                if (newline == limit && mapEnd < size) {
+                    rejected.increment();
+                    return;
+                }
+                accept(data, position, newline);
+                position = newline + 1;
+            }
+        }
+    }
+
+    /**
+     * Applies a file of match results to the saved collection and saves it.
+     * Usage: {@code MatchIngestor [file|-] [--threads N]}.
+     *
+     * @param args The event file ({@code -} for standard input) and options
+     * @throws IOException if reading fails
+     */
+    public static void main(String[] args) throws IOException {
+        String file = "-";
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                file = args[i];
+            }
+        }
+
+        CollectionService service = CollectionService.loadFromDisk();
+        MatchIngestor ingestor = new MatchIngestor(service);
+        long start = System.nanoTime();
+        if (file.equals("-")) {
+            ingestor.ingest(System.in);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ingestor.ingest(Paths.get(file), pool);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        ingestor.close();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        boolean saved = service.save();
+        System.err.printf("Ingested %d match results (%d rejected) in %.3f s: %.0f events/sec%s%n",
+                ingestor.getAcceptedCount(), ingestor.getRejectedCount(), seconds,
+                seconds > 0 ? ingestor.getAcceptedCount() / seconds : 0.0, saved ? "" : " (save failed)");
+    }
+}
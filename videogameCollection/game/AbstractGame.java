@@ -1,6 +1,9 @@
 package videogameCollection.game;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import videogameCollection.GameGenre;
 import videogameCollection.GamePlatform;
@@ -14,12 +17,44 @@ import videogameCollection.Playable;
  */
 public abstract class AbstractGame implements Serializable, Playable {
     private static final long serialVersionUID = 1L;
+    private static final AtomicIntegerFieldUpdater<AbstractGame> REVISION =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractGame.class, "revision");
 
     protected String title;
     protected GameGenre genre;
     protected GamePlatform platform;
     protected int releaseYear;
     protected String developer;
+    private int id;
+    private transient volatile List<ProgressListener> progressListeners;
+    private transient volatile int revision;             // Incremented on every progress update
+    private transient volatile Description description;  // Cached toString() text, or null
+
+    /**
+     * The rendered text of a game and the revision it was rendered at. Immutable.
+     */
+    private static final class Description {
+        final int revision;
+        final String text;
+
+        Description(int revision, String text) {
+            this.revision = revision;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Notified after a game's progress has been updated.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called after {@link AbstractGame#updateProgress(String)} succeeds.
+         *
+         * @param game The game whose progress changed
+         */
+        void progressChanged(AbstractGame game);
+    }
 
     /**
      * Constructor for AbstractGame.
@@ -54,6 +89,28 @@ public abstract class AbstractGame implements Serializable, Playable {
         this.developer = developer;
     }
 
+    /**
+     * Gets the catalog ID of the game.
+     *
+     * @return The game ID, or 0 if the game has not been added to the library yet
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the catalog ID of the game. IDs are assigned by the game library.
+     *
+     * @param id The game ID
+     * @throws IllegalArgumentException if the ID is not positive
+     */
+    public void setId(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Game ID must be positive");
+        }
+        this.id = id;
+    }
+
     /**
      * Gets the title of the game.
      *
@@ -117,10 +174,56 @@ public abstract class AbstractGame implements Serializable, Playable {
         return platform.getDisplayName();
     }
 
+    /**
+     * Registers a listener for progress updates. Listeners are not serialized.
+     *
+     * @param listener The listener to add
+     * @throws IllegalArgumentException if the listener is null
+     */
+    public void addProgressListener(ProgressListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        synchronized (this) {
+            if (progressListeners == null) {
+                progressListeners = new CopyOnWriteArrayList<>();
+            }
+        }
+        progressListeners.add(listener);
+    }
+
+    /**
+     * Removes a progress listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeProgressListener(ProgressListener listener) {
+        List<ProgressListener> listeners = progressListeners;
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Notifies the progress listeners. Subclasses call this once an update
+     * has been applied. The cached description is invalidated first, so
+     * listeners already see the new progress in {@link #toString()}.
+     */
+    protected void fireProgressChanged() {
+        REVISION.incrementAndGet(this);
+        List<ProgressListener> listeners = progressListeners;
+        if (listeners != null) {
+            for (ProgressListener listener : listeners) {
+                listener.progressChanged(this);
+            }
+        }
+    }
+
     /**
      * Abstract method to update the progress of the game.
      * Each game type must implement this method to handle progress tracking
-     * in a way that makes sense for that type of game.
+     * in a way that makes sense for that type of game, and call
+     * {@link #fireProgressChanged()} after a successful update.
      *
      * @param progressData A string representation of the progress data
      * @throws IllegalArgumentException if the progress data is invalid
@@ -128,6 +231,15 @@ public abstract class AbstractGame implements Serializable, Playable {
     @Override
     public abstract void updateProgress(String progressData);
 
+    /**
+     * Creates a copy of the game for another player: the same details and
+     * catalog ID, but no progress and no listeners. Users loaded from a
+     * profile store each own such a copy, so their progress stays their own.
+     *
+     * @return The copy
+     */
+    public abstract AbstractGame copyForPlayer();
+
     /**
      * Abstract method to get a string representation of the current progress.
      * Each game type must implement this method to display progress
@@ -147,8 +259,32 @@ public abstract class AbstractGame implements Serializable, Playable {
      */
     public abstract double getCompletionPercentage();
 
+    /**
+     * Gets the description of the game, as shown in game listings. The text
+     * is built by {@link #describe()} and kept until the progress changes;
+     * the other details are fixed when the game is created.
+     *
+     * @return The description
+     */
     @Override
     public String toString() {
+        int current = revision;
+        Description cached = description;
+        if (cached != null && cached.revision == current) {
+            return cached.text;
+        }
+        // Stamped with the revision read before building, so a concurrent update cannot be cached over
+        String text = describe();
+        description = new Description(current, text);
+        return text;
+    }
+
+    /**
+     * Builds the description of the game. Subclasses append their type and progress.
+     *
+     * @return The description
+     */
+    protected String describe() {
         return "Game: " + title + " (" + releaseYear + ") by " + developer +
                " - Genre: " + genre + ", Platform: " + platform;
     }
@@ -1,16 +1,35 @@
 package videogameCollection.game;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.util.concurrent.atomic.AtomicLong;
+
 import videogameCollection.GameGenre;
 import videogameCollection.GamePlatform;
 
 /**
  * Represents a multiplayer game with win/loss record tracking.
+ * <p>
+ * Wins and losses are packed into a single atomic word (wins in the high
+ * 32 bits, losses in the low 32 bits) so that the pair is always read and
+ * updated together, even when several threads record results at once.
+ * The serialized form still contains the two int fields.
+ * <p>
+ * Results recorded after the game is loaded also feed its
+ * {@link RecentForm}, which tracks recent win rates and streaks.
  */
 public class Multiplayer extends AbstractGame {
     private static final long serialVersionUID = 1L;
 
-    private int wins;
-    private int losses;
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("wins", int.class),
+        new ObjectStreamField("losses", int.class)
+    };
+
+    private transient AtomicLong record;
+    private transient volatile RecentForm recentForm;   // Created on the first result
 
     /**
      * Constructor for Multiplayer game.
@@ -23,8 +42,7 @@ public class Multiplayer extends AbstractGame {
      */
     public Multiplayer(String title, GameGenre genre, GamePlatform platform, int releaseYear, String developer) {
         super(title, genre, platform, releaseYear, developer);
-        this.wins = 0;
-        this.losses = 0;
+        this.record = new AtomicLong(pack(0, 0));
     }
 
     /**
@@ -50,7 +68,7 @@ public class Multiplayer extends AbstractGame {
      * @return The number of wins
      */
     public int getWins() {
-        return wins;
+        return winsOf(record.get());
     }
 
     /**
@@ -59,35 +77,176 @@ public class Multiplayer extends AbstractGame {
      * @return The number of losses
      */
     public int getLosses() {
-        return losses;
+        return lossesOf(record.get());
     }
 
     /**
-     * Updates the player's win/loss record.
+     * Updates the player's win/loss record. The string is parsed in place,
+     * without splitting it.
      *
      * @param progressData A string in the format "wins/losses"
      * @throws IllegalArgumentException if the format is invalid or values are negative
      */
     @Override
     public void updateProgress(String progressData) {
+        int slash = progressData.indexOf('/');
+        if (slash < 0 || progressData.indexOf('/', slash + 1) >= 0) {
+            throw new IllegalArgumentException("Progress data must be in format 'wins/losses'");
+        }
+        int newWins;
+        int newLosses;
         try {
-            String[] parts = progressData.split("/");
-            if (parts.length != 2) {
-                throw new IllegalArgumentException("Progress data must be in format 'wins/losses'");
-            }
+            newWins = Integer.parseInt(progressData, 0, slash, 10);
+            newLosses = Integer.parseInt(progressData, slash + 1, progressData.length(), 10);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Wins and losses must be valid integers");
+        }
+        setRecord(newWins, newLosses);
+    }
+
+    /**
+     * Sets the player's win/loss record.
+     * Progress listeners are notified on the calling thread.
+     *
+     * @param wins The number of wins
+     * @param losses The number of losses
+     * @throws IllegalArgumentException if either value is negative
+     */
+    public void setRecord(int wins, int losses) {
+        if (wins < 0 || losses < 0) {
+            throw new IllegalArgumentException("Wins and losses cannot be negative");
+        }
+        long previous = record.getAndSet(pack(wins, losses));
+        int newWins = wins - winsOf(previous);
+        int newLosses = losses - lossesOf(previous);
+        if (newWins < 0 || newLosses < 0) {
+            // A corrected record says nothing about which recent matches were won
+            getRecentForm().clear();
+        } else if (newWins > 0 || newLosses > 0) {
+            getRecentForm().record(newWins, newLosses, System.currentTimeMillis());
+        }
+        fireProgressChanged();
+    }
+
+    /**
+     * Sets the player's win/loss record without counting any of it as
+     * recent results, as loading a saved game does. Meant for records kept
+     * elsewhere, such as imported or generated data; any recent form is
+     * cleared.
+     *
+     * @param wins The number of wins
+     * @param losses The number of losses
+     * @throws IllegalArgumentException if either value is negative
+     */
+    public void importRecord(int wins, int losses) {
+        if (wins < 0 || losses < 0) {
+            throw new IllegalArgumentException("Wins and losses cannot be negative");
+        }
+        record.set(pack(wins, losses));
+        RecentForm form = recentForm;
+        if (form != null) {
+            form.clear();
+        }
+        fireProgressChanged();
+    }
+
+    /**
+     * Records one win.
+     */
+    public void recordWin() {
+        recordResults(1, 0);
+    }
+
+    /**
+     * Records one loss.
+     */
+    public void recordLoss() {
+        recordResults(0, 1);
+    }
 
-            int newWins = Integer.parseInt(parts[0]);
-            int newLosses = Integer.parseInt(parts[1]);
+    /**
+     * Adds wins and losses to the record atomically.
+     * Progress listeners are notified on the calling thread.
+     *
+     * @param wins The number of wins to add
+     * @param losses The number of losses to add
+     * @throws IllegalArgumentException if either value is negative or a count would overflow
+     */
+    public void recordResults(int wins, int losses) {
+        addToRecord(wins, losses);
+        if (wins > 0 || losses > 0) {
+            getRecentForm().record(wins, losses, System.currentTimeMillis());
+        }
+        fireProgressChanged();
+    }
+
+    /**
+     * Adds wins and losses to the record atomically without counting them
+     * as recent results, for counts whose match order and times are not
+     * known, such as results folded from a feed. Any recent form is
+     * cleared, since it no longer holds the latest matches.
+     *
+     * @param wins The number of wins to add
+     * @param losses The number of losses to add
+     * @throws IllegalArgumentException if either value is negative or a count would overflow
+     */
+    public void importResults(int wins, int losses) {
+        addToRecord(wins, losses);
+        RecentForm form = recentForm;
+        if (form != null && (wins > 0 || losses > 0)) {
+            form.clear();
+        }
+        fireProgressChanged();
+    }
 
-            if (newWins < 0 || newLosses < 0) {
-                throw new IllegalArgumentException("Wins and losses cannot be negative");
+    private void addToRecord(int wins, int losses) {
+        if (wins < 0 || losses < 0) {
+            throw new IllegalArgumentException("Wins and losses cannot be negative");
+        }
+        long current;
+        long updated;
+        do {
+            current = record.get();
+            long newWins = (long) winsOf(current) + wins;
+            long newLosses = (long) lossesOf(current) + losses;
+            if (newWins > Integer.MAX_VALUE || newLosses > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Wins and losses cannot exceed " + Integer.MAX_VALUE);
             }
+            updated = pack((int) newWins, (int) newLosses);
+        } while (!record.compareAndSet(current, updated));
+    }
 
-            wins = newWins;
-            losses = newLosses;
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Wins and losses must be valid integers");
+    /**
+     * Sets the player's win/loss record.
+     *
+     * @param primary The number of wins
+     * @param secondary The number of losses
+     * @throws IllegalArgumentException if either value is negative
+     */
+    @Override
+    public void setProgress(int primary, int secondary) {
+        setRecord(primary, secondary);
+    }
+
+    /**
+     * Adds wins and losses to the record atomically.
+     *
+     * @param primary The number of wins to add
+     * @param secondary The number of losses to add
+     * @throws IllegalArgumentException if either value is negative or a count would overflow
+     */
+    @Override
+    public void addProgress(int primary, int secondary) {
+        recordResults(primary, secondary);
+    }
+
+    @Override
+    public Multiplayer copyForPlayer() {
+        Multiplayer copy = new Multiplayer(title, genre, platform, releaseYear, developer);
+        if (getId() != 0) {
+            copy.setId(getId());
         }
+        return copy;
     }
 
     /**
@@ -97,7 +256,41 @@ public class Multiplayer extends AbstractGame {
      */
     @Override
     public String getProgress() {
-        return "W/L: " + wins + "/" + losses;
+        long snapshot = record.get();
+        return "W/L: " + winsOf(snapshot) + "/" + lossesOf(snapshot);
+    }
+
+    /**
+     * Gets the rolling statistics of the results recorded since the game
+     * was created or loaded. Raising the record with
+     * {@link #setRecord(int, int)} counts the difference as new results,
+     * wins first; lowering it clears them.
+     *
+     * @return The live recent form
+     */
+    public RecentForm getRecentForm() {
+        RecentForm form = recentForm;
+        if (form == null) {
+            synchronized (this) {
+                form = recentForm;
+                if (form == null) {
+                    form = new RecentForm();
+                    recentForm = form;
+                }
+            }
+        }
+        return form;
+    }
+
+    /**
+     * Gets a string summary of recent results, shown next to
+     * {@link #getProgress()}.
+     *
+     * @return The win-loss record and win rate of the last matches and the current streak
+     */
+    public String getRecentProgress() {
+        RecentForm form = recentForm;
+        return form == null ? "No recent matches" : form.toString();
     }
 
     /**
@@ -106,7 +299,9 @@ public class Multiplayer extends AbstractGame {
      * @return The win rate percentage, or 0 if no games played
      */
     public double getWinRate() {
-        int totalGames = wins + losses;
+        long snapshot = record.get();
+        long wins = winsOf(snapshot);
+        long totalGames = wins + lossesOf(snapshot);
         if (totalGames == 0) {
             return 0.0;
         }
@@ -125,7 +320,32 @@ public class Multiplayer extends AbstractGame {
     }
 
     @Override
-    public String toString() {
-        return super.toString() + " - Multiplayer - " + getProgress();
+    protected String describe() {
+        return super.describe() + " - Multiplayer - " + getProgress();
+    }
+
+    private static long pack(int wins, int losses) {
+        return ((long) wins << 32) | (losses & 0xFFFFFFFFL);
+    }
+
+    private static int winsOf(long record) {
+        return (int) (record >>> 32);
+    }
+
+    private static int lossesOf(long record) {
+        return (int) record;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        long snapshot = record.get();
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("wins", winsOf(snapshot));
+        fields.put("losses", lossesOf(snapshot));
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        record = new AtomicLong(pack(fields.get("wins", 0), fields.get("losses", 0)));
     }
 }
@@ -0,0 +1,292 @@
+package videogameCollection.game;
+
+/**
+ * Rolling statistics over a player's recent matches.
+ * <p>
+ * Two fixed-size rings of running totals hold the history: one with the
+ * total wins after each of the last {@link #MATCH_WINDOW} matches, and one
+ * with the total wins and losses at the end of each of the last
+ * {@link #HOUR_WINDOW} hours. The results of any recent stretch are then the
+ * difference of two ring slots, so recording a match and every query take
+ * constant time and allocate nothing. Moving to a later hour fills the
+ * skipped hours, at most once per hour of the window. Streaks and an
+ * exponential moving average of the results are kept as they go. Results
+ * recorded out of time order count towards the latest hour. All methods are
+ * thread-safe.
+ */
+public class RecentForm {
+    public static final int MATCH_WINDOW = 100;
+    public static final int HOUR_WINDOW = 30 * 24;
+    public static final int DEFAULT_RECENT_MATCHES = 20;
+
+    private static final long HOUR_MILLIS = 60L * 60 * 1000;
+    private static final double SMOOTHING = 2.0 / (DEFAULT_RECENT_MATCHES + 1);
+
+    // Totals wrap around, but differences of them stay exact
+    private final int[] winsAfterMatch = new int[MATCH_WINDOW + 1];
+    private final int[] winsAtHour = new int[HOUR_WINDOW];
+    private final int[] lossesAtHour = new int[HOUR_WINDOW];
+    private long matches;
+    private int wins;
+    private int losses;
+    private long firstHour;
+    private long lastHour = Long.MIN_VALUE;
+    private int streak;             // Positive for wins, negative for losses
+    private int longestWinStreak;
+    private int longestLossStreak;
+    private double average;
+
+    /**
+     * Records the result of one match.
+     *
+     * @param win true for a win, false for a loss
+     * @param timeMillis When the match ended, in epoch milliseconds
+     */
+    public synchronized void record(boolean win, long timeMillis) {
+        advanceTo(Math.floorDiv(timeMillis, HOUR_MILLIS));
+        if (win) {
+            wins++;
+            streak = streak > 0 ? streak + 1 : 1;
+            longestWinStreak = Math.max(longestWinStreak, streak);
+        } else {
+            losses++;
+            streak = streak < 0 ? streak - 1 : -1;
+            longestLossStreak = Math.max(longestLossStreak, -streak);
+        }
+        average = matches == 0 ? (win ? 1 : 0) : average + SMOOTHING * ((win ? 1 : 0) - average);
+        matches++;
+        winsAfterMatch[(int) (matches % winsAfterMatch.length)] = wins;
+        int slot = Math.floorMod(lastHour, HOUR_WINDOW);
+        winsAtHour[slot] = wins;
+        lossesAtHour[slot] = losses;
+    }
+
+    /**
+     * Records several results at the same time, the wins before the losses.
+     * Only the last {@link #MATCH_WINDOW} of each kind are walked through
+     * one at a time; the rest are counted at once.
+     *
+     * @param newWins The number of wins
+     * @param newLosses The number of losses
+     * @param timeMillis When the matches ended, in epoch milliseconds
+     */
+    public synchronized void record(int newWins, int newLosses, long timeMillis) {
+        recordRun(true, newWins, timeMillis);
+        recordRun(false, newLosses, timeMillis);
+    }
+
+    /**
+     * Forgets every recorded match.
+     */
+    public synchronized void clear() {
+        winsAfterMatch[0] = 0;
+        matches = 0;
+        wins = 0;
+        losses = 0;
+        lastHour = Long.MIN_VALUE;
+        streak = 0;
+        longestWinStreak = 0;
+        longestLossStreak = 0;
+        average = 0;
+    }
+
+    /**
+     * Gets the number of matches recorded.
+     *
+     * @return The match count
+     */
+    public synchronized long getMatchCount() {
+        return matches;
+    }
+
+    /**
+     * Counts the wins among the most recent matches.
+     *
+     * @param count The number of matches, up to {@link #MATCH_WINDOW}
+     * @return The wins among them
+     * @throws IllegalArgumentException if count is negative or above the window
+     */
+    public synchronized int getRecentWins(int count) {
+        if (count < 0 || count > MATCH_WINDOW) {
+            throw new IllegalArgumentException("Match count must be between 0 and " + MATCH_WINDOW);
+        }
+        if (count >= matches) {
+            return wins;
+        }
+        return wins - winsAfterMatch[(int) ((matches - count) % winsAfterMatch.length)];
+    }
+
+    /**
+     * Calculates the win rate over the most recent matches.
+     *
+     * @param count The number of matches, up to {@link #MATCH_WINDOW}
+     * @return The win rate percentage, or 0 if no matches were recorded
+     * @throws IllegalArgumentException if count is negative or above the window
+     */
+    public synchronized double getRecentWinRate(int count) {
+        long played = Math.min(count, matches);
+        return played <= 0 ? 0.0 : (double) getRecentWins(count) / played * 100.0;
+    }
+
+    /**
+     * Counts the wins in the hours overlapping the given stretch of time
+     * before {@code nowMillis}, up to {@link #HOUR_WINDOW} hours.
+     *
+     * @param windowMillis The length of the stretch
+     * @param nowMillis The end of the stretch, in epoch milliseconds
+     * @return The wins
+     */
+    public synchronized int getWinsWithin(long windowMillis, long nowMillis) {
+        if (lastHour == Long.MIN_VALUE || windowMillis <= 0) {
+            return 0;
+        }
+        return totalAt(winsAtHour, wins, Math.floorDiv(nowMillis, HOUR_MILLIS))
+                - totalAt(winsAtHour, wins, Math.floorDiv(nowMillis - windowMillis, HOUR_MILLIS));
+    }
+
+    /**
+     * Counts the losses in the hours overlapping the given stretch of time
+     * before {@code nowMillis}, up to {@link #HOUR_WINDOW} hours.
+     *
+     * @param windowMillis The length of the stretch
+     * @param nowMillis The end of the stretch, in epoch milliseconds
+     * @return The losses
+     */
+    public synchronized int getLossesWithin(long windowMillis, long nowMillis) {
+        if (lastHour == Long.MIN_VALUE || windowMillis <= 0) {
+            return 0;
+        }
+        return totalAt(lossesAtHour, losses, Math.floorDiv(nowMillis, HOUR_MILLIS))
+                - totalAt(lossesAtHour, losses, Math.floorDiv(nowMillis - windowMillis, HOUR_MILLIS));
+    }
+
+    /**
+     * Calculates the win rate over a recent stretch of time.
+     *
+     * @param windowMillis The length of the stretch
+     * @param nowMillis The end of the stretch, in epoch milliseconds
+     * @return The win rate percentage, or 0 if no matches fall in the stretch
+     */
+    public synchronized double getWinRateWithin(long windowMillis, long nowMillis) {
+        int recentWins = getWinsWithin(windowMillis, nowMillis);
+        int played = recentWins + getLossesWithin(windowMillis, nowMillis);
+        return played == 0 ? 0.0 : (double) recentWins / played * 100.0;
+    }
+
+    /**
+     * Gets the current streak.
+     *
+     * @return The number of consecutive wins (positive) or losses (negative)
+     *         ending with the latest match, or 0 if none were recorded
+     */
+    public synchronized int getStreak() {
+        return streak;
+    }
+
+    /**
+     * Gets the longest run of consecutive wins recorded.
+     *
+     * @return The longest win streak
+     */
+    public synchronized int getLongestWinStreak() {
+        return longestWinStreak;
+    }
+
+    /**
+     * Gets the longest run of consecutive losses recorded.
+     *
+     * @return The longest losing streak
+     */
+    public synchronized int getLongestLossStreak() {
+        return longestLossStreak;
+    }
+
+    /**
+     * Gets an exponential moving average of the results, weighted towards
+     * about the last {@link #DEFAULT_RECENT_MATCHES} matches.
+     *
+     * @return The average as a win rate percentage
+     */
+    public synchronized double getMovingWinRate() {
+        return average * 100.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (matches == 0) {
+            return "No recent matches";
+        }
+        int count = (int) Math.min(DEFAULT_RECENT_MATCHES, matches);
+        int recentWins = getRecentWins(count);
+        return String.format("Last %d: %d-%d (%.0f%%), streak %s%d", count, recentWins, count - recentWins,
+                (double) recentWins / count * 100.0, streak > 0 ? "W" : "L", Math.abs(streak));
+    }
+
+    /**
+     * Moves the hourly ring forward to the given hour, carrying the totals
+     * into every hour passed.
+     */
+    private void advanceTo(long hour) {
+        if (lastHour == Long.MIN_VALUE) {
+            firstHour = hour;
+            lastHour = hour;
+            return;
+        }
+        if (hour <= lastHour) {
+            return;
+        }
+        long from = Math.max(lastHour + 1, hour - HOUR_WINDOW + 1);
+        for (long h = from; h <= hour; h++) {
+            int slot = Math.floorMod(h, HOUR_WINDOW);
+            winsAtHour[slot] = wins;
+            lossesAtHour[slot] = losses;
+        }
+        lastHour = hour;
+    }
+
+    /**
+     * Gets a running total as it stood at the end of an hour.
+     */
+    private int totalAt(int[] ring, int current, long hour) {
+        if (hour >= lastHour) {
+            return current;
+        }
+        if (hour < firstHour) {
+            return 0;
+        }
+        // Hours older than the ring read as the oldest hour it holds
+        long oldest = Math.max(firstHour, lastHour - HOUR_WINDOW + 1);
+        return ring[Math.floorMod(Math.max(hour, oldest), HOUR_WINDOW)];
+    }
+
+    /**
+     * Records a run of equal results, counting all but the last
+     * {@link #MATCH_WINDOW} at once.
+     */
+    private void recordRun(boolean win, int count, long timeMillis) {
+        int skipped = Math.max(0, count - MATCH_WINDOW);
+        if (skipped > 0) {
+            advanceTo(Math.floorDiv(timeMillis, HOUR_MILLIS));
+            double result = win ? 1 : 0;
+            average = matches == 0 ? result : result + (average - result) * Math.pow(1 - SMOOTHING, skipped);
+            if (win) {
+                wins += skipped;
+                streak = (streak > 0 ? streak : 0) + skipped;
+                longestWinStreak = Math.max(longestWinStreak, streak);
+            } else {
+                losses += skipped;
+                streak = (streak < 0 ? streak : 0) - skipped;
+                longestLossStreak = Math.max(longestLossStreak, -streak);
+            }
+            matches += skipped;
+            // The skipped results are older than any the match ring is asked about
+            winsAfterMatch[(int) (matches % winsAfterMatch.length)] = wins;
+            int slot = Math.floorMod(lastHour, HOUR_WINDOW);
+            winsAtHour[slot] = wins;
+            lossesAtHour[slot] = losses;
+        }
+        for (int i = skipped; i < count; i++) {
+            record(win, timeMillis);
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package videogameCollection.game;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 import videogameCollection.GameGenre;
 import videogameCollection.GamePlatform;
 
 /**
  * Represents a single-player game with level-based progress tracking.
+ * Progress is held in a volatile field so updates from one thread are
+ * immediately visible to readers on other threads, and increments update
+ * it with compare-and-set so none are lost.
  */
 public class SinglePlayer extends AbstractGame {
     private static final long serialVersionUID = 1L;
+    private static final AtomicIntegerFieldUpdater<SinglePlayer> LEVELS_COMPLETED =
+            AtomicIntegerFieldUpdater.newUpdater(SinglePlayer.class, "levelsCompleted");
 
-    private int levelsCompleted;
+    private volatile int levelsCompleted;
     private int totalLevels;
 
     /**
@@ -79,21 +86,100 @@ public class SinglePlayer extends AbstractGame {
      */
     @Override
     public void updateProgress(String progressData) {
+        int levels;
         try {
-            int levels = Integer.parseInt(progressData);
+            levels = Integer.parseInt(progressData);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Progress data must be a valid integer");
+        }
+        setLevelsCompleted(levels);
+    }
 
-            if (levels < 0) {
-                throw new IllegalArgumentException("Completed levels cannot be negative");
-            }
+    /**
+     * Sets the number of completed levels.
+     * Progress listeners are notified on the calling thread.
+     *
+     * @param levels The number of completed levels
+     * @throws IllegalArgumentException if the progress is negative or exceeds total levels
+     */
+    public void setLevelsCompleted(int levels) {
+        if (levels < 0) {
+            throw new IllegalArgumentException("Completed levels cannot be negative");
+        }
+        if (levels > totalLevels) {
+            throw new IllegalArgumentException("Completed levels cannot exceed total levels");
+        }
+        this.levelsCompleted = levels;
+        fireProgressChanged();
+    }
+
+    /**
+     * Marks one more level as completed.
+     *
+     * @throws IllegalArgumentException if every level is already completed
+     */
+    public void completeLevel() {
+        completeLevels(1);
+    }
 
-            if (levels > totalLevels) {
+    /**
+     * Marks more levels as completed.
+     * Progress listeners are notified on the calling thread.
+     *
+     * @param levels The number of newly completed levels
+     * @throws IllegalArgumentException if levels is negative or the total would exceed total levels
+     */
+    public void completeLevels(int levels) {
+        if (levels < 0) {
+            throw new IllegalArgumentException("Completed levels cannot be negative");
+        }
+        int current;
+        do {
+            current = levelsCompleted;
+            if (levels > totalLevels - current) {
                 throw new IllegalArgumentException("Completed levels cannot exceed total levels");
             }
+        } while (!LEVELS_COMPLETED.compareAndSet(this, current, current + levels));
+        fireProgressChanged();
+    }
 
-            this.levelsCompleted = levels;
-        } catch (NumberFormatException e) {
-            throw new NumberFormatException("Progress data must be a valid integer");
+    /**
+     * Sets the number of completed levels.
+     *
+     * @param primary The number of completed levels
+     * @param secondary Must be 0
+     * @throws IllegalArgumentException if the progress is invalid
+     */
+    @Override
+    public void setProgress(int primary, int secondary) {
+        if (secondary != 0) {
+            throw new IllegalArgumentException("Single-player progress has no second part");
+        }
+        setLevelsCompleted(primary);
+    }
+
+    /**
+     * Marks more levels as completed.
+     *
+     * @param primary The number of newly completed levels
+     * @param secondary Must be 0
+     * @throws IllegalArgumentException if the progress is invalid
+     */
+    @Override
+    public void addProgress(int primary, int secondary) {
+        if (secondary != 0) {
+            throw new IllegalArgumentException("Single-player progress has no second part");
+        }
+        completeLevels(primary);
+    }
+
+    @Override
+    public SinglePlayer copyForPlayer() {
+        SinglePlayer copy = new SinglePlayer(title, genre, platform, releaseYear, developer, totalLevels);
+        if (getId() != 0) {
+            copy.setId(getId());
         }
+        return copy;
     }
 
     /**
@@ -120,7 +206,7 @@ public class SinglePlayer extends AbstractGame {
     }
 
     @Override
-    public String toString() {
-        return super.toString() + " - Single Player - " + getProgress();
+    protected String describe() {
+        return super.describe() + " - Single Player - " + getProgress();
     }
 }
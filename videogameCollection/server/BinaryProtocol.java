@@ -0,0 +1,195 @@
+package videogameCollection.server;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+import videogameCollection.game.Multiplayer;
+import videogameCollection.game.SinglePlayer;
+
+/**
+ * Wire format shared by {@link BinaryProtocolServer} and {@link BinaryProtocolClient}.
+ * <p>
+ * Every message is length-prefixed. All integers are big-endian.
+ * <pre>
+ * request:  int length | int requestId | byte opcode | payload
+ * response: int length | int requestId | byte status | payload
+ * </pre>
+ * {@code length} counts the bytes after the length field. Strings are an
+ * unsigned short byte count followed by UTF-8 bytes. Responses carry the
+ * request ID, so a client may pipeline many requests on one connection.
+ * <p>
+ * Request payloads:
+ * <pre>
+ * PING      (empty)
+ * ADD       byte type (0 single, 1 multiplayer) | str title | str genre | str platform | short year | str developer | int totalLevels
+ * GET       int id
+ * RATE      int id | byte rating
+ * REVIEW    int id | str review
+ * PROGRESS  int id | str progress
+ * REMOVE    int id
+ * SEARCH    byte field (0 title, 1 genre, 2 platform) | str value
+ * SORT      byte key (0 title, 1 year, 2 rating) | byte ascending
+ * </pre>
+ * ADD and GET answer with a game record, SEARCH and SORT with
+ * {@code int count | int[count] ids}, errors with a message string.
+ * A game record is {@code int id | byte type | str title | str genre |
+ * str platform | short year | str developer | int a | int b | byte rating},
+ * where a/b are levels completed/total or wins/losses and rating 0 means unrated.
+ */
+public final class BinaryProtocol {
+    public static final byte OP_PING = 1;
+    public static final byte OP_ADD = 2;
+    public static final byte OP_GET = 3;
+    public static final byte OP_RATE = 4;
+    public static final byte OP_REVIEW = 5;
+    public static final byte OP_PROGRESS = 6;
+    public static final byte OP_REMOVE = 7;
+    public static final byte OP_SEARCH = 8;
+    public static final byte OP_SORT = 9;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_BAD_REQUEST = 1;
+    public static final byte STATUS_NOT_FOUND = 2;
+    public static final byte STATUS_ERROR = 3;
+
+    public static final byte TYPE_SINGLE = 0;
+    public static final byte TYPE_MULTIPLAYER = 1;
+
+    /** Bytes of a header after the length field: request ID and opcode/status. */
+    public static final int HEADER_BODY_BYTES = 5;
+    /** Full header size including the length field. */
+    public static final int HEADER_BYTES = 4 + HEADER_BODY_BYTES;
+    /** Largest accepted message body, guarding against corrupt length prefixes. */
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string.
+     *
+     * @param buffer The buffer to write to
+     * @param value The string
+     * @throws IllegalArgumentException if the encoded string exceeds 65535 bytes
+     */
+    public static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for protocol: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @param buffer The buffer to read from
+     * @return The string
+     * @throws IllegalArgumentException if the buffer is truncated
+     */
+    public static String getString(ByteBuffer buffer) {
+        try {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated string in message");
+        }
+    }
+
+    /**
+     * Writes a game record.
+     *
+     * @param buffer The buffer to write to
+     * @param game The game
+     * @param profile The profile holding the game's rating
+     */
+    public static void putGame(ByteBuffer buffer, AbstractGame game, UserProfile profile) {
+        buffer.putInt(game.getId());
+        buffer.put(game instanceof Multiplayer ? TYPE_MULTIPLAYER : TYPE_SINGLE);
+        putString(buffer, game.getTitle());
+        putString(buffer, game.getGenre().getDisplayName());
+        putString(buffer, game.getPlatform().getDisplayName());
+        buffer.putShort((short) game.getReleaseYear());
+        putString(buffer, game.getDeveloper());
+        if (game instanceof Multiplayer) {
+            Multiplayer mp = (Multiplayer) game;
+            buffer.putInt(mp.getWins());
+            buffer.putInt(mp.getLosses());
+        } else {
+            SinglePlayer sp = (SinglePlayer) game;
+            buffer.putInt(sp.getLevelsCompleted());
+            buffer.putInt(sp.getTotalLevels());
+        }
+        Integer rating = profile.getGameRating(game);
+        buffer.put(rating == null ? 0 : rating.byteValue());
+    }
+
+    /**
+     * Reads a game record written by {@link #putGame}.
+     *
+     * @param buffer The buffer to read from
+     * @return The decoded record
+     */
+    public static GameRecord getGame(ByteBuffer buffer) {
+        int id = buffer.getInt();
+        byte type = buffer.get();
+        String title = getString(buffer);
+        String genre = getString(buffer);
+        String platform = getString(buffer);
+        int year = buffer.getShort();
+        String developer = getString(buffer);
+        int a = buffer.getInt();
+        int b = buffer.getInt();
+        int rating = buffer.get();
+
+        AbstractGame game;
+        if (type == TYPE_MULTIPLAYER) {
+            Multiplayer mp = new Multiplayer(title, genre, platform, year, developer);
+            mp.setRecord(a, b);
+            game = mp;
+        } else {
+            SinglePlayer sp = new SinglePlayer(title, genre, platform, year, developer, b);
+            sp.setLevelsCompleted(a);
+            game = sp;
+        }
+        game.setId(id);
+        return new GameRecord(game, rating == 0 ? null : rating);
+    }
+
+    /**
+     * A game decoded from the wire together with the user's rating.
+     */
+    public static final class GameRecord {
+        private final AbstractGame game;
+        private final Integer rating;
+
+        GameRecord(AbstractGame game, Integer rating) {
+            this.game = game;
+            this.rating = rating;
+        }
+
+        /**
+         * Gets the decoded game (a detached copy of the server's game).
+         *
+         * @return The game
+         */
+        public AbstractGame getGame() {
+            return game;
+        }
+
+        /**
+         * Gets the user's rating of the game.
+         *
+         * @return The rating, or null if unrated
+         */
+        public Integer getRating() {
+            return rating;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package videogameCollection.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Java client for {@link BinaryProtocolServer}.
+ * <p>
+ * Every call sends its request immediately and returns a future, so callers
+ * can pipeline many requests on one connection and wait for them together.
+ * A background thread matches responses to futures by request ID. The client
+ * is safe to use from several threads.
+ */
+public class BinaryProtocolClient implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(BinaryProtocolClient.class.getName());
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private final Map<Integer, Pending<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Thread reader;
+    private volatile boolean closed;
+
+    /**
+     * Connects to a server.
+     *
+     * @param host The server host
+     * @param port The server port
+     * @throws IOException if the connection fails
+     */
+    public BinaryProtocolClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        reader = new Thread(this::readResponses, "binary-protocol-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Checks that the server is responsive.
+     *
+     * @return A future completed when the server answers
+     */
+    public CompletableFuture<Void> ping() {
+        return send(BinaryProtocol.OP_PING, buffer -> { }, response -> null);
+    }
+
+    /**
+     * Adds a game.
+     *
+     * @param multiplayer true for a multiplayer game, false for single-player
+     * @param title The title
+     * @param genre The genre display name
+     * @param platform The platform display name
+     * @param releaseYear The release year
+     * @param developer The developer
+     * @param totalLevels The total levels (single-player games only)
+     * @return A future for the added game
+     */
+    public CompletableFuture<BinaryProtocol.GameRecord> addGame(boolean multiplayer, String title, String genre,
+                                                                String platform, int releaseYear, String developer,
+                                                                int totalLevels) {
+        return send(BinaryProtocol.OP_ADD, buffer -> {
+            buffer.put(multiplayer ? BinaryProtocol.TYPE_MULTIPLAYER : BinaryProtocol.TYPE_SINGLE);
+            BinaryProtocol.putString(buffer, title);
+            BinaryProtocol.putString(buffer, genre);
+            BinaryProtocol.putString(buffer, platform);
+            buffer.putShort((short) releaseYear);
+            BinaryProtocol.putString(buffer, developer);
+            buffer.putInt(totalLevels);
+        }, BinaryProtocol::getGame);
+    }
+
+    /**
+     * Gets a game by ID.
+     *
+     * @param id The game ID
+     * @return A future for the game
+     */
+    public CompletableFuture<BinaryProtocol.GameRecord> getGame(int id) {
+        return send(BinaryProtocol.OP_GET, buffer -> buffer.putInt(id), BinaryProtocol::getGame);
+    }
+
+    /**
+     * Rates a game.
+     *
+     * @param id The game ID
+     * @param rating The rating (1-5)
+     * @return A future completed when the rating is stored
+     */
+    public CompletableFuture<Void> rate(int id, int rating) {
+        return send(BinaryProtocol.OP_RATE, buffer -> buffer.putInt(id).put((byte) rating), response -> null);
+    }
+
+    /**
+     * Reviews a game.
+     *
+     * @param id The game ID
+     * @param review The review text
+     * @return A future completed when the review is stored
+     */
+    public CompletableFuture<Void> review(int id, String review) {
+        return send(BinaryProtocol.OP_REVIEW, buffer -> {
+            buffer.putInt(id);
+            BinaryProtocol.putString(buffer, review);
+        }, response -> null);
+    }
+
+    /**
+     * Updates the progress of a game.
+     *
+     * @param id The game ID
+     * @param progress The progress in the game's own format
+     * @return A future completed when the progress is stored
+     */
+    public CompletableFuture<Void> updateProgress(int id, String progress) {
+        return send(BinaryProtocol.OP_PROGRESS, buffer -> {
+            buffer.putInt(id);
+            BinaryProtocol.putString(buffer, progress);
+        }, response -> null);
+    }
+
+    /**
+     * Removes a game.
+     *
+     * @param id The game ID
+     * @return A future completed when the game is removed
+     */
+    public CompletableFuture<Void> remove(int id) {
+        return send(BinaryProtocol.OP_REMOVE, buffer -> buffer.putInt(id), response -> null);
+    }
+
+    /**
+     * Searches the collection.
+     *
+     * @param field 0 for title, 1 for genre, 2 for platform
+     * @param value The value to search for
+     * @return A future for the IDs of the matching games
+     */
+    public CompletableFuture<int[]> search(int field, String value) {
+        return send(BinaryProtocol.OP_SEARCH, buffer -> {
+            buffer.put((byte) field);
+            BinaryProtocol.putString(buffer, value);
+        }, BinaryProtocolClient::readIds);
+    }
+
+    /**
+     * Lists the collection in sorted order.
+     *
+     * @param key 0 for title, 1 for release year, 2 for rating
+     * @param ascending true for ascending order
+     * @return A future for the sorted game IDs
+     */
+    public CompletableFuture<int[]> sort(int key, boolean ascending) {
+        return send(BinaryProtocol.OP_SORT, buffer -> buffer.put((byte) key).put((byte) (ascending ? 1 : 0)),
+                BinaryProtocolClient::readIds);
+    }
+
+    private static int[] readIds(ByteBuffer response) {
+        int[] ids = new int[response.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = response.getInt();
+        }
+        return ids;
+    }
+
+    private <T> CompletableFuture<T> send(byte opcode, Consumer<ByteBuffer> payload,
+                                          Function<ByteBuffer, T> decoder) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IOException("Client is closed"));
+        }
+        int requestId = nextRequestId.incrementAndGet();
+        Pending<T> pending = new Pending<>(decoder);
+        inFlight.put(requestId, pending);
+
+        synchronized (out) {
+            try {
+                out.clear();
+                out.position(4);
+                out.putInt(requestId).put(opcode);
+                payload.accept(out);
+                out.putInt(0, out.position() - 4);
+                out.flip();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            } catch (IOException | RuntimeException e) {
+                inFlight.remove(requestId);
+                pending.future.completeExceptionally(e);
+            }
+        }
+        return pending.future;
+    }
+
+    private void readResponses() {
+        ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (!closed) {
+                if (channel.read(in) < 0) {
+                    break;
+                }
+                in.flip();
+                while (in.remaining() >= 4) {
+                    int length = in.getInt(in.position());
+                    if (length < BinaryProtocol.HEADER_BODY_BYTES || length > BinaryProtocol.MAX_FRAME_BYTES) {
+                        throw new IOException("Invalid frame length: " + length);
+                    }
+                    if (in.remaining() < 4 + length) {
+                        break;
+                    }
+                    int frameEnd = in.position() + 4 + length;
+                    in.position(in.position() + 4);
+                    int requestId = in.getInt();
+                    byte status = in.get();
+                    ByteBuffer body = in.slice();
+                    body.limit(frameEnd - in.position());
+                    in.position(frameEnd);
+                    complete(requestId, status, body);
+                }
+                in.compact();
+                if (!in.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(in.capacity() * 2);
+                    in.flip();
+                    larger.put(in);
+                    in = larger;
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                LOGGER.log(Level.WARNING, "Binary protocol connection failed", e);
+            }
+        } finally {
+            IOException failure = new IOException("Connection closed");
+            for (Pending<?> pending : inFlight.values()) {
+                pending.future.completeExceptionally(failure);
+            }
+            inFlight.clear();
+        }
+    }
+
+    private void complete(int requestId, byte status, ByteBuffer body) {
+        Pending<?> pending = inFlight.remove(requestId);
+        if (pending == null) {
+            return;
+        }
+        try {
+            if (status == BinaryProtocol.STATUS_OK) {
+                pending.succeed(body);
+            } else {
+                String message = BinaryProtocol.getString(body);
+                pending.future.completeExceptionally(status == BinaryProtocol.STATUS_NOT_FOUND
+                        ? new NoSuchElementException(message)
+                        : new IllegalArgumentException(message));
+            }
+        } catch (RuntimeException e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Gets the number of requests sent but not yet answered.
+     *
+     * @return The number of in-flight requests
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * A request waiting for its response.
+     */
+    private static final class Pending<T> {
+        private final Function<ByteBuffer, T> decoder;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Pending(Function<ByteBuffer, T> decoder) {
+            this.decoder = decoder;
+        }
+
+        void succeed(ByteBuffer body) {
+            future.complete(decoder.apply(body));
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package videogameCollection.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import videogameCollection.CollectionService;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Non-blocking server for the compact binary protocol described in
+ * {@link BinaryProtocol}. A single selector thread accepts connections,
+ * decodes every complete frame in each read (so pipelined requests are
+ * handled in one pass) and answers through gathering writes.
+ * <p>
+ * Response headers and payloads are laid out in per-connection direct
+ * buffer slabs and queued as slices; one {@code write(ByteBuffer[])} call
+ * then flushes many responses at once. When too many responses are
+ * queued the connection stops reading until the client catches up.
+ */
+public class BinaryProtocolServer implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(BinaryProtocolServer.class.getName());
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final int HEADER_SLAB_BYTES = BinaryProtocol.HEADER_BYTES * 4096;
+    private static final int PAYLOAD_SLAB_BYTES = 512 * 1024;
+    private static final int MAX_QUEUED_BUFFERS = 4096;
+    private static final int MAX_GATHER = 256;
+
+    private final CollectionService service;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ByteBuffer scratch = ByteBuffer.allocate(BinaryProtocol.MAX_FRAME_BYTES);
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates a server bound to the given port. Use port 0 for an ephemeral port.
+     *
+     * @param service The collection service to expose
+     * @param port The port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public BinaryProtocolServer(CollectionService service, int port) throws IOException {
+        this.service = service;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Gets the port the server is bound to.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Starts the selector loop on a background thread.
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "binary-protocol-server");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Binary protocol listening on port " + getPort());
+    }
+
+    /**
+     * Stops the selector loop and closes every connection.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isWritable()) {
+                            connection.pump();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                    } catch (IOException e) {
+                        closeQuietly(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                LOGGER.log(Level.SEVERE, "Binary protocol server stopped unexpectedly", e);
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Error closing selector", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error closing channel", e);
+        }
+    }
+
+    /**
+     * Executes one request and encodes the response payload into {@code scratch}.
+     *
+     * @param opcode The request opcode
+     * @param request The request payload
+     * @return The response status
+     */
+    private byte execute(byte opcode, ByteBuffer request) {
+        scratch.clear();
+        try {
+            switch (opcode) {
+                case BinaryProtocol.OP_PING:
+                    break;
+                case BinaryProtocol.OP_ADD: {
+                    byte type = request.get();
+                    String title = BinaryProtocol.getString(request);
+                    String genre = BinaryProtocol.getString(request);
+                    String platform = BinaryProtocol.getString(request);
+                    int year = request.getShort();
+                    String developer = BinaryProtocol.getString(request);
+                    int totalLevels = request.getInt();
+                    AbstractGame game = service.addGame(type == BinaryProtocol.TYPE_MULTIPLAYER ? "multiplayer" : "single",
+                            title, genre, platform, year, developer, totalLevels);
+                    BinaryProtocol.putGame(scratch, game, service.getProfile());
+                    break;
+                }
+                case BinaryProtocol.OP_GET:
+                    BinaryProtocol.putGame(scratch, service.getGame(request.getInt()), service.getProfile());
+                    break;
+                case BinaryProtocol.OP_RATE:
+                    service.rate(request.getInt(), request.get());
+                    break;
+                case BinaryProtocol.OP_REVIEW:
+                    service.review(request.getInt(), BinaryProtocol.getString(request));
+                    break;
+                case BinaryProtocol.OP_PROGRESS:
+                    service.updateProgress(request.getInt(), BinaryProtocol.getString(request));
+                    break;
+                case BinaryProtocol.OP_REMOVE:
+                    service.remove(request.getInt());
+                    break;
+                case BinaryProtocol.OP_SEARCH: {
+                    byte field = request.get();
+                    String value = BinaryProtocol.getString(request);
+                    String[] fields = {"title", "genre", "platform"};
+                    if (field < 0 || field >= fields.length) {
+                        throw new IllegalArgumentException("Unknown search field: " + field);
+                    }
+                    putIds(service.search(fields[field], value));
+                    break;
+                }
+                case BinaryProtocol.OP_SORT: {
+                    byte key = request.get();
+                    boolean ascending = request.get() != 0;
+                    String[] keys = {"title", "year", "rating"};
+                    if (key < 0 || key >= keys.length) {
+                        throw new IllegalArgumentException("Unknown sort key: " + key);
+                    }
+                    putIds(service.sort(keys[key], ascending));
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown opcode: " + opcode);
+            }
+            return BinaryProtocol.STATUS_OK;
+        } catch (NoSuchElementException e) {
+            return error(e.getMessage(), BinaryProtocol.STATUS_NOT_FOUND);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return error(e.getMessage() == null ? "Malformed request" : e.getMessage(), BinaryProtocol.STATUS_BAD_REQUEST);
+        } catch (BufferOverflowException e) {
+            return error("Response too large", BinaryProtocol.STATUS_ERROR);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error executing binary request", e);
+            return error("Internal server error", BinaryProtocol.STATUS_ERROR);
+        }
+    }
+
+    private void putIds(List<AbstractGame> games) {
+        scratch.putInt(games.size());
+        for (AbstractGame game : games) {
+            scratch.putInt(game.getId());
+        }
+    }
+
+    private byte error(String message, byte status) {
+        scratch.clear();
+        BinaryProtocol.putString(scratch, message.length() > 1024 ? message.substring(0, 1024) : message);
+        return status;
+    }
+
+    /**
+     * Per-connection read buffer and queue of encoded responses.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        private final ByteBuffer headerSlab = ByteBuffer.allocateDirect(HEADER_SLAB_BYTES);
+        private final ByteBuffer payloadSlab = ByteBuffer.allocateDirect(PAYLOAD_SLAB_BYTES);
+        private final List<ByteBuffer> pending = new ArrayList<>();
+        private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+        private int firstPending;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            int n = channel.read(in);
+            if (n < 0) {
+                throw new IOException("Connection closed by client");
+            }
+            processFrames();
+            pump();
+        }
+
+        /**
+         * Flushes queued responses and keeps answering buffered requests until
+         * either the socket stops accepting data or no complete frame is left.
+         */
+        void pump() throws IOException {
+            while (true) {
+                if (!writePending()) {
+                    int interest = SelectionKey.OP_WRITE;
+                    if (queuedBuffers() < MAX_QUEUED_BUFFERS) {
+                        interest |= SelectionKey.OP_READ;
+                    }
+                    key.interestOps(interest);
+                    return;
+                }
+
+                pending.clear();
+                firstPending = 0;
+                headerSlab.clear();
+                payloadSlab.clear();
+                if (!hasCompleteFrame()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                // Requests were left unprocessed while the response queue was full
+                processFrames();
+            }
+        }
+
+        private boolean hasCompleteFrame() {
+            if (in.position() < 4) {
+                return false;
+            }
+            return in.position() >= 4 + in.getInt(0);
+        }
+
+        /**
+         * Decodes and answers every complete frame in the read buffer, stopping
+         * early if the response queue is full.
+         */
+        private void processFrames() throws IOException {
+            in.flip();
+            while (in.remaining() >= 4 && queuedBuffers() < MAX_QUEUED_BUFFERS) {
+                int length = in.getInt(in.position());
+                if (length < BinaryProtocol.HEADER_BODY_BYTES || length > BinaryProtocol.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length: " + length);
+                }
+                if (in.remaining() < 4 + length) {
+                    break;
+                }
+
+                int frameEnd = in.position() + 4 + length;
+                in.position(in.position() + 4);
+                int requestId = in.getInt();
+                byte opcode = in.get();
+                ByteBuffer request = in.slice();
+                request.limit(frameEnd - in.position());
+                in.position(frameEnd);
+
+                byte status = execute(opcode, request);
+                enqueue(requestId, status);
+            }
+            in.compact();
+
+            // Grow the read buffer if a single frame does not fit
+            if (!in.hasRemaining() && queuedBuffers() < MAX_QUEUED_BUFFERS) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(in.capacity() * 2, BinaryProtocol.MAX_FRAME_BYTES + 4));
+                in.flip();
+                larger.put(in);
+                in = larger;
+            }
+        }
+
+        private void enqueue(int requestId, byte status) {
+            scratch.flip();
+            int payloadLength = scratch.remaining();
+
+            ByteBuffer header;
+            if (headerSlab.remaining() >= BinaryProtocol.HEADER_BYTES) {
+                header = headerSlab.slice();
+                header.limit(BinaryProtocol.HEADER_BYTES);
+                headerSlab.position(headerSlab.position() + BinaryProtocol.HEADER_BYTES);
+            } else {
+                header = ByteBuffer.allocateDirect(BinaryProtocol.HEADER_BYTES);
+            }
+            header.putInt(BinaryProtocol.HEADER_BODY_BYTES + payloadLength).putInt(requestId).put(status).flip();
+            pending.add(header);
+
+            if (payloadLength == 0) {
+                return;
+            }
+            ByteBuffer payload;
+            if (payloadSlab.remaining() >= payloadLength) {
+                payload = payloadSlab.slice();
+                payload.limit(payloadLength);
+                payloadSlab.position(payloadSlab.position() + payloadLength);
+            } else {
+                payload = ByteBuffer.allocateDirect(payloadLength);
+            }
+            payload.put(scratch).flip();
+            pending.add(payload);
+        }
+
+        /**
+         * Writes as many queued buffers as the socket accepts with gathering writes.
+         *
+         * @return true if every queued buffer was written
+         */
+        private boolean writePending() throws IOException {
+            while (firstPending < pending.size()) {
+                int count = Math.min(MAX_GATHER, pending.size() - firstPending);
+                for (int i = 0; i < count; i++) {
+                    gather[i] = pending.get(firstPending + i);
+                }
+                channel.write(gather, 0, count);
+                while (firstPending < pending.size() && !pending.get(firstPending).hasRemaining()) {
+                    firstPending++;
+                }
+                if (firstPending < pending.size() && pending.get(firstPending).hasRemaining()) {
+                    return false; // Socket send buffer is full
+                }
+            }
+            return true;
+        }
+
+        private int queuedBuffers() {
+            return pending.size() - firstPending;
+        }
+    }
+
+    /**
+     * Runs the binary protocol server against the saved collection.
+     *
+     * @param args Optional port number (default 9090)
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        CollectionService service = CollectionService.loadFromDisk();
+        BinaryProtocolServer server = new BinaryProtocolServer(service, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            service.save();
+        }));
+        System.out.println("Video Game Collection binary protocol running on port " + server.getPort());
+        server.run();
+    }
+}
@@ -0,0 +1,285 @@
+package videogameCollection.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import videogameCollection.CollectionService;
+import videogameCollection.JsonUtil;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Headless HTTP/JSON front end for the collection, built on the JDK's
+ * built-in HTTP server. Each request runs on its own virtual thread when the
+ * runtime supports them (Java 21+), otherwise on a cached thread pool.
+ *
+ * <pre>
+ * GET    /api/games                          list owned games
+ * GET    /api/games?title=&amp;genre=&amp;platform=  search; every filter given applies
+ * GET    /api/games/sorted?by=title|year|rating&amp;order=asc|desc
+ * GET    /api/games/{id}                     get one game
+ * POST   /api/games                          add {"type","title","genre","platform","releaseYear","developer","totalLevels"}
+ * POST   /api/games/{id}/rating              {"rating":5}
+ * POST   /api/games/{id}/review              {"review":"..."}
+ * POST   /api/games/{id}/progress            {"progress":"10/5"}
+ * DELETE /api/games/{id}                     remove
+ * POST   /api/save                           persist the collection
+ * </pre>
+ */
+public class HttpApiServer {
+    private static final Logger LOGGER = Logger.getLogger(HttpApiServer.class.getName());
+    private static final String GAMES_PATH = "/api/games";
+
+    static {
+        // Headers and body are written separately; without TCP_NODELAY small
+        // responses wait on delayed ACKs and every request costs ~40 ms.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final CollectionService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server bound to the given port. Use port 0 for an ephemeral port.
+     *
+     * @param service The collection service to expose
+     * @param port The port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public HttpApiServer(CollectionService service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext(GAMES_PATH, this::handleGames);
+        server.createContext("/api/save", this::handleSave);
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        server.start();
+        LOGGER.info("HTTP API listening on port " + getPort());
+    }
+
+    /**
+     * Stops the server, waiting up to one second for in-flight requests.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the port the server is bound to.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Creates a virtual-thread-per-request executor if the runtime supports it.
+     * Looked up reflectively so the application still builds and runs on Java 17.
+     *
+     * @return The executor
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.info("Virtual threads not available; using a cached thread pool");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleGames(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] parts = exchange.getRequestURI().getPath().substring(GAMES_PATH.length()).split("/");
+            // parts[0] is always the empty segment before the first '/'
+            if (parts.length <= 1) {
+                if ("GET".equals(method)) {
+                    sendGames(exchange, search(parseQuery(exchange.getRequestURI().getRawQuery())));
+                } else if ("POST".equals(method)) {
+                    Map<String, Object> body = readBody(exchange);
+                    Object levels = body.get("totalLevels");
+                    AbstractGame game = service.addGame(
+                            JsonUtil.getString(body, "type"),
+                            JsonUtil.getString(body, "title"),
+                            JsonUtil.getString(body, "genre"),
+                            JsonUtil.getString(body, "platform"),
+                            JsonUtil.getInt(body, "releaseYear"),
+                            JsonUtil.getString(body, "developer"),
+                            levels == null ? 0 : JsonUtil.getInt(body, "totalLevels"));
+                    send(exchange, 201, JsonUtil.toJson(game, service.getProfile()));
+                } else {
+                    send(exchange, 405, JsonUtil.toJson("error", "Method not allowed"));
+                }
+                return;
+            }
+
+            if ("sorted".equals(parts[1]) && parts.length == 2 && "GET".equals(method)) {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                boolean ascending = !"desc".equalsIgnoreCase(query.get("order"));
+                sendGames(exchange, service.sort(query.getOrDefault("by", "title"), ascending));
+                return;
+            }
+
+            int id = parseId(parts[1]);
+            if (parts.length == 2) {
+                if ("GET".equals(method)) {
+                    sendGame(exchange, service.getGame(id));
+                } else if ("DELETE".equals(method)) {
+                    sendGame(exchange, service.remove(id));
+                } else {
+                    send(exchange, 405, JsonUtil.toJson("error", "Method not allowed"));
+                }
+                return;
+            }
+
+            if (parts.length != 3 || !"POST".equals(method)) {
+                send(exchange, 404, JsonUtil.toJson("error", "Not found"));
+                return;
+            }
+
+            Map<String, Object> body = readBody(exchange);
+            switch (parts[2]) {
+                case "rating":
+                    sendGame(exchange, service.rate(id, JsonUtil.getInt(body, "rating")));
+                    break;
+                case "review":
+                    sendGame(exchange, service.review(id, JsonUtil.getString(body, "review")));
+                    break;
+                case "progress":
+                    sendGame(exchange, service.updateProgress(id, JsonUtil.getString(body, "progress")));
+                    break;
+                default:
+                    send(exchange, 404, JsonUtil.toJson("error", "Not found"));
+            }
+        } catch (NoSuchElementException e) {
+            send(exchange, 404, JsonUtil.toJson("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, JsonUtil.toJson("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error handling request", e);
+            send(exchange, 500, JsonUtil.toJson("error", "Internal server error"));
+        }
+    }
+
+    /**
+     * Searches by every filter in the query, keeping only the games that
+     * match all of them.
+     */
+    private List<AbstractGame> search(Map<String, String> filters) {
+        List<AbstractGame> games = null;
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            List<AbstractGame> matches = service.search(filter.getKey(), filter.getValue());
+            if (games == null) {
+                games = new ArrayList<>(matches);
+            } else {
+                Set<AbstractGame> matching = Collections.newSetFromMap(new IdentityHashMap<>());
+                matching.addAll(matches);
+                games.retainAll(matching);
+            }
+        }
+        return games == null ? service.search(null, null) : games;
+    }
+
+    private void handleSave(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, JsonUtil.toJson("error", "Method not allowed"));
+            return;
+        }
+        boolean saved = service.save();
+        send(exchange, saved ? 200 : 500, JsonUtil.toJson("saved", saved));
+    }
+
+    private void sendGame(HttpExchange exchange, AbstractGame game) throws IOException {
+        send(exchange, 200, JsonUtil.toJson(game, service.getProfile()));
+    }
+
+    private void sendGames(HttpExchange exchange, List<AbstractGame> games) throws IOException {
+        send(exchange, 200, JsonUtil.toJson(games, service.getProfile()));
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return JsonUtil.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid game ID: " + segment);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Runs the server until the process is terminated, saving on shutdown.
+     *
+     * @param args Optional port number (default 8080)
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        CollectionService service = CollectionService.loadFromDisk();
+        HttpApiServer server = new HttpApiServer(service, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            service.save();
+        }));
+        server.start();
+        System.out.println("Video Game Collection API running on http://localhost:" + server.getPort() + GAMES_PATH);
+    }
+}
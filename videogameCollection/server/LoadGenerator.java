@@ -0,0 +1,189 @@
+package videogameCollection.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import videogameCollection.CollectionService;
+import videogameCollection.GameGenre;
+import videogameCollection.GamePlatform;
+import videogameCollection.JsonUtil;
+import videogameCollection.UserProfile;
+
+/**
+ * Local load generator for the HTTP API. Drives a mix of searches, sorted
+ * listings, ratings and progress updates from several client threads and
+ * reports requests per second with p50/p99/max latency.
+ * <p>
+ * Usage: {@code LoadGenerator [baseUrl] [threads] [seconds]}. Without a base
+ * URL an in-process server is started over a fresh profile, so saved data
+ * is never touched.
+ */
+public class LoadGenerator {
+    private static final int SEED_GAMES = 200;
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Optional base URL, thread count and duration in seconds
+     * @throws Exception if the server cannot be started or seeded
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 && !args[0].equals("-") ? args[0] : null;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        HttpApiServer embedded = null;
+        if (baseUrl == null) {
+            embedded = new HttpApiServer(new CollectionService(new UserProfile("LoadTest", GamePlatform.PC)), 0);
+            embedded.start();
+            baseUrl = "http://localhost:" + embedded.getPort();
+        }
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        int[] ids = seed(client, baseUrl);
+        System.out.printf("Seeded %d games, running %d threads for %d s against %s%n", ids.length, threads, seconds, baseUrl);
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(client, baseUrl, ids, deadline);
+            workers[i].start();
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+
+        report(workers, seconds);
+        if (embedded != null) {
+            embedded.stop();
+        }
+    }
+
+    private static int[] seed(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        int[] ids = new int[SEED_GAMES];
+        GameGenre[] genres = GameGenre.values();
+        for (int i = 0; i < SEED_GAMES; i++) {
+            boolean single = i % 2 == 0;
+            String body = "{\"type\":\"" + (single ? "single" : "multiplayer") + "\""
+                    + ",\"title\":\"Load Game " + i + "\""
+                    + ",\"genre\":\"" + genres[i % genres.length].getDisplayName() + "\""
+                    + ",\"platform\":\"PC\",\"releaseYear\":" + (1990 + i % 30)
+                    + ",\"developer\":\"Studio " + (i % 17) + "\",\"totalLevels\":50}";
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/api/games"))
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IOException("Seeding failed: " + response.body());
+            }
+            Map<String, Object> game = JsonUtil.parseObject(response.body());
+            ids[i] = JsonUtil.getInt(game, "id");
+        }
+        return ids;
+    }
+
+    private static void report(Worker[] workers, int seconds) {
+        int total = 0;
+        long errors = 0;
+        for (Worker worker : workers) {
+            total += worker.count;
+            errors += worker.errors.get();
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, all, offset, worker.count);
+            offset += worker.count;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("Requests: %d (%d errors)%n", total, errors);
+        System.out.printf("Throughput: %.0f req/s%n", (double) total / seconds);
+        if (total > 0) {
+            System.out.printf("Latency p50: %.3f ms, p99: %.3f ms, max: %.3f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.99), all[total - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Client thread that records the latency of every request it sends.
+     */
+    private static class Worker extends Thread {
+        private final HttpClient client;
+        private final String baseUrl;
+        private final int[] ids;
+        private final long deadline;
+        private final AtomicLong errors = new AtomicLong();
+        private long[] latencies = new long[1 << 14];
+        private int count;
+
+        Worker(HttpClient client, String baseUrl, int[] ids, long deadline) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.ids = ids;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            GameGenre[] genres = GameGenre.values();
+            while (System.nanoTime() < deadline) {
+                int index = random.nextInt(ids.length);
+                int id = ids[index];
+                int roll = random.nextInt(100);
+                HttpRequest request;
+                if (roll < 50) {
+                    String genre = genres[random.nextInt(genres.length)].getDisplayName().replace(" ", "%20");
+                    request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/games?genre=" + genre)).GET().build();
+                } else if (roll < 60) {
+                    request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/games/sorted?by=rating&order=desc")).GET().build();
+                } else if (roll < 85) {
+                    request = post("/api/games/" + id + "/rating", "{\"rating\":" + (1 + random.nextInt(5)) + "}");
+                } else {
+                    // Seeded games alternate single-player and multiplayer
+                    String progress = index % 2 == 0 ? String.valueOf(random.nextInt(51)) : random.nextInt(100) + "/" + random.nextInt(100);
+                    request = post("/api/games/" + id + "/progress", "{\"progress\":\"" + progress + "\"}");
+                }
+
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    errors.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                record(System.nanoTime() - start);
+            }
+        }
+
+        private HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+}
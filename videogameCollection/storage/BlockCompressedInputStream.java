@@ -0,0 +1,173 @@
+package videogameCollection.storage;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a container written by {@link BlockCompressedOutputStream}.
+ * <p>
+ * Only one block is held in memory at a time, and every block is checked
+ * against its CRC32 before any of its bytes are returned. A damaged or
+ * truncated file fails with an {@link IOException} naming the block.
+ */
+public class BlockCompressedInputStream extends InputStream {
+    private final DataInputStream source;
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+    private final byte[] block;
+    private byte[] stored;
+    private int position;
+    private int length;
+    private int blockNumber;
+    private boolean finished;
+
+    /**
+     * Opens a container, reading its header.
+     *
+     * @param in The underlying stream
+     * @throws IOException if the stream is not a block-compressed container
+     */
+    public BlockCompressedInputStream(InputStream in) throws IOException {
+        this.source = new DataInputStream(in);
+        if (source.readInt() != BlockCompressedOutputStream.MAGIC) {
+            throw new IOException("Not a block-compressed file");
+        }
+        int version = source.readInt();
+        if (version != BlockCompressedOutputStream.VERSION) {
+            throw new IOException("Unsupported block-compressed file version: " + version);
+        }
+        int blockSize = source.readInt();
+        if (blockSize <= 0 || blockSize > 64 * 1024 * 1024) {
+            throw new IOException("Invalid block size: " + blockSize);
+        }
+        this.block = new byte[blockSize];
+        this.stored = new byte[blockSize];
+    }
+
+    /**
+     * Checks whether a stream starts with a block-compressed header, without consuming it.
+     *
+     * @param in A stream that supports mark/reset
+     * @return true if the stream holds a block-compressed container
+     * @throws IOException if the stream cannot be read
+     */
+    public static boolean isCompressed(InputStream in) throws IOException {
+        in.mark(4);
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = in.read();
+            if (b < 0) {
+                in.reset();
+                return false;
+            }
+            magic = (magic << 8) | b;
+        }
+        in.reset();
+        return magic == BlockCompressedOutputStream.MAGIC;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == length && !nextBlock()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position == length && !nextBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, length - position);
+        System.arraycopy(block, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        source.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (finished) {
+            return false;
+        }
+        try {
+            int rawLength = source.readInt();
+            if (rawLength == 0) {
+                finished = true;
+                return false;
+            }
+            blockNumber++;
+            int storedLength = source.readInt();
+            int expectedCrc = source.readInt();
+            byte method = source.readByte();
+            if (rawLength < 0 || rawLength > block.length || storedLength < 0 || storedLength > block.length) {
+                throw damaged("invalid lengths");
+            }
+            source.readFully(stored, 0, storedLength);
+
+            if (method == BlockCompressedOutputStream.METHOD_STORED) {
+                if (storedLength != rawLength) {
+                    throw damaged("invalid lengths");
+                }
+                System.arraycopy(stored, 0, block, 0, rawLength);
+            } else if (method == BlockCompressedOutputStream.METHOD_DEFLATE) {
+                inflate(storedLength, rawLength);
+            } else {
+                throw damaged("unknown compression method " + method);
+            }
+
+            crc.reset();
+            crc.update(block, 0, rawLength);
+            if ((int) crc.getValue() != expectedCrc) {
+                throw damaged("checksum mismatch");
+            }
+            position = 0;
+            length = rawLength;
+            return true;
+        } catch (EOFException e) {
+            throw new EOFException("Block-compressed file is truncated at block " + (blockNumber + 1));
+        }
+    }
+
+    private void inflate(int storedLength, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(stored, 0, storedLength);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(block, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != rawLength) {
+                throw damaged("inflated to " + inflated + " bytes instead of " + rawLength);
+            }
+        } catch (DataFormatException e) {
+            throw damaged(e.getMessage());
+        }
+    }
+
+    private IOException damaged(String reason) {
+        return new IOException("Block " + blockNumber + " is damaged: " + reason);
+    }
+}
@@ -0,0 +1,168 @@
+package videogameCollection.storage;
+
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a block-compressed container.
+ * <pre>
+ * header : int MAGIC | int VERSION | int blockSize
+ * block* : int rawLength | int storedLength | int crc32(raw) | byte method | stored bytes
+ * end    : int 0
+ * </pre>
+ * Data is cut into blocks of {@code blockSize} bytes and each block is
+ * deflated on its own, so a reader only ever inflates one block at a time
+ * and a damaged block is caught by its checksum without affecting the
+ * others. Blocks that do not shrink are stored uncompressed.
+ */
+public class BlockCompressedOutputStream extends FilterOutputStream {
+    static final int MAGIC = 0x5647435A; // "VGCZ"
+    static final int VERSION = 1;
+    static final byte METHOD_STORED = 0;
+    static final byte METHOD_DEFLATE = 1;
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private final DataOutputStream target;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] block;
+    private final byte[] compressed;
+    private int length;
+    private long rawBytes;
+    private long storedBytes;
+    private boolean closed;
+
+    /**
+     * Creates a stream with the default block size and compression level.
+     *
+     * @param out The underlying stream
+     * @throws IOException if the header cannot be written
+     */
+    public BlockCompressedOutputStream(OutputStream out) throws IOException {
+        this(out, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a stream.
+     *
+     * @param out The underlying stream
+     * @param blockSize The uncompressed size of each block
+     * @param level The deflate level (0-9, or -1 for the default)
+     * @throws IOException if the header cannot be written
+     * @throws IllegalArgumentException if the block size is not positive
+     */
+    public BlockCompressedOutputStream(OutputStream out, int blockSize, int level) throws IOException {
+        super(out);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.target = new DataOutputStream(out);
+        this.deflater = new Deflater(level);
+        this.block = new byte[blockSize];
+        // Deflate can expand incompressible data slightly; such blocks are stored instead
+        this.compressed = new byte[blockSize];
+        target.writeInt(MAGIC);
+        target.writeInt(VERSION);
+        target.writeInt(blockSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (length == block.length) {
+            writeBlock();
+        }
+        block[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (length == block.length) {
+                writeBlock();
+            }
+            int n = Math.min(len, block.length - length);
+            System.arraycopy(b, off, block, length, n);
+            length += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Flushes the blocks written so far. Data still buffered in the current
+     * block stays there until the block fills or the stream is closed, so
+     * frequent flushes (as {@link java.io.ObjectOutputStream} makes) do not
+     * cut the data into short, poorly compressed blocks.
+     */
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    /**
+     * Writes the last block and the end marker, then closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (length > 0) {
+                writeBlock();
+            }
+            target.writeInt(0);
+            target.flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * Gets the number of uncompressed bytes written so far.
+     *
+     * @return The raw byte count
+     */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * Gets the number of block payload bytes written so far, after compression.
+     *
+     * @return The stored byte count
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    private void writeBlock() throws IOException {
+        crc.reset();
+        crc.update(block, 0, length);
+
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished() && compressedLength < compressed.length) {
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        boolean deflated = deflater.finished() && compressedLength < length;
+
+        target.writeInt(length);
+        target.writeInt(deflated ? compressedLength : length);
+        target.writeInt((int) crc.getValue());
+        target.writeByte(deflated ? METHOD_DEFLATE : METHOD_STORED);
+        target.write(deflated ? compressed : block, 0, deflated ? compressedLength : length);
+
+        rawBytes += length;
+        storedBytes += deflated ? compressedLength : length;
+        length = 0;
+    }
+}
@@ -0,0 +1,95 @@
+package videogameCollection.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Bloom filter over string keys, stored with each LSM segment so lookups can
+ * skip segments that certainly do not hold a key.
+ */
+final class BloomFilter {
+    private final long[] bits;
+    private final int hashes;
+
+    /**
+     * Creates an empty filter sized for a number of keys.
+     *
+     * @param expectedKeys The expected number of keys
+     * @param bitsPerKey Bits per key; 10 gives roughly a 1% false positive rate
+     */
+    BloomFilter(int expectedKeys, int bitsPerKey) {
+        long bitCount = Math.max(64L, (long) expectedKeys * bitsPerKey);
+        this.bits = new long[(int) ((bitCount + 63) / 64)];
+        this.hashes = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+    }
+
+    private BloomFilter(long[] bits, int hashes) {
+        this.bits = bits;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key The key
+     */
+    void add(String key) {
+        long bitCount = (long) bits.length * 64;
+        int h1 = key.hashCode();
+        int h2 = secondHash(key);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether a key may have been added.
+     *
+     * @param key The key
+     * @return false if the key was certainly never added
+     */
+    boolean mightContain(String key) {
+        long bitCount = (long) bits.length * 64;
+        int h1 = key.hashCode();
+        int h2 = secondHash(key);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(hashes);
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter read(DataInput in) throws IOException {
+        int hashes = in.readInt();
+        long[] bits = new long[in.readInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.readLong();
+        }
+        return new BloomFilter(bits, hashes);
+    }
+
+    /**
+     * FNV-1a over the key's characters, forced odd so the probe sequence
+     * never collapses onto a single bit.
+     */
+    private static int secondHash(String key) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash | 1;
+    }
+}
@@ -0,0 +1,211 @@
+package videogameCollection.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import videogameCollection.StoredProfile;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * A catalog and profile being loaded on a background thread.
+ * <p>
+ * The profile's username and platform are available immediately; its games
+ * are added once the background loader has streamed the catalog in. Any
+ * game can be fetched before then with {@link #getGame}, which decodes just
+ * that record. Progress can be polled or observed with a listener.
+ */
+public class CatalogLoad implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(CatalogLoad.class.getName());
+
+    private final LazyCatalog catalog;
+    private final UserProfile profile;
+    private final ProfileSource profileSource;
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<UserProfile> done = new CompletableFuture<>();
+
+    /**
+     * Creates a load that has not started yet.
+     *
+     * @param catalog The catalog to stream, or null if there is none
+     * @param profile The profile to fill, or null if there is none
+     * @param profileSource Reads the stored profile once the catalog is loaded
+     */
+    CatalogLoad(LazyCatalog catalog, UserProfile profile, ProfileSource profileSource) {
+        this.catalog = catalog;
+        this.profile = profile;
+        this.profileSource = profileSource;
+    }
+
+    /**
+     * Starts the background loader thread.
+     */
+    void start() {
+        Thread loader = new Thread(this::load, "catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void load() {
+        try {
+            int total = getTotalCount();
+            int step = Math.max(1, total / 100);
+            for (int i = 0; i < total; i++) {
+                catalog.getAt(i);
+                if ((i + 1) % step == 0) {
+                    fireProgress();
+                }
+            }
+            if (profile != null) {
+                StoredProfile stored = profileSource.read();
+                if (stored != null) {
+                    stored.applyTo(profile, this::getGameOrNull);
+                }
+            }
+            fireProgress();
+            done.complete(profile);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Background catalog load failed", e);
+            done.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Gets the profile being loaded. Its games are added when loading completes.
+     *
+     * @return The profile, or null if no profile was saved
+     */
+    public UserProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Gets a game by catalog ID, decoding it now if the loader has not reached it.
+     *
+     * @param id The catalog ID
+     * @return The game, or null if the catalog has no such ID
+     * @throws IOException if the record cannot be read
+     */
+    public AbstractGame getGame(int id) throws IOException {
+        return catalog == null ? null : catalog.get(id);
+    }
+
+    private AbstractGame getGameOrNull(int id) {
+        try {
+            return getGame(id);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Gets the number of games decoded so far, whether by the loader or on demand.
+     *
+     * @return The loaded game count
+     */
+    public int getLoadedCount() {
+        return catalog == null ? 0 : catalog.getLoadedCount();
+    }
+
+    /**
+     * Gets the number of games in the catalog.
+     *
+     * @return The total game count
+     */
+    public int getTotalCount() {
+        return catalog == null ? 0 : catalog.size();
+    }
+
+    /**
+     * Checks whether loading has finished, successfully or not.
+     *
+     * @return true if loading has finished
+     */
+    public boolean isDone() {
+        return done.isDone();
+    }
+
+    /**
+     * Gets a future completed with the fully loaded profile (null if none was saved).
+     *
+     * @return The completion future
+     */
+    public CompletableFuture<UserProfile> whenLoaded() {
+        return done;
+    }
+
+    /**
+     * Waits for loading to finish.
+     *
+     * @return The fully loaded profile, or null if none was saved
+     * @throws IOException if loading failed
+     */
+    public UserProfile await() throws IOException {
+        try {
+            return done.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Background catalog load failed", cause);
+        }
+    }
+
+    /**
+     * Registers a listener called roughly every 1% of progress and once on completion.
+     *
+     * @param listener The listener
+     */
+    public void addProgressListener(ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Closes the catalog file. Games not yet decoded can no longer be fetched.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (catalog != null) {
+            catalog.close();
+        }
+    }
+
+    private void fireProgress() {
+        int loaded = getLoadedCount();
+        int total = getTotalCount();
+        for (ProgressListener listener : listeners) {
+            listener.onProgress(loaded, total);
+        }
+    }
+
+    /**
+     * Receives load progress.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * Called as loading progresses.
+         *
+         * @param loaded The number of games loaded
+         * @param total The number of games in the catalog
+         */
+        void onProgress(int loaded, int total);
+    }
+
+    /**
+     * Reads the stored form of the profile.
+     */
+    @FunctionalInterface
+    interface ProfileSource {
+        StoredProfile read() throws IOException;
+    }
+}
@@ -0,0 +1,173 @@
+package videogameCollection.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checkpoints an {@link LsmStore} in the background so that the journal
+ * replayed at startup stays small.
+ * <p>
+ * Every check interval a daemon thread looks at the store's journal and
+ * starts a checkpoint when the journal exceeds a size, holds more than a
+ * number of writes (the replay cost), or has held writes for longer than a
+ * maximum age. The size check matters for workloads that keep overwriting
+ * the same keys: those never fill the memtable, so they would otherwise
+ * grow the journal without bound. Checkpoints only block writers for the
+ * two short steps described in {@link LsmStore#checkpoint()}.
+ * <p>
+ * The one-argument constructor reads its limits from the system properties
+ * {@code vgc.checkpoint.interval} and {@code vgc.checkpoint.maxAge} (both
+ * in milliseconds), {@code vgc.checkpoint.journalBytes} and
+ * {@code vgc.checkpoint.journalEntries}, falling back to the defaults.
+ */
+public class CheckpointScheduler implements Closeable {
+    public static final long DEFAULT_CHECK_INTERVAL_MILLIS = 1000;
+    public static final long DEFAULT_MAX_JOURNAL_BYTES = 16L * 1024 * 1024;
+    public static final long DEFAULT_MAX_JOURNAL_ENTRIES = 100_000;
+    public static final long DEFAULT_MAX_AGE_MILLIS = 60_000;
+
+    private static final Logger LOGGER = Logger.getLogger(CheckpointScheduler.class.getName());
+
+    private final LsmStore store;
+    private final long maxJournalBytes;
+    private final long maxJournalEntries;
+    private final long maxAgeNanos;
+    private final ScheduledExecutorService executor;
+    private long journalSince;      // When the journal was last seen empty
+    private int triggered;
+    private int failures;
+
+    /**
+     * Starts checkpointing with limits from the system properties or the defaults.
+     *
+     * @param store The store to checkpoint
+     */
+    public CheckpointScheduler(LsmStore store) {
+        this(store,
+             Long.getLong("vgc.checkpoint.interval", DEFAULT_CHECK_INTERVAL_MILLIS),
+             Long.getLong("vgc.checkpoint.journalBytes", DEFAULT_MAX_JOURNAL_BYTES),
+             Long.getLong("vgc.checkpoint.journalEntries", DEFAULT_MAX_JOURNAL_ENTRIES),
+             Long.getLong("vgc.checkpoint.maxAge", DEFAULT_MAX_AGE_MILLIS));
+    }
+
+    /**
+     * Starts checkpointing.
+     *
+     * @param store The store to checkpoint
+     * @param checkIntervalMillis How often to look at the journal
+     * @param maxJournalBytes Journal size that triggers a checkpoint
+     * @param maxJournalEntries Journaled write count that triggers a checkpoint
+     * @param maxAgeMillis How long writes may stay only in the journal
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public CheckpointScheduler(LsmStore store, long checkIntervalMillis, long maxJournalBytes,
+                               long maxJournalEntries, long maxAgeMillis) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store cannot be null");
+        }
+        if (checkIntervalMillis <= 0 || maxJournalBytes <= 0 || maxJournalEntries <= 0 || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Checkpoint limits must be positive");
+        }
+        this.store = store;
+        this.maxJournalBytes = maxJournalBytes;
+        this.maxJournalEntries = maxJournalEntries;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.journalSince = System.nanoTime();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lsm-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runCheck, checkIntervalMillis, checkIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks the journal now and checkpoints if a limit is exceeded.
+     *
+     * @return true if a checkpoint was run
+     * @throws IOException if the checkpoint fails
+     */
+    public synchronized boolean checkNow() throws IOException {
+        long now = System.nanoTime();
+        long entries = store.getJournalEntries();
+        if (entries == 0) {
+            journalSince = now;
+            return false;
+        }
+        if (store.getJournalBytes() < maxJournalBytes && entries < maxJournalEntries
+                && now - journalSince < maxAgeNanos) {
+            return false;
+        }
+        triggered++;
+        store.checkpoint();
+        journalSince = now;
+        return true;
+    }
+
+    /**
+     * Gets the number of checkpoints this scheduler has started.
+     *
+     * @return The checkpoint count
+     */
+    public synchronized int getTriggeredCount() {
+        return triggered;
+    }
+
+    /**
+     * Gets the number of background checkpoints that failed.
+     *
+     * @return The failure count
+     */
+    public synchronized int getFailureCount() {
+        return failures;
+    }
+
+    /**
+     * Gets the size of the journal that would be replayed on reopening.
+     *
+     * @return The journal size in bytes
+     */
+    public long getJournalBytes() {
+        return store.getJournalBytes();
+    }
+
+    /**
+     * Gets the duration of the store's most recent checkpoint.
+     *
+     * @return The duration in milliseconds
+     */
+    public double getLastCheckpointMillis() {
+        return store.getLastCheckpointMillis();
+    }
+
+    /**
+     * Stops scheduling checkpoints and waits for a running one to finish.
+     * The store itself stays open.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runCheck() {
+        try {
+            checkNow();
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                failures++;
+            }
+            LOGGER.log(Level.WARNING, "Background checkpoint failed", e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package videogameCollection.storage;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Container file made of independently decodable chunks.
+ * <pre>
+ * header : int MAGIC | int VERSION
+ * chunk* : bytes
+ * table  : int count | (long offset | int length | int items) * count
+ * footer : long tableOffset | int MAGIC
+ * </pre>
+ * Because each chunk is self-contained and the table gives its position,
+ * chunks can be read and decoded on many threads at once and the results
+ * merged in chunk order.
+ */
+final class ChunkedFile {
+    private static final int MAGIC = 0x56474343; // "VGCC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int FOOTER_BYTES = 12;
+    private static final int TABLE_ENTRY_BYTES = 16;
+
+    private ChunkedFile() {
+    }
+
+    /**
+     * Decodes one chunk.
+     *
+     * @param <T> The decoded type
+     */
+    @FunctionalInterface
+    interface ChunkDecoder<T> {
+        /**
+         * Decodes a chunk.
+         *
+         * @param index The chunk's position in the file
+         * @param data The chunk bytes
+         * @return The decoded value
+         * @throws IOException if the chunk is corrupt
+         */
+        T decode(int index, byte[] data) throws IOException;
+    }
+
+    /**
+     * Reads and decodes every chunk of a file in parallel.
+     *
+     * @param file The file
+     * @param pool The pool to decode on
+     * @param decoder The chunk decoder
+     * @param <T> The decoded type
+     * @return The decoded chunks in file order
+     * @throws IOException if the file cannot be read or a chunk cannot be decoded
+     */
+    static <T> List<T> readAll(Path file, ForkJoinPool pool, ChunkDecoder<T> decoder) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) {
+                throw new IOException("Chunked file too short: " + file);
+            }
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            ByteBuffer footer = readFully(channel, size - FOOTER_BYTES, FOOTER_BYTES);
+            long tableOffset = footer.getLong();
+            if (header.getInt() != MAGIC || footer.getInt() != MAGIC) {
+                throw new IOException("Not a chunked file: " + file);
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported chunked file version: " + file);
+            }
+
+            ByteBuffer table = readFully(channel, tableOffset, (int) (size - FOOTER_BYTES - tableOffset));
+            int count = table.getInt();
+            long[] offsets = new long[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = table.getLong();
+                lengths[i] = table.getInt();
+                table.getInt(); // item count, used by tools that only need totals
+            }
+
+            Object[] results = new Object[count];
+            try {
+                pool.invoke(new DecodeTask<>(channel, offsets, lengths, decoder, results, 0, count));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            @SuppressWarnings("unchecked")
+            List<T> decoded = (List<T>) Arrays.asList(results);
+            return decoded;
+        }
+    }
+
+    /**
+     * Splits a range of chunks in half until single chunks remain, then reads
+     * and decodes each one. Positional channel reads are safe to share.
+     */
+    private static final class DecodeTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long[] offsets;
+        private final int[] lengths;
+        private final ChunkDecoder<T> decoder;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        DecodeTask(FileChannel channel, long[] offsets, int[] lengths, ChunkDecoder<T> decoder,
+                   Object[] results, int from, int to) {
+            this.channel = channel;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.decoder = decoder;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new DecodeTask<>(channel, offsets, lengths, decoder, results, from, mid),
+                        new DecodeTask<>(channel, offsets, lengths, decoder, results, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                try {
+                    results[i] = decoder.decode(i, readFully(channel, offsets[i], lengths[i]).array());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a chunked file to a temporary file and moves it into place on
+     * {@link #commit()}. Closing without committing discards the file.
+     */
+    static final class Writer implements Closeable {
+        private final Path file;
+        private final Path temp;
+        private final FileChannel channel;
+        private final List<long[]> table = new ArrayList<>();
+        private long position = HEADER_BYTES;
+        private boolean committed;
+
+        /**
+         * Starts writing a file.
+         *
+         * @param file The file to create or replace
+         * @throws IOException if the file cannot be created
+         */
+        Writer(Path file) throws IOException {
+            this.file = file;
+            this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeFully(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip());
+        }
+
+        /**
+         * Appends a chunk.
+         *
+         * @param data The chunk bytes
+         * @param items The number of records in the chunk
+         * @throws IOException if the chunk cannot be written
+         */
+        void writeChunk(byte[] data, int items) throws IOException {
+            table.add(new long[] { position, data.length, items });
+            writeFully(ByteBuffer.wrap(data));
+            position += data.length;
+        }
+
+        /**
+         * Writes the chunk table and atomically replaces the target file.
+         *
+         * @throws IOException if the file cannot be completed
+         */
+        void commit() throws IOException {
+            ByteBuffer tail = ByteBuffer.allocate(4 + table.size() * TABLE_ENTRY_BYTES + FOOTER_BYTES);
+            tail.putInt(table.size());
+            for (long[] entry : table) {
+                tail.putLong(entry[0]).putInt((int) entry[1]).putInt((int) entry[2]);
+            }
+            tail.putLong(position).putInt(MAGIC).flip();
+            writeFully(tail);
+            channel.force(true);
+            channel.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of chunked file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,238 @@
+package videogameCollection.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import videogameCollection.GamePlatform;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Saves the library and profile as {@link ChunkedFile}s so that loading can
+ * use every core.
+ * <p>
+ * Each chunk holds up to {@code chunkSize} games in its own serialization
+ * stream. The profile file starts with a small header chunk (username and
+ * platform) followed by chunks of owned games with their ratings and the
+ * reviews held in the profile; reviews in a review store stay there. On load all chunks of a file are decoded in parallel on a
+ * fork-join pool and merged in order.
+ */
+public class ChunkedStorageEngine implements StorageEngine {
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private static final String GAME_FILE = "games.chunks";
+    private static final String PROFILE_FILE = "profile.chunks";
+
+    private final Path directory;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine decoding on the common fork-join pool.
+     *
+     * @param directory The directory holding the chunked files
+     * @throws IOException if the directory cannot be created
+     */
+    public ChunkedStorageEngine(Path directory) throws IOException {
+        this(directory, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param directory The directory holding the chunked files
+     * @param chunkSize The number of games per chunk
+     * @param pool The pool to decode chunks on
+     * @throws IOException if the directory cannot be created
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    public ChunkedStorageEngine(Path directory, int chunkSize, ForkJoinPool pool) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public void saveGames(List<AbstractGame> games) throws IOException {
+        saveGames(games.iterator());
+    }
+
+    /**
+     * Writes each chunk as soon as it is full, so only one chunk of games is
+     * held at a time.
+     */
+    @Override
+    public void saveGames(Iterator<? extends AbstractGame> games) throws IOException {
+        try (ChunkedFile.Writer writer = new ChunkedFile.Writer(directory.resolve(GAME_FILE))) {
+            List<AbstractGame> chunk = new ArrayList<>(chunkSize);
+            while (games.hasNext()) {
+                chunk.add(games.next());
+                if (chunk.size() == chunkSize || !games.hasNext()) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                        out.writeInt(chunk.size());
+                        for (AbstractGame game : chunk) {
+                            out.writeObject(game);
+                        }
+                    }
+                    writer.writeChunk(bytes.toByteArray(), chunk.size());
+                    chunk.clear();
+                }
+            }
+            writer.commit();
+        }
+    }
+
+    @Override
+    public void saveProfile(UserProfile profile) throws IOException {
+        List<AbstractGame> owned = profile.getGamesOwned();
+        try (ChunkedFile.Writer writer = new ChunkedFile.Writer(directory.resolve(PROFILE_FILE))) {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(header)) {
+                out.writeUTF(profile.getUsername());
+                out.writeUTF(profile.getPreferredPlatform().name());
+            }
+            writer.writeChunk(header.toByteArray(), 0);
+
+            for (int start = 0; start < owned.size(); start += chunkSize) {
+                List<AbstractGame> chunk = owned.subList(start, Math.min(owned.size(), start + chunkSize));
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeInt(chunk.size());
+                    for (AbstractGame game : chunk) {
+                        out.writeObject(game);
+                        out.writeObject(profile.getGameRating(game));
+                        out.writeObject(profile.getInlineReview(game));
+                    }
+                }
+                writer.writeChunk(bytes.toByteArray(), chunk.size());
+            }
+            writer.commit();
+        }
+    }
+
+    @Override
+    public List<AbstractGame> loadGames() throws IOException {
+        Path file = directory.resolve(GAME_FILE);
+        List<AbstractGame> games = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return games;
+        }
+        for (List<AbstractGame> chunk : ChunkedFile.readAll(file, pool, ChunkedStorageEngine::decodeGames)) {
+            games.addAll(chunk);
+        }
+        return games;
+    }
+
+    @Override
+    public AbstractGame loadGame(int id) throws IOException {
+        for (AbstractGame game : loadGames()) {
+            if (game.getId() == id) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public UserProfile loadProfile() throws IOException {
+        Path file = directory.resolve(PROFILE_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        List<Object> chunks = ChunkedFile.readAll(file, pool, ChunkedStorageEngine::decodeProfileChunk);
+        UserProfile profile = (UserProfile) chunks.get(0);
+        for (int i = 1; i < chunks.size(); i++) {
+            ((OwnedGames) chunks.get(i)).addTo(profile);
+        }
+        return profile;
+    }
+
+    @Override
+    public UserProfile loadProfile(String username) throws IOException {
+        UserProfile profile = loadProfile();
+        return profile != null && profile.getUsername().equals(username) ? profile : null;
+    }
+
+    @Override
+    public void deleteAll() throws IOException {
+        Files.deleteIfExists(directory.resolve(GAME_FILE));
+        Files.deleteIfExists(directory.resolve(PROFILE_FILE));
+    }
+
+    private static List<AbstractGame> decodeGames(int index, byte[] data) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            int count = in.readInt();
+            List<AbstractGame> games = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                games.add((AbstractGame) in.readObject());
+            }
+            return games;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Corrupt game chunk " + index, e);
+        }
+    }
+
+    private static Object decodeProfileChunk(int index, byte[] data) throws IOException {
+        if (index == 0) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+                return new UserProfile(in.readUTF(), GamePlatform.valueOf(in.readUTF()));
+            }
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            int count = in.readInt();
+            OwnedGames owned = new OwnedGames(count);
+            for (int i = 0; i < count; i++) {
+                owned.games.add((AbstractGame) in.readObject());
+                owned.ratings.add((Integer) in.readObject());
+                owned.reviews.add((String) in.readObject());
+            }
+            return owned;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Corrupt profile chunk " + index, e);
+        }
+    }
+
+    /**
+     * One decoded chunk of a profile's owned games.
+     */
+    private static final class OwnedGames {
+        private final List<AbstractGame> games;
+        private final List<Integer> ratings;
+        private final List<String> reviews;
+
+        OwnedGames(int count) {
+            games = new ArrayList<>(count);
+            ratings = new ArrayList<>(count);
+            reviews = new ArrayList<>(count);
+        }
+
+        void addTo(UserProfile profile) {
+            for (int i = 0; i < games.size(); i++) {
+                AbstractGame game = games.get(i);
+                profile.addGame(game);
+                if (ratings.get(i) != null) {
+                    profile.rateGame(game, ratings.get(i));
+                }
+                if (reviews.get(i) != null) {
+                    profile.reviewGame(game, reviews.get(i));
+                }
+            }
+        }
+    }
+}
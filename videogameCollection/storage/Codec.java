@@ -0,0 +1,50 @@
+package videogameCollection.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Converts games and profiles to and from bytes with Java serialization,
+ * the same encoding the original save files use.
+ */
+final class Codec {
+
+    private Codec() {
+    }
+
+    /**
+     * Serializes an object.
+     *
+     * @param value The object
+     * @return The serialized bytes
+     * @throws IOException if the object cannot be serialized
+     */
+    static byte[] encode(Serializable value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes an object.
+     *
+     * @param bytes The serialized bytes
+     * @param type The expected type
+     * @param <T> The expected type
+     * @return The object
+     * @throws IOException if the bytes are corrupt or of the wrong type
+     */
+    static <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return type.cast(in.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Stored record is not a " + type.getSimpleName(), e);
+        }
+    }
+}
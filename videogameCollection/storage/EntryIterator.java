@@ -0,0 +1,37 @@
+package videogameCollection.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Cursor over key/value entries in ascending key order. Deleted keys are
+ * reported with {@link LsmStore#TOMBSTONE} as their value.
+ */
+interface EntryIterator extends Closeable {
+
+    /**
+     * Moves to the next entry.
+     *
+     * @return false if there are no more entries
+     * @throws IOException if the entries cannot be read
+     */
+    boolean next() throws IOException;
+
+    /**
+     * Gets the key of the current entry.
+     *
+     * @return The key
+     */
+    String key();
+
+    /**
+     * Gets the value of the current entry.
+     *
+     * @return The value, or {@link LsmStore#TOMBSTONE} for a deleted key
+     */
+    byte[] value();
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,70 @@
+package videogameCollection.storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Keeps saved data in memory, for tests and throwaway sessions.
+ * <p>
+ * Records are stored serialized, so loading returns fresh copies just as a
+ * disk-backed engine would and later changes to the saved objects are not
+ * visible until they are saved again.
+ */
+public class InMemoryStorageEngine implements StorageEngine {
+    private final Map<Integer, byte[]> games = new TreeMap<>();
+    private final Map<String, byte[]> profiles = new TreeMap<>();
+    private String currentUser;
+
+    @Override
+    public synchronized void saveGames(List<AbstractGame> gameList) throws IOException {
+        games.clear();
+        for (AbstractGame game : gameList) {
+            games.put(game.getId(), Codec.encode(game));
+        }
+    }
+
+    @Override
+    public synchronized void saveProfile(UserProfile profile) throws IOException {
+        profiles.put(profile.getUsername(), Codec.encode(profile));
+        currentUser = profile.getUsername();
+    }
+
+    @Override
+    public synchronized List<AbstractGame> loadGames() throws IOException {
+        List<AbstractGame> result = new ArrayList<>(games.size());
+        for (byte[] bytes : games.values()) {
+            result.add(Codec.decode(bytes, AbstractGame.class));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized AbstractGame loadGame(int id) throws IOException {
+        byte[] bytes = games.get(id);
+        return bytes == null ? null : Codec.decode(bytes, AbstractGame.class);
+    }
+
+    @Override
+    public synchronized UserProfile loadProfile() throws IOException {
+        return currentUser == null ? null : loadProfile(currentUser);
+    }
+
+    @Override
+    public synchronized UserProfile loadProfile(String username) throws IOException {
+        byte[] bytes = profiles.get(username);
+        return bytes == null ? null : Codec.decode(bytes, UserProfile.class);
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        games.clear();
+        profiles.clear();
+        currentUser = null;
+    }
+}
@@ -0,0 +1,36 @@
+package videogameCollection.storage;
+
+import java.io.IOException;
+import java.util.List;
+
+import videogameCollection.DirtySegments;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Implemented by storage engines that can save only the segments of the
+ * library and profile that changed since the last save.
+ * <p>
+ * The engine decides when the changes cannot be trusted, for example when
+ * nothing has been saved or loaded yet, and falls back to a full save.
+ */
+public interface IncrementalStorageEngine extends StorageEngine {
+
+    /**
+     * Saves the changed segments of the game library.
+     *
+     * @param games All games in the library
+     * @param changes The segments changed since the last save
+     * @throws IOException if the games cannot be written
+     */
+    void saveGames(List<AbstractGame> games, DirtySegments changes) throws IOException;
+
+    /**
+     * Saves the changed segments of a profile and makes it the current profile.
+     *
+     * @param profile The profile to save
+     * @param changes The segments changed since the last save
+     * @throws IOException if the profile cannot be written
+     */
+    void saveProfile(UserProfile profile, DirtySegments changes) throws IOException;
+}
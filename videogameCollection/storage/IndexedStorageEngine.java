@@ -0,0 +1,174 @@
+package videogameCollection.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import videogameCollection.GamePlatform;
+import videogameCollection.ProfileStore;
+import videogameCollection.StoredProfile;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Stores the catalog as an indexed {@link LazyCatalog} file and profiles in a
+ * {@link ProfileStore}, which refers to games by catalog ID.
+ * <p>
+ * The name and platform of the current user are kept in a tiny separate
+ * file, so {@link #startLazyLoad} can show who is logged in and hand back
+ * control before any game record has been read.
+ */
+public class IndexedStorageEngine implements StorageEngine, LazyLoadable {
+    private static final String CATALOG_FILE = "catalog.vgc";
+    private static final String CURRENT_USER_FILE = "current-user";
+    private static final String PROFILE_DIRECTORY = "profiles";
+
+    private final Path directory;
+    private final Path catalogFile;
+    private final ProfileStore profiles;
+    private LazyCatalog catalog;
+
+    /**
+     * Opens (and if necessary creates) an engine directory.
+     *
+     * @param directory The directory holding the catalog and profiles
+     * @throws IOException if the directory cannot be created
+     */
+    public IndexedStorageEngine(Path directory) throws IOException {
+        this.directory = directory;
+        this.catalogFile = directory.resolve(CATALOG_FILE);
+        this.profiles = new ProfileStore(directory.resolve(PROFILE_DIRECTORY));
+    }
+
+    @Override
+    public synchronized void saveGames(List<AbstractGame> games) throws IOException {
+        closeCatalog();
+        LazyCatalog.write(catalogFile, games);
+    }
+
+    /**
+     * Saves the profile by catalog ID, so its games must also be saved with
+     * {@link #saveGames}; {@code DataManager.saveData} does both.
+     */
+    @Override
+    public synchronized void saveProfile(UserProfile profile) throws IOException {
+        profiles.importProfile(profile);
+        Path temp = directory.resolve(CURRENT_USER_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+            out.writeUTF(profile.getUsername());
+            out.writeUTF(profile.getPreferredPlatform().name());
+        }
+        Files.move(temp, directory.resolve(CURRENT_USER_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public List<AbstractGame> loadGames() throws IOException {
+        List<AbstractGame> games = new ArrayList<>();
+        forEachGame(games::add);
+        return games;
+    }
+
+    @Override
+    public synchronized void forEachGame(Consumer<AbstractGame> action) throws IOException {
+        LazyCatalog current = openCatalog();
+        for (int i = 0; current != null && i < current.size(); i++) {
+            action.accept(current.read(i));
+        }
+    }
+
+    @Override
+    public synchronized AbstractGame loadGame(int id) throws IOException {
+        LazyCatalog current = openCatalog();
+        if (current == null) {
+            return null;
+        }
+        int position = current.indexOf(id);
+        return position < 0 ? null : current.read(position);
+    }
+
+    @Override
+    public synchronized UserProfile loadProfile() throws IOException {
+        String[] current = readCurrentUser();
+        return current == null ? null : loadProfile(current[0]);
+    }
+
+    @Override
+    public synchronized UserProfile loadProfile(String username) throws IOException {
+        StoredProfile stored = profiles.get(username);
+        if (stored == null) {
+            return null;
+        }
+        List<IOException> failures = new ArrayList<>();
+        UserProfile profile = stored.toUserProfile(id -> {
+            try {
+                return loadGame(id);
+            } catch (IOException e) {
+                failures.add(e);
+                return null;
+            }
+        });
+        if (!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+        return profile;
+    }
+
+    @Override
+    public synchronized CatalogLoad startLazyLoad(Consumer<AbstractGame> onGameLoaded) throws IOException {
+        LazyCatalog lazy = Files.exists(catalogFile) ? LazyCatalog.open(catalogFile) : null;
+        if (lazy != null) {
+            lazy.setLoadListener(onGameLoaded);
+        }
+        String[] current = readCurrentUser();
+        UserProfile profile = current == null ? null
+                : new UserProfile(current[0], GamePlatform.valueOf(current[1]));
+        CatalogLoad load = new CatalogLoad(lazy, profile, () -> current == null ? null : profiles.get(current[0]));
+        load.start();
+        return load;
+    }
+
+    @Override
+    public synchronized void deleteAll() throws IOException {
+        closeCatalog();
+        Files.deleteIfExists(catalogFile);
+        Files.deleteIfExists(directory.resolve(CURRENT_USER_FILE));
+        for (String username : profiles.listUsernames()) {
+            profiles.delete(username);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeCatalog();
+    }
+
+    private LazyCatalog openCatalog() throws IOException {
+        if (catalog == null && Files.exists(catalogFile)) {
+            catalog = LazyCatalog.open(catalogFile);
+        }
+        return catalog;
+    }
+
+    private void closeCatalog() throws IOException {
+        if (catalog != null) {
+            catalog.close();
+            catalog = null;
+        }
+    }
+
+    private String[] readCurrentUser() throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(directory.resolve(CURRENT_USER_FILE)))) {
+            return new String[] { in.readUTF(), in.readUTF() };
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package videogameCollection.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Game catalog file that can be opened without reading its records.
+ * <pre>
+ * header : int MAGIC | int VERSION | int count
+ * index  : (int id | long offset | int length) * count, sorted by id
+ * data   : serialized game records
+ * </pre>
+ * Opening the file only memory-maps the header and index, so it takes the
+ * same time however many games the catalog holds. Records are decoded on
+ * first access through {@link #get} or {@link #getAt} and then cached, so
+ * every caller sees the same game instance.
+ */
+public final class LazyCatalog implements Closeable {
+    private static final int MAGIC = 0x56474349; // "VGCI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int ENTRY_BYTES = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer index;
+    private final int count;
+    private final AtomicReferenceArray<AbstractGame> slots;
+    private final AtomicInteger loaded = new AtomicInteger();
+    private volatile Consumer<AbstractGame> loadListener;
+
+    private LazyCatalog(FileChannel channel, MappedByteBuffer index, int count) {
+        this.channel = channel;
+        this.index = index;
+        this.count = count;
+        this.slots = new AtomicReferenceArray<>(count);
+    }
+
+    /**
+     * Opens a catalog file.
+     *
+     * @param file The catalog file
+     * @return The opened catalog
+     * @throws IOException if the file is missing or not a catalog
+     */
+    public static LazyCatalog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a catalog file: " + file);
+            }
+            int count = header.getInt(8);
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    HEADER_BYTES + (long) count * ENTRY_BYTES);
+            return new LazyCatalog(channel, index, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes games to a catalog file, replacing it atomically.
+     *
+     * @param file The catalog file
+     * @param games The games; each must have a unique catalog ID
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, List<AbstractGame> games) throws IOException {
+        List<AbstractGame> sorted = new ArrayList<>(games);
+        sorted.sort(Comparator.comparingInt(AbstractGame::getId));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getId() <= 0 || (i > 0 && sorted.get(i).getId() == sorted.get(i - 1).getId())) {
+                throw new IllegalArgumentException("Every game needs a unique catalog ID");
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long dataStart = HEADER_BYTES + (long) sorted.size() * ENTRY_BYTES;
+        ByteBuffer header = ByteBuffer.allocate((int) dataStart);
+        header.putInt(MAGIC).putInt(VERSION).putInt(sorted.size());
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.position(dataStart);
+            OutputStream data = new BufferedOutputStream(Channels.newOutputStream(out), 64 * 1024);
+            long offset = dataStart;
+            for (AbstractGame game : sorted) {
+                byte[] record = Codec.encode(game);
+                data.write(record);
+                header.putInt(game.getId()).putLong(offset).putInt(record.length);
+                offset += record.length;
+            }
+            data.flush();
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header, header.position());
+            }
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sets an action run once for each record, by whichever thread decodes it first.
+     *
+     * @param listener The action, or null for none
+     */
+    public void setLoadListener(Consumer<AbstractGame> listener) {
+        this.loadListener = listener;
+    }
+
+    /**
+     * Gets the number of games in the catalog.
+     *
+     * @return The game count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the catalog ID stored at an index position.
+     *
+     * @param position The position (0 to size-1)
+     * @return The catalog ID
+     */
+    public int idAt(int position) {
+        return index.getInt(HEADER_BYTES + position * ENTRY_BYTES);
+    }
+
+    /**
+     * Finds the index position of a catalog ID.
+     *
+     * @param id The catalog ID
+     * @return The position, or -1 if the catalog has no such ID
+     */
+    public int indexOf(int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = idAt(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets a game by catalog ID, decoding it on first access.
+     *
+     * @param id The catalog ID
+     * @return The game, or null if the catalog has no such ID
+     * @throws IOException if the record cannot be read
+     */
+    public AbstractGame get(int id) throws IOException {
+        int position = indexOf(id);
+        return position < 0 ? null : getAt(position);
+    }
+
+    /**
+     * Gets the game at an index position, decoding it on first access.
+     *
+     * @param position The position (0 to size-1)
+     * @return The game
+     * @throws IOException if the record cannot be read
+     */
+    public AbstractGame getAt(int position) throws IOException {
+        AbstractGame game = slots.get(position);
+        if (game != null) {
+            return game;
+        }
+        game = read(position);
+        if (slots.compareAndSet(position, null, game)) {
+            loaded.incrementAndGet();
+            Consumer<AbstractGame> listener = loadListener;
+            if (listener != null) {
+                listener.accept(game);
+            }
+            return game;
+        }
+        return slots.get(position);
+    }
+
+    /**
+     * Decodes the record at an index position into a new game instance,
+     * bypassing the cache.
+     *
+     * @param position The position (0 to size-1)
+     * @return A freshly decoded game
+     * @throws IOException if the record cannot be read
+     */
+    public AbstractGame read(int position) throws IOException {
+        if (position < 0 || position >= count) {
+            throw new IndexOutOfBoundsException("Catalog position " + position + " of " + count);
+        }
+        int entry = HEADER_BYTES + position * ENTRY_BYTES;
+        ByteBuffer record = ByteBuffer.allocate(index.getInt(entry + 12));
+        readFully(channel, record, index.getLong(entry + 4));
+        return Codec.decode(record.array(), AbstractGame.class);
+    }
+
+    /**
+     * Gets the number of records decoded so far.
+     *
+     * @return The loaded record count
+     */
+    public int getLoadedCount() {
+        return loaded.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of catalog file");
+            }
+        }
+    }
+}
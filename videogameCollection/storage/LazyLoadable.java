@@ -0,0 +1,23 @@
+package videogameCollection.storage;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Implemented by storage engines that can start the application before the
+ * whole catalog has been read.
+ */
+public interface LazyLoadable {
+
+    /**
+     * Reads just enough to identify the saved profile and starts loading
+     * everything else in the background.
+     *
+     * @param onGameLoaded Called once for every game as it is decoded
+     * @return The running load
+     * @throws IOException if the saved data cannot be opened
+     */
+    CatalogLoad startLazyLoad(Consumer<AbstractGame> onGameLoaded) throws IOException;
+}
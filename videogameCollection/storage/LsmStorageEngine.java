@@ -0,0 +1,157 @@
+package videogameCollection.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Stores games and profiles as individual records in an {@link LsmStore}.
+ * <p>
+ * Games are keyed by catalog ID ({@code game:0000000042}) and profiles by
+ * username ({@code user:alice}), so a single game or profile can be read
+ * without loading the rest, and {@link #forEachGame} streams the library
+ * from disk instead of materializing it.
+ * <p>
+ * An engine opened on a directory runs a {@link CheckpointScheduler} so
+ * that the store's journal stays small between runs.
+ */
+public class LsmStorageEngine implements StorageEngine {
+    private static final String GAME_PREFIX = "game:";
+    private static final String USER_PREFIX = "user:";
+    private static final String CURRENT_USER_KEY = "meta:current-user";
+
+    private final LsmStore store;
+    private final CheckpointScheduler checkpoints;
+
+    /**
+     * Opens an engine over a store directory with default limits and
+     * starts checkpointing it in the background.
+     *
+     * @param directory The store directory
+     * @throws IOException if the store cannot be opened
+     */
+    public LsmStorageEngine(Path directory) throws IOException {
+        this.store = new LsmStore(directory);
+        this.checkpoints = new CheckpointScheduler(store);
+    }
+
+    /**
+     * Creates an engine over an already opened store. The caller decides
+     * whether to schedule checkpoints.
+     *
+     * @param store The store
+     */
+    public LsmStorageEngine(LsmStore store) {
+        this.store = store;
+        this.checkpoints = null;
+    }
+
+    /**
+     * Gets the background checkpoint scheduler.
+     *
+     * @return The scheduler, or null if the engine was created over an open store
+     */
+    public CheckpointScheduler getCheckpointScheduler() {
+        return checkpoints;
+    }
+
+    /**
+     * Gets the underlying key/value store.
+     *
+     * @return The store
+     */
+    public LsmStore getStore() {
+        return store;
+    }
+
+    @Override
+    public void saveGames(List<AbstractGame> games) throws IOException {
+        Set<String> live = new HashSet<>();
+        for (AbstractGame game : games) {
+            if (game.getId() == 0) {
+                throw new IllegalArgumentException("Game '" + game.getTitle() + "' has not been added to the library");
+            }
+            live.add(gameKey(game.getId()));
+        }
+        List<String> removed = new ArrayList<>();
+        store.scan(GAME_PREFIX, (key, value) -> {
+            if (!live.contains(key)) {
+                removed.add(key);
+            }
+        });
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        for (AbstractGame game : games) {
+            records.put(gameKey(game.getId()), Codec.encode(game));
+        }
+        store.writeBatch(records, removed);
+    }
+
+    @Override
+    public void saveProfile(UserProfile profile) throws IOException {
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        records.put(USER_PREFIX + profile.getUsername(), Codec.encode(profile));
+        records.put(CURRENT_USER_KEY, profile.getUsername().getBytes(StandardCharsets.UTF_8));
+        store.writeBatch(records, Collections.emptyList());
+    }
+
+    @Override
+    public List<AbstractGame> loadGames() throws IOException {
+        List<AbstractGame> games = new ArrayList<>();
+        forEachGame(games::add);
+        return games;
+    }
+
+    @Override
+    public void forEachGame(Consumer<AbstractGame> action) throws IOException {
+        store.scan(GAME_PREFIX, (key, value) -> action.accept(Codec.decode(value, AbstractGame.class)));
+    }
+
+    @Override
+    public AbstractGame loadGame(int id) throws IOException {
+        byte[] bytes = store.get(gameKey(id));
+        return bytes == null ? null : Codec.decode(bytes, AbstractGame.class);
+    }
+
+    @Override
+    public UserProfile loadProfile() throws IOException {
+        byte[] username = store.get(CURRENT_USER_KEY);
+        return username == null ? null : loadProfile(new String(username, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public UserProfile loadProfile(String username) throws IOException {
+        byte[] bytes = store.get(USER_PREFIX + username);
+        return bytes == null ? null : Codec.decode(bytes, UserProfile.class);
+    }
+
+    @Override
+    public void deleteAll() throws IOException {
+        store.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+        store.close();
+    }
+
+    /**
+     * Zero-padded so that keys sort in catalog ID order.
+     */
+    private static String gameKey(int id) {
+        return String.format("%s%010d", GAME_PREFIX, id);
+    }
+}
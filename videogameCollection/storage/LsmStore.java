@@ -0,0 +1,962 @@
+package videogameCollection.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded log-structured merge key/value store.
+ * <p>
+ * Writes go to a write-ahead journal and an in-memory sorted memtable. A
+ * checkpoint writes the memtable to a new immutable {@link Segment} file in
+ * four phases: the memtable is frozen and the journal switched to a new file
+ * (a brief lock), the segment is written while writes continue into the new
+ * memtable, the segment is published in the MANIFEST (a brief lock), and the
+ * journal files it covers are deleted. Checkpoints run when the memtable
+ * grows past a limit, on {@link #flush()}, or from a
+ * {@link CheckpointScheduler}. Lookups check the memtables and then segments
+ * from newest to oldest, using each segment's bloom filter to skip most of them.
+ * Once enough segments accumulate, a background thread merges them into one,
+ * discarding overwritten values and deletions. A MANIFEST file lists the live
+ * segments and the oldest journal file still needed, and is replaced
+ * atomically, so a crash at any point leaves either the old or the new set of
+ * segments plus journal files that replay what is missing.
+ * <p>
+ * Keys are strings and values are byte arrays. All methods are thread-safe.
+ */
+public class LsmStore implements Closeable {
+    /** Marker value for a deleted key. Compared by identity. */
+    static final byte[] TOMBSTONE = new byte[0];
+
+    public static final long DEFAULT_MEMTABLE_BYTES = 4L * 1024 * 1024;
+    public static final int DEFAULT_COMPACTION_TRIGGER = 4;
+
+    private static final Logger LOGGER = Logger.getLogger(LsmStore.class.getName());
+    private static final String MANIFEST = "MANIFEST";
+    private static final String LEGACY_LOG = "wal.log";
+    private static final int ENTRY_OVERHEAD = 48;
+
+    private final Path directory;
+    private final long memtableLimit;
+    private final int compactionTrigger;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object compactionLock = new Object();
+    private final Object checkpointLock = new Object();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactor;
+
+    private TreeMap<String, byte[]> memtable = new TreeMap<>();
+    private TreeMap<String, byte[]> frozen;   // Memtable being checkpointed, or null
+    private long memtableBytes;
+    private List<Segment> segments = new ArrayList<>();
+    private DataOutputStream log;
+    private long nextSegment = 1;
+    private long firstLog = 1;                // Oldest journal file not yet in a segment
+    private long currentLog;                  // Journal file being appended to
+    private long journalBytes;
+    private long journalEntries;
+    private long replayMillis;
+    private int compactions;
+    private int checkpoints;
+    private long lastCheckpointNanos;
+    private long totalCheckpointNanos;
+    private volatile Consumer<CheckpointPhase> checkpointObserver;
+    private boolean closed;
+
+    /**
+     * The phases of a checkpoint, in order.
+     */
+    public enum CheckpointPhase {
+        /** The memtable is frozen and new writes go to a new journal file. */
+        JOURNAL_ROTATED,
+        /** The frozen memtable has been written to a segment file. */
+        SEGMENT_WRITTEN,
+        /** The MANIFEST lists the new segment. */
+        MANIFEST_WRITTEN,
+        /** The journal files covered by the segment have been deleted. */
+        JOURNAL_TRUNCATED
+    }
+
+    /**
+     * Opens a store with default limits.
+     *
+     * @param directory The directory holding the store's files
+     * @throws IOException if the store cannot be opened
+     */
+    public LsmStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MEMTABLE_BYTES, DEFAULT_COMPACTION_TRIGGER);
+    }
+
+    /**
+     * Opens (and if necessary creates) a store, replaying any journaled writes
+     * that are not in a segment yet.
+     *
+     * @param directory The directory holding the store's files
+     * @param memtableLimit Approximate memtable size in bytes that triggers a checkpoint
+     * @param compactionTrigger Number of segments that triggers a background compaction
+     * @throws IOException if the store cannot be opened
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public LsmStore(Path directory, long memtableLimit, int compactionTrigger) throws IOException {
+        if (memtableLimit <= 0 || compactionTrigger < 2) {
+            throw new IllegalArgumentException("Memtable limit must be positive and compaction trigger at least 2");
+        }
+        this.directory = directory;
+        this.memtableLimit = memtableLimit;
+        this.compactionTrigger = compactionTrigger;
+        Files.createDirectories(directory);
+        loadManifest();
+        replayJournal();
+        this.log = openLog(currentLog);
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "lsm-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stores a value.
+     *
+     * @param key The key
+     * @param value The value
+     * @throws IOException if the write cannot be logged
+     */
+    public void put(String key, byte[] value) throws IOException {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null");
+        }
+        write(key, value);
+    }
+
+    /**
+     * Deletes a key. Deleting a missing key is allowed.
+     *
+     * @param key The key
+     * @throws IOException if the delete cannot be logged
+     */
+    public void delete(String key) throws IOException {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        write(key, TOMBSTONE);
+    }
+
+    /**
+     * Stores and deletes several keys with one log flush, which is much
+     * faster than individual calls when saving many records.
+     *
+     * @param puts The values to store
+     * @param deletes The keys to delete
+     * @throws IOException if the writes cannot be logged
+     */
+    public void writeBatch(Map<String, byte[]> puts, Collection<String> deletes) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (String key : deletes) {
+            entries.put(Objects.requireNonNull(key, "key"), TOMBSTONE);
+        }
+        for (Map.Entry<String, byte[]> entry : puts.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("Key and value cannot be null");
+            }
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        write(entries);
+    }
+
+    /**
+     * Looks up a key.
+     *
+     * @param key The key
+     * @return The value, or null if the key is absent or deleted
+     * @throws IOException if a segment cannot be read
+     */
+    public byte[] get(String key) throws IOException {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            byte[] value = memtable.get(key);
+            if (value == null && frozen != null) {
+                value = frozen.get(key);
+            }
+            for (int i = segments.size() - 1; value == null && i >= 0; i--) {
+                value = segments.get(i).get(key);
+            }
+            return value == TOMBSTONE ? null : value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits every live entry whose key starts with a prefix, in key order.
+     * Entries are streamed from the segment files, so the range need not fit
+     * in memory. The visitor must not modify this store.
+     *
+     * @param prefix The key prefix ("" for all keys)
+     * @param visitor The visitor
+     * @throws IOException if a segment cannot be read or the visitor fails
+     */
+    public void scan(String prefix, EntryVisitor visitor) throws IOException {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            List<EntryIterator> sources = new ArrayList<>();
+            sources.add(memtableIterator(memtable.tailMap(prefix, true)));
+            if (frozen != null) {
+                sources.add(memtableIterator(frozen.tailMap(prefix, true)));
+            }
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                sources.add(segments.get(i).iterator(prefix));
+            }
+            try (EntryIterator merged = new MergingIterator(sources, prefix, true)) {
+                while (merged.next()) {
+                    visitor.visit(merged.key(), merged.value());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the memtable to a new segment, even if it is below the size limit.
+     *
+     * @throws IOException if the segment cannot be written
+     */
+    public void flush() throws IOException {
+        checkpoint();
+    }
+
+    /**
+     * Checkpoints the memtable into a new segment and deletes the journal
+     * files it covers. Writes and lookups only wait for the two short steps
+     * that swap the memtable and publish the segment. Does nothing if no
+     * writes are journaled.
+     *
+     * @throws IOException if the segment or manifest cannot be written
+     */
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            long start = System.nanoTime();
+            TreeMap<String, byte[]> snapshot;
+            long coveredLogs;
+            long retiredBytes;
+            long retiredEntries;
+            Path output;
+            lock.writeLock().lock();
+            try {
+                ensureOpen();
+                if (memtable.isEmpty()) {
+                    return;
+                }
+                snapshot = memtable;
+                frozen = snapshot;
+                memtable = new TreeMap<>();
+                memtableBytes = 0;
+                retiredBytes = journalBytes;
+                retiredEntries = journalEntries;
+                log.close();
+                coveredLogs = ++currentLog;
+                log = openLog(currentLog);
+                output = directory.resolve(segmentName(nextSegment++));
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Segment segment;
+            try {
+                observe(CheckpointPhase.JOURNAL_ROTATED);
+                segment = Segment.write(output, memtableIterator(snapshot), snapshot.size());
+                observe(CheckpointPhase.SEGMENT_WRITTEN);
+            } catch (IOException | RuntimeException e) {
+                // The journal still holds the frozen writes; keep serving them
+                // from memory and leave any partial segment for open() to remove
+                lock.writeLock().lock();
+                try {
+                    snapshot.putAll(memtable);
+                    memtable = snapshot;
+                    frozen = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                List<Segment> live = new ArrayList<>(segments);
+                live.add(segment);
+                try {
+                    writeManifest(live, coveredLogs);
+                } catch (IOException | RuntimeException e) {
+                    // The manifest never named the segment, so drop it and
+                    // keep serving the frozen writes from memory
+                    discard(segment);
+                    snapshot.putAll(memtable);
+                    memtable = snapshot;
+                    frozen = null;
+                    throw e;
+                }
+                segments = live;
+                firstLog = coveredLogs;
+                frozen = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            observe(CheckpointPhase.MANIFEST_WRITTEN);
+
+            deleteJournalsBefore(coveredLogs);
+            long elapsed = System.nanoTime() - start;
+            lock.writeLock().lock();
+            try {
+                journalBytes -= retiredBytes;
+                journalEntries -= retiredEntries;
+                checkpoints++;
+                lastCheckpointNanos = elapsed;
+                totalCheckpointNanos += elapsed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            observe(CheckpointPhase.JOURNAL_TRUNCATED);
+            scheduleCompactionIfNeeded();
+        }
+    }
+
+    /**
+     * Merges all current segments into one, dropping overwritten values and
+     * deletions. Runs on the calling thread; writes and lookups continue
+     * while the merged segment is written.
+     *
+     * @throws IOException if the merged segment cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            List<Segment> inputs;
+            Path output;
+            lock.readLock().lock();
+            try {
+                ensureOpen();
+                inputs = new ArrayList<>(segments);
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (inputs.size() < 2) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                output = directory.resolve(segmentName(nextSegment++));
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // The inputs are the oldest segments, so nothing older can be
+            // hidden by a deletion and tombstones may be dropped
+            List<EntryIterator> sources = new ArrayList<>();
+            int expected = 0;
+            for (int i = inputs.size() - 1; i >= 0; i--) {
+                sources.add(inputs.get(i).iterator(""));
+                expected += inputs.get(i).getEntryCount();
+            }
+            Segment merged;
+            try (EntryIterator entries = new MergingIterator(sources, "", true)) {
+                merged = Segment.write(output, entries, expected);
+            }
+
+            lock.writeLock().lock();
+            try {
+                List<Segment> live = new ArrayList<>();
+                live.add(merged);
+                live.addAll(segments.subList(inputs.size(), segments.size()));
+                try {
+                    writeManifest(live, firstLog);
+                } catch (IOException | RuntimeException e) {
+                    // The inputs are still live; only the merged copy goes
+                    discard(merged);
+                    throw e;
+                }
+                segments = live;
+                for (Segment input : inputs) {
+                    input.close();
+                    Files.deleteIfExists(input.getPath());
+                }
+                compactions++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOGGER.fine("Compacted " + inputs.size() + " segments into " + output.getFileName());
+        }
+    }
+
+    /**
+     * Deletes every key and all segment files.
+     *
+     * @throws IOException if the files cannot be deleted
+     */
+    public void clear() throws IOException {
+        synchronized (compactionLock) {
+            synchronized (checkpointLock) {
+                lock.writeLock().lock();
+                try {
+                    ensureOpen();
+                    List<Segment> old = segments;
+                    segments = new ArrayList<>();
+                    log.close();
+                    firstLog = ++currentLog;
+                    log = openLog(currentLog);
+                    writeManifest(segments, firstLog);
+                    for (Segment segment : old) {
+                        segment.close();
+                        Files.deleteIfExists(segment.getPath());
+                    }
+                    deleteJournalsBefore(firstLog);
+                    memtable = new TreeMap<>();
+                    memtableBytes = 0;
+                    journalBytes = 0;
+                    journalEntries = 0;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of segment files.
+     *
+     * @return The segment count
+     */
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of compactions completed since the store was opened.
+     *
+     * @return The compaction count
+     */
+    public int getCompactionCount() {
+        lock.readLock().lock();
+        try {
+            return compactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the size of the journal files that would be replayed if the store
+     * were reopened now.
+     *
+     * @return The journal size in bytes
+     */
+    public long getJournalBytes() {
+        lock.readLock().lock();
+        try {
+            return journalBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of journaled writes that would be replayed if the
+     * store were reopened now, a measure of the replay cost.
+     *
+     * @return The journaled write count
+     */
+    public long getJournalEntries() {
+        lock.readLock().lock();
+        try {
+            return journalEntries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets how long replaying the journal took when the store was opened.
+     *
+     * @return The replay time in milliseconds
+     */
+    public long getReplayMillis() {
+        lock.readLock().lock();
+        try {
+            return replayMillis;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of checkpoints completed since the store was opened.
+     *
+     * @return The checkpoint count
+     */
+    public int getCheckpointCount() {
+        lock.readLock().lock();
+        try {
+            return checkpoints;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the duration of the most recent checkpoint.
+     *
+     * @return The duration in milliseconds, or 0 if none has completed
+     */
+    public double getLastCheckpointMillis() {
+        lock.readLock().lock();
+        try {
+            return lastCheckpointNanos / 1e6;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the total time spent in checkpoints since the store was opened.
+     *
+     * @return The total duration in milliseconds
+     */
+    public double getTotalCheckpointMillis() {
+        lock.readLock().lock();
+        try {
+            return totalCheckpointNanos / 1e6;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sets a callback run after each checkpoint phase completes, for
+     * monitoring and for testing recovery. An exception thrown by the
+     * callback aborts the checkpoint at that point.
+     *
+     * @param observer The callback, or null for none
+     */
+    public void setCheckpointObserver(Consumer<CheckpointPhase> observer) {
+        this.checkpointObserver = observer;
+    }
+
+    /**
+     * Checkpoints the memtable, waits for any running compaction and closes all files.
+     *
+     * @throws IOException if the final checkpoint fails
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (checkpointLock) {
+            lock.readLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            checkpoint();
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                log.close();
+                for (Segment segment : segments) {
+                    segment.close();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void write(String key, byte[] value) throws IOException {
+        write(Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Journals and applies a group of writes with a single journal flush. If
+     * the memtable is then over its limit, the calling thread checkpoints it.
+     */
+    private void write(Map<String, byte[]> entries) throws IOException {
+        boolean full;
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                String key = entry.getKey();
+                byte[] value = entry.getValue();
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                log.writeByte(value == TOMBSTONE ? 0 : 1);
+                log.writeInt(keyBytes.length);
+                log.write(keyBytes);
+                if (value != TOMBSTONE) {
+                    log.writeInt(value.length);
+                    log.write(value);
+                }
+                journalBytes += 5 + keyBytes.length + (value == TOMBSTONE ? 0 : 4 + value.length);
+                journalEntries++;
+
+                byte[] previous = memtable.put(key, value);
+                memtableBytes += value.length - (previous == null ? -ENTRY_OVERHEAD - keyBytes.length : previous.length);
+            }
+            log.flush();
+            full = memtableBytes >= memtableLimit;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (full) {
+            checkpoint();
+        }
+    }
+
+    private void observe(CheckpointPhase phase) {
+        Consumer<CheckpointPhase> observer = checkpointObserver;
+        if (observer != null) {
+            observer.accept(phase);
+        }
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        if (getSegmentCount() >= compactionTrigger && !compactor.isShutdown()
+                && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                compactionScheduled.set(false);
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Background compaction failed", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Durably replaces the manifest with one naming the given segments. The
+     * in-memory state is only updated by the caller once this returns.
+     */
+    private void writeManifest(List<Segment> live, long first) throws IOException {
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeLong(nextSegment);
+            out.writeInt(live.size());
+            for (Segment segment : live) {
+                out.writeUTF(segment.getPath().getFileName().toString());
+            }
+            out.writeLong(first);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(MANIFEST),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void discard(Segment segment) {
+        try {
+            segment.close();
+            Files.deleteIfExists(segment.getPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete unused segment " + segment.getPath(), e);
+        }
+    }
+
+    private void loadManifest() throws IOException {
+        Set<String> live = new HashSet<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(directory.resolve(MANIFEST)))) {
+            nextSegment = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                live.add(name);
+                segments.add(Segment.open(directory.resolve(name)));
+            }
+            try {
+                firstLog = in.readLong();
+            } catch (EOFException e) {
+                LOGGER.fine("Manifest in " + directory + " predates journal numbering");
+            }
+        } catch (NoSuchFileException e) {
+            LOGGER.fine("No manifest in " + directory + ", starting empty store");
+        }
+
+        // Remove segments left behind by an interrupted checkpoint or compaction
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "seg-*.sst")) {
+            for (Path file : files) {
+                if (!live.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the journal files not yet covered by a segment, oldest first,
+     * deletes older and empty ones and picks a fresh file for new writes. A store
+     * written before journals were numbered has a single wal.log, which is
+     * taken over as the first journal.
+     */
+    private void replayJournal() throws IOException {
+        long start = System.nanoTime();
+        Path legacy = directory.resolve(LEGACY_LOG);
+        if (Files.exists(legacy)) {
+            Files.move(legacy, directory.resolve(journalName(firstLog)), StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "wal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                numbers.add(Long.parseLong(name.substring(4, name.length() - 4)));
+            }
+        }
+        Collections.sort(numbers);
+        currentLog = firstLog;
+        int replayed = 0;
+        for (long number : numbers) {
+            Path file = directory.resolve(journalName(number));
+            if (number < firstLog) {
+                Files.delete(file);
+                continue;
+            }
+            currentLog = number + 1;
+            if (Files.size(file) == 0) {
+                Files.delete(file);
+                continue;
+            }
+            replayed += replayJournalFile(file);
+            journalBytes += Files.size(file);
+        }
+        journalEntries = replayed;
+        replayMillis = (System.nanoTime() - start) / 1_000_000;
+        if (replayed > 0) {
+            LOGGER.info("Replayed " + replayed + " journaled writes in " + replayMillis + " ms from " + directory);
+        }
+    }
+
+    private int replayJournalFile(Path path) throws IOException {
+        int replayed = 0;
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            while (true) {
+                int op = in.read();
+                if (op < 0) {
+                    break;
+                }
+                byte[] key = new byte[in.readInt()];
+                in.readFully(key);
+                byte[] value = TOMBSTONE;
+                if (op == 1) {
+                    value = new byte[in.readInt()];
+                    in.readFully(value);
+                }
+                byte[] previous = memtable.put(new String(key, StandardCharsets.UTF_8), value);
+                memtableBytes += value.length - (previous == null ? -ENTRY_OVERHEAD - key.length : previous.length);
+                replayed++;
+            }
+        } catch (EOFException e) {
+            LOGGER.warning("Ignoring truncated record at the end of " + path.getFileName());
+        }
+        return replayed;
+    }
+
+    private void deleteJournalsBefore(long number) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "wal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (Long.parseLong(name.substring(4, name.length() - 4)) < number) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            // Harmless: journals older than the manifest's first journal are deleted on open
+            LOGGER.log(Level.WARNING, "Could not delete old journal files in " + directory, e);
+        }
+    }
+
+    private DataOutputStream openLog(long number) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                directory.resolve(journalName(number)), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Store is closed");
+        }
+    }
+
+    private static String segmentName(long number) {
+        return String.format("seg-%08d.sst", number);
+    }
+
+    private static String journalName(long number) {
+        return String.format("wal-%08d.log", number);
+    }
+
+    private static EntryIterator memtableIterator(Map<String, byte[]> entries) {
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        return new EntryIterator() {
+            private Map.Entry<String, byte[]> current;
+
+            @Override
+            public boolean next() {
+                current = it.hasNext() ? it.next() : null;
+                return current != null;
+            }
+
+            @Override
+            public String key() {
+                return current.getKey();
+            }
+
+            @Override
+            public byte[] value() {
+                return current.getValue();
+            }
+        };
+    }
+
+    /**
+     * Receives entries from {@link #scan}.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        /**
+         * Visits one entry.
+         *
+         * @param key The key
+         * @param value The value
+         * @throws IOException if the visitor fails
+         */
+        void visit(String key, byte[] value) throws IOException;
+    }
+
+    /**
+     * Merges sorted sources into one sorted stream. When several sources hold
+     * the same key, the value from the earliest source in the list wins.
+     */
+    private static final class MergingIterator implements EntryIterator {
+        private final List<EntryIterator> sources;
+        private final String prefix;
+        private final boolean dropTombstones;
+        private final PriorityQueue<Integer> heads;
+        private boolean started;
+        private String key;
+        private byte[] value;
+
+        MergingIterator(List<EntryIterator> sources, String prefix, boolean dropTombstones) {
+            this.sources = sources;
+            this.prefix = prefix;
+            this.dropTombstones = dropTombstones;
+            this.heads = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+                int cmp = sources.get(a).key().compareTo(sources.get(b).key());
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            });
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (!started) {
+                started = true;
+                for (int i = 0; i < sources.size(); i++) {
+                    advance(i);
+                }
+            }
+            while (!heads.isEmpty()) {
+                int winner = heads.poll();
+                key = sources.get(winner).key();
+                value = sources.get(winner).value();
+                while (!heads.isEmpty() && sources.get(heads.peek()).key().equals(key)) {
+                    advance(heads.poll());
+                }
+                advance(winner);
+                if (!(dropTombstones && value == TOMBSTONE)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void advance(int source) throws IOException {
+            EntryIterator it = sources.get(source);
+            if (it.next() && it.key().startsWith(prefix)) {
+                heads.add(source);
+            }
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public byte[] value() {
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (EntryIterator source : sources) {
+                try {
+                    source.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package videogameCollection.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, sorted LSM segment file.
+ * <pre>
+ * entry*  : int keyLength | key (UTF-8) | int valueLength (-1 = deleted) | value
+ * index   : int count | (int keyLength | key | long offset)*   every INDEX_INTERVAL-th entry
+ * bloom   : see {@link BloomFilter}
+ * footer  : long indexOffset | long bloomOffset | int entryCount | int MAGIC
+ * </pre>
+ * The sparse index and bloom filter are kept in memory; entries are read
+ * from disk on demand, so a segment costs little heap however large it is.
+ */
+final class Segment implements Closeable {
+    private static final int MAGIC = 0x56474353; // "VGCS"
+    private static final int FOOTER_BYTES = 8 + 8 + 4 + 4;
+    private static final int INDEX_INTERVAL = 16;
+    private static final int BLOOM_BITS_PER_KEY = 10;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final String[] indexKeys;
+    private final long[] indexOffsets;
+    private final long dataEnd;
+    private final BloomFilter bloom;
+    private final int entryCount;
+
+    private Segment(Path path, FileChannel channel, String[] indexKeys, long[] indexOffsets,
+                    long dataEnd, BloomFilter bloom, int entryCount) {
+        this.path = path;
+        this.channel = channel;
+        this.indexKeys = indexKeys;
+        this.indexOffsets = indexOffsets;
+        this.dataEnd = dataEnd;
+        this.bloom = bloom;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Writes entries to a new segment file and opens it.
+     *
+     * @param path The file to create
+     * @param entries The entries in ascending key order
+     * @param expectedEntries An upper bound on the entry count, used to size the bloom filter
+     * @return The opened segment
+     * @throws IOException if the file cannot be written
+     */
+    static Segment write(Path path, EntryIterator entries, int expectedEntries) throws IOException {
+        BloomFilter bloom = new BloomFilter(expectedEntries, BLOOM_BITS_PER_KEY);
+        List<byte[]> indexKeys = new ArrayList<>();
+        List<Long> indexOffsets = new ArrayList<>();
+        long offset = 0;
+        int count = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE_NEW), 64 * 1024))) {
+            while (entries.next()) {
+                byte[] key = entries.key().getBytes(StandardCharsets.UTF_8);
+                byte[] value = entries.value();
+                if (count % INDEX_INTERVAL == 0) {
+                    indexKeys.add(key);
+                    indexOffsets.add(offset);
+                }
+                bloom.add(entries.key());
+                out.writeInt(key.length);
+                out.write(key);
+                if (value == LsmStore.TOMBSTONE) {
+                    out.writeInt(-1);
+                    offset += 8 + key.length;
+                } else {
+                    out.writeInt(value.length);
+                    out.write(value);
+                    offset += 8 + key.length + value.length;
+                }
+                count++;
+            }
+
+            long indexOffset = offset;
+            out.writeInt(indexKeys.size());
+            offset += 4;
+            for (int i = 0; i < indexKeys.size(); i++) {
+                out.writeInt(indexKeys.get(i).length);
+                out.write(indexKeys.get(i));
+                out.writeLong(indexOffsets.get(i));
+                offset += 12 + indexKeys.get(i).length;
+            }
+            long bloomOffset = offset;
+            bloom.write(out);
+            out.writeLong(indexOffset);
+            out.writeLong(bloomOffset);
+            out.writeInt(count);
+            out.writeInt(MAGIC);
+        }
+        try (FileChannel sync = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            sync.force(true);
+        }
+        return open(path);
+    }
+
+    /**
+     * Opens an existing segment file, loading its index and bloom filter.
+     *
+     * @param path The segment file
+     * @return The opened segment
+     * @throws IOException if the file is missing or corrupt
+     */
+    static Segment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < FOOTER_BYTES) {
+                throw new IOException("Segment file too short: " + path);
+            }
+            ByteBuffer footer = readFully(channel, size - FOOTER_BYTES, FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            long bloomOffset = footer.getLong();
+            int entryCount = footer.getInt();
+            if (footer.getInt() != MAGIC) {
+                throw new IOException("Not a segment file: " + path);
+            }
+
+            ByteBuffer meta = readFully(channel, indexOffset, (int) (size - FOOTER_BYTES - indexOffset));
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(meta));
+            int indexCount = in.readInt();
+            String[] keys = new String[indexCount];
+            long[] offsets = new long[indexCount];
+            for (int i = 0; i < indexCount; i++) {
+                keys[i] = readString(in);
+                offsets[i] = in.readLong();
+            }
+            meta.position((int) (bloomOffset - indexOffset));
+            BloomFilter bloom = BloomFilter.read(in);
+            return new Segment(path, channel, keys, offsets, indexOffset, bloom, entryCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up a key.
+     *
+     * @param key The key
+     * @return The value, {@link LsmStore#TOMBSTONE} if the key was deleted, or null if absent
+     * @throws IOException if the file cannot be read
+     */
+    byte[] get(String key) throws IOException {
+        if (!bloom.mightContain(key)) {
+            return null;
+        }
+        int block = floorBlock(key);
+        if (block < 0) {
+            return null;
+        }
+        long start = indexOffsets[block];
+        long end = block + 1 < indexOffsets.length ? indexOffsets[block + 1] : dataEnd;
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(
+                readFully(channel, start, (int) (end - start))));
+        for (int i = 0; i < INDEX_INTERVAL && in.available() > 0; i++) {
+            int cmp = readString(in).compareTo(key);
+            byte[] value = readValue(in);
+            if (cmp == 0) {
+                return value;
+            }
+            if (cmp > 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Iterates over entries with keys at or after a starting key.
+     *
+     * @param fromKey The first key of interest
+     * @return A cursor that must be closed
+     * @throws IOException if the file cannot be read
+     */
+    EntryIterator iterator(String fromKey) throws IOException {
+        int block = Math.max(0, floorBlock(fromKey));
+        long start = indexOffsets.length == 0 ? dataEnd : indexOffsets[block];
+        InputStream file = Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ).position(start));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(file, 64 * 1024));
+        return new EntryIterator() {
+            private long position = start;
+            private String key;
+            private byte[] value;
+
+            @Override
+            public boolean next() throws IOException {
+                while (position < dataEnd) {
+                    key = readString(in);
+                    value = readValue(in);
+                    position += 8 + key.getBytes(StandardCharsets.UTF_8).length
+                            + (value == LsmStore.TOMBSTONE ? 0 : value.length);
+                    if (key.compareTo(fromKey) >= 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public String key() {
+                return key;
+            }
+
+            @Override
+            public byte[] value() {
+                return value;
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        };
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getEntryCount() {
+        return entryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int floorBlock(String key) {
+        int index = Arrays.binarySearch(indexKeys, key);
+        return index >= 0 ? index : -(index + 1) - 1;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readValue(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return LsmStore.TOMBSTONE;
+        }
+        byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of segment file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Minimal stream view of a heap buffer, so blocks can be parsed with DataInputStream.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package videogameCollection.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import videogameCollection.DirtySegments;
+import videogameCollection.GamePlatform;
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Saves the library and profile as segments of {@link DirtySegments#SEGMENT_SIZE}
+ * game IDs, so that a save only rewrites the segments that changed.
+ * <p>
+ * Every segment is a Java serialization file that is never modified; a
+ * changed segment is written to a new file. A MANIFEST file names the live
+ * file of each segment along with the profile's username and platform, and
+ * is replaced atomically once the new segment files are on disk, so a crash
+ * leaves either the old or the new snapshot. Files the MANIFEST does not
+ * name are deleted when the engine is opened.
+ * <p>
+ * Changes are only trusted once the engine knows what is on disk: the
+ * library after it has been loaded or fully saved by this engine, and a
+ * profile after that same profile instance has been loaded or fully saved.
+ * Otherwise saves rewrite everything. Loaded games come back ordered by ID,
+ * and a profile's owned games too.
+ */
+public class SegmentedStorageEngine implements IncrementalStorageEngine {
+    private static final Logger LOGGER = Logger.getLogger(SegmentedStorageEngine.class.getName());
+    private static final String MANIFEST = "MANIFEST";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAGIC = 0x5647434D; // "VGCM"
+    private static final int VERSION = 1;
+
+    private final Path directory;
+    private TreeMap<Integer, String> gameSegments = new TreeMap<>();
+    private TreeMap<Integer, String> profileSegments = new TreeMap<>();
+    private String username;
+    private GamePlatform platform;
+    private long nextFile;
+    private boolean gamesInSync;
+    private UserProfile syncedProfile;
+    private long segmentsWritten;
+
+    /**
+     * Opens or creates a segmented snapshot.
+     *
+     * @param directory The directory holding the snapshot
+     * @throws IOException if the directory or its manifest cannot be read
+     */
+    public SegmentedStorageEngine(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        loadManifest();
+        deleteUnlistedFiles();
+    }
+
+    @Override
+    public void saveGames(List<AbstractGame> games) throws IOException {
+        saveGames(games, null);
+    }
+
+    @Override
+    public synchronized void saveGames(List<AbstractGame> games, DirtySegments changes) throws IOException {
+        boolean full = changes == null || changes.isAllDirty() || !gamesInSync;
+        Map<Integer, List<AbstractGame>> bySegment = new TreeMap<>();
+        for (AbstractGame game : games) {
+            int segment = DirtySegments.segmentOf(game.getId());
+            if (full || changes.isDirty(segment)) {
+                bySegment.computeIfAbsent(segment, s -> new ArrayList<>()).add(game);
+            }
+        }
+
+        TreeMap<Integer, String> updated = full ? new TreeMap<>() : new TreeMap<>(gameSegments);
+        if (!full) {
+            for (int segment : changes.getSegments()) {
+                updated.remove(segment);
+            }
+        }
+        List<String> written = new ArrayList<>();
+        try {
+            for (Map.Entry<Integer, List<AbstractGame>> entry : bySegment.entrySet()) {
+                String name = writeSegment("games", entry.getKey(), out -> {
+                    out.writeInt(entry.getValue().size());
+                    for (AbstractGame game : entry.getValue()) {
+                        out.writeObject(game);
+                    }
+                });
+                written.add(name);
+                updated.put(entry.getKey(), name);
+            }
+            writeManifest(updated, profileSegments, username, platform);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(written);
+            throw e;
+        }
+        Collection<String> obsolete = obsolete(gameSegments, updated);
+        gameSegments = updated;
+        gamesInSync = true;
+        deleteQuietly(obsolete);
+    }
+
+    @Override
+    public void saveProfile(UserProfile profile) throws IOException {
+        saveProfile(profile, null);
+    }
+
+    @Override
+    public synchronized void saveProfile(UserProfile profile, DirtySegments changes) throws IOException {
+        boolean full = changes == null || changes.isAllDirty() || profile != syncedProfile;
+        Map<Integer, List<AbstractGame>> bySegment = new TreeMap<>();
+        for (AbstractGame game : profile.getGamesOwned()) {
+            int segment = DirtySegments.segmentOf(game.getId());
+            if (full || changes.isDirty(segment)) {
+                bySegment.computeIfAbsent(segment, s -> new ArrayList<>()).add(game);
+            }
+        }
+
+        TreeMap<Integer, String> updated = full ? new TreeMap<>() : new TreeMap<>(profileSegments);
+        if (!full) {
+            for (int segment : changes.getSegments()) {
+                updated.remove(segment);
+            }
+        }
+        List<String> written = new ArrayList<>();
+        try {
+            for (Map.Entry<Integer, List<AbstractGame>> entry : bySegment.entrySet()) {
+                String name = writeSegment("profile", entry.getKey(), out -> {
+                    out.writeInt(entry.getValue().size());
+                    for (AbstractGame game : entry.getValue()) {
+                        out.writeObject(game);
+                        out.writeObject(profile.getGameRating(game));
+                        out.writeObject(profile.getInlineReview(game));
+                    }
+                });
+                written.add(name);
+                updated.put(entry.getKey(), name);
+            }
+            writeManifest(gameSegments, updated, profile.getUsername(), profile.getPreferredPlatform());
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(written);
+            throw e;
+        }
+        Collection<String> obsolete = obsolete(profileSegments, updated);
+        profileSegments = updated;
+        username = profile.getUsername();
+        platform = profile.getPreferredPlatform();
+        syncedProfile = profile;
+        deleteQuietly(obsolete);
+    }
+
+    @Override
+    public synchronized List<AbstractGame> loadGames() throws IOException {
+        List<AbstractGame> games = new ArrayList<>();
+        for (String name : gameSegments.values()) {
+            readSegment(name, in -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    games.add((AbstractGame) in.readObject());
+                }
+            });
+        }
+        gamesInSync = true;
+        return games;
+    }
+
+    @Override
+    public synchronized AbstractGame loadGame(int id) throws IOException {
+        String name = gameSegments.get(DirtySegments.segmentOf(id));
+        if (name == null) {
+            return null;
+        }
+        AbstractGame[] found = new AbstractGame[1];
+        readSegment(name, in -> {
+            int count = in.readInt();
+            for (int i = 0; i < count && found[0] == null; i++) {
+                AbstractGame game = (AbstractGame) in.readObject();
+                if (game.getId() == id) {
+                    found[0] = game;
+                }
+            }
+        });
+        return found[0];
+    }
+
+    @Override
+    public synchronized UserProfile loadProfile() throws IOException {
+        if (username == null) {
+            return null;
+        }
+        UserProfile profile = new UserProfile(username, platform);
+        for (String name : profileSegments.values()) {
+            readSegment(name, in -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    AbstractGame game = (AbstractGame) in.readObject();
+                    Integer rating = (Integer) in.readObject();
+                    String review = (String) in.readObject();
+                    profile.addGame(game);
+                    if (rating != null) {
+                        profile.rateGame(game, rating);
+                    }
+                    if (review != null) {
+                        profile.reviewGame(game, review);
+                    }
+                }
+            });
+        }
+        syncedProfile = profile;
+        return profile;
+    }
+
+    @Override
+    public UserProfile loadProfile(String username) throws IOException {
+        UserProfile profile = loadProfile();
+        return profile != null && profile.getUsername().equals(username) ? profile : null;
+    }
+
+    @Override
+    public synchronized void deleteAll() throws IOException {
+        Files.deleteIfExists(directory.resolve(MANIFEST));
+        deleteQuietly(gameSegments.values());
+        deleteQuietly(profileSegments.values());
+        gameSegments = new TreeMap<>();
+        profileSegments = new TreeMap<>();
+        username = null;
+        platform = null;
+        gamesInSync = false;
+        syncedProfile = null;
+    }
+
+    /**
+     * Gets the number of segment files written since the engine was opened.
+     *
+     * @return The segment write count
+     */
+    public synchronized long getSegmentsWritten() {
+        return segmentsWritten;
+    }
+
+    /**
+     * Gets the number of live game segments.
+     *
+     * @return The game segment count
+     */
+    public synchronized int getGameSegmentCount() {
+        return gameSegments.size();
+    }
+
+    /**
+     * Writes the body of a segment file.
+     */
+    @FunctionalInterface
+    private interface SegmentWriter {
+        void write(ObjectOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads the body of a segment file.
+     */
+    @FunctionalInterface
+    private interface SegmentReader {
+        void read(ObjectInputStream in) throws IOException, ClassNotFoundException;
+    }
+
+    private String writeSegment(String kind, int segment, SegmentWriter body) throws IOException {
+        String name = String.format("%s-%06d-%08d%s", kind, segment, nextFile++, SEGMENT_SUFFIX);
+        try (FileOutputStream file = new FileOutputStream(directory.resolve(name).toFile())) {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(file));
+            body.write(out);
+            out.flush();
+            file.getFD().sync();
+        }
+        segmentsWritten++;
+        return name;
+    }
+
+    private void readSegment(String name, SegmentReader body) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(directory.resolve(name))))) {
+            body.read(in);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Corrupt segment file " + name, e);
+        }
+    }
+
+    private void writeManifest(Map<Integer, String> games, Map<Integer, String> profile,
+                               String user, GamePlatform userPlatform) throws IOException {
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(nextFile);
+            out.writeBoolean(user != null);
+            if (user != null) {
+                out.writeUTF(user);
+                out.writeUTF(userPlatform.name());
+            }
+            writeSegmentTable(out, games);
+            writeSegmentTable(out, profile);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, directory.resolve(MANIFEST),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeSegmentTable(DataOutputStream out, Map<Integer, String> segments) throws IOException {
+        out.writeInt(segments.size());
+        for (Map.Entry<Integer, String> entry : segments.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    private void loadManifest() throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(directory.resolve(MANIFEST))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a segmented snapshot manifest in " + directory);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported segmented snapshot version: " + version);
+            }
+            nextFile = in.readLong();
+            if (in.readBoolean()) {
+                username = in.readUTF();
+                platform = GamePlatform.valueOf(in.readUTF());
+            }
+            gameSegments = readSegmentTable(in);
+            profileSegments = readSegmentTable(in);
+        } catch (NoSuchFileException e) {
+            LOGGER.fine("No manifest in " + directory + ", starting empty snapshot");
+        }
+    }
+
+    private static TreeMap<Integer, String> readSegmentTable(DataInputStream in) throws IOException {
+        TreeMap<Integer, String> segments = new TreeMap<>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            segments.put(in.readInt(), in.readUTF());
+        }
+        return segments;
+    }
+
+    /**
+     * Removes segment files left behind by a save that crashed before its
+     * manifest was written, or after it but before old files were deleted.
+     */
+    private void deleteUnlistedFiles() throws IOException {
+        Files.deleteIfExists(directory.resolve(MANIFEST + ".tmp"));
+        Set<String> listed = new HashSet<>(gameSegments.values());
+        listed.addAll(profileSegments.values());
+        List<String> unlisted = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!listed.contains(name)) {
+                    unlisted.add(name);
+                }
+            }
+        }
+        deleteQuietly(unlisted);
+    }
+
+    private static Collection<String> obsolete(Map<Integer, String> before, Map<Integer, String> after) {
+        Set<String> obsolete = new HashSet<>(before.values());
+        obsolete.removeAll(new HashSet<>(after.values()));
+        return obsolete;
+    }
+
+    private void deleteQuietly(Collection<String> names) {
+        for (String name : names) {
+            try {
+                Files.deleteIfExists(directory.resolve(name));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not delete segment file " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package videogameCollection.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * The original storage format: the whole game list and the current profile
+ * are each written to one Java serialization file.
+ * <p>
+ * With compression on, the same serialization stream is written through a
+ * {@link BlockCompressedOutputStream}. Loading detects the container from
+ * its header, so raw and compressed files can both be read either way.
+ */
+public class SerializationStorageEngine implements StorageEngine {
+    public static final String GAME_FILE = "gamedata.ser";
+    public static final String PROFILE_FILE = "profiledata.ser";
+
+    private final File gameFile;
+    private final File profileFile;
+    private final boolean compressed;
+
+    /**
+     * Creates an engine using the default files in the working directory.
+     */
+    public SerializationStorageEngine() {
+        this(new File(GAME_FILE), new File(PROFILE_FILE));
+    }
+
+    /**
+     * Creates an engine using the given files.
+     *
+     * @param gameFile The file holding the game list
+     * @param profileFile The file holding the profile
+     */
+    public SerializationStorageEngine(File gameFile, File profileFile) {
+        this(gameFile, profileFile, false);
+    }
+
+    /**
+     * Creates an engine using the given files.
+     *
+     * @param gameFile The file holding the game list
+     * @param profileFile The file holding the profile
+     * @param compressed Whether to write block-compressed files
+     */
+    public SerializationStorageEngine(File gameFile, File profileFile, boolean compressed) {
+        this.gameFile = gameFile;
+        this.profileFile = profileFile;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Checks whether this engine writes block-compressed files.
+     *
+     * @return true if saves are compressed
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    @Override
+    public void saveGames(List<AbstractGame> games) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(openOutput(gameFile))) {
+            oos.writeObject(games);
+        }
+    }
+
+    @Override
+    public void saveProfile(UserProfile profile) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(openOutput(profileFile))) {
+            oos.writeObject(profile);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<AbstractGame> loadGames() throws IOException {
+        if (!gameFile.exists()) {
+            return new ArrayList<>();
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(openInput(gameFile))) {
+            return (List<AbstractGame>) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Game file is not readable by this version", e);
+        }
+    }
+
+    @Override
+    public AbstractGame loadGame(int id) throws IOException {
+        for (AbstractGame game : loadGames()) {
+            if (game.getId() == id) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public UserProfile loadProfile() throws IOException {
+        if (!profileFile.exists()) {
+            return null;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(openInput(profileFile))) {
+            return (UserProfile) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Profile file is not readable by this version", e);
+        }
+    }
+
+    @Override
+    public UserProfile loadProfile(String username) throws IOException {
+        UserProfile profile = loadProfile();
+        return profile != null && profile.getUsername().equals(username) ? profile : null;
+    }
+
+    @Override
+    public void deleteAll() throws IOException {
+        if (gameFile.exists() && !gameFile.delete()) {
+            throw new IOException("Failed to delete game file");
+        }
+        if (profileFile.exists() && !profileFile.delete()) {
+            throw new IOException("Failed to delete profile file");
+        }
+    }
+
+    private OutputStream openOutput(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        return compressed ? new BlockCompressedOutputStream(out) : new BufferedOutputStream(out);
+    }
+
+    private static InputStream openInput(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        return BlockCompressedInputStream.isCompressed(in) ? new BlockCompressedInputStream(in) : in;
+    }
+}
@@ -0,0 +1,113 @@
+package videogameCollection.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import videogameCollection.UserProfile;
+import videogameCollection.game.AbstractGame;
+
+/**
+ * Persists the game library and user profiles.
+ * <p>
+ * {@link videogameCollection.DataManager} delegates to one engine at a time,
+ * so the storage format can be changed without touching the application.
+ * Games are addressed by catalog ID and profiles by username.
+ */
+public interface StorageEngine extends Closeable {
+
+    /**
+     * Saves the game library, replacing any previously saved library.
+     *
+     * @param games The games to save
+     * @throws IOException if the games cannot be written
+     */
+    void saveGames(List<AbstractGame> games) throws IOException;
+
+    /**
+     * Saves a game library produced while it is written, replacing any
+     * previously saved library, without requiring the whole library in
+     * memory at once. Engines that cannot stream collect the games and fall
+     * back to {@link #saveGames(List)}.
+     *
+     * @param games The games to save, in catalog order
+     * @throws IOException if the games cannot be written
+     */
+    default void saveGames(Iterator<? extends AbstractGame> games) throws IOException {
+        List<AbstractGame> list = new ArrayList<>();
+        games.forEachRemaining(list::add);
+        saveGames(list);
+    }
+
+    /**
+     * Saves a user profile and makes it the current profile.
+     *
+     * @param profile The profile to save
+     * @throws IOException if the profile cannot be written
+     */
+    void saveProfile(UserProfile profile) throws IOException;
+
+    /**
+     * Loads the saved game library.
+     *
+     * @return The games, or an empty list if none were saved
+     * @throws IOException if the games cannot be read
+     */
+    List<AbstractGame> loadGames() throws IOException;
+
+    /**
+     * Visits every saved game without requiring the whole library in memory
+     * at once. Engines that cannot stream fall back to {@link #loadGames()}.
+     *
+     * @param action The action to apply to each game
+     * @throws IOException if the games cannot be read
+     */
+    default void forEachGame(Consumer<AbstractGame> action) throws IOException {
+        loadGames().forEach(action);
+    }
+
+    /**
+     * Loads one game by catalog ID.
+     *
+     * @param id The catalog ID
+     * @return The game, or null if no such game was saved
+     * @throws IOException if the game cannot be read
+     */
+    AbstractGame loadGame(int id) throws IOException;
+
+    /**
+     * Loads the current profile, i.e. the one saved most recently.
+     *
+     * @return The profile, or null if none was saved
+     * @throws IOException if the profile cannot be read
+     */
+    UserProfile loadProfile() throws IOException;
+
+    /**
+     * Loads a profile by username.
+     *
+     * @param username The username
+     * @return The profile, or null if no such profile was saved
+     * @throws IOException if the profile cannot be read
+     */
+    UserProfile loadProfile(String username) throws IOException;
+
+    /**
+     * Deletes all saved games and profiles.
+     *
+     * @throws IOException if the data cannot be deleted
+     */
+    void deleteAll() throws IOException;
+
+    /**
+     * Releases any files or threads held by the engine.
+     *
+     * @throws IOException if the engine cannot be closed cleanly
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}